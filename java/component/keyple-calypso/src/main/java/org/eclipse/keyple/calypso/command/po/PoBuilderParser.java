@@ -12,16 +12,19 @@
 package org.eclipse.keyple.calypso.command.po;
 
 import org.eclipse.keyple.calypso.command.CalypsoBuilderParser;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
 
 /**
  * The PoBuilderParser class contains the builder of a {@link PoSendableInSession} command
  * <p>
- * A setter allows to associate the parser object.
+ * A setter allows to associate the parser object, or the response from which the parser is created
+ * on first request.
  */
 public class PoBuilderParser<T>
         implements CalypsoBuilderParser<AbstractPoCommandBuilder, AbstractPoResponseParser> {
     private final AbstractPoCommandBuilder poCommandBuilder;
     private AbstractPoResponseParser poResponseParser;
+    private ApduResponse apduResponse;
 
     public PoBuilderParser(AbstractPoCommandBuilder poCommandBuilder) {
         this.poCommandBuilder = poCommandBuilder;
@@ -31,11 +34,31 @@ public class PoBuilderParser<T>
         return poCommandBuilder;
     }
 
+    /**
+     * Gets the response parser, creating it from the response if it has not been done yet.
+     *
+     * @return the parser or null if no response has been received
+     */
     public AbstractPoResponseParser getResponseParser() {
+        if (poResponseParser == null && apduResponse != null) {
+            poResponseParser = (AbstractPoResponseParser) poCommandBuilder
+                    .createResponseParser(apduResponse);
+        }
         return poResponseParser;
     }
 
     public void setResponseParser(AbstractPoResponseParser poResponseParser) {
         this.poResponseParser = poResponseParser;
+        this.apduResponse = null;
+    }
+
+    /**
+     * Sets the response to the command, the parser is created only if it is requested
+     *
+     * @param apduResponse the response from the PO
+     */
+    public void setApduResponse(ApduResponse apduResponse) {
+        this.apduResponse = apduResponse;
+        this.poResponseParser = null;
     }
 }
@@ -56,17 +56,17 @@ public final class DecreaseCmdBuild extends AbstractPoCommandBuilder<DecreaseRes
             throw new IllegalArgumentException("Decrement value out of range!");
         }
 
-        // convert the integer value into a 3-byte buffer
-        byte[] decValueBuffer = new byte[3];
-        decValueBuffer[0] = (byte) ((decValue >> 16) & 0xFF);
-        decValueBuffer[1] = (byte) ((decValue >> 8) & 0xFF);
-        decValueBuffer[2] = (byte) (decValue & 0xFF);
-
         byte cla = poClass.getValue();
         byte p2 = (byte) (sfi * 8);
 
         /* this is a case4 command, we set Le = 0 */
-        this.request = setApduRequest(cla, command, counterNumber, p2, decValueBuffer, (byte) 0);
+        this.request = setApduRequest(cla, command, counterNumber, p2, 3, (byte) 0);
+
+        // convert the integer value into 3 bytes of the data field
+        byte[] apdu = this.request.getBytes();
+        apdu[APDU_DATA_OFFSET] = (byte) ((decValue >> 16) & 0xFF);
+        apdu[APDU_DATA_OFFSET + 1] = (byte) ((decValue >> 8) & 0xFF);
+        apdu[APDU_DATA_OFFSET + 2] = (byte) (decValue & 0xFF);
         if (extraInfo != null) {
             this.addSubName(extraInfo);
         }
@@ -55,17 +55,17 @@ public final class IncreaseCmdBuild extends AbstractPoCommandBuilder<IncreaseRes
             throw new IllegalArgumentException("Increment value out of range!");
         }
 
-        // convert the integer value into a 3-byte buffer
-        byte[] incValueBuffer = new byte[3];
-        incValueBuffer[0] = (byte) ((incValue >> 16) & 0xFF);
-        incValueBuffer[1] = (byte) ((incValue >> 8) & 0xFF);
-        incValueBuffer[2] = (byte) (incValue & 0xFF);
-
         byte p2 = (byte) (sfi * 8);
 
         /* this is a case4 command, we set Le = 0 */
-        this.request = setApduRequest(poClass.getValue(), command, counterNumber, p2,
-                incValueBuffer, (byte) 0x00);
+        this.request =
+                setApduRequest(poClass.getValue(), command, counterNumber, p2, 3, (byte) 0x00);
+
+        // convert the integer value into 3 bytes of the data field
+        byte[] apdu = this.request.getBytes();
+        apdu[APDU_DATA_OFFSET] = (byte) ((incValue >> 16) & 0xFF);
+        apdu[APDU_DATA_OFFSET + 1] = (byte) ((incValue >> 8) & 0xFF);
+        apdu[APDU_DATA_OFFSET + 2] = (byte) (incValue & 0xFF);
         if (extraInfo != null) {
             this.addSubName(extraInfo);
         }
@@ -42,12 +42,12 @@ public final class OpenSession32CmdBuild
          */
         byte le = 0;
 
-        byte[] dataIn = new byte[samChallenge.length + 1];
-        dataIn[0] = (byte) 0x00;
-        System.arraycopy(samChallenge, 0, dataIn, 1, samChallenge.length);
-
+        /* data: 00h followed by the SAM challenge, written directly in the APDU buffer */
         this.request = setApduRequest(PoClass.ISO.getValue(),
-                CalypsoPoCommands.getOpenSessionForRev(PoRevision.REV3_2), p1, p2, dataIn, le);
+                CalypsoPoCommands.getOpenSessionForRev(PoRevision.REV3_2), p1, p2,
+                samChallenge.length + 1, le);
+        System.arraycopy(samChallenge, 0, this.request.getBytes(), APDU_DATA_OFFSET + 1,
+                samChallenge.length);
         if (extraInfo != null) {
             this.addSubName(extraInfo);
         }
@@ -55,6 +55,16 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
     /** Number of the first record read */
     private byte recordNumber;
 
+    /* records location in the response buffer, set by the first access to the records */
+    private int recordCount = -1;
+    private int[] recordNumbers;
+    private int[] recordOffsets;
+    private int[] recordLengths;
+
+    /* maps built on the first request */
+    private SortedMap<Integer, byte[]> records;
+    private SortedMap<Integer, Integer> counters;
+
     /**
      * Instantiates a new ReadRecordsRespPars.
      * 
@@ -79,6 +89,65 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
                 || readDataStructure == ReadDataStructure.MULTIPLE_COUNTER;
     }
 
+    /**
+     * Locates the records in the response buffer (done once)
+     *
+     * @exception IllegalStateException if the file is a counter file
+     */
+    private void parseRecords() {
+        if (recordCount >= 0) {
+            return;
+        }
+        if (!response.isSuccessful()) {
+            /* no record, the failure is reported by isSuccessful() rather than by an exception */
+            recordCount = 0;
+            return;
+        }
+        if (isCounterFile()) {
+            throw new IllegalStateException("The file is a counter file.");
+        }
+        byte[] apdu = response.getBytes();
+        int dataLength = apdu.length - 2;
+        if (readDataStructure == ReadDataStructure.SINGLE_RECORD_DATA) {
+            recordNumbers = new int[] {recordNumber};
+            recordOffsets = new int[] {0};
+            recordLengths = new int[] {dataLength};
+            recordCount = 1;
+        } else {
+            /* MULTIPLE_RECORD_DATA: each record is preceded by its number and its length */
+            int maxCount = dataLength / 2;
+            recordNumbers = new int[maxCount];
+            recordOffsets = new int[maxCount];
+            recordLengths = new int[maxCount];
+            int count = 0;
+            int index = 0;
+            while (index + 2 <= dataLength) {
+                recordNumbers[count] = apdu[index++];
+                recordLengths[count] = Math.min(apdu[index++] & 0xFF, dataLength - index);
+                recordOffsets[count] = index;
+                index = index + recordLengths[count];
+                count++;
+            }
+            recordCount = count;
+        }
+    }
+
+    /**
+     * Gets the position of a record in the parsed records
+     *
+     * @param recordNumber the record number
+     * @return the position or -1 if the record is not present
+     */
+    private int getRecordPosition(int recordNumber) {
+        parseRecords();
+        for (int i = 0; i < recordCount; i++) {
+            if (recordNumbers[i] == recordNumber) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Parses the Apdu response as a data record (single or multiple), retrieves the records and
      * place it in an map.
@@ -86,36 +155,137 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
      * The map index follows the PO specification, i.e. starts at 1 for the first record.
      * <p>
      * An empty map is returned if no data is available.
+     * <p>
+     * The map is built on the first call and returned again by the following calls, it can't be
+     * modified.
      * 
      * @return a map of records
      * @exception IllegalStateException if the parser has not been initialized
      */
     public SortedMap<Integer, byte[]> getRecords() {
-        SortedMap<Integer, byte[]> records = new TreeMap<Integer, byte[]>();
-        if (!response.isSuccessful()) {
-            /* return an empty map */
-            // TODO should we raise an exception?
-            return records;
-        }
-        if (readDataStructure == ReadDataStructure.SINGLE_RECORD_DATA) {
-            records.put((int) recordNumber, response.getDataOut());
-        } else if (readDataStructure == ReadDataStructure.MULTIPLE_RECORD_DATA) {
-            byte[] apdu = response.getDataOut();
-            int apduLen = apdu.length;
-            int index = 0;
-            while (apduLen > 0) {
-                byte recordNb = apdu[index++];
-                byte len = apdu[index++];
-                records.put((int) recordNb, Arrays.copyOfRange(apdu, index, index + len));
-                index = index + len;
-                apduLen = apduLen - 2 - len;
+        if (records == null) {
+            parseRecords();
+            SortedMap<Integer, byte[]> recordMap = new TreeMap<Integer, byte[]>();
+            byte[] apdu = response.getBytes();
+            for (int i = 0; i < recordCount; i++) {
+                recordMap.put(recordNumbers[i], Arrays.copyOfRange(apdu, recordOffsets[i],
+                        recordOffsets[i] + recordLengths[i]));
             }
-        } else {
-            throw new IllegalStateException("The file is a counter file.");
+            records = Collections.unmodifiableSortedMap(recordMap);
         }
         return records;
     }
 
+    /**
+     * Indicates whether the provided record is present in the response
+     *
+     * @param recordNumber the record number (starting at 1)
+     * @return true if the record has been read
+     * @exception IllegalStateException if the file is a counter file
+     */
+    public boolean hasRecord(int recordNumber) {
+        return getRecordPosition(recordNumber) >= 0;
+    }
+
+    /**
+     * Gets the length of a record
+     *
+     * @param recordNumber the record number (starting at 1)
+     * @return the record length in bytes
+     * @exception IllegalArgumentException if the record is not present in the response
+     * @exception IllegalStateException if the file is a counter file
+     */
+    public int getRecordLength(int recordNumber) {
+        int position = getRecordPosition(recordNumber);
+        if (position < 0) {
+            throw new IllegalArgumentException("Record " + recordNumber + " not read.");
+        }
+        return recordLengths[position];
+    }
+
+    /**
+     * Copies the content of a record into the provided buffer, without intermediate allocation
+     *
+     * @param recordNumber the record number (starting at 1)
+     * @param destination the destination buffer
+     * @param destinationOffset the position of the first byte in the destination buffer
+     * @return the number of bytes copied (record length)
+     * @exception IllegalArgumentException if the record is not present in the response
+     * @exception IllegalStateException if the file is a counter file
+     */
+    public int copyRecord(int recordNumber, byte[] destination, int destinationOffset) {
+        int position = getRecordPosition(recordNumber);
+        if (position < 0) {
+            throw new IllegalArgumentException("Record " + recordNumber + " not read.");
+        }
+        System.arraycopy(response.getBytes(), recordOffsets[position], destination,
+                destinationOffset, recordLengths[position]);
+        return recordLengths[position];
+    }
+
+    /**
+     * Gets the content of a record
+     *
+     * @param recordNumber the record number (starting at 1)
+     * @return a copy of the record data
+     * @exception IllegalArgumentException if the record is not present in the response
+     * @exception IllegalStateException if the file is a counter file
+     */
+    public byte[] getRecord(int recordNumber) {
+        byte[] record = new byte[getRecordLength(recordNumber)];
+        copyRecord(recordNumber, record, 0);
+        return record;
+    }
+
+    /**
+     * Checks the data structure and the response status before reading counters
+     *
+     * @return false if the response is not successful
+     * @exception IllegalStateException if the file is a data file
+     */
+    private boolean checkCounters() {
+        if (!response.isSuccessful()) {
+            /* no counter, the failure is reported by isSuccessful() rather than by an exception */
+            return false;
+        }
+        if (!isCounterFile()) {
+            throw new IllegalStateException("The file is a data file.");
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of counters available in the response
+     *
+     * @return the number of counters (0 if the response is not successful)
+     * @exception IllegalStateException if the file is a data file
+     */
+    public int getCounterCount() {
+        if (!checkCounters()) {
+            return 0;
+        }
+        return (response.getBytes().length - 2) / 3;
+    }
+
+    /**
+     * Gets the value of a counter, read directly from the response
+     *
+     * @param counterNumber the counter number (starting at 1)
+     * @return the counter value (up to 2^24 -1)
+     * @exception IllegalArgumentException if the counter is not present in the response
+     * @exception IllegalStateException if the file is a data file
+     */
+    public int getCounter(int counterNumber) {
+        if (counterNumber < 1 || counterNumber > getCounterCount()) {
+            throw new IllegalArgumentException("Counter " + counterNumber + " not read.");
+        }
+        byte[] apdu = response.getBytes();
+        int index = (counterNumber - 1) * 3;
+        /* convert the 3-byte unsigned value of the counter into an integer */
+        return ((apdu[index] & 0xFF) << 16) + ((apdu[index + 1] & 0xFF) << 8)
+                + (apdu[index + 2] & 0xFF);
+    }
+
     /**
      * Parses the Apdu response as a counter record (single or multiple), retrieves the counters
      * values and place it in an map indexed with the counter number.
@@ -123,35 +293,21 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
      * The map index follows the PO specification, i.e. starts at 1 for the first counter.
      * <p>
      * An empty map is returned if no data is available.
+     * <p>
+     * The map is built on the first call and returned again by the following calls, it can't be
+     * modified.
      *
      * @return a map of counters
      * @exception IllegalStateException if the parser has not been initialized
      */
     public SortedMap<Integer, Integer> getCounters() {
-        SortedMap<Integer, Integer> counters = new TreeMap<Integer, Integer>();
-        if (!response.isSuccessful()) {
-            /* return an empty map */
-            // TODO should we raise an exception?
-            return counters;
-        }
-        if (readDataStructure == ReadDataStructure.SINGLE_COUNTER
-                || readDataStructure == ReadDataStructure.MULTIPLE_COUNTER) {
-            byte[] apdu = response.getDataOut();
-            int numberOfCounters = apdu.length / 3;
-            int index = 0;
-            int key = 1; /* the first counter is indexed 1 */
-            for (int i = 0; i < numberOfCounters; i++) {
-                /*
-                 * convert the 3-byte unsigned value of the counter into an integer (up to 2^24 -1)
-                 */
-                int counterValue = ((apdu[index + 0] & 0xFF) * 65536)
-                        + ((apdu[index + 1] & 0xFF) * 256) + (apdu[index + 2] & 0xFF);
-                counters.put(key++, counterValue);
-                index = index + 3;
+        if (counters == null) {
+            SortedMap<Integer, Integer> counterMap = new TreeMap<Integer, Integer>();
+            int numberOfCounters = getCounterCount();
+            for (int i = 1; i <= numberOfCounters; i++) {
+                counterMap.put(i, getCounter(i));
             }
-
-        } else {
-            throw new IllegalStateException("The file is a data file.");
+            counters = Collections.unmodifiableSortedMap(counterMap);
         }
         return counters;
     }
@@ -68,19 +68,17 @@ public class DigestInitCmdBuild extends AbstractSamCommandBuilder {
             p2 = workKeyRecordNumber;
         }
 
-        byte[] dataIn;
-
         if (p2 == (byte) 0xFF) {
-            dataIn = new byte[2 + digestData.length];
-            dataIn[0] = workKeyKif;
-            dataIn[1] = workKeyKVC;
-            System.arraycopy(digestData, 0, dataIn, 2, digestData.length);
+            /* data: KIF, KVC and digest data, written directly in the APDU buffer */
+            request = setApduRequest(cla, CalypsoSamCommands.DIGEST_INIT, p1, p2,
+                    2 + digestData.length, null);
+            byte[] apdu = request.getBytes();
+            apdu[APDU_DATA_OFFSET] = workKeyKif;
+            apdu[APDU_DATA_OFFSET + 1] = workKeyKVC;
+            System.arraycopy(digestData, 0, apdu, APDU_DATA_OFFSET + 2, digestData.length);
         } else {
-            dataIn = null;
+            request = setApduRequest(cla, CalypsoSamCommands.DIGEST_INIT, p1, p2, null, null);
         }
-        // CalypsoRequest calypsoRequest = new CalypsoRequest(cla, CalypsoCommands.SAM_DIGEST_INIT,
-        // p1, p2, dataIn);
-        request = setApduRequest(cla, CalypsoSamCommands.DIGEST_INIT, p1, p2, dataIn, null);
 
     }
 }
@@ -0,0 +1,302 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import org.eclipse.keyple.core.seproxy.ChannelControl;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non blocking front end of a {@link PoTransaction}.
+ * <p>
+ * Each process method schedules the corresponding {@link PoTransaction} step and returns
+ * immediately with a {@link Future}. The result is also provided to an optional
+ * {@link PoTransactionCallback}. The caller thread is thus never blocked by the exchanges with the
+ * PO and the SAM.
+ * <p>
+ * The steps of a transaction are processed one at a time and in the order in which they were
+ * scheduled, so that the digest and the anticipated responses are computed exactly as with the
+ * blocking API. A step is handed to the {@link Executor} only when the previous one is complete.
+ * <p>
+ * The PO commands must be prepared (with {@link #getPoTransaction()}) once the previous step has
+ * completed, typically in its callback, since a step being processed may clear the prepared
+ * commands.
+ * <p>
+ * Limitation: the steps are not chained on the completion of the exchanges. The reader API is
+ * synchronous ({@code ProxyReader.transmit}), so each step holds an executor thread for the whole
+ * duration of its exchanges with the PO and the SAM. This class moves the blocking from the caller
+ * to the executor, it does not reduce the number of threads needed: the executor must provide as
+ * many threads as exchanges expected to be in progress at the same time. When the SAM is shared
+ * through a {@link SamMultiplexer}, a step may also wait for a SAM held by a transaction whose next
+ * step is queued behind it: the executor must then provide more threads than the number of steps
+ * that can wait for the SAM simultaneously.
+ * <p>
+ * Scope: composing the exchanges without holding a thread would need an asynchronous transmit in
+ * the {@code ProxyReader} API. The remote SE transport is callback based internally, but
+ * {@code VirtualReaderImpl} only exposes the blocking transmit of the reader API, which this class
+ * is limited to.
+ * <p>
+ * If the executor rejects a step, this step and the steps scheduled behind it fail with the
+ * {@link RejectedExecutionException} as cause, and the transaction accepts new steps again.
+ */
+public final class AsyncPoTransaction {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncPoTransaction.class);
+
+    private final PoTransaction poTransaction;
+    private final Executor executor;
+
+    /* the steps waiting for the completion of the current one (guarded by itself) */
+    private final Queue<StepTask> pendingSteps = new LinkedList<StepTask>();
+    /* true when a step has been handed to the executor (guarded by pendingSteps) */
+    private boolean stepInProgress;
+
+    /**
+     * Constructor
+     *
+     * @param poTransaction the {@link PoTransaction} to drive
+     * @param executor the {@link Executor} processing the steps (may be shared between many
+     *        transactions)
+     */
+    public AsyncPoTransaction(PoTransaction poTransaction, Executor executor) {
+        if (poTransaction == null || executor == null) {
+            throw new IllegalArgumentException("PO transaction and executor are required.");
+        }
+        this.poTransaction = poTransaction;
+        this.executor = executor;
+    }
+
+    /**
+     * @return the underlying {@link PoTransaction}, used to prepare the PO commands and to get the
+     *         results of the transaction
+     */
+    public PoTransaction getPoTransaction() {
+        return poTransaction;
+    }
+
+    /**
+     * Non blocking variant of
+     * {@link PoTransaction#processOpening(PoTransaction.ModificationMode, PoTransaction.SessionAccessLevel, byte, byte)}
+     *
+     * @param modificationMode the modification mode: ATOMIC or MULTIPLE (see
+     *        {@link PoTransaction.ModificationMode})
+     * @param accessLevel access level of the session (personalization, load or debit).
+     * @param openingSfiToSelect SFI of the file to select (0 means no file to select)
+     * @param openingRecordNumberToRead number of the record to read
+     * @param callback the callback receiving the result (may be null)
+     * @return the future result of the step
+     */
+    public Future<Boolean> processOpening(final PoTransaction.ModificationMode modificationMode,
+            final PoTransaction.SessionAccessLevel accessLevel, final byte openingSfiToSelect,
+            final byte openingRecordNumberToRead, PoTransactionCallback callback) {
+        return schedule(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws KeypleReaderException {
+                return poTransaction.processOpening(modificationMode, accessLevel,
+                        openingSfiToSelect, openingRecordNumberToRead);
+            }
+        }, callback);
+    }
+
+    /**
+     * Non blocking variant of {@link PoTransaction#processPoCommands(ChannelControl)}
+     *
+     * @param channelControl indicates if the SE channel of the PO reader must be closed after the
+     *        last command
+     * @param callback the callback receiving the result (may be null)
+     * @return the future result of the step
+     */
+    public Future<Boolean> processPoCommands(final ChannelControl channelControl,
+            PoTransactionCallback callback) {
+        return schedule(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws KeypleReaderException {
+                return poTransaction.processPoCommands(channelControl);
+            }
+        }, callback);
+    }
+
+    /**
+     * Non blocking variant of {@link PoTransaction#processPoCommandsInSession()}
+     *
+     * @param callback the callback receiving the result (may be null)
+     * @return the future result of the step
+     */
+    public Future<Boolean> processPoCommandsInSession(PoTransactionCallback callback) {
+        return schedule(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws KeypleReaderException {
+                return poTransaction.processPoCommandsInSession();
+            }
+        }, callback);
+    }
+
+    /**
+     * Non blocking variant of {@link PoTransaction#processClosing(ChannelControl)}
+     *
+     * @param channelControl indicates if the SE channel of the PO reader must be closed after the
+     *        last command
+     * @param callback the callback receiving the result (may be null)
+     * @return the future result of the step
+     */
+    public Future<Boolean> processClosing(final ChannelControl channelControl,
+            PoTransactionCallback callback) {
+        return schedule(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws KeypleReaderException {
+                return poTransaction.processClosing(channelControl);
+            }
+        }, callback);
+    }
+
+    /**
+     * Non blocking variant of {@link PoTransaction#processCancel(ChannelControl)}
+     *
+     * @param channelControl indicates if the SE channel of the PO reader must be closed after the
+     *        abort session command
+     * @param callback the callback receiving the result (may be null)
+     * @return the future result of the step
+     */
+    public Future<Boolean> processCancel(final ChannelControl channelControl,
+            PoTransactionCallback callback) {
+        return schedule(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return poTransaction.processCancel(channelControl);
+            }
+        }, callback);
+    }
+
+    /**
+     * Queues a step behind the steps already scheduled for this transaction
+     */
+    private Future<Boolean> schedule(Callable<Boolean> step, PoTransactionCallback callback) {
+        StepTask stepTask = new StepTask(step, callback);
+        boolean startNow;
+        synchronized (pendingSteps) {
+            startNow = !stepInProgress;
+            if (startNow) {
+                stepInProgress = true;
+            } else {
+                pendingSteps.add(stepTask);
+            }
+        }
+        if (startNow) {
+            execute(stepTask);
+        }
+        return stepTask;
+    }
+
+    /**
+     * Hands the next pending step to the executor, if any
+     */
+    private void scheduleNext() {
+        StepTask nextStep;
+        synchronized (pendingSteps) {
+            nextStep = pendingSteps.poll();
+            if (nextStep == null) {
+                stepInProgress = false;
+                return;
+            }
+        }
+        execute(nextStep);
+    }
+
+    /**
+     * Hands a step to the executor, failing it and the pending steps if it is rejected
+     */
+    private void execute(StepTask stepTask) {
+        try {
+            executor.execute(stepTask);
+        } catch (RejectedExecutionException e) {
+            logger.error("PO transaction step rejected by the executor", e);
+            List<StepTask> failedSteps = new ArrayList<StepTask>();
+            failedSteps.add(stepTask);
+            synchronized (pendingSteps) {
+                failedSteps.addAll(pendingSteps);
+                pendingSteps.clear();
+                stepInProgress = false;
+            }
+            for (StepTask failedStep : failedSteps) {
+                failedStep.fail(e);
+            }
+        }
+    }
+
+    /**
+     * A step of the transaction notifying its callback and starting the next step once done
+     */
+    private final class StepTask extends FutureTask<Boolean> {
+        private final PoTransactionCallback callback;
+
+        StepTask(Callable<Boolean> step, PoTransactionCallback callback) {
+            super(step);
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                scheduleNext();
+            }
+        }
+
+        /**
+         * Completes the step with an exception, without running it
+         */
+        void fail(Throwable cause) {
+            setException(cause);
+        }
+
+        @Override
+        protected void done() {
+            if (callback != null && !isCancelled()) {
+                notifyCallback();
+            }
+        }
+
+        private void notifyCallback() {
+            Boolean result = null;
+            KeypleReaderException exception = null;
+            try {
+                result = get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // set interrupt flag
+                return;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof KeypleReaderException) {
+                    exception = (KeypleReaderException) e.getCause();
+                } else {
+                    exception = new KeypleReaderException("PO transaction step failed.",
+                            e.getCause());
+                }
+            }
+            try {
+                callback.get(result, exception);
+            } catch (RuntimeException e) {
+                logger.error("PO transaction callback failed", e);
+            }
+        }
+    }
+}
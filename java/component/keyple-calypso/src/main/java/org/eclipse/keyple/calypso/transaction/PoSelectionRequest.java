@@ -46,6 +46,9 @@ public final class PoSelectionRequest extends AbstractSeSelectionRequest {
 
     private final PoClass poClass;
 
+    /* the parsers already created for the last SeResponse (guarded by this) */
+    private ParsedSeResponse parsedSeResponse;
+
     /**
      * Constructor.
      * 
@@ -244,6 +247,11 @@ public final class PoSelectionRequest extends AbstractSeSelectionRequest {
 
     /**
      * Return the parser corresponding to the command whose index is provided.
+     * <p>
+     * The parser is created on the first call and returned again by the following calls made with
+     * the same SeResponse. Only the parsers of the last SeResponse are kept: when the request is
+     * shared between readers, a parser may be created again, but the parsers of a response are
+     * never returned for another one.
      * 
      * @param seResponse the received SeResponse containing the commands raw responses
      * @param commandIndex the command index
@@ -259,9 +267,31 @@ public final class PoSelectionRequest extends AbstractSeSelectionRequest {
             throw new IllegalArgumentException(
                     "The number of responses and commands doesn't match.");
         }
+        synchronized (this) {
+            /* each parser is created once per response */
+            if (parsedSeResponse == null || parsedSeResponse.seResponse != seResponse) {
+                parsedSeResponse = new ParsedSeResponse(seResponse, parsingClassList.size());
+            }
+            AbstractApduResponseParser[] commandParsers = parsedSeResponse.commandParsers;
+            if (commandParsers[commandIndex] == null) {
+                commandParsers[commandIndex] = createCommandParser(seResponse, commandIndex);
+            }
+            return commandParsers[commandIndex];
+        }
+    }
+
+    /**
+     * Create the parser corresponding to the command whose index is provided.
+     *
+     * @param seResponse the received SeResponse containing the commands raw responses
+     * @param commandIndex the command index
+     * @return a parser of the type matching the command
+     */
+    private AbstractApduResponseParser createCommandParser(SeResponse seResponse,
+            int commandIndex) {
+        AbstractApduResponseParser parser;
         Class<? extends AbstractApduResponseParser> parsingClass =
                 parsingClassList.get(commandIndex);
-        AbstractApduResponseParser parser;
         if (parsingClass == ReadRecordsRespPars.class) {
             parser = new ReadRecordsRespPars(seResponse.getApduResponses().get(commandIndex),
                     readRecordDataStructureMap.get(commandIndex),
@@ -274,6 +304,19 @@ public final class PoSelectionRequest extends AbstractSeSelectionRequest {
         return parser;
     }
 
+    /**
+     * The parsers created for a SeResponse, by command index
+     */
+    private static final class ParsedSeResponse {
+        private final SeResponse seResponse;
+        private final AbstractApduResponseParser[] commandParsers;
+
+        ParsedSeResponse(SeResponse seResponse, int commandCount) {
+            this.seResponse = seResponse;
+            this.commandParsers = new AbstractApduResponseParser[commandCount];
+        }
+    }
+
     /**
      * Create a CalypsoPo object containing the selection data received from the plugin
      * 
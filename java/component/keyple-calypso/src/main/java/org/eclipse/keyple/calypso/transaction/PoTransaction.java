@@ -101,7 +101,8 @@ public final class PoTransaction {
     /** The data read at opening */
     private byte[] openRecordDataRead;
     /** The list to contain the prepared commands and their parsers */
-    private final List<PoBuilderParser> poBuilderParserList = new ArrayList<PoBuilderParser>();
+    private final List<PoBuilderParser<?>> poBuilderParserList =
+            new ArrayList<PoBuilderParser<?>>();
     /** The current secure session modification mode: ATOMIC or MULTIPLE */
     private ModificationMode currentModificationMode;
     /** The current secure session access level: PERSO, RELOAD, DEBIT */
@@ -114,6 +115,14 @@ public final class PoTransaction {
     private boolean preparedCommandsProcessed;
     private int preparedCommandIndex;
 
+    /** The multiplexer through which the SAM is shared (null if the SAM is dedicated) */
+    private SamMultiplexer samMultiplexer;
+    /** The digest computation of the current secure session */
+    private final DigestProcessor digestProcessor = new DigestProcessor();
+    /** The anticipated responses computation */
+    private final AnticipatedResponseBuilder anticipatedResponseBuilder =
+            new AnticipatedResponseBuilder();
+
     /**
      * PoTransaction with PO and SAM readers.
      * <ul>
@@ -136,6 +145,27 @@ public final class PoTransaction {
         this.securitySettings = securitySettings;
     }
 
+    /**
+     * PoTransaction with PO reader and a SAM shared with other transactions.
+     * <ul>
+     * <li>Logical channels with PO &amp; SAM could already be established or not.</li>
+     * <li>The SAM is obtained from the {@link SamMultiplexer} for each secure session, from its
+     * opening to its closing or cancellation.</li>
+     * </ul>
+     *
+     * @param poResource the PO resource (combination of {@link SeReader} and {@link CalypsoPo})
+     * @param samMultiplexer the {@link SamMultiplexer} sharing the SAM resource
+     * @param securitySettings a list of security settings ({@link SecuritySettings}) used in the
+     *        session (such as key identification)
+     */
+    public PoTransaction(PoResource poResource, SamMultiplexer samMultiplexer,
+            SecuritySettings securitySettings) {
+
+        this(poResource, samMultiplexer.getSamResource(), securitySettings);
+
+        this.samMultiplexer = samMultiplexer;
+    }
+
     /**
      * PoTransaction with PO reader and without SAM reader.
      * <ul>
@@ -204,8 +234,27 @@ public final class PoTransaction {
      * @throws KeypleReaderException the IO reader exception
      */
     private SeResponse processAtomicOpening(SessionAccessLevel accessLevel, byte openingSfiToSelect,
-            byte openingRecordNumberToRead, List<PoBuilderParser> poBuilderParsers)
+            byte openingRecordNumberToRead, List<PoBuilderParser<?>> poBuilderParsers)
             throws KeypleReaderException {
+        /* a failed opening must not keep a shared SAM */
+        try {
+            return processAtomicOpeningWithSam(accessLevel, openingSfiToSelect,
+                    openingRecordNumberToRead, poBuilderParsers);
+        } catch (KeypleReaderException e) {
+            releaseSam();
+            throw e;
+        } catch (RuntimeException e) {
+            releaseSam();
+            throw e;
+        }
+    }
+
+    /**
+     * Performs the SAM and PO exchanges of {@link #processAtomicOpening}.
+     */
+    private SeResponse processAtomicOpeningWithSam(SessionAccessLevel accessLevel,
+            byte openingSfiToSelect, byte openingRecordNumberToRead,
+            List<PoBuilderParser<?>> poBuilderParsers) throws KeypleReaderException {
 
         /*
          * counts 'select diversifier' and 'get challenge' commands. At least get challenge is
@@ -221,8 +270,11 @@ public final class PoTransaction {
                     ByteArrayUtil.toHex(poCalypsoInstanceAid),
                     ByteArrayUtil.toHex(poCalypsoInstanceSerial));
         }
+        /* get the SAM if it is shared, it is kept until the closing or the cancellation */
+        acquireSam();
+
         /* diversify only if this has not already been done. */
-        if (!isDiversificationDone) {
+        if (!isSamDiversified()) {
             /* Build the SAM Select Diversifier command to provide the SAM with the PO S/N */
             AbstractApduCommandBuilder selectDiversifier =
                     new SelectDiversifierCmdBuild(this.samRevision, poCalypsoInstanceSerial);
@@ -233,7 +285,7 @@ public final class PoTransaction {
             numberOfSamCmd++;
 
             /* change the diversification status */
-            isDiversificationDone = true;
+            setSamDiversified();
         }
         /* Build the SAM Get Challenge command */
         byte challengeLength = poRevision.equals(PoRevision.REV3_2) ? CHALLENGE_LENGTH_REV32
@@ -252,7 +304,7 @@ public final class PoTransaction {
         /*
          * Transmit the SeRequest to the SAM and get back the SeResponse (list of ApduResponse)
          */
-        SeResponse samSeResponse = samReader.transmit(samSeRequest);
+        SeResponse samSeResponse = transmitToSam(samSeRequest);
 
         if (samSeResponse == null) {
             throw new KeypleCalypsoSecureSessionException("Null response received",
@@ -339,7 +391,7 @@ public final class PoTransaction {
         }
 
         /* Track Read Records for later use to build anticipated responses. */
-        AnticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
+        anticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
                 poApduResponseList, true);
 
         /* Parse the response to Open Secure Session (the first item of poApduResponseList) */
@@ -395,7 +447,7 @@ public final class PoTransaction {
          * Update) until the session closing. AT this moment, all SAM Apdu will be processed at
          * once.
          */
-        DigestProcessor.initialize(poRevision, samRevision, false, false,
+        digestProcessor.initialize(poRevision, samRevision, false, false,
                 poRevision.equals(PoRevision.REV3_2),
                 securitySettings
                         .getKeyInfo(SecuritySettings.DefaultKeyInfo.SAM_DEFAULT_KEY_RECORD_NUMBER),
@@ -412,7 +464,7 @@ public final class PoTransaction {
                 /*
                  * Add requests and responses to the DigestProcessor
                  */
-                DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
                         poApduResponseList.get(i));
             }
         }
@@ -461,7 +513,7 @@ public final class PoTransaction {
      *
      * @throws KeypleReaderException IO Reader exception
      */
-    private SeResponse processAtomicPoCommands(List<PoBuilderParser> poBuilderParsers,
+    private SeResponse processAtomicPoCommands(List<PoBuilderParser<?>> poBuilderParsers,
             ChannelControl channelControl) throws KeypleReaderException {
 
         // Get PO ApduRequest List from PoSendableInSession List
@@ -511,7 +563,7 @@ public final class PoTransaction {
         }
 
         /* Track Read Records for later use to build anticipated responses. */
-        AnticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
+        anticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
                 poApduResponseList, false);
 
         /*
@@ -523,7 +575,7 @@ public final class PoTransaction {
                 /*
                  * Add requests and responses to the DigestProcessor
                  */
-                DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
                         poApduResponseList.get(i));
             }
         }
@@ -629,7 +681,23 @@ public final class PoTransaction {
      *         communication mode.</li>
      *         </ul>
      */
-    private SeResponse processAtomicClosing(List<PoBuilderParser> poModificationCommands,
+    private SeResponse processAtomicClosing(List<PoBuilderParser<?>> poModificationCommands,
+            List<ApduResponse> poAnticipatedResponses, TransmissionMode transmissionMode,
+            ChannelControl channelControl) throws KeypleReaderException {
+        /* the SAM held since the opening is given back whatever the outcome of the closing */
+        try {
+            return processAtomicClosingWithSam(poModificationCommands, poAnticipatedResponses,
+                    transmissionMode, channelControl);
+        } finally {
+            releaseSam();
+        }
+    }
+
+    /**
+     * Performs the SAM and PO exchanges of
+     * {@link #processAtomicClosing(List, List, TransmissionMode, ChannelControl)}.
+     */
+    private SeResponse processAtomicClosingWithSam(List<PoBuilderParser<?>> poModificationCommands,
             List<ApduResponse> poAnticipatedResponses, TransmissionMode transmissionMode,
             ChannelControl channelControl) throws KeypleReaderException {
 
@@ -653,7 +721,7 @@ public final class PoTransaction {
                     /*
                      * Add requests and responses to the DigestProcessor
                      */
-                    DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                    digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
                             poAnticipatedResponses.get(i));
                 }
             } else {
@@ -666,12 +734,12 @@ public final class PoTransaction {
 
         /* All SAM digest operations will now run at once. */
         /* Get the SAM Digest request from the cache manager */
-        SeRequest samSeRequest = DigestProcessor.getSamDigestRequest();
+        SeRequest samSeRequest = digestProcessor.getSamDigestRequest();
 
         logger.debug("processAtomicClosing => SAMREQUEST = {}", samSeRequest);
 
-        /* Transmit SeRequest and get SeResponse */
-        SeResponse samSeResponse = samReader.transmit(samSeRequest);
+        /* Transmit SeRequest and get SeResponse, fails if the shared SAM has been withdrawn */
+        SeResponse samSeResponse = transmitToSam(samSeRequest);
 
         logger.debug("processAtomicClosing => SAMRESPONSE = {}", samSeResponse);
 
@@ -821,7 +889,7 @@ public final class PoTransaction {
         logger.debug("PoTransaction.DigestProcessor => checkPoSignature: SAMREQUEST = {}",
                 samSeRequest);
 
-        samSeResponse = samReader.transmit(samSeRequest);
+        samSeResponse = transmitToSam(samSeRequest);
 
         logger.debug("PoTransaction.DigestProcessor => checkPoSignature: SAMRESPONSE = {}",
                 samSeResponse);
@@ -890,11 +958,11 @@ public final class PoTransaction {
      *         communication mode.</li>
      *         </ul>
      */
-    private SeResponse processAtomicClosing(List<PoBuilderParser> poBuilderParsers,
+    private SeResponse processAtomicClosing(List<PoBuilderParser<?>> poBuilderParsers,
             TransmissionMode transmissionMode, ChannelControl channelControl)
             throws KeypleReaderException {
         List<ApduResponse> poAnticipatedResponses =
-                AnticipatedResponseBuilder.getResponses(poBuilderParsers);
+                anticipatedResponseBuilder.getResponses(poBuilderParsers);
         return processAtomicClosing(poBuilderParsers, poAnticipatedResponses, transmissionMode,
                 channelControl);
     }
@@ -1015,21 +1083,21 @@ public final class PoTransaction {
      *
      * - checkPoSignature: Digest Authenticate, verify the PO part of the signature
      */
-    private static class DigestProcessor {
+    private class DigestProcessor {
         /*
          * The digest data cache stores all PO data to be send to SAM during a Secure Session. The
          * 1st buffer is the data buffer to be provided with Digest Init. The following buffers are
          * PO command/response pairs
          */
-        private static final List<byte[]> poDigestDataCache = new ArrayList<byte[]>();
-        private static SamRevision samRevision;
-        private static PoRevision poRevision;
-        private static boolean encryption;
-        private static boolean verification;
-        private static boolean revMode;
-        private static byte keyRecordNumber;
-        private static byte keyKIF;
-        private static byte keyKVC;
+        private final List<byte[]> poDigestDataCache = new ArrayList<byte[]>();
+        private SamRevision samRevision;
+        private PoRevision poRevision;
+        private boolean encryption;
+        private boolean verification;
+        private boolean revMode;
+        private byte keyRecordNumber;
+        private byte keyKIF;
+        private byte keyKVC;
 
         /**
          * Initializes the digest computation process
@@ -1044,7 +1112,7 @@ public final class PoTransaction {
          * @param workKeyKVC the PO KVC
          * @param digestData a first bunch of data to digest.
          */
-        static void initialize(PoRevision poRev, SamRevision samRev, boolean sessionEncryption,
+        void initialize(PoRevision poRev, SamRevision samRev, boolean sessionEncryption,
                 boolean verificationMode, boolean rev3_2Mode, byte workKeyRecordNumber,
                 byte workKeyKif, byte workKeyKVC, byte[] digestData) {
             /* Store work context */
@@ -1084,7 +1152,7 @@ public final class PoTransaction {
          * @param request PO request
          * @param response PO response
          */
-        static void pushPoExchangeData(ApduRequest request, ApduResponse response) {
+        void pushPoExchangeData(ApduRequest request, ApduResponse response) {
 
             logger.debug("PoTransaction.DigestProcessor => pushPoExchangeData: REQUEST = {}",
                     request);
@@ -1115,7 +1183,7 @@ public final class PoTransaction {
          *         signature
          */
         // TODO optimization with the use of Digest Update Multiple whenever possible.
-        static SeRequest getSamDigestRequest() {
+        SeRequest getSamDigestRequest() {
             List<ApduRequest> samApduRequestList = new ArrayList<ApduRequest>();
 
             if (poDigestDataCache.size() == 0) {
@@ -1189,7 +1257,7 @@ public final class PoTransaction {
         /**
          * A Map of SFI and Commands/Responses
          */
-        private static Map<Byte, CommandResponse> sfiCommandResponseHashMap =
+        private final Map<Byte, CommandResponse> sfiCommandResponseHashMap =
                 new HashMap<Byte, CommandResponse>();
 
         /**
@@ -1201,7 +1269,7 @@ public final class PoTransaction {
          * @param skipFirstItem a flag to indicate if the first apduRequest/apduResponse pair has to
          *        be ignored or not.
          */
-        static void storeCommandResponse(List<PoBuilderParser> poBuilderParsers,
+        void storeCommandResponse(List<PoBuilderParser<?>> poBuilderParsers,
                 List<ApduRequest> apduRequests, List<ApduResponse> apduResponses,
                 Boolean skipFirstItem) {
             if (poBuilderParsers != null) {
@@ -1217,7 +1285,7 @@ public final class PoTransaction {
                     apduResponseIterator.next();
                 }
                 /* Iterate over the poCommandsInsideSession list */
-                for (PoBuilderParser poCommand : poBuilderParsers) {
+                for (PoBuilderParser<?> poCommand : poBuilderParsers) {
                     if (((CalypsoBuilderParser) poCommand)
                             .getCommandBuilder() instanceof ReadRecordsCmdBuild) {
                         ApduRequest apduRequest = apduRequestIterator.next();
@@ -1249,11 +1317,11 @@ public final class PoTransaction {
          * @return the anticipated responses.
          * @throws KeypleCalypsoSecureSessionException if an response can't be determined.
          */
-        private static List<ApduResponse> getResponses(List<PoBuilderParser> poBuilderParsers)
+        private List<ApduResponse> getResponses(List<PoBuilderParser<?>> poBuilderParsers)
                 throws KeypleCalypsoSecureSessionException {
             List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
             if (poBuilderParsers != null) {
-                for (PoBuilderParser poBuilderParser : poBuilderParsers) {
+                for (PoBuilderParser<?> poBuilderParser : poBuilderParsers) {
                     if (poBuilderParser.getCommandBuilder() instanceof DecreaseCmdBuild
                             || poBuilderParser.getCommandBuilder() instanceof IncreaseCmdBuild) {
                         /* response = NNNNNN9000 */
@@ -1313,8 +1381,7 @@ public final class PoTransaction {
                                                     : "Increase")
                                             + ". Unable to determine anticipated counter value. SFI = "
                                             + sfi,
-                                    ((PoBuilderParser) poBuilderParser).getCommandBuilder()
-                                            .getApduRequest(),
+                                    poBuilderParser.getCommandBuilder().getApduRequest(),
                                     null);
                         }
                     } else {
@@ -1382,8 +1449,8 @@ public final class PoTransaction {
         }
 
         /* create a sublist of PoBuilderParser to be sent atomically */
-        List<PoBuilderParser> poAtomicCommandList = new ArrayList<PoBuilderParser>();
-        for (PoBuilderParser poCommandElement : poBuilderParserList) {
+        List<PoBuilderParser<?>> poAtomicCommandList = new ArrayList<PoBuilderParser<?>>();
+        for (PoBuilderParser<?> poCommandElement : poBuilderParserList) {
             if (!(poCommandElement.getCommandBuilder() instanceof PoModificationCommand)) {
                 /* This command does not affect the PO modifications buffer */
                 poAtomicCommandList.add(poCommandElement);
@@ -1518,9 +1585,9 @@ public final class PoTransaction {
         boolean poProcessSuccess = true;
 
         /* A session is open, we have to care about the PO modifications buffer */
-        List<PoBuilderParser> poAtomicBuilderParserList = new ArrayList<PoBuilderParser>();
+        List<PoBuilderParser<?>> poAtomicBuilderParserList = new ArrayList<PoBuilderParser<?>>();
 
-        for (PoBuilderParser poBuilderParser : this.poBuilderParserList) {
+        for (PoBuilderParser<?> poBuilderParser : this.poBuilderParserList) {
             if (!(poBuilderParser.getCommandBuilder() instanceof PoModificationCommand)) {
                 /* This command does not affect the PO modifications buffer */
                 poAtomicBuilderParserList.add(poBuilderParser);
@@ -1626,9 +1693,9 @@ public final class PoTransaction {
 
         List<PoModificationCommand> poModificationCommandList =
                 new ArrayList<PoModificationCommand>();
-        List<PoBuilderParser> poAtomicBuilderParserList = new ArrayList<PoBuilderParser>();
+        List<PoBuilderParser<?>> poAtomicBuilderParserList = new ArrayList<PoBuilderParser<?>>();
         SeResponse seResponseClosing;
-        for (PoBuilderParser poBuilderParser : poBuilderParserList) {
+        for (PoBuilderParser<?> poBuilderParser : poBuilderParserList) {
             if (!(poBuilderParser instanceof PoModificationCommand)) {
                 /*
                  * This command does not affect the PO modifications buffer. We will call
@@ -1658,7 +1725,8 @@ public final class PoTransaction {
                      * instead of processAtomicClosing to send the list
                      */
                     if (atLeastOneReadCommand) {
-                        List<PoBuilderParser> poBuilderParsers = new ArrayList<PoBuilderParser>();
+                        List<PoBuilderParser<?>> poBuilderParsers =
+                                new ArrayList<PoBuilderParser<?>>();
                         poBuilderParsers.addAll(poAtomicBuilderParserList);
                         seResponseClosing =
                                 processAtomicPoCommands(poBuilderParsers, ChannelControl.KEEP_OPEN);
@@ -1747,6 +1815,9 @@ public final class PoTransaction {
             poSeResponse = poReader.transmit(poSeRequest, channelControl);
         } catch (KeypleReaderException ex) {
             poSeResponse = ex.getSeResponse();
+        } finally {
+            /* give back the shared SAM if it was kept since the opening, even if the PO is gone */
+            releaseSam();
         }
 
         logger.debug("processCancel => POSERESPONSE = {}", poSeResponse);
@@ -1765,24 +1836,24 @@ public final class PoTransaction {
     }
 
     /**
-     * Loops on the SeResponse and create the appropriate builders
+     * Loops on the SeResponse and provides each response to its builder, the parsers are created
+     * only when requested with {@link #getResponseParser(int)}
      * 
      * @param seResponse the seResponse from the PO
      * @param poBuilderParsers the list of {@link PoBuilderParser} (sublist of the global list)
      * @return false if one or more of the commands do not succeed
      */
     private boolean createResponseParsers(SeResponse seResponse,
-            List<PoBuilderParser> poBuilderParsers) {
+            List<PoBuilderParser<?>> poBuilderParsers) {
         boolean allSuccessfulCommands = true;
-        Iterator<PoBuilderParser> commandIterator = poBuilderParsers.iterator();
+        Iterator<PoBuilderParser<?>> commandIterator = poBuilderParsers.iterator();
         /* double loop to set apdu responses to corresponding parsers */
         for (ApduResponse apduResponse : seResponse.getApduResponses()) {
             if (!commandIterator.hasNext()) {
                 throw new IllegalStateException("Commands list and responses list mismatch! ");
             }
-            PoBuilderParser poBuilderParser = commandIterator.next();
-            poBuilderParser.setResponseParser((AbstractPoResponseParser) (poBuilderParser
-                    .getCommandBuilder().createResponseParser(apduResponse)));
+            /* the parser will be created when requested */
+            commandIterator.next().setApduResponse(apduResponse);
             if (!apduResponse.isSuccessful()) {
                 allSuccessfulCommands = false;
             }
@@ -1790,6 +1861,65 @@ public final class PoTransaction {
         return allSuccessfulCommands;
     }
 
+    /**
+     * Gets the SAM from the multiplexer if it is shared, does nothing otherwise.
+     *
+     * @throws KeypleCalypsoSecureSessionException if the SAM could not be obtained
+     */
+    private void acquireSam() throws KeypleCalypsoSecureSessionException {
+        if (samMultiplexer != null) {
+            samMultiplexer.acquire(this);
+        }
+    }
+
+    /**
+     * Sends a request to the SAM, through the multiplexer if the SAM is shared.
+     *
+     * @param samSeRequest the request to the SAM
+     * @return the response of the SAM
+     * @throws KeypleCalypsoSecureSessionException if the shared SAM has been withdrawn
+     * @throws KeypleReaderException if the exchange failed
+     */
+    private SeResponse transmitToSam(SeRequest samSeRequest) throws KeypleReaderException {
+        if (samMultiplexer != null) {
+            return samMultiplexer.transmit(this, samReader, samSeRequest);
+        }
+        return samReader.transmit(samSeRequest);
+    }
+
+    /**
+     * Gives back the SAM to the multiplexer if it is shared and held by this transaction.
+     */
+    private void releaseSam() {
+        if (samMultiplexer != null) {
+            samMultiplexer.release(this);
+        }
+    }
+
+    /**
+     * Indicates whether the SAM is diversified with the current PO serial number.
+     * <p>
+     * A shared SAM may have been diversified for another PO in the meantime.
+     *
+     * @return true if no Select Diversifier is needed
+     */
+    private boolean isSamDiversified() {
+        if (samMultiplexer != null) {
+            return samMultiplexer.isDiversifiedWith(poCalypsoInstanceSerial);
+        }
+        return isDiversificationDone;
+    }
+
+    /**
+     * Records that the SAM has been diversified with the current PO serial number.
+     */
+    private void setSamDiversified() {
+        isDiversificationDone = true;
+        if (samMultiplexer != null) {
+            samMultiplexer.setDiversifier(poCalypsoInstanceSerial);
+        }
+    }
+
     /**
      * Checks whether the requirement for the modifications buffer of the command provided in
      * argument is compatible with the current usage level of the buffer.
@@ -1855,7 +1985,7 @@ public final class PoTransaction {
             preparedCommandsProcessed = false;
             preparedCommandIndex = 0;
         }
-        poBuilderParserList.add(new PoBuilderParser(commandBuilder));
+        poBuilderParserList.add(new PoBuilderParser<Object>(commandBuilder));
 
         /* return and post-increment index */
         preparedCommandIndex++;
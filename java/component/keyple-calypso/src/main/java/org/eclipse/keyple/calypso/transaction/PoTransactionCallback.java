@@ -0,0 +1,28 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+
+/**
+ * Receives the result of a step of an {@link AsyncPoTransaction}
+ */
+public interface PoTransactionCallback {
+    /**
+     * Called once the step has been processed
+     *
+     * @param result the value returned by the corresponding {@link PoTransaction} method (null if
+     *        an exception occurred)
+     * @param exception the exception thrown by the step, null if the step completed normally
+     */
+    void get(Boolean result, KeypleReaderException exception);
+}
@@ -0,0 +1,284 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.calypso.transaction.exception.KeypleCalypsoSecureSessionException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.ProxyReader;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares a single {@link SamResource} between several concurrent {@link PoTransaction}.
+ * <p>
+ * A Calypso SAM holds a single secure session context: a Get Challenge or a Digest command sent
+ * for another transaction corrupts the session in progress. The multiplexer therefore grants the
+ * SAM to one transaction for a whole secure session, from the Get Challenge sent at the session
+ * opening to the Digest Authenticate that ends the session closing (or to the session
+ * cancellation). The PO exchanges made outside a secure session (selection, readings, etc.) do not
+ * hold the SAM, so the other transactions use it in the meantime.
+ * <p>
+ * A transaction that never closes nor cancels its session would keep the SAM forever. When a max
+ * session time is set, the SAM is thus withdrawn from a transaction holding it for longer as soon
+ * as another transaction is waiting for it; the closing of the abandoned session then fails. The
+ * SAM exchanges go through the multiplexer so that the SAM is never withdrawn during one of them.
+ * By default, the SAM is never withdrawn.
+ * <p>
+ * The PO serial number used by the SAM is tracked by the multiplexer so that a Select Diversifier
+ * command is sent again whenever another transaction has diversified the SAM in the meantime.
+ * <p>
+ * The transactions sharing a multiplexer are created with
+ * {@link PoTransaction#PoTransaction(PoResource, SamMultiplexer, SecuritySettings)}.
+ */
+public class SamMultiplexer {
+    private static final Logger logger = LoggerFactory.getLogger(SamMultiplexer.class);
+
+    /* the default maximum time (in milliseconds) during which a transaction waits for the SAM */
+    private final static int MAX_BLOCKING_TIME = 5000; // 5 sec
+    /* the default maximum time during which a transaction keeps the SAM: no limit */
+    private final static int MAX_SESSION_TIME = 0;
+
+    private final SamResource samResource;
+    private final int maxBlockingTime;
+    private final int maxSessionTime;
+
+    /* the transactions waiting for the SAM, in the order of their requests (guarded by this) */
+    private final LinkedList<Object> waitingOwners = new LinkedList<Object>();
+    /* the transaction currently holding the SAM (guarded by this) */
+    private Object samOwner;
+    /* the PO serial number last provided to the SAM with Select Diversifier (guarded by this) */
+    private byte[] currentDiversifier;
+    /* true while the owner exchanges with the SAM, it can't be withdrawn then (guarded by this) */
+    private boolean exchangeInProgress;
+
+    /* statistics */
+    private final AtomicLong windowCount = new AtomicLong();
+    private final AtomicLong waitingTime = new AtomicLong();
+    private final AtomicLong holdingTime = new AtomicLong();
+    private long windowStartTime;
+
+    /**
+     * Constructor
+     *
+     * @param samResource the SAM resource to share
+     * @param maxBlockingTime the maximum time (in milliseconds) during which a transaction waits
+     *        for the SAM before failing
+     * @param maxSessionTime the maximum time (in milliseconds) during which a transaction keeps
+     *        the SAM while other transactions are waiting for it, 0 to never withdraw the SAM
+     */
+    public SamMultiplexer(SamResource samResource, int maxBlockingTime, int maxSessionTime) {
+        if (samResource == null) {
+            throw new IllegalArgumentException("SAM resource is required.");
+        }
+        if (maxBlockingTime < 1) {
+            throw new IllegalArgumentException("Max Blocking Time must be greater than 0");
+        }
+        if (maxSessionTime < 0) {
+            throw new IllegalArgumentException("Max Session Time must not be negative");
+        }
+        this.samResource = samResource;
+        this.maxBlockingTime = maxBlockingTime;
+        this.maxSessionTime = maxSessionTime;
+    }
+
+    /**
+     * Alternate constructor with default max blocking time, the SAM is never withdrawn
+     *
+     * @param samResource the SAM resource to share
+     */
+    public SamMultiplexer(SamResource samResource) {
+        this(samResource, MAX_BLOCKING_TIME, MAX_SESSION_TIME);
+    }
+
+    /**
+     * @return the shared SAM resource
+     */
+    public SamResource getSamResource() {
+        return samResource;
+    }
+
+    /**
+     * Gets the SAM for the provided transaction.
+     * <p>
+     * Returns immediately if the transaction already holds the SAM. The SAM is granted in the
+     * order of the requests.
+     *
+     * @param owner the transaction requesting the SAM
+     * @throws KeypleCalypsoSecureSessionException if the SAM could not be obtained within the max
+     *         blocking time
+     */
+    synchronized void acquire(Object owner) throws KeypleCalypsoSecureSessionException {
+        if (samOwner == owner) {
+            return;
+        }
+        long requestTime = System.nanoTime();
+        long deadline = requestTime + TimeUnit.MILLISECONDS.toNanos(maxBlockingTime);
+        waitingOwners.addLast(owner);
+        try {
+            while (samOwner != null || waitingOwners.getFirst() != owner) {
+                long now = System.nanoTime();
+                long withdrawalTime =
+                        windowStartTime + TimeUnit.MILLISECONDS.toNanos(maxSessionTime);
+                boolean withdrawable = samOwner != null && maxSessionTime > 0;
+                if (withdrawable && !exchangeInProgress && now - withdrawalTime >= 0) {
+                    logger.warn("SAM withdrawn from {}, its session lasted more than {} ms",
+                            samOwner, maxSessionTime);
+                    endWindow();
+                    continue;
+                }
+                long timeout = deadline - now;
+                if (timeout <= 0) {
+                    throw new KeypleCalypsoSecureSessionException(
+                            "The SAM could not be obtained within " + maxBlockingTime + " ms.",
+                            KeypleCalypsoSecureSessionException.Type.SAM, null, null);
+                }
+                if (withdrawable && withdrawalTime - now > 0) {
+                    /* otherwise woken up at the end of the exchange in progress */
+                    timeout = Math.min(timeout, withdrawalTime - now);
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // set interrupt flag
+            throw new KeypleCalypsoSecureSessionException(
+                    "Interrupted while waiting for the SAM.",
+                    KeypleCalypsoSecureSessionException.Type.SAM, null, null);
+        } finally {
+            waitingOwners.remove(owner);
+            /* the next waiting transaction may now be the first one */
+            notifyAll();
+        }
+        samOwner = owner;
+        windowStartTime = System.nanoTime();
+        waitingTime.addAndGet(windowStartTime - requestTime);
+        windowCount.incrementAndGet();
+        if (logger.isTraceEnabled()) {
+            logger.trace("SAM granted to {}, waited {} µs", owner,
+                    (windowStartTime - requestTime) / 1000);
+        }
+    }
+
+    /**
+     * Gives back the SAM if it is held by the provided transaction, does nothing otherwise.
+     *
+     * @param owner the transaction releasing the SAM
+     */
+    synchronized void release(Object owner) {
+        if (samOwner != owner) {
+            return;
+        }
+        endWindow();
+        logger.trace("SAM released by {}", owner);
+    }
+
+    /**
+     * Sends a request to the SAM on behalf of the transaction holding it, the SAM can't be
+     * withdrawn during the exchange.
+     *
+     * @param owner the transaction holding the SAM
+     * @param samReader the reader of the SAM
+     * @param samSeRequest the request to the SAM
+     * @return the response of the SAM
+     * @throws KeypleCalypsoSecureSessionException if the SAM has been withdrawn from the
+     *         transaction
+     * @throws KeypleReaderException if the exchange failed
+     */
+    SeResponse transmit(Object owner, ProxyReader samReader, SeRequest samSeRequest)
+            throws KeypleReaderException {
+        synchronized (this) {
+            if (samOwner != owner) {
+                throw new KeypleCalypsoSecureSessionException(
+                        "The SAM has been withdrawn, the session lasted too long.",
+                        KeypleCalypsoSecureSessionException.Type.SAM,
+                        samSeRequest.getApduRequests(), null);
+            }
+            exchangeInProgress = true;
+        }
+        try {
+            return samReader.transmit(samSeRequest);
+        } finally {
+            synchronized (this) {
+                exchangeInProgress = false;
+                /* a waiting transaction may now withdraw the SAM */
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Ends the window of the current owner and wakes up the waiting transactions
+     */
+    private void endWindow() {
+        holdingTime.addAndGet(System.nanoTime() - windowStartTime);
+        samOwner = null;
+        notifyAll();
+    }
+
+    /**
+     * Indicates whether the provided transaction currently holds the SAM
+     *
+     * @param owner the transaction
+     * @return true if the SAM is held by the transaction
+     */
+    synchronized boolean isHeldBy(Object owner) {
+        return samOwner == owner;
+    }
+
+    /**
+     * Indicates whether the SAM is currently diversified with the provided PO serial number.
+     * <p>
+     * Must be called by the transaction holding the SAM.
+     *
+     * @param poSerialNumber the PO serial number
+     * @return true if no Select Diversifier is needed
+     */
+    synchronized boolean isDiversifiedWith(byte[] poSerialNumber) {
+        return Arrays.equals(currentDiversifier, poSerialNumber);
+    }
+
+    /**
+     * Keeps the PO serial number provided to the SAM with a Select Diversifier command.
+     * <p>
+     * Must be called by the transaction holding the SAM.
+     *
+     * @param poSerialNumber the PO serial number
+     */
+    synchronized void setDiversifier(byte[] poSerialNumber) {
+        currentDiversifier = poSerialNumber;
+    }
+    /**
+     * @return the number of times the SAM has been granted to a transaction
+     */
+    public long getWindowCount() {
+        return windowCount.get();
+    }
+
+    /**
+     * @return the cumulated time (in nanoseconds) spent by the transactions waiting for the SAM
+     */
+    public long getWaitingTime() {
+        return waitingTime.get();
+    }
+
+    /**
+     * @return the cumulated time (in nanoseconds) during which the SAM was held by a transaction
+     */
+    public long getHoldingTime() {
+        return holdingTime.get();
+    }
+}
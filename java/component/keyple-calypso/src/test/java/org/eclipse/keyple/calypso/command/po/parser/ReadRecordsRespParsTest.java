@@ -12,6 +12,10 @@
 package org.eclipse.keyple.calypso.command.po.parser;
 
 
+import static org.junit.Assert.*;
+import java.util.SortedMap;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -19,11 +23,43 @@ import org.mockito.junit.MockitoJUnitRunner;
 @RunWith(MockitoJUnitRunner.class)
 public class ReadRecordsRespParsTest {
 
+    private static ReadRecordsRespPars getParser(String hexResponse,
+            ReadDataStructure readDataStructure, int recordNumber) {
+        return new ReadRecordsRespPars(new ApduResponse(ByteArrayUtil.fromHex(hexResponse), null),
+                readDataStructure, (byte) recordNumber);
+    }
+
     @Test
-    public void readRecordRespPars_one_record() {}
+    public void readRecordRespPars_one_record() {
+        ReadRecordsRespPars parser =
+                getParser("0011223344 9000", ReadDataStructure.SINGLE_RECORD_DATA, 2);
+
+        SortedMap<Integer, byte[]> records = parser.getRecords();
+        assertEquals(1, records.size());
+        assertArrayEquals(ByteArrayUtil.fromHex("0011223344"), records.get(2));
+        assertTrue(parser.hasRecord(2));
+        assertFalse(parser.hasRecord(1));
+        assertEquals(5, parser.getRecordLength(2));
+        assertArrayEquals(ByteArrayUtil.fromHex("0011223344"), parser.getRecord(2));
+        /* parsed once */
+        assertSame(records, parser.getRecords());
+    }
 
     @Test
-    public void readRecordRespPars_records() {}
+    public void readRecordRespPars_records() {
+        ReadRecordsRespPars parser = getParser("0103AABBCC 0202DDEE 0301FF 9000",
+                ReadDataStructure.MULTIPLE_RECORD_DATA, 1);
+
+        SortedMap<Integer, byte[]> records = parser.getRecords();
+        assertEquals(3, records.size());
+        assertArrayEquals(ByteArrayUtil.fromHex("AABBCC"), records.get(1));
+        assertArrayEquals(ByteArrayUtil.fromHex("DDEE"), records.get(2));
+        assertArrayEquals(ByteArrayUtil.fromHex("FF"), records.get(3));
+
+        byte[] buffer = new byte[4];
+        assertEquals(2, parser.copyRecord(2, buffer, 1));
+        assertArrayEquals(ByteArrayUtil.fromHex("00DDEE00"), buffer);
+    }
 
     @Test
     public void sampleMultipleRecordsParsing() {}
@@ -33,4 +69,37 @@ public class ReadRecordsRespParsTest {
 
     @Test
     public void readRecordRespPars_records_sfi() {}
+
+    @Test
+    public void readRecordRespPars_counters() {
+        ReadRecordsRespPars parser =
+                getParser("000001 00FF00 FFFFFF 9000", ReadDataStructure.MULTIPLE_COUNTER, 1);
+
+        assertEquals(3, parser.getCounterCount());
+        assertEquals(1, parser.getCounter(1));
+        assertEquals(0xFF00, parser.getCounter(2));
+        assertEquals(0xFFFFFF, parser.getCounter(3));
+        SortedMap<Integer, Integer> counters = parser.getCounters();
+        assertEquals(3, counters.size());
+        assertEquals(Integer.valueOf(0xFF00), counters.get(2));
+        assertSame(counters, parser.getCounters());
+    }
+
+    @Test
+    public void readRecordRespPars_unsuccessful() {
+        ReadRecordsRespPars parser = getParser("6A83", ReadDataStructure.SINGLE_RECORD_DATA, 1);
+
+        assertTrue(parser.getRecords().isEmpty());
+        assertFalse(parser.hasRecord(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readRecordRespPars_counter_not_read() {
+        getParser("000001 9000", ReadDataStructure.SINGLE_COUNTER, 1).getCounter(2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void readRecordRespPars_record_on_counter_file() {
+        getParser("000001 9000", ReadDataStructure.SINGLE_COUNTER, 1).getRecord(1);
+    }
 }
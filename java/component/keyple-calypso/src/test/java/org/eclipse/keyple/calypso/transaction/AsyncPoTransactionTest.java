@@ -0,0 +1,262 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.calypso.transaction.exception.KeypleCalypsoSecureSessionException;
+import org.eclipse.keyple.calypso.util.TestsUtilsStubReader;
+import org.eclipse.keyple.core.seproxy.ChannelControl;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AsyncPoTransactionTest {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncPoTransactionTest.class);
+
+    private final static int NB_THREADS = 4;
+    private final static int NB_SESSIONS = 50;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(NB_THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    private AsyncPoTransaction getAsyncPoTransaction(TestsUtilsStubReader poReader) {
+        return new AsyncPoTransaction(
+                new PoTransaction(SamMultiplexerTest.getPoResource(poReader),
+                        SamMultiplexerTest.getSamResource(TestsUtilsStubReader.calypsoSam(0)),
+                        new SecuritySettings()),
+                executorService);
+    }
+
+    private static void waitAll(List<Future<Boolean>> futures) throws Exception {
+        for (Future<Boolean> future : futures) {
+            assertTrue(future.get(10, TimeUnit.SECONDS));
+        }
+        futures.clear();
+    }
+
+    /**
+     * All the sessions are opened before any of them is closed: the steps of the transactions
+     * sharing the executor are interleaved without mixing their session states.
+     */
+    @Test
+    public void manySessions_sharedExecutor() throws Exception {
+        List<AsyncPoTransaction> transactions = new ArrayList<AsyncPoTransaction>();
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+
+        for (int i = 0; i < NB_SESSIONS; i++) {
+            AsyncPoTransaction transaction =
+                    getAsyncPoTransaction(TestsUtilsStubReader.calypsoPo("PO" + i, 0));
+            transactions.add(transaction);
+            futures.add(transaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                    PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x07, (byte) 0x01,
+                    null));
+        }
+        waitAll(futures);
+
+        for (AsyncPoTransaction transaction : transactions) {
+            transaction.getPoTransaction().prepareReadRecordsCmd((byte) 0x08,
+                    ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, "Read SFI 08");
+            futures.add(transaction.processPoCommandsInSession(null));
+        }
+        waitAll(futures);
+
+        for (AsyncPoTransaction transaction : transactions) {
+            futures.add(transaction.processClosing(ChannelControl.CLOSE_AFTER, null));
+        }
+        waitAll(futures);
+
+        for (AsyncPoTransaction transaction : transactions) {
+            assertTrue(transaction.getPoTransaction().isSuccessful());
+        }
+    }
+
+    /**
+     * Steps scheduled without waiting are processed in order
+     */
+    @Test
+    public void chainedSteps_processedInOrder() throws Exception {
+        TestsUtilsStubReader poReader = TestsUtilsStubReader.calypsoPo("PO", 5);
+        AsyncPoTransaction transaction = getAsyncPoTransaction(poReader);
+
+        transaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x07, (byte) 0x01,
+                null);
+        Future<Boolean> closing = transaction.processClosing(ChannelControl.CLOSE_AFTER, null);
+
+        assertTrue(closing.get(10, TimeUnit.SECONDS));
+        assertTrue(transaction.getPoTransaction().isSuccessful());
+        assertFalse(poReader.isConcurrentAccessDetected());
+        /* opening and closing (close secure session + ratification) */
+        assertEquals(2, poReader.getExchangeCount());
+    }
+
+    /**
+     * Commands prepared in the callback of the previous step
+     */
+    @Test
+    public void callback_result() throws Exception {
+        final AsyncPoTransaction transaction =
+                getAsyncPoTransaction(TestsUtilsStubReader.calypsoPo("PO", 0));
+        final AtomicInteger readIndex = new AtomicInteger(-1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        final AtomicReference<Boolean> closingResult = new AtomicReference<Boolean>();
+
+        transaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x00, (byte) 0x00,
+                new PoTransactionCallback() {
+                    @Override
+                    public void get(Boolean result, KeypleReaderException exception) {
+                        readIndex.set(transaction.getPoTransaction().prepareReadRecordsCmd(
+                                (byte) 0x08, ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01,
+                                "Read SFI 08"));
+                        transaction.processClosing(ChannelControl.CLOSE_AFTER,
+                                new PoTransactionCallback() {
+                                    @Override
+                                    public void get(Boolean result,
+                                            KeypleReaderException exception) {
+                                        closingResult.set(result);
+                                        closed.countDown();
+                                    }
+                                });
+                    }
+                });
+
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertTrue(closingResult.get());
+        assertEquals(0, readIndex.get());
+        assertTrue(((ReadRecordsRespPars) transaction.getPoTransaction()
+                .getResponseParser(readIndex.get())).isSuccessful());
+    }
+
+    @Test
+    public void callback_exception() throws Exception {
+        /* PO not answering to the Open Secure Session command */
+        TestsUtilsStubReader poReader = new TestsUtilsStubReader("PO", 0);
+        AsyncPoTransaction transaction = getAsyncPoTransaction(poReader);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<KeypleReaderException> stepException =
+                new AtomicReference<KeypleReaderException>();
+
+        Future<Boolean> opening = transaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x00, (byte) 0x00,
+                new PoTransactionCallback() {
+                    @Override
+                    public void get(Boolean result, KeypleReaderException exception) {
+                        stepException.set(exception);
+                        done.countDown();
+                    }
+                });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(stepException.get() instanceof KeypleCalypsoSecureSessionException);
+        try {
+            opening.get();
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            assertSame(stepException.get(), e.getCause());
+        }
+        /* the next steps are still processed */
+        assertNotNull(transaction.processCancel(ChannelControl.CLOSE_AFTER, null).get(10,
+                TimeUnit.SECONDS));
+    }
+
+    /**
+     * A step rejected by the executor fails with the steps queued behind it, the next steps are
+     * scheduled again
+     */
+    @Test
+    public void rejectedStep_pendingStepsFail() throws Exception {
+        final List<Runnable> acceptedSteps = new ArrayList<Runnable>();
+        /* keeps the first step without running it and rejects the next ones */
+        Executor rejectingExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (!acceptedSteps.isEmpty()) {
+                    throw new RejectedExecutionException("Executor saturated");
+                }
+                acceptedSteps.add(command);
+            }
+        };
+        AsyncPoTransaction transaction = new AsyncPoTransaction(
+                new PoTransaction(
+                        SamMultiplexerTest.getPoResource(TestsUtilsStubReader.calypsoPo("PO", 0)),
+                        SamMultiplexerTest.getSamResource(TestsUtilsStubReader.calypsoSam(0)),
+                        new SecuritySettings()),
+                rejectingExecutor);
+        final AtomicReference<KeypleReaderException> cancelException =
+                new AtomicReference<KeypleReaderException>();
+
+        Future<Boolean> opening = transaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x00, (byte) 0x00,
+                null);
+        Future<Boolean> closing = transaction.processClosing(ChannelControl.CLOSE_AFTER, null);
+        Future<Boolean> cancel = transaction.processCancel(ChannelControl.CLOSE_AFTER,
+                new PoTransactionCallback() {
+                    @Override
+                    public void get(Boolean result, KeypleReaderException exception) {
+                        cancelException.set(exception);
+                    }
+                });
+
+        /* the opening runs, then the closing is rejected */
+        assertEquals(1, acceptedSteps.size());
+        acceptedSteps.get(0).run();
+        assertTrue(opening.get(0, TimeUnit.SECONDS));
+        List<Future<Boolean>> failedSteps = new ArrayList<Future<Boolean>>();
+        failedSteps.add(closing);
+        failedSteps.add(cancel);
+        for (Future<Boolean> future : failedSteps) {
+            try {
+                future.get(0, TimeUnit.SECONDS);
+                fail("ExecutionException expected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+        }
+        assertTrue(cancelException.get().getCause() instanceof RejectedExecutionException);
+
+        /* not stuck: a new step is handed to the executor, which rejects it */
+        try {
+            transaction.processCancel(ChannelControl.CLOSE_AFTER, null).get(0, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_nullExecutor() {
+        new AsyncPoTransaction(
+                new PoTransaction(
+                        SamMultiplexerTest.getPoResource(TestsUtilsStubReader.calypsoPo("PO", 0))),
+                null);
+    }
+}
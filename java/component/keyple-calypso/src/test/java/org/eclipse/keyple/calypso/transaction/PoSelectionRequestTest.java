@@ -12,7 +12,13 @@
 package org.eclipse.keyple.calypso.transaction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.calypso.command.po.builder.SelectFileCmdBuild;
 import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
 import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
@@ -224,4 +230,45 @@ public class PoSelectionRequestTest {
                 .preparePoCustomModificationCmd("Custom command modify", apduRequest);
         Assert.assertEquals(0, modifyParserIndex1);
     }
+
+    /**
+     * The request is shared by two readers getting the parsers of their own responses at the same
+     * time: each reader only gets parsers built from its response.
+     */
+    @Test
+    public void getCommandParser_twoReaders() throws Exception {
+        final int readParserIndex = poSelectionRequest.prepareReadRecordsCmd((byte) 0x01,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, "Read record SFI 01");
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (final String recordContent : new String[] {RECORD_CONTENT, "AABBCCDDEEFF"}) {
+                results.add(readers.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 10000; i++) {
+                            ApduResponse apduResponse = new ApduResponse(
+                                    ByteArrayUtil.fromHex(recordContent + "9000"), null);
+                            List<ApduResponse> apduResponseList = new ArrayList<ApduResponse>();
+                            apduResponseList.add(apduResponse);
+                            SeResponse seResponse =
+                                    new SeResponse(true, true, null, apduResponseList);
+                            ReadRecordsRespPars parser = (ReadRecordsRespPars) poSelectionRequest
+                                    .getCommandParser(seResponse, readParserIndex);
+                            if (parser.getApduResponse() != apduResponse || !Arrays.equals(
+                                    ByteArrayUtil.fromHex(recordContent), parser.getRecord(1))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,281 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.transaction.exception.KeypleCalypsoSecureSessionException;
+import org.eclipse.keyple.calypso.util.TestsUtilsStubReader;
+import org.eclipse.keyple.core.seproxy.ChannelControl;
+import org.eclipse.keyple.core.seproxy.message.AnswerToReset;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.message.SelectionStatus;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks the sharing of a SAM between concurrent PO transactions with a stub latency model (slow
+ * contactless PO exchanges, fast SAM exchanges).
+ */
+public class SamMultiplexerTest {
+    private static final Logger logger = LoggerFactory.getLogger(SamMultiplexerTest.class);
+
+    private final static String SAM_ATR = "3B001122805A0180C102030411223344829000";
+    private final static String PO_ATR = "3B8F8001805A08030400020011223344829000F3";
+    private final static String FCI_REV31 =
+            "6F238409315449432E49434131A516BF0C13C708000000001122334453070A3C23051410019000";
+
+    private final static int PO_LATENCY = 20;
+    private final static int SAM_LATENCY = 2;
+    private final static int NB_TRANSACTIONS = 6;
+
+    private final static byte INS_GET_CHALLENGE = (byte) 0x84;
+    private final static byte INS_DIGEST_AUTHENTICATE = (byte) 0x82;
+
+    static SamResource getSamResource(TestsUtilsStubReader samReader) {
+        SelectionStatus selectionStatus = new SelectionStatus(
+                new AnswerToReset(ByteArrayUtil.fromHex(SAM_ATR)), null, true);
+        CalypsoSam calypsoSam = new CalypsoSam(new SeResponse(true, true, selectionStatus, null),
+                TransmissionMode.CONTACTS, "SAM");
+        return new SamResource(samReader, calypsoSam);
+    }
+
+    static PoResource getPoResource(TestsUtilsStubReader poReader) {
+        return new PoResource(poReader, CalypsoPoTest.getCalypsoPo(PO_ATR, FCI_REV31));
+    }
+
+    /**
+     * A complete secure session: opening, reading in session and closing
+     */
+    private static boolean runTransaction(PoTransaction poTransaction) throws Exception {
+        poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x07, (byte) 0x01);
+        poTransaction.prepareReadRecordsCmd((byte) 0x08, ReadDataStructure.SINGLE_RECORD_DATA,
+                (byte) 0x01, "Read SFI 08");
+        poTransaction.processPoCommandsInSession();
+        poTransaction.processClosing(ChannelControl.CLOSE_AFTER);
+        return poTransaction.isSuccessful();
+    }
+
+    /**
+     * Runs NB_TRANSACTIONS concurrent transactions sharing one SAM
+     */
+    private void runConcurrentTransactions(final SamMultiplexer samMultiplexer,
+            TestsUtilsStubReader samReader) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(NB_TRANSACTIONS);
+        List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < NB_TRANSACTIONS; i++) {
+            final TestsUtilsStubReader poReader =
+                    TestsUtilsStubReader.calypsoPo("PO" + i, PO_LATENCY);
+            results.add(executorService.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return runTransaction(new PoTransaction(getPoResource(poReader),
+                            samMultiplexer, new SecuritySettings()));
+                }
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+
+        assertFalse(samReader.isConcurrentAccessDetected());
+        logger.info("{} transactions, SAM held {} ms, waited {} ms, {} windows", NB_TRANSACTIONS,
+                samMultiplexer.getHoldingTime() / 1000000,
+                samMultiplexer.getWaitingTime() / 1000000, samMultiplexer.getWindowCount());
+    }
+
+    /**
+     * Checks that no SAM command of another session is sent between the Get Challenge and the
+     * Digest Authenticate of a session
+     */
+    private static void assertExclusiveSessions(List<Byte> samInsLog) {
+        boolean sessionOpen = false;
+        int sessionCount = 0;
+        for (byte ins : samInsLog) {
+            if (ins == INS_GET_CHALLENGE) {
+                assertFalse("Get Challenge inside another session", sessionOpen);
+                sessionOpen = true;
+                sessionCount++;
+            } else if (ins == INS_DIGEST_AUTHENTICATE) {
+                assertTrue("Digest Authenticate outside a session", sessionOpen);
+                sessionOpen = false;
+            }
+        }
+        assertFalse(sessionOpen);
+        assertEquals(NB_TRANSACTIONS, sessionCount);
+    }
+
+    @Test
+    public void concurrentTransactions_serializeSessions() throws Exception {
+        TestsUtilsStubReader samReader = TestsUtilsStubReader.calypsoSam(SAM_LATENCY);
+        SamMultiplexer samMultiplexer = new SamMultiplexer(getSamResource(samReader));
+
+        runConcurrentTransactions(samMultiplexer, samReader);
+
+        /* one window per session */
+        assertEquals(NB_TRANSACTIONS, samMultiplexer.getWindowCount());
+        /* opening and closing (digest + authenticate) */
+        assertEquals(NB_TRANSACTIONS * 3, samReader.getExchangeCount());
+        assertExclusiveSessions(samReader.getInsLog());
+    }
+
+    @Test
+    public void cancel_releaseSam() throws Exception {
+        TestsUtilsStubReader samReader = TestsUtilsStubReader.calypsoSam(0);
+        SamMultiplexer samMultiplexer =
+                new SamMultiplexer(getSamResource(samReader), 100, 10000);
+        PoTransaction poTransaction1 =
+                new PoTransaction(getPoResource(TestsUtilsStubReader.calypsoPo("PO1", 0)),
+                        samMultiplexer, new SecuritySettings());
+        PoTransaction poTransaction2 =
+                new PoTransaction(getPoResource(TestsUtilsStubReader.calypsoPo("PO2", 0)),
+                        samMultiplexer, new SecuritySettings());
+
+        poTransaction1.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x00, (byte) 0x00);
+        assertTrue(samMultiplexer.isHeldBy(poTransaction1));
+
+        poTransaction1.processCancel(ChannelControl.CLOSE_AFTER);
+        assertFalse(samMultiplexer.isHeldBy(poTransaction1));
+
+        assertTrue(runTransaction(poTransaction2));
+    }
+
+    /**
+     * A session never closed loses the SAM when another transaction needs it after the max session
+     * time, its closing then fails
+     */
+    @Test
+    public void abandonedSession_withdrawSam() throws Exception {
+        TestsUtilsStubReader samReader = TestsUtilsStubReader.calypsoSam(0);
+        SamMultiplexer samMultiplexer = new SamMultiplexer(getSamResource(samReader), 5000, 100);
+        PoTransaction poTransaction1 =
+                new PoTransaction(getPoResource(TestsUtilsStubReader.calypsoPo("PO1", 0)),
+                        samMultiplexer, new SecuritySettings());
+        PoTransaction poTransaction2 =
+                new PoTransaction(getPoResource(TestsUtilsStubReader.calypsoPo("PO2", 0)),
+                        samMultiplexer, new SecuritySettings());
+
+        poTransaction1.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x00, (byte) 0x00);
+
+        assertTrue(runTransaction(poTransaction2));
+        assertFalse(samMultiplexer.isHeldBy(poTransaction1));
+
+        int apduCount = samReader.getApduCount();
+        try {
+            poTransaction1.processClosing(ChannelControl.CLOSE_AFTER);
+            fail("the SAM has been withdrawn");
+        } catch (KeypleCalypsoSecureSessionException e) {
+            assertEquals(KeypleCalypsoSecureSessionException.Type.SAM, e.getType());
+        }
+        /* nothing sent to the SAM for the abandoned session */
+        assertEquals(apduCount, samReader.getApduCount());
+    }
+
+    /**
+     * The SAM is not withdrawn while the session holding it exchanges with the SAM, even after the
+     * max session time
+     */
+    @Test
+    public void exchangeInProgress_notWithdrawn() throws Exception {
+        final TestsUtilsStubReader samReader = TestsUtilsStubReader.calypsoSam(300);
+        SamMultiplexer samMultiplexer = new SamMultiplexer(getSamResource(samReader), 5000, 50);
+        final PoTransaction poTransaction1 =
+                new PoTransaction(getPoResource(TestsUtilsStubReader.calypsoPo("PO1", 0)),
+                        samMultiplexer, new SecuritySettings());
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<Boolean> opening = executorService.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return poTransaction1.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                        PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x00,
+                        (byte) 0x00);
+            }
+        });
+        /* the Get Challenge of the opening is in progress */
+        while (!samMultiplexer.isHeldBy(poTransaction1)) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+
+        samMultiplexer.acquire(this);
+        /* withdrawn once the Get Challenge is answered */
+        assertEquals(1, samReader.getExchangeCount());
+        assertFalse(samReader.isConcurrentAccessDetected());
+        samMultiplexer.release(this);
+
+        opening.get(5, TimeUnit.SECONDS);
+        executorService.shutdown();
+    }
+
+    /**
+     * Without max session time the SAM is not withdrawn from a long session
+     */
+    @Test(expected = KeypleCalypsoSecureSessionException.class)
+    public void defaultMultiplexer_neverWithdraws() throws Exception {
+        TestsUtilsStubReader samReader = TestsUtilsStubReader.calypsoSam(0);
+        SamMultiplexer samMultiplexer = new SamMultiplexer(getSamResource(samReader), 200, 0);
+        PoTransaction poTransaction1 =
+                new PoTransaction(getPoResource(TestsUtilsStubReader.calypsoPo("PO1", 0)),
+                        samMultiplexer, new SecuritySettings());
+        poTransaction1.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x00, (byte) 0x00);
+
+        /* the waiting transaction gives up */
+        samMultiplexer.acquire(this);
+    }
+
+    @Test
+    public void otherPo_rediversify() throws Exception {
+        TestsUtilsStubReader samReader = TestsUtilsStubReader.calypsoSam(0);
+        SamMultiplexer samMultiplexer = new SamMultiplexer(getSamResource(samReader));
+        PoTransaction poTransaction1 =
+                new PoTransaction(getPoResource(TestsUtilsStubReader.calypsoPo("PO1", 0)),
+                        samMultiplexer, new SecuritySettings());
+        assertTrue(runTransaction(poTransaction1));
+
+        /* the SAM is used for another PO in the meantime */
+        samMultiplexer.acquire(this);
+        samMultiplexer.setDiversifier(ByteArrayUtil.fromHex("0000000055667788"));
+        samMultiplexer.release(this);
+
+        int apduCount = samReader.getApduCount();
+        PoTransaction poTransaction2 =
+                new PoTransaction(getPoResource(TestsUtilsStubReader.calypsoPo("PO2", 0)),
+                        samMultiplexer, new SecuritySettings());
+        poTransaction2.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x00, (byte) 0x00);
+        /* Select Diversifier and Get Challenge */
+        assertEquals(apduCount + 2, samReader.getApduCount());
+        poTransaction2.processCancel(ChannelControl.CLOSE_AFTER);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_badBlockingTime() {
+        new SamMultiplexer(getSamResource(TestsUtilsStubReader.calypsoSam(0)), 0, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_badSessionTime() {
+        new SamMultiplexer(getSamResource(TestsUtilsStubReader.calypsoSam(0)), 1000, -1);
+    }
+}
@@ -0,0 +1,212 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.util;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.core.seproxy.ChannelControl;
+import org.eclipse.keyple.core.seproxy.MultiSeRequestProcessing;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * Minimal {@link ProxyReader} simulating a Calypso PO or SAM with a fixed latency per exchange.
+ * <p>
+ * The responses are chosen according to the INS byte of each command. The reader counts the
+ * exchanges and detects concurrent accesses.
+ */
+public class TestsUtilsStubReader implements ProxyReader {
+    private final String name;
+    private final long exchangeLatency;
+    private final Map<Byte, byte[]> responsesByIns = new HashMap<Byte, byte[]>();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger exchangeCount = new AtomicInteger();
+    private final AtomicInteger apduCount = new AtomicInteger();
+    private volatile boolean concurrentAccessDetected;
+    private final List<Byte> insLog = Collections.synchronizedList(new ArrayList<Byte>());
+
+    /**
+     * @param name the reader name
+     * @param exchangeLatency the duration (in milliseconds) of each SeRequest exchange
+     */
+    public TestsUtilsStubReader(String name, long exchangeLatency) {
+        this.name = name;
+        this.exchangeLatency = exchangeLatency;
+    }
+
+    /**
+     * Defines the response to the commands having the provided INS byte
+     *
+     * @param ins the INS byte
+     * @param hexResponse the response (including the status word) as an hex string
+     * @return the reader itself
+     */
+    public TestsUtilsStubReader addResponse(int ins, String hexResponse) {
+        responsesByIns.put((byte) ins, ByteArrayUtil.fromHex(hexResponse));
+        return this;
+    }
+
+    /**
+     * Builds a stub simulating a Calypso SAM able to handle a secure session with a rev 3.1 PO
+     *
+     * @param exchangeLatency the duration (in milliseconds) of each SeRequest exchange
+     * @return the reader
+     */
+    public static TestsUtilsStubReader calypsoSam(long exchangeLatency) {
+        return new TestsUtilsStubReader("SAM", exchangeLatency) //
+                .addResponse(0x14, "9000") // Select Diversifier
+                .addResponse(0x84, "C1C2C3C4 9000") // Get Challenge
+                .addResponse(0x8A, "9000") // Digest Init
+                .addResponse(0x8C, "9000") // Digest Update
+                .addResponse(0x8E, "D1D2D3D4 9000") // Digest Close
+                .addResponse(0x82, "9000"); // Digest Authenticate
+    }
+
+    /**
+     * Builds a stub simulating a rev 3.1 Calypso PO
+     *
+     * @param name the reader name
+     * @param exchangeLatency the duration (in milliseconds) of each SeRequest exchange
+     * @return the reader
+     */
+    public static TestsUtilsStubReader calypsoPo(String name, long exchangeLatency) {
+        return new TestsUtilsStubReader(name, exchangeLatency) //
+                .addResponse(0x8A, "0304909800307900 9000") // Open Secure Session
+                .addResponse(0xB2, "00112233445566778899 9000") // Read Records
+                .addResponse(0xDC, "9000") // Update Record
+                .addResponse(0x32, "000010 9000") // Increase
+                .addResponse(0x30, "000010 9000") // Decrease
+                .addResponse(0x8E, "E1E2E3E4 9000"); // Close Secure Session
+    }
+
+    /**
+     * @return the number of SeRequest exchanges processed so far
+     */
+    public int getExchangeCount() {
+        return exchangeCount.get();
+    }
+
+    /**
+     * @return the number of APDU processed so far
+     */
+    public int getApduCount() {
+        return apduCount.get();
+    }
+
+    /**
+     * @return the INS byte of the APDU processed so far, in the order of their processing
+     */
+    public List<Byte> getInsLog() {
+        synchronized (insLog) {
+            return new ArrayList<Byte>(insLog);
+        }
+    }
+
+    /**
+     * @return true if two exchanges have overlapped
+     */
+    public boolean isConcurrentAccessDetected() {
+        return concurrentAccessDetected;
+    }
+
+    @Override
+    public SeResponse transmit(SeRequest seApplicationRequest, ChannelControl channelControl) {
+        if (inUse.incrementAndGet() > 1) {
+            concurrentAccessDetected = true;
+        }
+        try {
+            if (exchangeLatency > 0) {
+                try {
+                    Thread.sleep(exchangeLatency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
+            for (ApduRequest apduRequest : seApplicationRequest.getApduRequests()) {
+                byte[] response = responsesByIns.get(apduRequest.getBytes()[1]);
+                if (response == null) {
+                    response = ByteArrayUtil.fromHex("6D00");
+                }
+                apduResponses.add(
+                        new ApduResponse(response, apduRequest.getSuccessfulStatusCodes()));
+                apduCount.incrementAndGet();
+                insLog.add(apduRequest.getBytes()[1]);
+            }
+            exchangeCount.incrementAndGet();
+            return new SeResponse(true, true, null, apduResponses);
+        } finally {
+            inUse.decrementAndGet();
+        }
+    }
+
+    @Override
+    public SeResponse transmit(SeRequest seApplicationRequest) {
+        return transmit(seApplicationRequest, ChannelControl.KEEP_OPEN);
+    }
+
+    @Override
+    public List<SeResponse> transmitSet(Set<SeRequest> seApplicationRequest,
+            MultiSeRequestProcessing multiSeRequestProcessing, ChannelControl channelControl) {
+        List<SeResponse> seResponses = new ArrayList<SeResponse>();
+        for (SeRequest seRequest : seApplicationRequest) {
+            seResponses.add(transmit(seRequest, channelControl));
+        }
+        return seResponses;
+    }
+
+    @Override
+    public List<SeResponse> transmitSet(Set<SeRequest> seApplicationRequest) {
+        return transmitSet(seApplicationRequest, MultiSeRequestProcessing.FIRST_MATCH,
+                ChannelControl.KEEP_OPEN);
+    }
+
+    @Override
+    public boolean isSePresent() {
+        return true;
+    }
+
+    @Override
+    public void addSeProtocolSetting(SeProtocol seProtocol, String protocolRule) {}
+
+    @Override
+    public void setSeProtocolSetting(Map<SeProtocol, String> protocolSetting) {}
+
+    @Override
+    public TransmissionMode getTransmissionMode() {
+        return TransmissionMode.CONTACTLESS;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, String> getParameters() {
+        return new HashMap<String, String>();
+    }
+
+    @Override
+    public void setParameter(String key, String value) {}
+
+    @Override
+    public void setParameters(Map<String, String> parameters) {}
+
+    @Override
+    public int compareTo(SeReader o) {
+        return name.compareTo(o.getName());
+    }
+}
@@ -66,19 +66,29 @@ public abstract class AbstractApduCommandBuilder {
      */
     public final void addSubName(String subName) {
         if (subName.length() != 0) {
-            this.name = this.name + " - " + subName;
             if (request != null) {
-                this.request.setName(this.name);
+                /* kept apart in the request, concatenated only when the name is requested */
+                String requestSubName = request.getSubName();
+                this.request.setName(this.name, requestSubName == null ? subName
+                        : requestSubName + " - " + subName);
+            } else {
+                this.name = this.name + " - " + subName;
             }
         }
     }
 
     /**
      * Gets the name.
+     * <p>
+     * The name and the sub name kept by the request are concatenated here so that nothing is built
+     * when the name is not used (logs disabled).
      *
      * @return the name of the APDU command from the CalypsoCommands information.
      */
     public final String getName() {
+        if (request != null && request.getSubName() != null) {
+            return this.name + " - " + request.getSubName();
+        }
         return this.name;
     }
 
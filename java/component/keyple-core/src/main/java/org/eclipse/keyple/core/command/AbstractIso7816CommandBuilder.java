@@ -29,6 +29,15 @@ import org.eclipse.keyple.core.seproxy.message.ApduRequest;
 
 public abstract class AbstractIso7816CommandBuilder extends AbstractApduCommandBuilder {
 
+    /** Offset of the data field in an APDU buffer */
+    protected static final int APDU_DATA_OFFSET = 5;
+
+    /** Offset of the data field in an extended length APDU buffer */
+    protected static final int EXTENDED_APDU_DATA_OFFSET = 7;
+
+    /** Maximum value of Lc and Le in an extended length APDU */
+    protected static final int MAX_EXTENDED_LENGTH = 65535;
+
     /**
      * Abstract constructor to build a command with a command reference and an {@link ApduRequest}.
      *
@@ -80,17 +89,47 @@ public abstract class AbstractIso7816CommandBuilder extends AbstractApduCommandB
      */
     protected ApduRequest setApduRequest(byte cla, CommandsTable command, byte p1, byte p2,
             byte[] dataIn, Byte le) {
+        if (dataIn == null) {
+            return setApduRequest(cla, command, p1, p2, -1, le);
+        }
+        ApduRequest apduRequest = setApduRequest(cla, command, p1, p2, dataIn.length, le);
+        /* append ingoing data */
+        System.arraycopy(dataIn, 0, apduRequest.getBytes(), APDU_DATA_OFFSET, dataIn.length);
+        return apduRequest;
+    }
+
+    /**
+     * Helper method to create an ApduRequest whose data field is filled afterwards by the caller.
+     * <p>
+     * The header, Lc and Le are set here; the data field (starting at {@link #APDU_DATA_OFFSET})
+     * is left to zero so that the builder can write its variable bytes directly in the APDU buffer
+     * instead of assembling an intermediate data array.
+     * <p>
+     * The ISO7816-4 case is determined as in
+     * {@link #setApduRequest(byte, CommandsTable, byte, byte, byte[], Byte)}, a negative data
+     * length meaning no command data.
+     *
+     * @param cla class of instruction
+     * @param command instruction code
+     * @param p1 instruction parameter 1
+     * @param p2 instruction parameter 2
+     * @param dataLength the length of the data field of the command (Lc), negative if none
+     * @param le maximum number of bytes expected in the data field of the response to the command
+     * @return an ApduRequest
+     */
+    protected ApduRequest setApduRequest(byte cla, CommandsTable command, byte p1, byte p2,
+            int dataLength, Byte le) {
         boolean case4;
         /* sanity check */
-        if (dataIn != null && le != null && le != 0) {
+        if (dataLength >= 0 && le != null && le != 0) {
             throw new IllegalArgumentException(
                     "Le must be equal to 0 when not null and ingoing data are present.");
         }
 
         /* Buffer allocation */
         int length = 4; // header
-        if (dataIn != null) {
-            length += dataIn.length + 1; // Lc + data
+        if (dataLength >= 0) {
+            length += dataLength + 1; // Lc + data
         }
         if (le != null) {
             length += 1; // Le
@@ -104,10 +143,9 @@ public abstract class AbstractIso7816CommandBuilder extends AbstractApduCommandB
         apdu[3] = p2;
 
         /* ISO7618 case determination and Le management */
-        if (dataIn != null) {
-            /* append Lc and ingoing data */
-            apdu[4] = (byte) dataIn.length;
-            System.arraycopy(dataIn, 0, apdu, 5, dataIn.length);
+        if (dataLength >= 0) {
+            /* append Lc */
+            apdu[4] = (byte) dataLength;
             if (le != null) {
                 /*
                  * case4: ingoing and outgoing data, Le is always set to 0 (see Calypso Reader
@@ -132,4 +170,77 @@ public abstract class AbstractIso7816CommandBuilder extends AbstractApduCommandB
 
         return new ApduRequest(command.getName(), apdu, case4);
     }
+
+    /**
+     * Helper method to create an extended length ApduRequest (ISO7816-4 &sect;5.1) from separated
+     * elements.
+     * <p>
+     * Lc and Le are coded on two bytes after a 00h byte, allowing up to 65535 bytes of command data
+     * and up to 65536 bytes of response data in a single exchange. The ISO7816-4 case is determined
+     * as in {@link #setApduRequest(byte, CommandsTable, byte, byte, byte[], Byte)}.
+     * <p>
+     * The reader sends the command as is when both the reader and the SE support extended length
+     * APDUs, otherwise it falls back to short APDUs, splitting the command data with the ISO7816-4
+     * command chaining.
+     *
+     * @param cla class of instruction
+     * @param command instruction code
+     * @param p1 instruction parameter 1
+     * @param p2 instruction parameter 2
+     * @param dataIn bytes sent in the data field of the command (up to 65535 bytes), null if none
+     * @param le maximum number of bytes expected in the data field of the response to the command
+     *        (0 meaning 65536 bytes), null if none. Must be 0 when dataIn is not null.
+     * @return an ApduRequest
+     * @throws IllegalArgumentException if dataIn or le are out of range
+     */
+    protected ApduRequest setExtendedApduRequest(byte cla, CommandsTable command, byte p1, byte p2,
+            byte[] dataIn, Integer le) {
+        /* sanity checks */
+        if (dataIn != null && (dataIn.length == 0 || dataIn.length > MAX_EXTENDED_LENGTH)) {
+            throw new IllegalArgumentException(
+                    "The data length must be between 1 and " + MAX_EXTENDED_LENGTH + ".");
+        }
+        if (le != null && (le < 0 || le > MAX_EXTENDED_LENGTH)) {
+            throw new IllegalArgumentException(
+                    "Le must be between 0 and " + MAX_EXTENDED_LENGTH + ".");
+        }
+        if (dataIn != null && le != null && le != 0) {
+            throw new IllegalArgumentException(
+                    "Le must be equal to 0 when not null and ingoing data are present.");
+        }
+        if (dataIn == null && le == null) {
+            /* case1: nothing to extend */
+            return setApduRequest(cla, command, p1, p2, -1, null);
+        }
+
+        /* Buffer allocation: header + 00h + Lc (2) + data + Le (2) */
+        int length = 5;
+        if (dataIn != null) {
+            length += 2 + dataIn.length;
+        }
+        if (le != null) {
+            length += 2;
+        }
+        byte[] apdu = new byte[length];
+
+        apdu[0] = cla;
+        apdu[1] = command.getInstructionByte();
+        apdu[2] = p1;
+        apdu[3] = p2;
+        apdu[4] = (byte) 0x00;
+
+        if (dataIn != null) {
+            /* case3E or case4E: append Lc and ingoing data */
+            apdu[5] = (byte) (dataIn.length >> 8);
+            apdu[6] = (byte) dataIn.length;
+            System.arraycopy(dataIn, 0, apdu, EXTENDED_APDU_DATA_OFFSET, dataIn.length);
+        }
+        if (le != null) {
+            /* case2E or case4E: append Le */
+            apdu[length - 2] = (byte) (le >> 8);
+            apdu[length - 1] = (byte) (le & 0xFF);
+        }
+
+        return new ApduRequest(command.getName(), apdu, dataIn != null && le != null, true);
+    }
 }
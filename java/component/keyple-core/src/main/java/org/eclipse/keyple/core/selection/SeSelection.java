@@ -12,6 +12,11 @@
 package org.eclipse.keyple.core.selection;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import org.eclipse.keyple.core.seproxy.ChannelControl;
 import org.eclipse.keyple.core.seproxy.MultiSeRequestProcessing;
 import org.eclipse.keyple.core.seproxy.SeReader;
@@ -41,6 +46,29 @@ public final class SeSelection {
     private int selectionIndex;
     private MultiSeRequestProcessing multiSeRequestProcessing;
     private ChannelControl channelControl;
+    /* the selection plan built from the prepared selections, reset by prepareSelection */
+    private SelectionPlan selectionPlan;
+
+    /**
+     * Immutable view of the prepared selections, built once and used for each selection processing
+     * until a new selection is prepared.
+     */
+    private static final class SelectionPlan {
+        /* the selection requests indexed by selection index (response dispatch table) */
+        private final AbstractSeSelectionRequest[] seSelectionRequests;
+        /* the default selections request transmitted to the reader */
+        private final DefaultSelectionsRequest defaultSelectionsRequest;
+
+        SelectionPlan(List<AbstractSeSelectionRequest> seSelectionRequestList,
+                Set<SeRequest> selectionRequestSet,
+                MultiSeRequestProcessing multiSeRequestProcessing, ChannelControl channelControl) {
+            seSelectionRequests = seSelectionRequestList
+                    .toArray(new AbstractSeSelectionRequest[seSelectionRequestList.size()]);
+            defaultSelectionsRequest = new DefaultSelectionsRequest(
+                    Collections.unmodifiableSet(new LinkedHashSet<SeRequest>(selectionRequestSet)),
+                    multiSeRequestProcessing, channelControl);
+        }
+    }
 
     /**
      * Constructor.
@@ -80,6 +108,8 @@ public final class SeSelection {
         selectionRequestSet.add(seSelectionRequest.getSelectionRequest());
         /* keep the selection request */
         seSelectionRequestList.add(seSelectionRequest);
+        /* the selection plan has to be built again */
+        selectionPlan = null;
         /* return and post increment the selection index */
         return selectionIndex++;
     }
@@ -94,13 +124,15 @@ public final class SeSelection {
      * A {@link AbstractMatchingSe} list is build and returned. Non matching SE are signaled by a
      * null element in the list
      * 
+     * @param plan the selection plan the response relates to
      * @param defaultSelectionsResponse the selection response
      * @return the {@link SelectionsResult} containing the result of all prepared selection cases,
      *         including {@link AbstractMatchingSe} and {@link SeResponse}.
      */
-    private SelectionsResult processSelection(
+    private SelectionsResult processSelection(SelectionPlan plan,
             AbstractDefaultSelectionsResponse defaultSelectionsResponse) {
         SelectionsResult selectionsResult = new SelectionsResult();
+        AbstractSeSelectionRequest[] seSelectionRequests = plan.seSelectionRequests;
 
         int index = 0;
 
@@ -114,10 +146,10 @@ public final class SeSelection {
                  * create a AbstractMatchingSe with the class deduced from the selection request
                  * during the selection preparation
                  */
-                AbstractMatchingSe matchingSe = seSelectionRequestList.get(index).parse(seResponse);
+                AbstractMatchingSe matchingSe = seSelectionRequests[index].parse(seResponse);
 
                 selectionsResult.addMatchingSelection(new MatchingSelection(index,
-                        seSelectionRequestList.get(index), matchingSe, seResponse));
+                        seSelectionRequests[index], matchingSe, seResponse));
             }
             index++;
         }
@@ -150,7 +182,7 @@ public final class SeSelection {
                             .getSelectionSeResponseSet().size());
         }
 
-        return processSelection(defaultSelectionsResponse);
+        return processSelection(getSelectionPlan(), defaultSelectionsResponse);
     }
 
     /**
@@ -172,15 +204,144 @@ public final class SeSelection {
      */
     public SelectionsResult processExplicitSelection(SeReader seReader)
             throws KeypleReaderException {
+        return processExplicitSelection(getSelectionPlan(), seReader);
+    }
+
+    /**
+     * Execute the selection process on several readers in parallel and return a
+     * {@link SelectionsResult} for each of them.
+     * <p>
+     * The prepared selection requests are transmitted to each reader by a task submitted to the
+     * provided executor. The readers being independent, the selection lasts as long as the slowest
+     * reader instead of the sum of all readers. Each reader processes the selection requests as
+     * {@link #processExplicitSelection(SeReader)} does.
+     * <p>
+     * The method returns when all the selections are ended. If the selection failed with some
+     * readers, the exception raised by the first of them (in the provided order) is thrown.
+     *
+     * @param seReaders the SeReaders on which the selection is made
+     * @param executorService the executor running the selections (e.g. a thread pool sized to the
+     *        number of readers)
+     * @return the {@link SelectionsResult} of each reader indexed by reader name, in the order of
+     *         the provided readers
+     * @throws KeypleReaderException if the requests transmission failed with a reader or if the
+     *         current thread has been interrupted
+     * @throws IllegalArgumentException if several readers have the same name
+     * @throws RejectedExecutionException if the executor rejected the selection of a reader, the
+     *         selections already submitted are then cancelled or, if already started, waited for
+     */
+    public Map<String, SelectionsResult> processExplicitSelection(
+            Collection<? extends SeReader> seReaders, ExecutorService executorService)
+            throws KeypleReaderException {
+        /* the results are indexed by name: each reader must appear once */
+        Set<String> readerNames = new HashSet<String>();
+        for (SeReader seReader : seReaders) {
+            if (!readerNames.add(seReader.getName())) {
+                throw new IllegalArgumentException(
+                        "Several readers are named " + seReader.getName() + ".");
+            }
+        }
+        final SelectionPlan plan = getSelectionPlan();
+        Map<SeReader, Future<SelectionsResult>> futures =
+                new LinkedHashMap<SeReader, Future<SelectionsResult>>();
+        for (final SeReader seReader : seReaders) {
+            try {
+                futures.put(seReader, executorService.submit(new Callable<SelectionsResult>() {
+                    @Override
+                    public SelectionsResult call() throws KeypleReaderException {
+                        return processExplicitSelection(plan, seReader);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                logger.error("[{}] Explicit selection rejected by the executor",
+                        seReader.getName());
+                cancelSelections(futures.values());
+                throw e;
+            }
+        }
+
+        Map<String, SelectionsResult> selectionsResults =
+                new LinkedHashMap<String, SelectionsResult>();
+        Throwable failure = null;
+        for (Map.Entry<SeReader, Future<SelectionsResult>> entry : futures.entrySet()) {
+            try {
+                selectionsResults.put(entry.getKey().getName(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                logger.error("[{}] Explicit selection failed: {}", entry.getKey().getName(),
+                        e.getCause().getMessage());
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                for (Future<SelectionsResult> future : futures.values()) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new KeypleReaderException("Interrupted while waiting for the selections.",
+                        e);
+            }
+        }
+        if (failure instanceof KeypleReaderException) {
+            throw (KeypleReaderException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        return selectionsResults;
+    }
+
+    /**
+     * Cancels the selections not started yet and waits for the end of the others, so that no
+     * reader is still exchanging with its SE when the caller gets back the control
+     *
+     * @param futures the submitted selections
+     */
+    private static void cancelSelections(Collection<Future<SelectionsResult>> futures) {
+        boolean interrupted = false;
+        for (Future<SelectionsResult> future : futures) {
+            if (future.cancel(false)) {
+                continue;
+            }
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (ExecutionException e) {
+                    /* the failure is superseded by the rejection */
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Transmits the selection requests of a plan to a reader and parses the responses
+     *
+     * @param plan the selection plan
+     * @param seReader the SeReader on which the selection is made
+     * @return the {@link SelectionsResult}
+     * @throws KeypleReaderException if the requests transmission failed
+     */
+    private SelectionsResult processExplicitSelection(SelectionPlan plan, SeReader seReader)
+            throws KeypleReaderException {
         if (logger.isTraceEnabled()) {
-            logger.trace("Transmit SELECTIONREQUEST ({} request(s))", selectionRequestSet.size());
+            logger.trace("[{}] Transmit SELECTIONREQUEST ({} request(s))", seReader.getName(),
+                    plan.seSelectionRequests.length);
         }
 
         /* Communicate with the SE to do the selection */
-        List<SeResponse> seResponseList = ((ProxyReader) seReader).transmitSet(selectionRequestSet,
-                multiSeRequestProcessing, channelControl);
+        List<SeResponse> seResponseList = ((ProxyReader) seReader).transmitSet(
+                plan.defaultSelectionsRequest.getSelectionSeRequestSet(),
+                plan.defaultSelectionsRequest.getMultiSeRequestProcessing(),
+                plan.defaultSelectionsRequest.getChannelControl());
 
-        return processSelection(new DefaultSelectionsResponse(seResponseList));
+        return processSelection(plan, new DefaultSelectionsResponse(seResponseList));
     }
 
     /**
@@ -188,11 +349,28 @@ public final class SeSelection {
      * to select a SE among others through the selection process. This method is useful to build the
      * prepared selection to be executed by a reader just after a SE insertion.
      * 
+     * <p>
+     * The same immutable object is returned as long as no new selection is prepared.
+     * 
      * @return the {@link AbstractDefaultSelectionsRequest} previously prepared with
      *         prepareSelection
      */
     public AbstractDefaultSelectionsRequest getSelectionOperation() {
-        return new DefaultSelectionsRequest(selectionRequestSet, multiSeRequestProcessing,
-                channelControl);
+        return getSelectionPlan().defaultSelectionsRequest;
+    }
+
+    /**
+     * Gets the selection plan, builds it if needed
+     *
+     * @return the current {@link SelectionPlan}
+     */
+    private SelectionPlan getSelectionPlan() {
+        SelectionPlan plan = selectionPlan;
+        if (plan == null) {
+            plan = new SelectionPlan(seSelectionRequestList, selectionRequestSet,
+                    multiSeRequestProcessing, channelControl);
+            selectionPlan = plan;
+        }
+        return plan;
     }
 }
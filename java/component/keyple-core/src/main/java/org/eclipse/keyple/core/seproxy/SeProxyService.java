@@ -14,6 +14,8 @@ package org.eclipse.keyple.core.seproxy;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.keyple.core.seproxy.exception.KeyplePluginInstantiationException;
 import org.eclipse.keyple.core.seproxy.exception.KeyplePluginNotFoundException;
 import org.slf4j.Logger;
@@ -31,10 +33,14 @@ public final class SeProxyService {
     /** singleton instance of SeProxyService */
     private static SeProxyService uniqueInstance = new SeProxyService();
 
-    /** the list of readers’ plugins interfaced with the SE Proxy Service */
-    private final Set<ReaderPlugin> plugins = new HashSet<ReaderPlugin>();
+    /** the readers’ plugins interfaced with the SE Proxy Service, indexed by name */
+    private final ConcurrentMap<String, ReaderPlugin> plugins =
+            new ConcurrentHashMap<String, ReaderPlugin>();
 
-    // this is the object we will be synchronizing on ("the monitor")
+    /** sorted snapshot of the plugins, null when it has to be built again */
+    private volatile SortedSet<ReaderPlugin> pluginsSnapshot;
+
+    // this is the object we will be synchronizing on ("the monitor") when modifying the plugins
     private final Object MONITOR = new Object();
 
     /**
@@ -68,7 +74,8 @@ public final class SeProxyService {
                 logger.info("Registering a new Plugin to the platform : {}",
                         pluginFactory.getPluginName());
                 ReaderPlugin newPlugin = pluginFactory.getPluginInstance();
-                this.plugins.add(newPlugin);
+                this.plugins.put(newPlugin.getName(), newPlugin);
+                pluginsSnapshot = null;
             } else {
                 logger.warn("Plugin has already been registered to the platform : {}",
                         pluginFactory.getPluginName());
@@ -84,18 +91,15 @@ public final class SeProxyService {
      * @return true if the plugin was successfully unregistered
      */
     public boolean unregisterPlugin(String pluginName) {
-        ReaderPlugin readerPlugin = null;
-
         synchronized (MONITOR) {
-            try {
-                readerPlugin = this.getPlugin(pluginName);
-                logger.info("Unregistering a plugin from the platform : {}",
-                        readerPlugin.getName());
-                return plugins.remove(readerPlugin);
-            } catch (KeyplePluginNotFoundException e) {
+            ReaderPlugin readerPlugin = pluginName != null ? plugins.remove(pluginName) : null;
+            if (readerPlugin == null) {
                 logger.info("Plugin is not registered to the platform : {}", pluginName);
                 return false;
             }
+            pluginsSnapshot = null;
+            logger.info("Unregistering a plugin from the platform : {}", readerPlugin.getName());
+            return true;
         }
     }
 
@@ -105,27 +109,30 @@ public final class SeProxyService {
      * @param pluginName : name of the plugin to be checked
      * @return true if a plugin with matching name has been registered
      */
-    public synchronized boolean isRegistered(String pluginName) {
-        synchronized (MONITOR) {
-            for (ReaderPlugin registeredPlugin : plugins) {
-                if (registeredPlugin.getName().equals(pluginName)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
+    public boolean isRegistered(String pluginName) {
+        return pluginName != null && plugins.containsKey(pluginName);
     }
 
-
-
     /**
      * Gets the plugins.
+     * <p>
+     * The returned set is a snapshot kept until a plugin is registered or unregistered.
      *
-     * @return the plugins the list of interfaced reader’s plugins.
+     * @return the plugins the unmodifiable list of interfaced reader’s plugins.
      */
-    public synchronized SortedSet<ReaderPlugin> getPlugins() {
-        return new TreeSet<ReaderPlugin>(plugins);
+    public SortedSet<ReaderPlugin> getPlugins() {
+        SortedSet<ReaderPlugin> snapshot = pluginsSnapshot;
+        if (snapshot == null) {
+            synchronized (MONITOR) {
+                snapshot = pluginsSnapshot;
+                if (snapshot == null) {
+                    snapshot = Collections.unmodifiableSortedSet(
+                            new TreeSet<ReaderPlugin>(plugins.values()));
+                    pluginsSnapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
     }
 
     /**
@@ -135,15 +142,12 @@ public final class SeProxyService {
      * @return the plugin
      * @throws KeyplePluginNotFoundException if the wanted plugin is not found
      */
-    public synchronized ReaderPlugin getPlugin(String name) throws KeyplePluginNotFoundException {
-        synchronized (MONITOR) {
-            for (ReaderPlugin plugin : plugins) {
-                if (plugin.getName().equals(name)) {
-                    return plugin;
-                }
-            }
+    public ReaderPlugin getPlugin(String name) throws KeyplePluginNotFoundException {
+        ReaderPlugin plugin = name != null ? plugins.get(name) : null;
+        if (plugin == null) {
             throw new KeyplePluginNotFoundException(name);
         }
+        return plugin;
     }
 
     /**
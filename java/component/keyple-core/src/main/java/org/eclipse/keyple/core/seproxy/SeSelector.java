@@ -256,6 +256,11 @@ public class SeSelector {
          */
         private String atrRegex;
 
+        /**
+         * The compiled regular expression (built on first use)
+         */
+        private transient Pattern atrPattern;
+
         /**
          * Regular expression based filter
          *
@@ -272,6 +277,7 @@ public class SeSelector {
          */
         public void setAtrRegex(String atrRegex) {
             this.atrRegex = atrRegex;
+            this.atrPattern = null;
         }
 
         /**
@@ -294,7 +300,12 @@ public class SeSelector {
         public boolean atrMatches(byte[] atr) {
             boolean m;
             if (atrRegex.length() != 0) {
-                Pattern p = Pattern.compile(atrRegex);
+                /* the regular expression is compiled once for all the SE insertions */
+                Pattern p = atrPattern;
+                if (p == null) {
+                    p = Pattern.compile(atrRegex);
+                    atrPattern = p;
+                }
                 String atrString = ByteArrayUtil.toHex(atr);
                 m = p.matcher(atrString).matches();
             } else {
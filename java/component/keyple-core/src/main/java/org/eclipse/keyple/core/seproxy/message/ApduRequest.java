@@ -38,6 +38,12 @@ public final class ApduRequest implements Serializable {
      */
     private final boolean case4;
 
+    /**
+     * true if the APDU is coded with extended length fields (ISO7816-4 &sect;5.1): a 00h byte
+     * follows the header, then Lc and/or Le on two bytes each.
+     */
+    private final boolean extendedLength;
+
     /**
      * List of status codes that should be considered successful although they are different from
      * 9000
@@ -49,6 +55,13 @@ public final class ApduRequest implements Serializable {
      */
     private String name;
 
+    /**
+     * Complement of the name (optional, appended to the name when it is requested).
+     * <p>
+     * Transient: it is not part of the serialized form of the request.
+     */
+    private transient String subName;
+
 
 
     /**
@@ -61,8 +74,23 @@ public final class ApduRequest implements Serializable {
      *        different from 9000
      */
     public ApduRequest(byte[] buffer, boolean case4, Set<Integer> successfulStatusCodes) {
+        this(buffer, case4, false, successfulStatusCodes);
+    }
+
+    /**
+     * Constructor of an APDU request possibly coded with extended length fields
+     *
+     * @param buffer Buffer of the APDU request
+     * @param case4 the case 4
+     * @param extendedLength true if the APDU is coded with extended length fields
+     * @param successfulStatusCodes the list of status codes to be considered as successful although
+     *        different from 9000
+     */
+    public ApduRequest(byte[] buffer, boolean case4, boolean extendedLength,
+            Set<Integer> successfulStatusCodes) {
         this.bytes = buffer;
         this.case4 = case4;
+        this.extendedLength = extendedLength;
         this.successfulStatusCodes = successfulStatusCodes;
     }
 
@@ -103,6 +131,19 @@ public final class ApduRequest implements Serializable {
         this.name = name;
     }
 
+    /**
+     * Alternate constructor with name and extended length flag, without status codes list
+     *
+     * @param name name to be printed (e.g. in logs)
+     * @param buffer data buffer
+     * @param case4 case 4 flag (true if case 4)
+     * @param extendedLength true if the APDU is coded with extended length fields
+     */
+    public ApduRequest(String name, byte[] buffer, boolean case4, boolean extendedLength) {
+        this(buffer, case4, extendedLength, null);
+        this.name = name;
+    }
+
     /**
      * Checks if is case 4.
      *
@@ -112,6 +153,16 @@ public final class ApduRequest implements Serializable {
         return case4;
     }
 
+    /**
+     * Tells if the APDU is coded with extended length fields (ISO7816-4 &sect;5.1), as declared
+     * when the request was built.
+     *
+     * @return true if the APDU has extended length fields
+     */
+    public boolean isExtendedLength() {
+        return extendedLength;
+    }
+
 
     /**
      * Name this APDU request
@@ -120,6 +171,19 @@ public final class ApduRequest implements Serializable {
      */
     public void setName(final String name) {
         this.name = name;
+        this.subName = null;
+    }
+
+    /**
+     * Name this APDU request with a name and a complement, concatenated only when the name is
+     * requested.
+     *
+     * @param name Name of the APDU request
+     * @param subName complement of the name (may be null)
+     */
+    public void setName(final String name, final String subName) {
+        this.name = name;
+        this.subName = subName;
     }
 
     /**
@@ -137,7 +201,16 @@ public final class ApduRequest implements Serializable {
      * @return Name of the APDU request
      */
     public String getName() {
-        return name;
+        return subName == null ? name : name + " - " + subName;
+    }
+
+    /**
+     * Get the complement of the name of this APDU request
+     *
+     * @return the complement set with {@link #setName(String, String)}, null if none
+     */
+    public String getSubName() {
+        return subName;
     }
 
     /**
@@ -157,6 +230,9 @@ public final class ApduRequest implements Serializable {
         if (isCase4()) {
             string.append(", case4");
         }
+        if (extendedLength) {
+            string.append(", extended length");
+        }
         if (successfulStatusCodes != null) {
             string.append(", additional successful status codes = ");
             Iterator<Integer> iterator = successfulStatusCodes.iterator();
@@ -100,6 +100,15 @@ public final class ApduResponse implements Serializable {
         return this.bytes;
     }
 
+    /**
+     * Get the length of the data before the statusCode, without copying them
+     *
+     * @return the length of the outgoing data (0 if none)
+     */
+    public int getDataOutLength() {
+        return bytes == null ? 0 : bytes.length - 2;
+    }
+
     /**
      * Get the data before the statusCode
      * 
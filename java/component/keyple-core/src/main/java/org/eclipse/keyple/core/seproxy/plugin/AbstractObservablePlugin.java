@@ -11,8 +11,6 @@
  ********************************************************************************/
 package org.eclipse.keyple.core.seproxy.plugin;
 
-import java.util.ArrayList;
-import java.util.List;
 import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
 import org.eclipse.keyple.core.seproxy.event.PluginEvent;
 import org.slf4j.Logger;
@@ -26,12 +24,13 @@ public abstract class AbstractObservablePlugin extends AbstractPlugin implements
     private static final Logger logger = LoggerFactory.getLogger(AbstractObservablePlugin.class);
 
     /* The observers of this object */
-    private List<ObservablePlugin.PluginObserver> observers;
-    /*
-     * this object will be used to synchronize the access to the observers list in order to be
-     * thread safe
-     */
-    private final Object sync = new Object();
+    private final ObserverDispatcher<ObservablePlugin.PluginObserver, PluginEvent> observers =
+            new ObserverDispatcher<ObservablePlugin.PluginObserver, PluginEvent>(getName()) {
+                @Override
+                protected void deliver(PluginObserver observer, PluginEvent event) {
+                    observer.update(event);
+                }
+            };
 
     /**
      * Instantiates a observable plugin.
@@ -61,12 +60,7 @@ public abstract class AbstractObservablePlugin extends AbstractPlugin implements
                     getName());
         }
 
-        synchronized (sync) {
-            if (observers == null) {
-                observers = new ArrayList<PluginObserver>(1);
-            }
-            observers.add(observer);
-        }
+        observers.addObserver(observer);
     }
 
     /**
@@ -84,11 +78,7 @@ public abstract class AbstractObservablePlugin extends AbstractPlugin implements
         if (logger.isTraceEnabled()) {
             logger.trace("[{}] Deleting a plugin observer", getName());
         }
-        synchronized (sync) {
-            if (observers != null) {
-                observers.remove(observer);
-            }
-        }
+        observers.removeObserver(observer);
     }
 
     /**
@@ -96,16 +86,42 @@ public abstract class AbstractObservablePlugin extends AbstractPlugin implements
      */
     @Deprecated // will change in a later version
     public void clearObservers() {
-        if (observers != null) {
-            this.observers.clear();
-        }
+        observers.clearObservers();
     }
 
     /**
      * @return the number of observers
      */
     public final int countObservers() {
-        return observers == null ? 0 : observers.size();
+        return observers.countObservers();
+    }
+
+    /**
+     * Deliver the events to each observer from a dedicated queue instead of the notifying thread.
+     * <p>
+     * A slow observer then no longer delays the detection of the readers nor the other observers.
+     *
+     * @param queueCapacity the maximum number of events waiting for each observer
+     * @param overflowPolicy the {@link ObserverDispatcher.OverflowPolicy} applied when the queue of
+     *        an observer is full
+     */
+    public final void setAsynchronousNotification(int queueCapacity,
+            ObserverDispatcher.OverflowPolicy overflowPolicy) {
+        observers.setAsynchronousDelivery(queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * Deliver the events to the observers from the notifying thread (default)
+     */
+    public final void setSynchronousNotification() {
+        observers.setSynchronousDelivery();
+    }
+
+    /**
+     * @return the number of events dropped because the queue of an observer was full
+     */
+    public final long getDroppedEventCount() {
+        return observers.getDroppedEventCount();
     }
 
     /**
@@ -121,17 +137,6 @@ public abstract class AbstractObservablePlugin extends AbstractPlugin implements
             logger.trace("[{}] Notifying a plugin event to {} observers. EVENTNAME = {} ",
                     this.getName(), countObservers(), event.getEventType().getName());
         }
-        List<PluginObserver> observersCopy;
-
-        synchronized (sync) {
-            if (observers == null) {
-                return;
-            }
-            observersCopy = new ArrayList<PluginObserver>(observers);
-        }
-
-        for (ObservablePlugin.PluginObserver observer : observersCopy) {
-            observer.update(event);
-        }
+        observers.notifyObservers(event);
     }
 }
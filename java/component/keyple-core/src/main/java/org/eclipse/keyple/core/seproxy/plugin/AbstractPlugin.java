@@ -23,10 +23,13 @@ import org.eclipse.keyple.core.seproxy.exception.*;
  */
 public abstract class AbstractPlugin extends AbstractSeProxyComponent implements ReaderPlugin {
 
+    /* the readers indexed by name, same instance as readers */
+    private final NamedReaderSet namedReaders = new NamedReaderSet();
+
     /**
-     * The list of readers
+     * The list of readers (indexed by name, see {@link NamedReaderSet})
      */
-    protected ConcurrentSkipListSet<SeReader> readers = new ConcurrentSkipListSet<SeReader>();
+    protected final ConcurrentSkipListSet<SeReader> readers = namedReaders;
 
     /**
      * Instantiates a new ReaderPlugin. Retrieve the current readers list.
@@ -64,17 +67,14 @@ public abstract class AbstractPlugin extends AbstractSeProxyComponent implements
     /**
      * Returns the current list of reader names.
      *
-     * The list of names is built from the current readers list
+     * The list of names is built from the current readers list and kept until the readers list
+     * changes.
      *
-     * @return a list of String
+     * @return an unmodifiable list of String
      */
     @Override
     public final SortedSet<String> getReaderNames() {
-        SortedSet<String> readerNames = new ConcurrentSkipListSet<String>();
-        for (SeReader reader : readers) {
-            readerNames.add(reader.getName());
-        }
-        return readerNames;
+        return namedReaders.getNames();
     }
 
     /**
@@ -113,11 +113,10 @@ public abstract class AbstractPlugin extends AbstractSeProxyComponent implements
      */
     @Override
     public final SeReader getReader(String name) throws KeypleReaderNotFoundException {
-        for (SeReader reader : readers) {
-            if (reader.getName().equals(name)) {
-                return reader;
-            }
+        SeReader reader = name != null ? namedReaders.get(name) : null;
+        if (reader == null) {
+            throw new KeypleReaderNotFoundException(name);
         }
-        throw new KeypleReaderNotFoundException(name);
+        return reader;
     }
 }
@@ -13,6 +13,7 @@ package org.eclipse.keyple.core.seproxy.plugin;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
 import org.eclipse.keyple.core.seproxy.event.ObservableReader;
@@ -24,6 +25,19 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@link AbstractThreadedObservablePlugin} class provides the means to observe a plugin
  * (insertion/removal of readers) using a monitoring thread.
+ * <p>
+ * The monitoring thread compares the list of native readers names with the known readers and
+ * notifies the connections and disconnections. It is started when the first observer is added and
+ * stopped (and joined) when the last observer is removed.
+ * <p>
+ * The list of native readers is checked:
+ * <ul>
+ * <li>immediately when the plugin signals a change with {@link #nativeReadersChanged()} (push
+ * mode), for plugins able to know when their readers change;</li>
+ * <li>periodically otherwise. The period starts at {@link #threadWaitTimeout} and, while nothing
+ * changes, doubles up to {@link #threadWaitTimeoutMax}. A random jitter of 10% is applied to avoid
+ * the synchronization of several plugins.</li>
+ * </ul>
  */
 public abstract class AbstractThreadedObservablePlugin extends AbstractObservablePlugin {
     private static final Logger logger =
@@ -58,6 +72,19 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
      */
     protected abstract SeReader fetchNativeReader(String name) throws KeypleReaderException;
 
+    /**
+     * Signals that the list of native readers has changed.
+     * <p>
+     * The monitoring thread (if any) fetches the native readers names without waiting for the end
+     * of the current polling period and notifies the observers. This method does not block.
+     */
+    protected final void nativeReadersChanged() {
+        synchronized (signal) {
+            changeSignaled = true;
+            signal.notifyAll();
+        }
+    }
+
     /**
      * Add a plugin observer.
      * <p>
@@ -69,12 +96,14 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
     @Override
     public final void addObserver(final ObservablePlugin.PluginObserver observer) {
         super.addObserver(observer);
-        if (countObservers() == 1) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Start monitoring the plugin {}", this.getName());
+        synchronized (threadLock) {
+            if (thread == null && countObservers() > 0) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Start monitoring the plugin {}", this.getName());
+                }
+                thread = new EventThread(this.getName());
+                thread.start();
             }
-            thread = new EventThread(this.getName());
-            thread.start();
         }
     }
 
@@ -89,31 +118,20 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
     @Override
     public final void removeObserver(final ObservablePlugin.PluginObserver observer) {
         super.removeObserver(observer);
-        if (countObservers() == 0) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Stop the plugin monitoring.");
-            }
-            if (thread != null) {
-                thread.end();
-            }
-        }
+        stopMonitoring();
     }
 
     /**
      * Remove all observers at once
      * <p>
-     * Overrides the method defined in {@link AbstractObservablePlugin}, the thread is ended.
+     * Overrides the method defined in {@link AbstractObservablePlugin}, the thread is ended unless
+     * an observer has been added concurrently.
      */
     @Deprecated // will change in a later version
     @Override
     public final void clearObservers() {
         super.clearObservers();
-        if (thread != null) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Stop the plugin monitoring.");
-            }
-            thread.end();
-        }
+        stopMonitoring();
     }
 
     /**
@@ -123,16 +141,66 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
      */
     @Deprecated // will change in a later version
     protected Boolean isMonitoring() {
-        return thread != null && thread.isAlive() && thread.isMonitoring();
+        EventThread currentThread = thread;
+        return currentThread != null && currentThread.isAlive() && currentThread.isMonitoring();
+    }
+
+    /**
+     * Ends the monitoring thread if there is no observer left and waits for its termination (unless
+     * called from the monitoring thread itself, e.g. by an observer removing itself).
+     * <p>
+     * The observers are counted under the lock guarding the start of the thread, so that an
+     * observer added concurrently is never left without monitoring thread.
+     */
+    private void stopMonitoring() {
+        EventThread endedThread;
+        synchronized (threadLock) {
+            if (countObservers() > 0) {
+                return;
+            }
+            endedThread = thread;
+            thread = null;
+        }
+        if (endedThread == null) {
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Stop the plugin monitoring.");
+        }
+        endedThread.end();
+        if (Thread.currentThread() != endedThread) {
+            try {
+                endedThread.join(THREAD_JOIN_TIMEOUT);
+            } catch (InterruptedException e) {
+                // Restore interrupted state...
+                Thread.currentThread().interrupt();
+            }
+            if (endedThread.isAlive()) {
+                logger.warn("[{}] Observable Plugin thread did not end within {} ms.",
+                        this.getName(), THREAD_JOIN_TIMEOUT);
+            } else if (logger.isTraceEnabled()) {
+                logger.trace("[{}] Observable Plugin thread ended.", this.getName());
+            }
+        }
     }
 
     /* Reader insertion/removal management */
     private static final long SETTING_THREAD_TIMEOUT_DEFAULT = 1000;
 
+    /* maximum time (in ms) to wait for the end of the monitoring thread */
+    private static final long THREAD_JOIN_TIMEOUT = 2000;
+
     /**
      * Local thread to monitoring readers presence
      */
-    private EventThread thread;
+    private volatile EventThread thread;
+
+    /* guards the start and the end of the monitoring thread */
+    private final Object threadLock = new Object();
+
+    /* used by the plugin to wake up the monitoring thread, see nativeReadersChanged */
+    private final Object signal = new Object();
+    private boolean changeSignaled;
 
     /**
      * Thread wait timeout in ms
@@ -141,6 +209,14 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
      */
     protected long threadWaitTimeout = SETTING_THREAD_TIMEOUT_DEFAULT;
 
+    /**
+     * Maximum thread wait timeout in ms
+     * <p>
+     * The polling period grows up to this value while the readers list does not change. It has no
+     * effect if it is lower than {@link #threadWaitTimeout}.
+     */
+    protected long threadWaitTimeoutMax = SETTING_THREAD_TIMEOUT_DEFAULT;
+
     /**
      * List of names of the physical (native) connected readers This list helps synchronizing
      * physical readers managed by third-party library such as smardcard.io and the list of keyple
@@ -154,14 +230,18 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
      */
     private class EventThread extends Thread {
         private final String pluginName;
-        private boolean running = true;
+        private final Random random = new Random();
+        private volatile boolean running = true;
 
         private EventThread(String pluginName) {
+            super(pluginName + "-monitoring");
             this.pluginName = pluginName;
+            /* the thread never prevents the JVM from exiting */
+            setDaemon(true);
         }
 
         /**
-         * Marks the thread as one that should end when the last cardWaitTimeout occurs
+         * Marks the thread as one that should end and wakes it up
          */
         void end() {
             running = false;
@@ -172,98 +252,50 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
             return running;
         }
 
+        /**
+         * Waits for a change signal or the end of the current period
+         *
+         * @param period the polling period in ms
+         * @throws InterruptedException if the thread is ended
+         */
+        private void waitForChange(long period) throws InterruptedException {
+            /* jitter of +/- 10% */
+            long timeout = period + (long) ((random.nextDouble() - 0.5) * period / 5);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            synchronized (signal) {
+                while (!changeSignaled && running) {
+                    long remaining =
+                            TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    signal.wait(remaining);
+                }
+                changeSignaled = false;
+            }
+        }
+
         @Override
         public void run() {
-            SortedSet<String> changedReaderNames = new ConcurrentSkipListSet<String>();
+            long period = threadWaitTimeout;
             try {
                 while (running) {
-                    /* retrieves the current readers names list */
-                    SortedSet<String> actualNativeReadersNames =
-                            AbstractThreadedObservablePlugin.this.fetchNativeReadersNames();
-                    /*
-                     * checks if it has changed this algorithm favors cases where nothing change
-                     */
-                    if (!nativeReadersNames.equals(actualNativeReadersNames)) {
-                        /*
-                         * parse the current readers list, notify for disappeared readers, update
-                         * readers list
-                         */
-                        /* build changed reader names list */
-                        changedReaderNames.clear();
-                        for (SeReader reader : readers) {
-                            if (!actualNativeReadersNames.contains(reader.getName())) {
-                                changedReaderNames.add(reader.getName());
-                            }
-                        }
-                        /* notify disconnections if any and update the reader list */
-                        if (!changedReaderNames.isEmpty()) {
-                            /* grouped notification */
-                            if (logger.isTraceEnabled()) {
-                                logger.trace("Notifying disconnection(s): {}", changedReaderNames);
-                            }
-                            notifyObservers(new PluginEvent(this.pluginName, changedReaderNames,
-                                    PluginEvent.EventType.READER_DISCONNECTED));
-                            /* list update */
-                            for (SeReader reader : readers) {
-                                if (!actualNativeReadersNames.contains(reader.getName())) {
-                                    /* removes any possible observers before removing the reader */
-                                    if (reader instanceof ObservableReader) {
-                                        ((ObservableReader) reader).clearObservers();
-
-                                        /*
-                                         * In case where Reader was detected SE
-                                         */
-                                        ((ObservableReader) reader).stopSeDetection();
-                                    }
-                                    readers.remove(reader);
-                                    if (logger.isTraceEnabled()) {
-                                        logger.trace(
-                                                "[{}][{}] Plugin thread => Remove unplugged reader from readers list.",
-                                                this.pluginName, reader.getName());
-                                    }
-                                    /* remove reader name from the current list */
-                                    nativeReadersNames.remove(reader.getName());
-
-                                }
-                            }
-                            /* clean the list for a possible connection notification */
-                            changedReaderNames.clear();
-                        }
-                        /*
-                         * parse the new readers list, notify for readers appearance, update readers
-                         * list
-                         */
-                        for (String readerName : actualNativeReadersNames) {
-                            if (!nativeReadersNames.contains(readerName)) {
-                                SeReader reader = fetchNativeReader(readerName);
-                                readers.add(reader);
-                                /* add to the notification list */
-                                changedReaderNames.add(readerName);
-                                if (logger.isTraceEnabled()) {
-                                    logger.trace(
-                                            "[{}][{}] Plugin thread => Add plugged reader to readers list.",
-                                            this.pluginName, reader.getName());
-                                }
-                                /* add reader name to the current list */
-                                nativeReadersNames.add(readerName);
-                            }
-                        }
-                        /* notify connections if any */
-                        if (!changedReaderNames.isEmpty()) {
-                            if (logger.isTraceEnabled()) {
-                                logger.trace("Notifying connection(s): {}", changedReaderNames);
-                            }
-                            notifyObservers(new PluginEvent(this.pluginName, changedReaderNames,
-                                    PluginEvent.EventType.READER_CONNECTED));
-                        }
+                    if (refreshReaders(this.pluginName)) {
+                        period = threadWaitTimeout;
+                    } else {
+                        /* nothing changed, slow down the polling */
+                        period = Math.max(threadWaitTimeout,
+                                Math.min(period * 2, threadWaitTimeoutMax));
                     }
-                    /* sleep for a while. */
-                    Thread.sleep(threadWaitTimeout);
+                    waitForChange(period);
                 }
             } catch (InterruptedException e) {
-                logger.warn("[{}] An exception occurred while monitoring plugin: {}, cause {}",
-                        this.pluginName, e.getMessage(), e.getCause());
-                // Restore interrupted state...      
+                if (running) {
+                    logger.warn(
+                            "[{}] An exception occurred while monitoring plugin: {}, cause {}",
+                            this.pluginName, e.getMessage(), e.getCause());
+                }
+                // Restore interrupted state...
                 Thread.currentThread().interrupt();
             } catch (KeypleReaderException e) {
                 logger.warn("[{}] An exception occurred while monitoring plugin: {}, cause {}",
@@ -273,16 +305,90 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
     }
 
     /**
-     * Called when the class is unloaded. Attempt to do a clean exit.
+     * Compares the native readers with the known readers, updates the readers list and notifies the
+     * connections and disconnections
      *
-     * @throws Throwable a generic exception
+     * @param pluginName the plugin name
+     * @return true if the readers list has changed
+     * @throws KeypleReaderException if a reader error occurs
      */
-    @Override
-    protected void finalize() throws Throwable {
-        thread.end();
-        if (logger.isTraceEnabled()) {
-            logger.trace("[{}] Observable Plugin thread ended.", this.getName());
+    private boolean refreshReaders(String pluginName) throws KeypleReaderException {
+        /* retrieves the current readers names list */
+        SortedSet<String> actualNativeReadersNames = fetchNativeReadersNames();
+        /*
+         * checks if it has changed this algorithm favors cases where nothing change
+         */
+        if (nativeReadersNames.equals(actualNativeReadersNames)) {
+            return false;
+        }
+        SortedSet<String> changedReaderNames = new ConcurrentSkipListSet<String>();
+        /*
+         * parse the current readers list, notify for disappeared readers, update readers list
+         */
+        /* build changed reader names list */
+        for (SeReader reader : readers) {
+            if (!actualNativeReadersNames.contains(reader.getName())) {
+                changedReaderNames.add(reader.getName());
+            }
+        }
+        /* notify disconnections if any and update the reader list */
+        if (!changedReaderNames.isEmpty()) {
+            /* grouped notification */
+            if (logger.isTraceEnabled()) {
+                logger.trace("Notifying disconnection(s): {}", changedReaderNames);
+            }
+            notifyObservers(new PluginEvent(pluginName, changedReaderNames,
+                    PluginEvent.EventType.READER_DISCONNECTED));
+            /* list update */
+            for (SeReader reader : readers) {
+                if (!actualNativeReadersNames.contains(reader.getName())) {
+                    /* removes any possible observers before removing the reader */
+                    if (reader instanceof ObservableReader) {
+                        ((ObservableReader) reader).clearObservers();
+
+                        /*
+                         * In case where Reader was detected SE
+                         */
+                        ((ObservableReader) reader).stopSeDetection();
+                    }
+                    readers.remove(reader);
+                    if (logger.isTraceEnabled()) {
+                        logger.trace(
+                                "[{}][{}] Plugin thread => Remove unplugged reader from readers list.",
+                                pluginName, reader.getName());
+                    }
+                }
+            }
+            /* new list for a possible connection notification */
+            changedReaderNames = new ConcurrentSkipListSet<String>();
+        }
+        /* forget the names of the readers no longer connected */
+        nativeReadersNames.retainAll(actualNativeReadersNames);
+        /*
+         * parse the new readers list, notify for readers appearance, update readers list
+         */
+        for (String readerName : actualNativeReadersNames) {
+            if (!nativeReadersNames.contains(readerName)) {
+                SeReader reader = fetchNativeReader(readerName);
+                readers.add(reader);
+                /* add to the notification list */
+                changedReaderNames.add(readerName);
+                if (logger.isTraceEnabled()) {
+                    logger.trace("[{}][{}] Plugin thread => Add plugged reader to readers list.",
+                            pluginName, reader.getName());
+                }
+                /* add reader name to the current list */
+                nativeReadersNames.add(readerName);
+            }
+        }
+        /* notify connections if any */
+        if (!changedReaderNames.isEmpty()) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Notifying connection(s): {}", changedReaderNames);
+            }
+            notifyObservers(new PluginEvent(pluginName, changedReaderNames,
+                    PluginEvent.EventType.READER_CONNECTED));
         }
-        super.finalize();
+        return true;
     }
 }
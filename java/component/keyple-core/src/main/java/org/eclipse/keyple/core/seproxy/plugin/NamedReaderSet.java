@@ -0,0 +1,177 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.core.seproxy.SeReader;
+
+/**
+ * Sorted set of readers maintaining an index of the readers by name.
+ * <p>
+ * The lookup by name ({@link #get(String)}) is a lock-free hash map access. The sorted set of
+ * reader names is built once and kept until the set is modified: it is tagged with the number of
+ * modifications seen when it was built, a snapshot built during a modification is thus never
+ * returned once the modification is complete.
+ * <p>
+ * All the modifications go through {@link #add(SeReader)}, {@link #remove(Object)} and the
+ * iterators so that the index is kept up to date; the subset views must not be modified.
+ */
+final class NamedReaderSet extends ConcurrentSkipListSet<SeReader> {
+
+    private static final long serialVersionUID = -3404568424766473207L;
+
+    /* the readers indexed by name */
+    private final ConcurrentMap<String, SeReader> readersByName =
+            new ConcurrentHashMap<String, SeReader>();
+
+    /* number of modifications, incremented once the modification is visible */
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /* the last reader names snapshot, null if not built yet */
+    private transient volatile ReaderNames readerNames;
+
+    /**
+     * Gets a reader by name
+     *
+     * @param name the reader name
+     * @return the reader or null if no reader has this name
+     */
+    SeReader get(String name) {
+        return readersByName.get(name);
+    }
+
+    /**
+     * Gets the names of the readers
+     *
+     * @return an unmodifiable sorted set of names
+     */
+    SortedSet<String> getNames() {
+        long count = modificationCount.get();
+        ReaderNames names = readerNames;
+        if (names == null || names.modificationCount != count) {
+            SortedSet<String> newNames = new TreeSet<String>();
+            for (SeReader reader : this) {
+                newNames.add(reader.getName());
+            }
+            /* built after the modifications counted, stale once the count changes */
+            names = new ReaderNames(count, Collections.unmodifiableSortedSet(newNames));
+            readerNames = names;
+        }
+        return names.names;
+    }
+
+    @Override
+    public boolean add(SeReader reader) {
+        if (!super.add(reader)) {
+            return false;
+        }
+        readersByName.put(reader.getName(), reader);
+        modificationCount.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!super.remove(o)) {
+            return false;
+        }
+        unindex((SeReader) o);
+        return true;
+    }
+
+    @Override
+    public SeReader pollFirst() {
+        SeReader reader = super.pollFirst();
+        unindex(reader);
+        return reader;
+    }
+
+    @Override
+    public SeReader pollLast() {
+        SeReader reader = super.pollLast();
+        unindex(reader);
+        return reader;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        readersByName.clear();
+        modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public Iterator<SeReader> iterator() {
+        return new IndexedIterator(super.iterator());
+    }
+
+    @Override
+    public Iterator<SeReader> descendingIterator() {
+        return new IndexedIterator(super.descendingIterator());
+    }
+
+    private void unindex(SeReader reader) {
+        if (reader != null) {
+            readersByName.remove(reader.getName(), reader);
+            modificationCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reader names snapshot, with the number of modifications seen when it was built
+     */
+    private static final class ReaderNames {
+        private final long modificationCount;
+        private final SortedSet<String> names;
+
+        ReaderNames(long modificationCount, SortedSet<String> names) {
+            this.modificationCount = modificationCount;
+            this.names = names;
+        }
+    }
+
+    /**
+     * Iterator updating the index when a reader is removed through it
+     */
+    private final class IndexedIterator implements Iterator<SeReader> {
+        private final Iterator<SeReader> iterator;
+        private SeReader current;
+
+        IndexedIterator(Iterator<SeReader> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public SeReader next() {
+            current = iterator.next();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+            unindex(current);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manages the observers of an observable plugin or reader and delivers the events to them.
+ * <p>
+ * The observers are kept in a copy-on-write list: a notification iterates over the current
+ * snapshot without any lock nor copy, adding or removing an observer replaces the snapshot.
+ * <p>
+ * Two delivery modes are available:
+ * <ul>
+ * <li>synchronous (default): the observers are called one after the other by the thread notifying
+ * the event (e.g. the monitoring thread of the reader).</li>
+ * <li>asynchronous: each observer has its own bounded queue, emptied by a pool thread. The
+ * notifying thread only posts the events and never waits for an observer. The events are delivered
+ * to each observer in the order of notification. When the queue of an observer is full, the
+ * {@link OverflowPolicy} decides which event is dropped.</li>
+ * </ul>
+ * <p>
+ * The order of delivery is only guaranteed between two changes of the delivery mode: the events
+ * still queued when the mode is changed are delivered by the previous delivery threads, possibly
+ * after or concurrently with the events notified afterwards. The delivery mode should thus be set
+ * before the events are notified, e.g. when the plugin or reader is created.
+ *
+ * @param <T> the observer type
+ * @param <E> the event type
+ */
+public abstract class ObserverDispatcher<T, E> {
+    private static final Logger logger = LoggerFactory.getLogger(ObserverDispatcher.class);
+
+    /**
+     * Defines the event dropped when the queue of an observer is full (asynchronous delivery only)
+     */
+    public enum OverflowPolicy {
+        /** the oldest pending event is dropped to make room for the new one */
+        DROP_OLDEST,
+        /** the new event is dropped */
+        DROP_NEWEST
+    }
+
+    private final String name;
+
+    /* the current snapshot of observers, replaced on each change */
+    private volatile List<ObserverEntry> entries = Collections.emptyList();
+
+    /* the queue capacity in asynchronous mode, 0 in synchronous mode */
+    private int queueCapacity;
+    private OverflowPolicy overflowPolicy;
+
+    /*
+     * the daemon threads delivering the events in asynchronous mode, created on first use and shut
+     * down when the last observer is removed or when switching back to synchronous mode
+     */
+    private ExecutorService executorService;
+
+    private final AtomicLong droppedEventCount = new AtomicLong();
+
+    /*
+     * this object will be used to synchronize the changes of the observers list and of the delivery
+     * mode
+     */
+    private final Object sync = new Object();
+
+    /**
+     * Constructor
+     *
+     * @param name the name of the observed plugin or reader (used to name the delivery threads)
+     */
+    protected ObserverDispatcher(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Delivers an event to an observer
+     *
+     * @param observer the observer
+     * @param event the event
+     */
+    protected abstract void deliver(T observer, E event);
+
+    /**
+     * Add an observer
+     *
+     * @param observer the observer object
+     */
+    public final void addObserver(T observer) {
+        synchronized (sync) {
+            List<ObserverEntry> newEntries = new ArrayList<ObserverEntry>(entries);
+            newEntries.add(new ObserverEntry(observer));
+            entries = Collections.unmodifiableList(newEntries);
+        }
+    }
+
+    /**
+     * Remove an observer
+     * <p>
+     * The events not yet delivered to the observer are discarded.
+     *
+     * @param observer the observer object
+     */
+    public final void removeObserver(T observer) {
+        synchronized (sync) {
+            List<ObserverEntry> newEntries = new ArrayList<ObserverEntry>(entries);
+            for (int i = 0; i < newEntries.size(); i++) {
+                if (newEntries.get(i).observer.equals(observer)) {
+                    newEntries.remove(i).removed = true;
+                    entries = Collections.unmodifiableList(newEntries);
+                    if (newEntries.isEmpty()) {
+                        shutdownExecutor();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all observers at once
+     */
+    public final void clearObservers() {
+        synchronized (sync) {
+            for (ObserverEntry entry : entries) {
+                entry.removed = true;
+            }
+            entries = Collections.emptyList();
+            shutdownExecutor();
+        }
+    }
+
+    /**
+     * @return the number of observers
+     */
+    public final int countObservers() {
+        return entries.size();
+    }
+
+    /**
+     * Notify all the observers with the provided event
+     * <p>
+     * In synchronous mode, an exception thrown by an observer is propagated to the caller.
+     *
+     * @param event the event
+     */
+    public final void notifyObservers(E event) {
+        for (ObserverEntry entry : entries) {
+            entry.post(event);
+        }
+    }
+
+    /**
+     * Switch to asynchronous delivery
+     * <p>
+     * The events already posted to the current queues are still delivered, with no ordering
+     * guarantee relative to the events notified afterwards.
+     *
+     * @param queueCapacity the maximum number of events waiting for each observer
+     * @param overflowPolicy the {@link OverflowPolicy} applied when the queue of an observer is
+     *        full
+     * @throws IllegalArgumentException if the capacity is not positive or the policy is null
+     */
+    public final void setAsynchronousDelivery(int queueCapacity, OverflowPolicy overflowPolicy) {
+        if (queueCapacity < 1 || overflowPolicy == null) {
+            throw new IllegalArgumentException(
+                    "A positive queue capacity and an overflow policy are required.");
+        }
+        synchronized (sync) {
+            this.queueCapacity = queueCapacity;
+            this.overflowPolicy = overflowPolicy;
+            renewEntries();
+        }
+    }
+
+    /**
+     * Switch back to synchronous delivery (default)
+     * <p>
+     * The events already posted to the queues are still delivered asynchronously, with no ordering
+     * guarantee relative to the events notified afterwards.
+     */
+    public final void setSynchronousDelivery() {
+        synchronized (sync) {
+            this.queueCapacity = 0;
+            this.overflowPolicy = null;
+            renewEntries();
+            shutdownExecutor();
+        }
+    }
+
+    /**
+     * @return true if the events are delivered asynchronously
+     */
+    public final boolean isAsynchronousDelivery() {
+        synchronized (sync) {
+            return queueCapacity > 0;
+        }
+    }
+
+    /**
+     * @return the number of events dropped because the queue of an observer was full
+     */
+    public final long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /* get the delivery threads, create them if needed (called with sync held) */
+    private ExecutorService getExecutor() {
+        if (executorService == null) {
+            executorService = Executors.newCachedThreadPool(new DeliveryThreadFactory(name));
+        }
+        return executorService;
+    }
+
+    /*
+     * release the delivery threads once the pending tasks are completed (called with sync held)
+     */
+    private void shutdownExecutor() {
+        if (executorService != null) {
+            executorService.shutdown();
+            executorService = null;
+        }
+    }
+
+    /* recreate the entries according to the current delivery mode (called with sync held) */
+    private void renewEntries() {
+        List<ObserverEntry> newEntries = new ArrayList<ObserverEntry>(entries.size());
+        for (ObserverEntry entry : entries) {
+            newEntries.add(new ObserverEntry(entry.observer));
+        }
+        entries = Collections.unmodifiableList(newEntries);
+    }
+
+    /**
+     * An observer and, in asynchronous mode, its pending events
+     */
+    private final class ObserverEntry implements Runnable {
+        private final T observer;
+        private final BlockingQueue<E> queue;
+        private final OverflowPolicy policy;
+        private final Executor executor;
+        /* true when a delivery task is submitted or running */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean removed;
+
+        /* called with sync held */
+        ObserverEntry(T observer) {
+            this.observer = observer;
+            if (queueCapacity > 0) {
+                this.queue = new ArrayBlockingQueue<E>(queueCapacity);
+                this.policy = overflowPolicy;
+                this.executor = getExecutor();
+            } else {
+                this.queue = null;
+                this.policy = null;
+                this.executor = null;
+            }
+        }
+
+        void post(E event) {
+            if (queue == null) {
+                deliver(observer, event);
+                return;
+            }
+            if (!queue.offer(event)) {
+                int dropped = 0;
+                if (policy == OverflowPolicy.DROP_OLDEST) {
+                    /* the queue may have been emptied by the delivery thread in the meantime */
+                    if (queue.poll() != null) {
+                        dropped++;
+                    }
+                    if (!queue.offer(event)) {
+                        /* the queue has been filled again in the meantime */
+                        dropped++;
+                    }
+                } else {
+                    dropped++;
+                }
+                droppedEventCount.addAndGet(dropped);
+                if (dropped > 0 && logger.isDebugEnabled()) {
+                    logger.debug("[{}] Queue of observer {} is full, {} event dropped.", name,
+                            observer.getClass().getSimpleName(),
+                            policy == OverflowPolicy.DROP_OLDEST ? "oldest" : "newest");
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    /* the entry has been replaced or removed and its threads released */
+                    scheduled.set(false);
+                    droppedEventCount.addAndGet(queue.size());
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                E event;
+                while (!removed && (event = queue.poll()) != null) {
+                    try {
+                        deliver(observer, event);
+                    } catch (RuntimeException e) {
+                        logger.error("[{}] Observer {} failed to handle an event. {}", name,
+                                observer.getClass().getSimpleName(), e.getMessage());
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            /* an event may have been posted after the last poll */
+            if (!removed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Creates the daemon threads delivering the events
+     */
+    private static final class DeliveryThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        DeliveryThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread =
+                    new Thread(runnable, name + "-observer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -11,7 +11,10 @@
  ********************************************************************************/
 package org.eclipse.keyple.core.seproxy.plugin.local;
 
+import java.io.ByteArrayOutputStream;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import org.eclipse.keyple.core.seproxy.ChannelControl;
 import org.eclipse.keyple.core.seproxy.MultiSeRequestProcessing;
 import org.eclipse.keyple.core.seproxy.SeSelector;
@@ -28,6 +31,12 @@ import org.slf4j.LoggerFactory;
 /**
  * Manage the loop processing for SeRequest transmission in a set and for SeResponse reception in a
  * set
+ * <p>
+ * The logical and physical channels are owned by one thread at a time through the channel lease of
+ * the reader (see {@link #acquireChannelLease()}). The transmissions, the closing of the channels,
+ * the default selection and the removal ping of the observable readers are made under the lease, so
+ * that the monitoring thread of a reader can't close the channels while an application uses them.
+ * The readers are independent: each one has its own lease.
  */
 @SuppressWarnings({"PMD.TooManyMethods", "PMD.CyclomaticComplexity"})
 public abstract class AbstractLocalReader extends AbstractReader {
@@ -38,8 +47,23 @@ public abstract class AbstractLocalReader extends AbstractReader {
     /** predefined "get response" byte array */
     private static final byte[] getResponseHackRequestBytes = ByteArrayUtil.fromHex("00C0000000");
 
-    /** logical channel status flag */
-    private boolean logicalChannelIsOpen = false;
+    /** maximum length of the data field of a short APDU */
+    private static final int MAX_SHORT_DATA_LENGTH = 255;
+
+    /** ISO7816-4 command chaining bit of the class byte */
+    private static final int CLA_CHAINING_MASK = 0x10;
+
+    /** maximum length of the response data to an extended length APDU (Le = 0000h) */
+    private static final int MAX_EXTENDED_RESPONSE_DATA_LENGTH = 65536;
+
+    /** ownership of the logical and physical channels, guards the channel state below */
+    private final ReentrantLock channelLease = new ReentrantLock();
+
+    /** channels closed, onChannelLeaseReleased to be invoked at release (guarded by the lease) */
+    private boolean removalSequenceRequested;
+
+    /** logical channel status flag (written under the lease, read without) */
+    private volatile boolean logicalChannelIsOpen = false;
 
     /** current AID if any */
     private SeSelector.AidSelector.IsoAid aidCurrentlySelected;
@@ -50,6 +74,9 @@ public abstract class AbstractLocalReader extends AbstractReader {
     /** Timestamp recorder */
     private long before;
 
+    /** knowledge of the SE selection behaviors, null if not used */
+    private volatile SelectionKnowledgeCache selectionKnowledgeCache;
+
     /** ==== Constructor =================================================== */
 
     /**
@@ -109,15 +136,101 @@ public abstract class AbstractLocalReader extends AbstractReader {
      */
     @Deprecated // will change in a later version
     protected void closeLogicalAndPhysicalChannels() {
-        closeLogicalChannel();
+        acquireChannelLease();
         try {
-            closePhysicalChannel();
-        } catch (KeypleChannelControlException e) {
-            logger.debug("[{}] Exception occurred in closeLogicalAndPhysicalChannels. Message: {}",
-                    this.getName(), e.getMessage());
+            closeLogicalChannel();
+            try {
+                closePhysicalChannel();
+            } catch (KeypleChannelControlException e) {
+                logger.debug(
+                        "[{}] Exception occurred in closeLogicalAndPhysicalChannels. Message: {}",
+                        this.getName(), e.getMessage());
+            }
+        } finally {
+            releaseChannelLease();
+        }
+    }
+
+    /**
+     * Acquires the lease of the channels of this reader, waiting for the current owner to release
+     * it.
+     * <p>
+     * The lease is held during each transmission. An application exchanging with the SE through
+     * several successive transmissions (e.g. a transaction made of several SeRequests sent with
+     * {@link ChannelControl#KEEP_OPEN}) can hold it for the whole sequence to prevent any other
+     * thread, including the monitoring thread, from using or closing the channels in between.
+     * <p>
+     * The lease is reentrant: the owner can transmit and acquire it again. Each acquisition must
+     * be followed by a call to {@link #releaseChannelLease()}, in a finally block.
+     * <p>
+     * The lease is not bounded in time: it should only be held for a sequence of exchanges. While
+     * it is held by an application, the SE removal is not detected by an observable reader: the
+     * removal ping is skipped (the SE is considered present) and a removal detected natively waits
+     * for the release of the lease before the channels are closed and SE_REMOVED is notified. A
+     * removal during the sequence is reported to the application by its failing transmission.
+     * <p>
+     * The events of an observable reader are processed under the lease: its owner can notify the
+     * reader (e.g. with notifySeProcessed) without releasing it first.
+     */
+    public final void acquireChannelLease() {
+        channelLease.lock();
+    }
+
+    /**
+     * Acquires the lease of the channels of this reader if it is available within the given
+     * time.
+     *
+     * @param timeout the maximum time to wait in milliseconds (0 to not wait)
+     * @return true if the lease has been acquired, false if it is owned by another thread
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public final boolean tryAcquireChannelLease(long timeout) throws InterruptedException {
+        if (timeout == 0) {
+            return channelLease.tryLock();
+        }
+        return channelLease.tryLock(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Releases the lease of the channels of this reader
+     * <p>
+     * {@link #onChannelLeaseReleased(boolean)} is invoked once the lease is completely released
+     * (e.g. to start the removal sequence of an observable reader when the channels have been
+     * closed under the lease): the observers notified then can use the reader from any thread.
+     *
+     * @throws IllegalMonitorStateException if the current thread doesn't own the lease
+     */
+    public final void releaseChannelLease() {
+        boolean released = channelLease.getHoldCount() == 1;
+        boolean channelsClosed = released && removalSequenceRequested;
+        if (channelsClosed) {
+            removalSequenceRequested = false;
+        }
+        channelLease.unlock();
+        if (released) {
+            onChannelLeaseReleased(channelsClosed);
         }
     }
 
+    /**
+     * Invoked when the lease is completely released, outside the lease.
+     * <p>
+     * Does nothing by default.
+     *
+     * @param channelsClosed true if the channels have been closed under the lease (end of a
+     *        transmission with {@link ChannelControl#CLOSE_AFTER})
+     */
+    protected void onChannelLeaseReleased(boolean channelsClosed) {}
+
+    /**
+     * Tells if the lease of the channels of this reader is currently owned by a thread
+     *
+     * @return true if the channels are in use
+     */
+    public final boolean isChannelLeased() {
+        return channelLease.isLocked();
+    }
+
     /**
      * This abstract method must be implemented by the derived class in order to provide the SE ATR
      * when available.
@@ -158,16 +271,96 @@ public abstract class AbstractLocalReader extends AbstractReader {
         return fciResponse;
     }
 
+    /**
+     * Set the cache used to remember how the SE provide their FCI (none by default)
+     * <p>
+     * The same cache can be shared by several readers.
+     *
+     * @param selectionKnowledgeCache the cache, null to stop using a cache
+     */
+    public final void setSelectionKnowledgeCache(SelectionKnowledgeCache selectionKnowledgeCache) {
+        this.selectionKnowledgeCache = selectionKnowledgeCache;
+    }
+
+    /**
+     * Selects the application and gets its FCI using the cheapest known command sequence.
+     * <p>
+     * Without knowledge, the Select Application command is sent with the case 4 hack (Get Response
+     * if no data is returned) and, if the FCI is still missing, the Get Data command. When the SE
+     * is known to provide its FCI with the Get Data command only, the Get Response is skipped.
+     *
+     * @param aidSelector the selection parameters
+     * @param atrFilter the ATR filter of the selector, identifying the SE product (may be null)
+     * @return the response containing the FCI (or the failed response)
+     * @throws KeypleIOReaderException if a reader error occurs
+     */
+    private ApduResponse processAidSelection(SeSelector.AidSelector aidSelector,
+            SeSelector.AtrFilter atrFilter) throws KeypleIOReaderException {
+        SelectionKnowledgeCache cache = selectionKnowledgeCache;
+        String key = null;
+        SelectionKnowledgeCache.FciLocation knownFciLocation = null;
+        if (cache != null) {
+            key = SelectionKnowledgeCache.getKey(atrFilter, aidSelector);
+            knownFciLocation = cache.get(key);
+        }
+
+        if (knownFciLocation == SelectionKnowledgeCache.FciLocation.GET_DATA) {
+            ApduResponse fciResponse = processExplicitAidSelection(aidSelector, false);
+            if (fciResponse.isSuccessful() && fciResponse.getDataOutLength() == 0) {
+                fciResponse = recoverSelectionFciData(aidSelector);
+                if (fciResponse.isSuccessful() && fciResponse.getDataOutLength() != 0) {
+                    /* the Get Response has been skipped */
+                    cache.addSavedApdus(1);
+                    return fciResponse;
+                }
+            } else if (!fciResponse.isSuccessful()) {
+                /* the case 4 hack would not have changed the result */
+                return fciResponse;
+            } else {
+                /* the FCI is now returned by the Select Application command */
+                cache.put(key, SelectionKnowledgeCache.FciLocation.SELECT_RESPONSE);
+                return fciResponse;
+            }
+            /* the SE didn't behave as expected, use the complete sequence */
+            if (logger.isDebugEnabled()) {
+                logger.debug("[{}] processAidSelection => unexpected FCI location, SELECTOR = {}",
+                        this.getName(), aidSelector);
+            }
+            cache.invalidate(key);
+        }
+
+        ApduResponse fciResponse = processExplicitAidSelection(aidSelector, true);
+        SelectionKnowledgeCache.FciLocation fciLocation =
+                SelectionKnowledgeCache.FciLocation.SELECT_RESPONSE;
+        if (fciResponse.isSuccessful() && fciResponse.getDataOutLength() == 0) {
+            /**
+             * The selection didn't provide data, we get the FCI using a Get Data command.
+             * <p>
+             * The AID selector is provided to handle successful status word in the Get Data
+             * command.
+             */
+            fciResponse = recoverSelectionFciData(aidSelector);
+            fciLocation = SelectionKnowledgeCache.FciLocation.GET_DATA;
+        }
+        if (cache != null && fciResponse.isSuccessful() && fciResponse.getDataOutLength() != 0
+                && fciLocation != knownFciLocation) {
+            cache.put(key, fciLocation);
+        }
+        return fciResponse;
+    }
+
     /**
      * Executes the selection application command and returns the requested data according to
      * AidSelector attributes.
      *
      * @param aidSelector the selection parameters
+     * @param getResponseHack true if a Get Response command has to be sent when the SE returns no
+     *        data
      * @return the response to the select application command
      * @throws KeypleIOReaderException if a reader error occurs
      */
-    private ApduResponse processExplicitAidSelection(SeSelector.AidSelector aidSelector)
-            throws KeypleIOReaderException {
+    private ApduResponse processExplicitAidSelection(SeSelector.AidSelector aidSelector,
+            boolean getResponseHack) throws KeypleIOReaderException {
         ApduResponse fciResponse;
         final byte[] aid = aidSelector.getAidToSelect().getValue();
         if (aid == null) {
@@ -197,8 +390,9 @@ public abstract class AbstractLocalReader extends AbstractReader {
          * we use here processApduRequest to manage case 4 hack. The successful status codes list
          * for this command is provided.
          */
-        fciResponse = processApduRequest(new ApduRequest("Internal Select Application",
-                selectApplicationCommand, true, aidSelector.getSuccessfulSelectionStatusCodes()));
+        fciResponse = processApduRequest(
+                new ApduRequest("Internal Select Application", selectApplicationCommand,
+                        getResponseHack, aidSelector.getSuccessfulSelectionStatusCodes()));
 
         if (!fciResponse.isSuccessful()) {
             logger.debug("[{}] openLogicalChannel => Application Selection failed. SELECTOR = {}",
@@ -268,19 +462,20 @@ public abstract class AbstractLocalReader extends AbstractReader {
             if (this instanceof SmartSelectionReader) {
                 fciResponse = ((SmartSelectionReader) this)
                         .openChannelForAid(seSelector.getAidSelector());
-            } else {
-                fciResponse = processExplicitAidSelection(seSelector.getAidSelector());
-            }
 
-            if (fciResponse.isSuccessful() && fciResponse.getDataOut().length == 0) {
-                /**
-                 * The selection didn't provide data (e.g. OMAPI), we get the FCI using a Get Data
-                 * command.
-                 * <p>
-                 * The AID selector is provided to handle successful status word in the Get Data
-                 * command.
-                 */
-                fciResponse = recoverSelectionFciData(seSelector.getAidSelector());
+                if (fciResponse.isSuccessful() && fciResponse.getDataOutLength() == 0) {
+                    /**
+                     * The selection didn't provide data (e.g. OMAPI), we get the FCI using a Get
+                     * Data command.
+                     * <p>
+                     * The AID selector is provided to handle successful status word in the Get Data
+                     * command.
+                     */
+                    fciResponse = recoverSelectionFciData(seSelector.getAidSelector());
+                }
+            } else {
+                fciResponse = processAidSelection(seSelector.getAidSelector(),
+                        seSelector.getAtrFilter());
             }
 
             /*
@@ -465,6 +660,21 @@ public abstract class AbstractLocalReader extends AbstractReader {
     protected final List<SeResponse> processSeRequestSet(Set<SeRequest> requestSet,
             MultiSeRequestProcessing multiSeRequestProcessing, ChannelControl channelControl)
             throws KeypleReaderException {
+        acquireChannelLease();
+        try {
+            return processSeRequestSetUnderLease(requestSet, multiSeRequestProcessing,
+                    channelControl);
+        } finally {
+            releaseChannelLease();
+        }
+    }
+
+    /**
+     * Implements processSeRequestSet, the caller owns the channel lease
+     */
+    private List<SeResponse> processSeRequestSetUnderLease(Set<SeRequest> requestSet,
+            MultiSeRequestProcessing multiSeRequestProcessing, ChannelControl channelControl)
+            throws KeypleReaderException {
 
         boolean[] requestMatchesProtocol = new boolean[requestSet.size()];
         int requestIndex = 0;
@@ -472,11 +682,18 @@ public abstract class AbstractLocalReader extends AbstractReader {
 
         // Determine which requests are matching the current ATR
         // All requests without selector are considered matching
+        // The matching is evaluated once per protocol: the selections of several applications of
+        // the same SE (e.g. N AIDs) share the same protocol
+        Map<SeProtocol, Boolean> protocolMatches = new HashMap<SeProtocol, Boolean>();
         for (SeRequest request : requestSet) {
             SeSelector seSelector = request.getSeSelector();
             if (seSelector != null) {
-                requestMatchesProtocol[requestIndex] =
-                        protocolFlagMatches(request.getSeSelector().getSeProtocol());
+                Boolean matches = protocolMatches.get(seSelector.getSeProtocol());
+                if (matches == null) {
+                    matches = protocolFlagMatches(seSelector.getSeProtocol());
+                    protocolMatches.put(seSelector.getSeProtocol(), matches);
+                }
+                requestMatchesProtocol[requestIndex] = matches;
             } else {
                 requestMatchesProtocol[requestIndex] = true;
             }
@@ -500,7 +717,7 @@ public abstract class AbstractLocalReader extends AbstractReader {
          *
          * If keepChannelOpen is false, we close the physical channel for the last request.
          */
-        List<SeResponse> responses = new ArrayList<SeResponse>();
+        List<SeResponse> responses = new ArrayList<SeResponse>(requestSet.size());
         boolean stopProcess = false;
         for (SeRequest request : requestSet) {
 
@@ -537,7 +754,8 @@ public abstract class AbstractLocalReader extends AbstractReader {
                 }
                 if (multiSeRequestProcessing == MultiSeRequestProcessing.PROCESS_ALL) {
                     // multi SeRequest case: just close the logical channel and go on with the next
-                    // selection.
+                    // selection. The physical channel is kept open, the next Select Application
+                    // command is sent right away.
                     closeLogicalChannel();
                 } else {
                     if (logicalChannelIsOpen) {
@@ -563,12 +781,8 @@ public abstract class AbstractLocalReader extends AbstractReader {
                         closePhysicalChannel();
                     }
 
-                    if (this instanceof AbstractObservableLocalReader) {
-                        /*
-                         * request the removal sequence when the reader is monitored by a thread
-                         */
-                        ((AbstractObservableLocalReader) this).startRemovalSequence();
-                    }
+                    /* see onChannelLeaseReleased, invoked once the lease is released */
+                    removalSequenceRequested = true;
                 }
 
             }
@@ -588,11 +802,24 @@ public abstract class AbstractLocalReader extends AbstractReader {
      * @return the SeResponse to the SeRequest
      * @throws KeypleReaderException if a transmission fails
      */
-    @SuppressWarnings({"PMD.ModifiedCyclomaticComplexity", "PMD.CyclomaticComplexity",
-            "PMD.StdCyclomaticComplexity", "PMD.NPathComplexity", "PMD.ExcessiveMethodLength"})
     @Override
     protected final SeResponse processSeRequest(SeRequest seRequest, ChannelControl channelControl)
             throws IllegalStateException, KeypleReaderException {
+        acquireChannelLease();
+        try {
+            return processSeRequestUnderLease(seRequest, channelControl);
+        } finally {
+            releaseChannelLease();
+        }
+    }
+
+    /**
+     * Implements processSeRequest, the caller owns the channel lease
+     */
+    @SuppressWarnings({"PMD.ModifiedCyclomaticComplexity", "PMD.CyclomaticComplexity",
+            "PMD.StdCyclomaticComplexity", "PMD.NPathComplexity", "PMD.ExcessiveMethodLength"})
+    private SeResponse processSeRequestUnderLease(SeRequest seRequest,
+            ChannelControl channelControl) throws IllegalStateException, KeypleReaderException {
 
         SeResponse seResponse = null;
 
@@ -612,12 +839,8 @@ public abstract class AbstractLocalReader extends AbstractReader {
                 closePhysicalChannel();
             }
 
-            if (this instanceof AbstractObservableLocalReader) {
-                /*
-                 * request the removal sequence when the reader is monitored by a thread
-                 */
-                ((AbstractObservableLocalReader) this).startRemovalSequence();
-            }
+            /* see onChannelLeaseReleased, invoked once the lease is released */
+            removalSequenceRequested = true;
         }
 
         return seResponse;
@@ -642,7 +865,8 @@ public abstract class AbstractLocalReader extends AbstractReader {
         boolean previouslyOpen = true;
         SelectionStatus selectionStatus = null;
 
-        List<ApduResponse> apduResponseList = new ArrayList<ApduResponse>();
+        List<ApduResponse> apduResponseList = new ArrayList<ApduResponse>(
+                seRequest.getApduRequests() != null ? seRequest.getApduRequests().size() : 0);
 
         if (logger.isDebugEnabled()) {
             logger.debug("[{}] processSeRequest => Logical channel open = {}", this.getName(),
@@ -781,11 +1005,15 @@ public abstract class AbstractLocalReader extends AbstractReader {
                     apduRequest, elapsedMs);
         }
 
-        byte[] buffer = apduRequest.getBytes();
-        apduResponse =
-                new ApduResponse(transmitApdu(buffer), apduRequest.getSuccessfulStatusCodes());
+        if (apduRequest.isExtendedLength() && !isExtendedLengthSupported()) {
+            apduResponse = processChainedApduRequest(apduRequest);
+        } else {
+            byte[] buffer = apduRequest.getBytes();
+            apduResponse = new ApduResponse(transmitApdu(buffer),
+                    apduRequest.getSuccessfulStatusCodes());
+        }
 
-        if (apduRequest.isCase4() && apduResponse.getDataOut().length == 0
+        if (apduRequest.isCase4() && apduResponse.getDataOutLength() == 0
                 && apduResponse.isSuccessful()) {
             // do the get response command but keep the original status code
             apduResponse = case4HackGetResponse(apduResponse.getStatusCode());
@@ -801,6 +1029,130 @@ public abstract class AbstractLocalReader extends AbstractReader {
         return apduResponse;
     }
 
+    /**
+     * Transmits an extended length ApduRequest with short APDUs, for readers or SE not supporting
+     * the extended length fields.
+     * <p>
+     * The command data is split in blocks of 255 bytes sent using the ISO7816-4 command chaining
+     * (bit b5 of the class byte set on all commands except the last one). Le is sent with the last
+     * command, reduced to a short Le (00h when 256 bytes or more are expected). When more than 256
+     * bytes are expected, the SE indicates the remaining data with a 61xy status word (unless the
+     * plugin already handled it in {@link #transmitApdu(byte[])}): Get Response commands are then
+     * sent until the whole response is received, see {@link #getRemainingResponse}.
+     * <p>
+     * The exchange stops at the first command of the chain which is not successful, its response
+     * is returned.
+     *
+     * @param apduRequest an extended length APDU request
+     * @return APDU response to the last command sent
+     * @throws KeypleIOReaderException if the transmission fails
+     * @throws IllegalArgumentException if the APDU is malformed
+     */
+    private ApduResponse processChainedApduRequest(ApduRequest apduRequest)
+            throws KeypleIOReaderException {
+        byte[] apdu = apduRequest.getBytes();
+        int dataLength;
+        boolean lePresent;
+        if (apdu.length == 7) {
+            /* case2E: Le only */
+            dataLength = 0;
+            lePresent = true;
+        } else {
+            dataLength = ((apdu[5] & 0xFF) << 8) | (apdu[6] & 0xFF);
+            lePresent = apdu.length == 7 + dataLength + 2;
+            if (dataLength == 0 || (!lePresent && apdu.length != 7 + dataLength)) {
+                throw new IllegalArgumentException(
+                        "Malformed extended length APDU: " + ByteArrayUtil.toHex(apdu));
+            }
+        }
+        byte shortLe = 0x00;
+        int expectedLength = 0;
+        if (lePresent) {
+            int le = ((apdu[apdu.length - 2] & 0xFF) << 8) | (apdu[apdu.length - 1] & 0xFF);
+            /* an extended Le of 0000h means 65536 bytes */
+            expectedLength = le == 0 ? MAX_EXTENDED_RESPONSE_DATA_LENGTH : le;
+            if (expectedLength < 256) {
+                shortLe = (byte) expectedLength;
+            }
+        }
+
+        int offset = 0;
+        do {
+            int blockLength = Math.min(dataLength - offset, MAX_SHORT_DATA_LENGTH);
+            boolean last = offset + blockLength == dataLength;
+            byte[] command = new byte[4 + (blockLength > 0 ? 1 + blockLength : 0)
+                    + (last && lePresent ? 1 : 0)];
+            command[0] = last ? apdu[0] : (byte) (apdu[0] | CLA_CHAINING_MASK);
+            command[1] = apdu[1];
+            command[2] = apdu[2];
+            command[3] = apdu[3];
+            if (blockLength > 0) {
+                command[4] = (byte) blockLength;
+                System.arraycopy(apdu, 7 + offset, command, 5, blockLength);
+            }
+            if (last && lePresent) {
+                command[command.length - 1] = shortLe;
+            }
+            offset += blockLength;
+
+            if (logger.isTraceEnabled()) {
+                logger.trace("[{}] processChainedApduRequest => {}", this.getName(),
+                        ByteArrayUtil.toHex(command));
+            }
+            byte[] response = transmitApdu(command);
+            if (last && expectedLength > 256) {
+                response = getRemainingResponse(response, expectedLength);
+            }
+            ApduResponse apduResponse =
+                    new ApduResponse(response, apduRequest.getSuccessfulStatusCodes());
+            if (last || apduResponse.getStatusCode() != 0x9000) {
+                return apduResponse;
+            }
+        } while (true);
+    }
+
+    /**
+     * Retrieves the rest of a response longer than 256 bytes announced by a 61xy status word
+     * <p>
+     * Get Response commands are sent while the SE answers 61xy and less than the expected length is
+     * received. The data of the successive responses are concatenated, followed by the status word
+     * of the last one.
+     *
+     * @param response the response to the last command of the chain
+     * @param expectedLength the number of data bytes expected (extended Le)
+     * @return the complete response
+     * @throws KeypleIOReaderException if the transmission fails
+     */
+    private byte[] getRemainingResponse(byte[] response, int expectedLength)
+            throws KeypleIOReaderException {
+        ByteArrayOutputStream data = null;
+        while (response.length >= 2 && response[response.length - 2] == (byte) 0x61) {
+            int receivedLength = (data == null ? 0 : data.size()) + response.length - 2;
+            if (receivedLength >= expectedLength) {
+                break;
+            }
+            if (data == null) {
+                data = new ByteArrayOutputStream(expectedLength + 2);
+            }
+            data.write(response, 0, response.length - 2);
+            /* xy is the number of bytes available, 00h meaning 256 or more */
+            int available = response[response.length - 1] & 0xFF;
+            int length = Math.min(available == 0 ? 256 : available, expectedLength - data.size());
+            byte[] getResponse = {(byte) 0x00, (byte) 0xC0, (byte) 0x00, (byte) 0x00,
+                    (byte) (length == 256 ? 0 : length)};
+            if (logger.isTraceEnabled()) {
+                logger.trace("[{}] getRemainingResponse => {}", this.getName(),
+                        ByteArrayUtil.toHex(getResponse));
+            }
+            response = transmitApdu(getResponse);
+        }
+        if (data == null) {
+            return response;
+        }
+        data.write(response, 0, response.length);
+        return data.toByteArray();
+    }
+
     /**
      * Execute a get response command in order to get outgoing data from specific cards answering
      * 9000 with no data although the command has outgoing data. Note that this method relies on the
@@ -848,6 +1200,20 @@ public abstract class AbstractLocalReader extends AbstractReader {
         return getResponseHackResponse;
     }
 
+    /**
+     * Tells if the extended length APDUs can be sent as is to the current SE.
+     * <p>
+     * The plugins supporting the extended length APDUs override this method to return true when
+     * both the reader and the current SE accept them (e.g. according to the card capabilities of
+     * the ATR, see {@link org.eclipse.keyple.core.util.AtrUtil#isExtendedLengthSupported(byte[])}).
+     * Otherwise, the extended length APDUs are transmitted with short APDUs and command chaining.
+     *
+     * @return true if the extended length APDUs are supported (false by default)
+     */
+    protected boolean isExtendedLengthSupported() {
+        return false;
+    }
+
     /**
      * Transmits a single APDU and receives its response.
      * <p>
@@ -11,7 +11,6 @@
  ********************************************************************************/
 package org.eclipse.keyple.core.seproxy.plugin.local;
 
-import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.keyple.core.seproxy.ChannelControl;
 import org.eclipse.keyple.core.seproxy.event.AbstractDefaultSelectionsRequest;
@@ -23,6 +22,7 @@ import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.DefaultSelectionsRequest;
 import org.eclipse.keyple.core.seproxy.message.DefaultSelectionsResponse;
 import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.plugin.ObserverDispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,7 +61,8 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The notification consists in calling the "update" methods of the defined observers. In the case
  * where several observers have been defined, it is up to the application developer to ensure that
- * there is no long processing in these methods, by making their execution asynchronous for example.
+ * there is no long processing in these methods, by making their execution asynchronous for example
+ * (see setAsynchronousNotification).
  * <li>WAIT_FOR_SE_PROCESSING
  * <p>
  * Waiting for the end of processing by the application. The end signal is triggered either by a
@@ -115,12 +116,13 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
     }
 
     /* The observers of this object */
-    private List<ObservableReader.ReaderObserver> observers;
-    /*
-     * this object will be used to synchronize the access to the observers list in order to be
-     * thread safe
-     */
-    private final Object sync = new Object();
+    private final ObserverDispatcher<ObservableReader.ReaderObserver, ReaderEvent> observers =
+            new ObserverDispatcher<ObservableReader.ReaderObserver, ReaderEvent>(getName()) {
+                @Override
+                protected void deliver(ReaderObserver observer, ReaderEvent event) {
+                    observer.update(event);
+                }
+            };
 
     /* Service that handles Internal Events and their impact on the current state of the reader */
     protected ObservableReaderStateService stateService;
@@ -170,12 +172,7 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
                     getName());
         }
 
-        synchronized (sync) {
-            if (observers == null) {
-                observers = new ArrayList<ReaderObserver>(1);
-            }
-            observers.add(observer);
-        }
+        observers.addObserver(observer);
     }
 
     /**
@@ -195,11 +192,7 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
             logger.trace("[{}] Deleting a reader observer", getName());
         }
 
-        synchronized (sync) {
-            if (observers != null) {
-                observers.remove(observer);
-            }
-        }
+        observers.removeObserver(observer);
     }
 
     /**
@@ -215,18 +208,7 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
                     this.countObservers(), event.getEventType().getName());
         }
 
-        List<ObservableReader.ReaderObserver> observersCopy;
-
-        synchronized (sync) {
-            if (observers == null) {
-                return;
-            }
-            observersCopy = new ArrayList<ReaderObserver>(observers);
-        }
-
-        for (ObservableReader.ReaderObserver observer : observersCopy) {
-            observer.update(event);
-        }
+        observers.notifyObservers(event);
     }
 
     /**
@@ -234,7 +216,7 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
      */
     @Override
     public final int countObservers() {
-        return observers == null ? 0 : observers.size();
+        return observers.countObservers();
     }
 
     /**
@@ -242,9 +224,37 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
      */
     @Override
     public final void clearObservers() {
-        if (observers != null) {
-            this.observers.clear();
-        }
+        observers.clearObservers();
+    }
+
+    /**
+     * Deliver the events to each observer from a dedicated queue instead of the monitoring thread.
+     * <p>
+     * A slow observer then no longer delays the SE detection nor the other observers. The
+     * application remains responsible for calling notifySeProcessed when the SE processing is
+     * done.
+     *
+     * @param queueCapacity the maximum number of events waiting for each observer
+     * @param overflowPolicy the {@link ObserverDispatcher.OverflowPolicy} applied when the queue of
+     *        an observer is full
+     */
+    public final void setAsynchronousNotification(int queueCapacity,
+            ObserverDispatcher.OverflowPolicy overflowPolicy) {
+        observers.setAsynchronousDelivery(queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * Deliver the events to the observers from the monitoring thread (default)
+     */
+    public final void setSynchronousNotification() {
+        observers.setSynchronousDelivery();
+    }
+
+    /**
+     * @return the number of events dropped because the queue of an observer was full
+     */
+    public final long getDroppedEventCount() {
+        return observers.getDroppedEventCount();
     }
 
     /**
@@ -399,6 +409,20 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
     }
 
 
+    /**
+     * Starts the removal sequence when the channels have been closed at the end of a transmission,
+     * once the lease is released: the reader is monitored by a thread. Otherwise, processes the
+     * events raised by the monitoring jobs while the lease was held.
+     */
+    @Override
+    protected void onChannelLeaseReleased(boolean channelsClosed) {
+        if (channelsClosed) {
+            startRemovalSequence();
+        } else if (stateService != null) {
+            stateService.processMonitoringEventsIfIdle();
+        }
+    }
+
     /**
      * This method is invoked when a SE is inserted in the case of an observable reader.
      * <p>
@@ -425,6 +449,42 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
         if (logger.isTraceEnabled()) {
             logger.trace("[{}] process the inserted se", getName());
         }
+        /*
+         * the default selection and the closing of the physical channel are made under the channel
+         * lease: an application transmission waits for the end of the default selection processing
+         */
+        acquireChannelLease();
+        try {
+            return processDefaultSelection();
+        } catch (KeypleReaderException e) {
+            /* the last transmission failed, close the logical and physical channels */
+            closeLogicalAndPhysicalChannels();
+            if (logger.isDebugEnabled()) {
+                logger.debug("An IO Exception occurred while processing the default selection. {}",
+                        e.getMessage());
+            }
+            // in this case the SE has been removed or not read correctly, do not throw event
+            // We close here the physical channel in case it has been opened for a SE outside the
+            // expected SEs
+            try {
+                closePhysicalChannel();
+            } catch (KeypleChannelControlException ex) {
+                logger.error("Error while closing physical channel. {}", ex.getMessage());
+            }
+        } finally {
+            releaseChannelLease();
+        }
+        // no event returned
+        return null;
+    }
+
+    /**
+     * Plays the default selection if any, the caller owns the channel lease
+     *
+     * @return ReaderEvent that should be notified to observers, can be null
+     * @throws KeypleReaderException if the transmission of the default selection failed
+     */
+    private ReaderEvent processDefaultSelection() throws KeypleReaderException {
         if (defaultSelectionsRequest == null) {
             if (logger.isTraceEnabled()) {
                 logger.trace("[{}] no default selection request defined, notify SE_INSERTED",
@@ -439,78 +499,57 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
              * and the selection status
              */
             boolean aSeMatched = false;
-            try {
-                List<SeResponse> seResponseList =
-                        transmitSet(defaultSelectionsRequest.getSelectionSeRequestSet(),
-                                defaultSelectionsRequest.getMultiSeRequestProcessing(),
-                                defaultSelectionsRequest.getChannelControl());
-
-                for (SeResponse seResponse : seResponseList) {
-                    if (seResponse != null && seResponse.getSelectionStatus().hasMatched()) {
-                        if (logger.isTraceEnabled()) {
-                            logger.trace("[{}] a default selection has matched", getName());
-                        }
-                        aSeMatched = true;
-                        break;
+            List<SeResponse> seResponseList =
+                    transmitSet(defaultSelectionsRequest.getSelectionSeRequestSet(),
+                            defaultSelectionsRequest.getMultiSeRequestProcessing(),
+                            defaultSelectionsRequest.getChannelControl());
+
+            for (SeResponse seResponse : seResponseList) {
+                if (seResponse != null && seResponse.getSelectionStatus().hasMatched()) {
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("[{}] a default selection has matched", getName());
                     }
+                    aSeMatched = true;
+                    break;
                 }
+            }
 
-                if (notificationMode == ObservableReader.NotificationMode.MATCHED_ONLY) {
-                    /* notify only if a SE matched the selection, just ignore if not */
-                    if (aSeMatched) {
-                        return new ReaderEvent(getPluginName(), getName(),
-                                ReaderEvent.EventType.SE_MATCHED,
-                                new DefaultSelectionsResponse(seResponseList));
-                    } else {
-                        if (logger.isTraceEnabled()) {
-                            logger.trace("[{}] selection hasn't matched"
-                                    + " do not thrown any event because of MATCHED_ONLY flag",
-                                    getName());
-                        }
-                        return null;
-                    }
+            if (notificationMode == ObservableReader.NotificationMode.MATCHED_ONLY) {
+                /* notify only if a SE matched the selection, just ignore if not */
+                if (aSeMatched) {
+                    return new ReaderEvent(getPluginName(), getName(),
+                            ReaderEvent.EventType.SE_MATCHED,
+                            new DefaultSelectionsResponse(seResponseList));
                 } else {
-                    // ObservableReader.NotificationMode.ALWAYS
-                    if (aSeMatched) {
-                        /* The SE matched, notify a SE_MATCHED event with the received response */
-                        return new ReaderEvent(getPluginName(), getName(),
-                                ReaderEvent.EventType.SE_MATCHED,
-                                new DefaultSelectionsResponse(seResponseList));
-                    } else {
-                        /*
-                         * The SE didn't match, notify an SE_INSERTED event with the received
-                         * response
-                         */
-                        if (logger.isTraceEnabled()) {
-                            logger.trace("[{}] none of {} default selection matched", getName(),
-                                    seResponseList.size());
-                        }
-                        return new ReaderEvent(getPluginName(), getName(),
-                                ReaderEvent.EventType.SE_INSERTED,
-                                new DefaultSelectionsResponse(seResponseList));
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("[{}] selection hasn't matched"
+                                + " do not thrown any event because of MATCHED_ONLY flag",
+                                getName());
                     }
+                    return null;
                 }
-            } catch (KeypleReaderException e) {
-                /* the last transmission failed, close the logical and physical channels */
-                closeLogicalAndPhysicalChannels();
-                if (logger.isDebugEnabled()) {
-                    logger.debug(
-                            "An IO Exception occurred while processing the default selection. {}",
-                            e.getMessage());
+            } else {
+                // ObservableReader.NotificationMode.ALWAYS
+                if (aSeMatched) {
+                    /* The SE matched, notify a SE_MATCHED event with the received response */
+                    return new ReaderEvent(getPluginName(), getName(),
+                            ReaderEvent.EventType.SE_MATCHED,
+                            new DefaultSelectionsResponse(seResponseList));
+                } else {
+                    /*
+                     * The SE didn't match, notify an SE_INSERTED event with the received
+                     * response
+                     */
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("[{}] none of {} default selection matched", getName(),
+                                seResponseList.size());
+                    }
+                    return new ReaderEvent(getPluginName(), getName(),
+                            ReaderEvent.EventType.SE_INSERTED,
+                            new DefaultSelectionsResponse(seResponseList));
                 }
-                // in this case the SE has been removed or not read correctly, do not throw event
             }
         }
-
-        // We close here the physical channel in case it has been opened for a SE outside the
-        // expected SEs
-        try {
-            closePhysicalChannel();
-        } catch (KeypleChannelControlException e) {
-            logger.error("Error while closing physical channel. {}", e.getMessage());
-        }
-        // no event returned
-        return null;
     }
 
     /**
@@ -521,6 +560,12 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
      * This method has to be called regularly until the SE no longer respond.
      * <p>
      * Having this method not final allows a reader plugin to implement its own method.
+     * <p>
+     * The ping is not sent while another thread owns the channel lease: the SE is then being used
+     * by an application and is considered present, its removal will be detected by the first ping
+     * after the release of the lease, or by the failing transmission. The ping itself never blocks
+     * the monitoring thread, but closing the channels after a removal waits for the release of the
+     * lease (see {@link #acquireChannelLease()}).
      *
      * @return true if the SE still responds, false if not
      */
@@ -528,6 +573,17 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
     public boolean isSePresentPing() {
         // APDU sent to check the communication with the PO
         final byte[] apdu = {(byte) 0x00, (byte) 0xC0, (byte) 0x00, (byte) 0x00, (byte) 0x00};
+        try {
+            if (!tryAcquireChannelLease(0)) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("[{}] Channels in use, skip the SE ping", getName());
+                }
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
         // transmits the APDU and checks for the IO exception.
         try {
             if (logger.isTraceEnabled()) {
@@ -540,6 +596,8 @@ public abstract class AbstractObservableLocalReader extends AbstractLocalReader
                         e.getMessage());
             }
             return false;
+        } finally {
+            releaseChannelLease();
         }
         return true;
     }
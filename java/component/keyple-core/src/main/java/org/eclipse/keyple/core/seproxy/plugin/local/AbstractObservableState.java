@@ -42,6 +42,9 @@ public abstract class AbstractObservableState {
     /* Result of the background job if any */
     protected Future monitoringEvent;
 
+    /* The background routine, created once and submitted at each activation */
+    private Runnable monitoringTask;
+
     /* Executor service used to execute MonitoringJob */
     protected ExecutorService executorService;
 
@@ -92,6 +95,24 @@ public abstract class AbstractObservableState {
         reader.switchState(stateId);
     }
 
+    /**
+     * Handle an Internal Event raised by the monitoring job of this state.
+     * <p>
+     * The event is processed by the state service of the reader, and ignored if this state (or a
+     * state sharing its monitoring job) is no longer the current state. Without state service (the
+     * state being used on its own), the event is directly handled by this state.
+     *
+     * @param event internal event raised by the monitoring job
+     */
+    public final void onMonitoringEvent(AbstractObservableLocalReader.InternalEvent event) {
+        ObservableReaderStateService stateService = reader.stateService;
+        if (stateService != null) {
+            stateService.onMonitoringEvent(event, this);
+        } else {
+            onEvent(event);
+        }
+    }
+
     /**
      * Handle Internal Event Usually state is switched using method reader::switchState
      * 
@@ -103,14 +124,20 @@ public abstract class AbstractObservableState {
      * Invoked when activated, a custom behaviour can be added here
      */
     public void onActivate() {
-        logger.trace("[{}] onActivate => {}", this.reader.getName(), this.getMonitoringState());
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] onActivate => {}", this.reader.getName(),
+                    this.getMonitoringState());
+        }
 
         // launch the monitoringJob is necessary
         if (monitoringJob != null) {
             if (executorService == null) {
                 throw new AssertionError("ExecutorService must be set");
             }
-            monitoringEvent = executorService.submit(monitoringJob.getMonitoringJob(this));
+            if (monitoringTask == null) {
+                monitoringTask = monitoringJob.getMonitoringJob(this);
+            }
+            monitoringEvent = executorService.submit(monitoringTask);
         }
     }
 
@@ -118,7 +145,10 @@ public abstract class AbstractObservableState {
      * Invoked when deactivated
      */
     public void onDeactivate() {
-        logger.trace("[{}] onDeactivate => {}", this.reader.getName(), this.getMonitoringState());
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] onDeactivate => {}", this.reader.getName(),
+                    this.getMonitoringState());
+        }
 
         // cancel the monitoringJob is necessary
         if (monitoringEvent != null && !monitoringEvent.isDone()) {
@@ -126,12 +156,28 @@ public abstract class AbstractObservableState {
 
             // TODO this could be inside the stop method?
             boolean canceled = monitoringEvent.cancel(false);
-            logger.trace(
-                    "[{}] onDeactivate => cancel runnable waitForCarPresent by thead interruption {}",
-                    reader.getName(), canceled);
+            if (logger.isTraceEnabled()) {
+                logger.trace(
+                        "[{}] onDeactivate => cancel runnable waitForCarPresent by thead interruption {}",
+                        reader.getName(), canceled);
+            }
         }
     }
 
-
-
+    /**
+     * Gives the running monitoring job to the next state when both states use the same job
+     *
+     * @param nextState the state being activated
+     * @return true if the job was running and has been handed over, false if the usual
+     *         deactivation/activation is needed
+     */
+    boolean handOverMonitoring(AbstractObservableState nextState) {
+        if (monitoringEvent == null || monitoringEvent.isDone()
+                || nextState.monitoringJob != monitoringJob) {
+            return false;
+        }
+        nextState.monitoringEvent = monitoringEvent;
+        monitoringEvent = null;
+        return true;
+    }
 }
@@ -12,12 +12,34 @@
 package org.eclipse.keyple.core.seproxy.plugin.local;
 
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Manages the internal state of an AbstractObservableLocalReader Process InternalEvent against the
  * current state
+ * <p>
+ * The events and the state switches are processed one at a time under the lock of the service,
+ * always taken after the channel lease of the reader (see
+ * {@link AbstractLocalReader#acquireChannelLease()}): the processing of an event may use the
+ * channels, and an application holding the lease can notify the reader (e.g. notifySeProcessed)
+ * without risking a deadlock with a thread waiting for the lease under the lock.
+ * <ul>
+ * <li>an event communicated by the reader or the application (see {@link #onEvent}) is processed
+ * before the method returns, as are the state switches;</li>
+ * <li>an event raised by a monitoring job is queued: the monitoring thread processes it only if the
+ * lease and the lock are free, otherwise it does not wait and the event is processed by the thread
+ * holding the lock before releasing it, or at the release of the lease.</li>
+ * </ul>
+ * The current state is readable without lock.
+ * The states are stored in a table indexed by {@link AbstractObservableState.MonitoringState}
+ * built once from the states provided by the reader. The same table tells whether two states share
+ * the same {@link MonitoringJob} (e.g. a removal detection job used while the SE is processed and
+ * while waiting for its removal): in this case the running job is kept when switching from one
+ * state to the other instead of being stopped and submitted again.
  */
 public class ObservableReaderStateService {
 
@@ -28,29 +50,161 @@ public class ObservableReaderStateService {
     /* AbstractObservableLocalReader to manage event and states */
     private final AbstractObservableLocalReader reader;
 
-    /* Map of all instantiated states possible */
-    private final Map<AbstractObservableState.MonitoringState, AbstractObservableState> states;
+    /* All instantiated states possible, indexed by MonitoringState ordinal */
+    private final AbstractObservableState[] states;
 
-    /* Current currentState of the Observable Reader */
-    private AbstractObservableState currentState;
+    /* sharedMonitoring[from][to] is true if the two states use the same monitoring job */
+    private final boolean[][] sharedMonitoring;
+
+    /* Current currentState of the Observable Reader, changed with lock held */
+    private volatile AbstractObservableState currentState;
+
+    /* Events raised by the monitoring jobs waiting to be processed */
+    private final Queue<PendingEvent> monitoringEvents =
+            new ConcurrentLinkedQueue<PendingEvent>();
+
+    /* Serializes the processing of the events and the state switches */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /* Notified at each state switch, see waitForStateChange */
+    private final Object stateChangeMonitor = new Object();
 
 
     public ObservableReaderStateService(AbstractObservableLocalReader reader,
             Map<AbstractObservableState.MonitoringState, AbstractObservableState> states,
             AbstractObservableState.MonitoringState initState) {
-        this.states = states;
         this.reader = reader;
+        AbstractObservableState.MonitoringState[] monitoringStates =
+                AbstractObservableState.MonitoringState.values();
+        this.states = new AbstractObservableState[monitoringStates.length];
+        for (Map.Entry<AbstractObservableState.MonitoringState, AbstractObservableState> entry : states
+                .entrySet()) {
+            this.states[entry.getKey().ordinal()] = entry.getValue();
+        }
+        this.sharedMonitoring = new boolean[monitoringStates.length][monitoringStates.length];
+        for (int from = 0; from < monitoringStates.length; from++) {
+            for (int to = 0; to < monitoringStates.length; to++) {
+                this.sharedMonitoring[from][to] = from != to && this.states[from] != null
+                        && this.states[to] != null && this.states[from].monitoringJob != null
+                        && this.states[from].monitoringJob == this.states[to].monitoringJob;
+            }
+        }
         switchState(initState);
     }
 
     /**
      * Thread safe method to communicate an internal event to this reader Use this method to inform
      * the reader of external event like a tag discovered or a Se inserted
+     * <p>
+     * The event is processed before returning.
      *
      * @param event internal event
      */
-    public final synchronized void onEvent(AbstractObservableLocalReader.InternalEvent event) {
-        this.currentState.onEvent(event);
+    public final void onEvent(AbstractObservableLocalReader.InternalEvent event) {
+        reader.acquireChannelLease();
+        try {
+            lock.lock();
+            try {
+                processMonitoringEvents();
+                process(event, null);
+                processMonitoringEvents();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            reader.releaseChannelLease();
+            processMonitoringEventsIfIdle();
+        }
+    }
+
+    /**
+     * Communicates an event raised by the monitoring job of a state.
+     * <p>
+     * The event is ignored if, when processed, the current state does not use this monitoring job
+     * anymore. The monitoring thread never waits for the lock nor for the channel lease: if another
+     * thread holds one of them, the event is left to that thread.
+     *
+     * @param event internal event
+     * @param source the state whose monitoring job raised the event
+     */
+    final void onMonitoringEvent(AbstractObservableLocalReader.InternalEvent event,
+            AbstractObservableState source) {
+        monitoringEvents.offer(new PendingEvent(event, source.monitoringJob));
+        processMonitoringEventsIfIdle();
+    }
+
+    /**
+     * Processes the queued monitoring events if no other thread holds the channel lease of the
+     * reader, called by the monitoring jobs and when the lease is released.
+     */
+    final void processMonitoringEventsIfIdle() {
+        if (lock.isHeldByCurrentThread()) {
+            /* the events are processed by the outer call */
+            return;
+        }
+        /* loop: an event may be queued between the last poll of the holder and its release */
+        while (!monitoringEvents.isEmpty() && tryAcquireChannelLease()) {
+            try {
+                /* free: the lock is only taken by the owner of the lease */
+                lock.lock();
+                try {
+                    processMonitoringEvents();
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                reader.releaseChannelLease();
+            }
+        }
+    }
+
+    /* try to acquire the channel lease of the reader without waiting */
+    private boolean tryAcquireChannelLease() {
+        try {
+            return reader.tryAcquireChannelLease(0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /*
+     * process the queued monitoring events (called with lock held); a nested call, made while an
+     * event is being processed, leaves them to the outer call
+     */
+    private void processMonitoringEvents() {
+        if (lock.getHoldCount() > 1) {
+            return;
+        }
+        PendingEvent pendingEvent;
+        while ((pendingEvent = monitoringEvents.poll()) != null) {
+            process(pendingEvent.event, pendingEvent.source);
+        }
+    }
+
+    /* process an event in the current state (called with lock held) */
+    private void process(AbstractObservableLocalReader.InternalEvent event,
+            MonitoringJob source) {
+        AbstractObservableState state = currentState;
+        if (source != null && source != state.monitoringJob) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("[{}] Ignore event {} raised by an inactive monitoring job",
+                        reader.getName(), event);
+            }
+            return;
+        }
+        if (source == null) {
+            /* the exception is propagated to the reader or the application */
+            state.onEvent(event);
+            return;
+        }
+        try {
+            state.onEvent(event);
+        } catch (RuntimeException e) {
+            /* keep processing the next monitoring events */
+            logger.error("[{}] Error while processing event {} in state {}", reader.getName(),
+                    event, state.getMonitoringState(), e);
+        }
     }
 
 
@@ -60,25 +214,54 @@ public class ObservableReaderStateService {
      *
      * @param stateId : next state to onActivate
      */
-    public final synchronized void switchState(AbstractObservableState.MonitoringState stateId) {
+    public final void switchState(AbstractObservableState.MonitoringState stateId) {
+        reader.acquireChannelLease();
+        try {
+            lock.lock();
+            try {
+                doSwitchState(stateId);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            reader.releaseChannelLease();
+        }
+    }
 
-        if (currentState != null) {
-            logger.trace("[{}] Switch currentState from {} to {}", this.reader.getName(),
-                    this.currentState.getMonitoringState(), stateId);
+    /* switch the state (called with lock held) */
+    private void doSwitchState(AbstractObservableState.MonitoringState stateId) {
+        AbstractObservableState nextState = states[stateId.ordinal()];
+        AbstractObservableState previousState = currentState;
+        currentState = nextState;
+        synchronized (stateChangeMonitor) {
+            stateChangeMonitor.notifyAll();
+        }
 
-            currentState.onDeactivate();
-        } else {
-            logger.trace("[{}] Switch to a new currentState {}", this.reader.getName(), stateId);
+        if (previousState == null) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("[{}] Switch to a new currentState {}", reader.getName(), stateId);
+            }
+            nextState.onActivate();
+            return;
         }
 
-        // switch currentState
-        currentState = this.states.get(stateId);
+        if (logger.isDebugEnabled()) {
+            logger.debug("[{}] Switch currentState from {} to {}", reader.getName(),
+                    previousState.getMonitoringState(), stateId);
+        }
 
-        logger.debug("[{}] New currentState {}", this.reader.getName(),
-                currentState.getMonitoringState());
+        if (sharedMonitoring[previousState.getMonitoringState().ordinal()][stateId.ordinal()]
+                && previousState.handOverMonitoring(nextState)) {
+            /* the monitoring job is still running and is kept for the next state */
+            if (logger.isTraceEnabled()) {
+                logger.trace("[{}] Monitoring job kept running", reader.getName());
+            }
+            return;
+        }
 
+        previousState.onDeactivate();
         // onActivate the new current state
-        currentState.onActivate();
+        nextState.onActivate();
     }
 
     /**
@@ -86,7 +269,7 @@ public class ObservableReaderStateService {
      *
      * @return reader current state
      */
-    protected final synchronized AbstractObservableState getCurrentState() {
+    protected final AbstractObservableState getCurrentState() {
         return currentState;
     }
 
@@ -95,7 +278,47 @@ public class ObservableReaderStateService {
      *
      * @return current monitoring state
      */
-    public final synchronized AbstractObservableState.MonitoringState getCurrentMonitoringState() {
-        return this.currentState.getMonitoringState();
+    public final AbstractObservableState.MonitoringState getCurrentMonitoringState() {
+        return currentState.getMonitoringState();
+    }
+
+    /**
+     * Waits until the reader leaves the provided state, or at most the provided time
+     * <p>
+     * The lock of the service is not taken: a monitoring job may wait here without delaying the
+     * processing of the events.
+     *
+     * @param state the state to leave
+     * @param timeout the maximum time to wait in milliseconds
+     * @return the current monitoring state
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public final AbstractObservableState.MonitoringState waitForStateChange(
+            AbstractObservableState.MonitoringState state, long timeout)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (stateChangeMonitor) {
+            long remaining = timeout;
+            while (currentState.getMonitoringState() == state && remaining > 0) {
+                stateChangeMonitor.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return currentState.getMonitoringState();
+        }
+    }
+
+    /**
+     * An event waiting to be processed
+     */
+    private static final class PendingEvent {
+        private final AbstractObservableLocalReader.InternalEvent event;
+        /* the monitoring job which raised the event */
+        private final MonitoringJob source;
+
+        private PendingEvent(AbstractObservableLocalReader.InternalEvent event,
+                MonitoringJob source) {
+            this.event = event;
+            this.source = source;
+        }
     }
 }
@@ -0,0 +1,37 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin.local;
+
+import org.eclipse.keyple.core.seproxy.event.ObservableReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+
+/**
+ * Interface implemented by the readers able to check the SE presence without exchanging an APDU
+ * with it.
+ * <p>
+ * The readers which do not handle the SE removal natively (not implementing
+ * {@link SmartRemovalReader}) detect it by polling the SE. When the reader implements this
+ * interface, the polling uses {@link #probeSePresence()} instead of sending a neutral APDU with
+ * {@link AbstractObservableLocalReader#isSePresentPing()}.
+ */
+public interface SePresenceProbeReader extends ObservableReader {
+    /**
+     * Checks the SE presence without sending any command to it.
+     * <p>
+     * This method is called repeatedly by the monitoring thread while waiting for the SE removal,
+     * it must return quickly.
+     *
+     * @return true if the SE is present
+     * @throws KeypleIOReaderException in the event of a communication failure with the reader
+     */
+    boolean probeSePresence() throws KeypleIOReaderException;
+}
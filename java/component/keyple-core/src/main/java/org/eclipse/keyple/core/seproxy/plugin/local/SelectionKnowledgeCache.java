@@ -0,0 +1,207 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin.local;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * Remembers how the SE provide their FCI when an application is selected, in order to use the
+ * cheapest command sequence at the next selection.
+ * <p>
+ * When a Select Application command succeeds without data, the reader sends a Get Response command
+ * (case 4 hack) and, if the FCI is still missing, a Get Data command. For SE products which only
+ * return their FCI through the Get Data command, the Get Response is a wasted exchange at each
+ * selection. Once this behavior is known for a SE product and an AID, the reader sends the Get Data
+ * command right after the Select Application.
+ * <p>
+ * The knowledge is keyed by the ATR filter of the selector (i.e. the SE product targeted by the
+ * application), AID and selection options (file occurrence and file control information). The ATR
+ * itself is not part of the key since it usually contains bytes specific to each SE (e.g. a serial
+ * number in the historical bytes), which would make each new SE miss the cache. When a SE doesn't
+ * behave as expected, its entry is forgotten and the complete sequence is used.
+ * <p>
+ * The cache is used only when set on a reader with
+ * {@link AbstractLocalReader#setSelectionKnowledgeCache(SelectionKnowledgeCache)}. It can be
+ * shared by several readers.
+ */
+public final class SelectionKnowledgeCache {
+
+    /**
+     * Where the FCI of a selected application is available
+     */
+    public enum FciLocation {
+        /** in the response to the Select Application command (possibly through Get Response) */
+        SELECT_RESPONSE,
+        /** only in the response to the Get Data command */
+        GET_DATA
+    }
+
+    private final LruMap entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicLong savedApduCount = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries the maximum number of entries, the least recently used ones are forgotten
+     *        beyond
+     * @throws IllegalArgumentException if maxEntries is not positive
+     */
+    public SelectionKnowledgeCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The maximum number of entries must be positive.");
+        }
+        entries = new LruMap(maxEntries);
+    }
+
+    /**
+     * Builds the key of an entry
+     *
+     * @param atrFilter the ATR filter of the selector (may be null)
+     * @param aidSelector the AID selector
+     * @return the key
+     */
+    static String getKey(SeSelector.AtrFilter atrFilter, SeSelector.AidSelector aidSelector) {
+        StringBuilder key = new StringBuilder();
+        if (atrFilter != null) {
+            key.append(atrFilter.getAtrRegex());
+        }
+        key.append('/').append(ByteArrayUtil.toHex(aidSelector.getAidToSelect().getValue()))
+                .append('/').append(aidSelector.getFileOccurrence().getIsoBitMask()
+                        | aidSelector.getFileControlInformation().getIsoBitMask());
+        return key.toString();
+    }
+
+    /**
+     * Get the known FCI location
+     *
+     * @param key the entry key
+     * @return the FCI location or null if unknown
+     */
+    FciLocation get(String key) {
+        FciLocation fciLocation;
+        synchronized (entries) {
+            fciLocation = entries.get(key);
+        }
+        if (fciLocation == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return fciLocation;
+    }
+
+    /**
+     * Records the FCI location observed for a successful selection
+     *
+     * @param key the entry key
+     * @param fciLocation the FCI location
+     */
+    void put(String key, FciLocation fciLocation) {
+        synchronized (entries) {
+            entries.put(key, fciLocation);
+        }
+    }
+
+    /**
+     * Forgets an entry whose SE didn't behave as expected
+     *
+     * @param key the entry key
+     */
+    void invalidate(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Records APDU exchanges saved thanks to the cache
+     *
+     * @param count the number of exchanges saved
+     */
+    void addSavedApdus(int count) {
+        savedApduCount.addAndGet(count);
+    }
+
+    /**
+     * Forgets all the entries (the metrics are kept)
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the number of selections for which the FCI location was known
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of selections for which the FCI location was unknown
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of entries forgotten because the SE didn't behave as expected
+     */
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * @return the number of APDU exchanges saved
+     */
+    public long getSavedApduCount() {
+        return savedApduCount.get();
+    }
+
+    /**
+     * Map in access order forgetting its least recently used entry beyond a maximum size
+     */
+    private static final class LruMap extends LinkedHashMap<String, FciLocation> {
+        private static final long serialVersionUID = 4186236307614473315L;
+
+        private final int maxEntries;
+
+        LruMap(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FciLocation> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -12,9 +12,11 @@
 package org.eclipse.keyple.core.seproxy.plugin.local.monitoring;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.plugin.local.AbstractObservableLocalReader;
 import org.eclipse.keyple.core.seproxy.plugin.local.AbstractObservableState;
 import org.eclipse.keyple.core.seproxy.plugin.local.MonitoringJob;
+import org.eclipse.keyple.core.seproxy.plugin.local.SePresenceProbeReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,18 +29,34 @@ import org.slf4j.LoggerFactory;
  * disappearance of the SE at the end of the transaction.
  * <p>
  * It is based on sending a neutral APDU command as long as the SE is responding, an internal
- * SE_REMOVED event is fired when the SE is no longer responding.
+ * SE_REMOVED event is fired when the SE is no longer responding. If the reader implements
+ * {@link SePresenceProbeReader}, its presence probe is used instead of the APDU.
  * <p>
- * By default a delay of 200 ms is inserted between each APDU sending .
+ * The delay between two checks is adaptive: the SE is checked often right after the end of its
+ * processing (the SE is usually removed soon after), then the delay is doubled after each check
+ * until a maximum value. By default the delay goes from 10 ms to 200 ms. The delays and the use of
+ * the presence probe can be changed with {@link #setParameter(String, String)}.
  */
 public class CardAbsentPingMonitoringJob implements MonitoringJob {
 
     private static final Logger logger = LoggerFactory.getLogger(CardAbsentPingMonitoringJob.class);
 
+    /** Delay (in ms) before the first check, after the end of the SE processing */
+    public static final String REMOVAL_PING_MIN_PERIOD = "removal_ping_min_period";
+    /** Maximum delay (in ms) between two checks while the SE stays in the field */
+    public static final String REMOVAL_PING_MAX_PERIOD = "removal_ping_max_period";
+    /** "true" (default) to use the presence probe of the reader when available, "false" if not */
+    public static final String REMOVAL_PING_PROBE = "removal_ping_probe";
+
+    private static final long DEFAULT_MIN_PERIOD = 10;
+    private static final long DEFAULT_MAX_PERIOD = 200;
+
     private final AbstractObservableLocalReader reader;
     private Runnable job;
     final private AtomicBoolean loop = new AtomicBoolean();
-    private long removalWait = 200;
+    private volatile long minPeriod;
+    private volatile long maxPeriod;
+    private volatile boolean useProbe = true;
 
     /**
      * Create a job monitor job that ping the SE with the method isSePresentPing()
@@ -46,7 +64,7 @@ public class CardAbsentPingMonitoringJob implements MonitoringJob {
      * @param reader : reference to the reader
      */
     public CardAbsentPingMonitoringJob(AbstractObservableLocalReader reader) {
-        this.reader = reader;
+        this(reader, DEFAULT_MIN_PERIOD, DEFAULT_MAX_PERIOD);
     }
 
     /**
@@ -56,8 +74,85 @@ public class CardAbsentPingMonitoringJob implements MonitoringJob {
      * @param removalWait : delay between between each APDU sending
      */
     public CardAbsentPingMonitoringJob(AbstractObservableLocalReader reader, long removalWait) {
+        this(reader, removalWait, removalWait);
+    }
+
+    /**
+     * Create a job monitor job that ping the SE with an adaptive delay
+     *
+     * @param reader : reference to the reader
+     * @param minPeriod : delay before the first check
+     * @param maxPeriod : maximum delay between two checks
+     */
+    public CardAbsentPingMonitoringJob(AbstractObservableLocalReader reader, long minPeriod,
+            long maxPeriod) {
         this.reader = reader;
-        this.removalWait = removalWait;
+        setPeriods(minPeriod, maxPeriod);
+    }
+
+    /**
+     * Tells if the parameter name is one of the parameters handled by this job
+     *
+     * @param name the parameter name
+     * @return true if the parameter can be set with {@link #setParameter(String, String)}
+     */
+    public static boolean isParameter(String name) {
+        return REMOVAL_PING_MIN_PERIOD.equals(name) || REMOVAL_PING_MAX_PERIOD.equals(name)
+                || REMOVAL_PING_PROBE.equals(name);
+    }
+
+    /**
+     * Set a parameter of the removal detection, taken into account from the next check
+     *
+     * @param name the parameter name (see {@link #isParameter(String)})
+     * @param value the parameter value
+     * @throws IllegalArgumentException if the parameter or its value is not supported
+     */
+    public void setParameter(String name, String value) {
+        try {
+            if (REMOVAL_PING_MIN_PERIOD.equals(name)) {
+                setPeriods(Long.parseLong(value), Math.max(maxPeriod, Long.parseLong(value)));
+            } else if (REMOVAL_PING_MAX_PERIOD.equals(name)) {
+                setPeriods(Math.min(minPeriod, Long.parseLong(value)), Long.parseLong(value));
+            } else if (REMOVAL_PING_PROBE.equals(name)) {
+                if (!"true".equals(value) && !"false".equals(value)) {
+                    throw new IllegalArgumentException(
+                            "Bad value for parameter " + name + " : " + value);
+                }
+                useProbe = Boolean.parseBoolean(value);
+            } else {
+                throw new IllegalArgumentException("Parameter not supported : " + name);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad value for parameter " + name + " : " + value);
+        }
+    }
+
+    private void setPeriods(long minPeriod, long maxPeriod) {
+        if (minPeriod < 1 || maxPeriod < minPeriod) {
+            throw new IllegalArgumentException(
+                    "Bad removal polling periods : " + minPeriod + ", " + maxPeriod);
+        }
+        this.minPeriod = minPeriod;
+        this.maxPeriod = maxPeriod;
+    }
+
+    /**
+     * @return true if the SE still responds (or is still seen by the reader probe)
+     */
+    private boolean isSeStillPresent() {
+        if (useProbe && reader instanceof SePresenceProbeReader) {
+            try {
+                return ((SePresenceProbeReader) reader).probeSePresence();
+            } catch (KeypleIOReaderException e) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("[{}] Exception occurred in probeSePresence. Message: {}",
+                            reader.getName(), e.getMessage());
+                }
+                return false;
+            }
+        }
+        return reader.isSePresentPing();
     }
 
     @Override
@@ -75,28 +170,39 @@ public class CardAbsentPingMonitoringJob implements MonitoringJob {
             public void run() {
                 logger.debug("[{}] Polling from isSePresentPing", reader.getName());
 
+                // start with the shortest delay, the SE is likely to be removed soon
+                long period = minPeriod;
+
                 // re-init loop value to true
                 loop.set(true);
                 while (loop.get()) {
-                    if (!reader.isSePresentPing()) {
+                    if (!isSeStillPresent()) {
                         logger.debug("[{}] The SE stopped responding", reader.getName());
                         loop.set(false);
-                        state.onEvent(AbstractObservableLocalReader.InternalEvent.SE_REMOVED);
+                        state.onMonitoringEvent(
+                                AbstractObservableLocalReader.InternalEvent.SE_REMOVED);
                         return;
                     }
                     retries++;
 
                     if (logger.isTraceEnabled()) {
-                        logger.trace("[{}] Polling retries : {}", reader.getName(), retries);
+                        logger.trace("[{}] Polling retries : {}, next in {} ms", reader.getName(),
+                                retries, period);
                     }
                     try {
-                        // wait a bit
-                        Thread.sleep(removalWait);
+                        // wait a bit, stop() ends the wait
+                        synchronized (loop) {
+                            if (loop.get()) {
+                                loop.wait(period);
+                            }
+                        }
                     } catch (InterruptedException ignored) {
-                        // Restore interrupted state...      
+                        // Restore interrupted state...
                         Thread.currentThread().interrupt();
                         loop.set(false);
                     }
+                    // the SE stays in the field, back off
+                    period = Math.min(period * 2, maxPeriod);
                 }
 
                 logger.debug("[{}] Polling loop has been stopped", reader.getName());
@@ -109,6 +215,9 @@ public class CardAbsentPingMonitoringJob implements MonitoringJob {
     @Override
     public void stop() {
         logger.debug("[{}] Stop Polling ", reader.getName());
-        loop.set(false);
+        synchronized (loop) {
+            loop.set(false);
+            loop.notifyAll();
+        }
     }
 }
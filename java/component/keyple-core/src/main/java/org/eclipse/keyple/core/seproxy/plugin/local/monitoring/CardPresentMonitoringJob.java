@@ -63,14 +63,16 @@ public class CardPresentMonitoringJob implements MonitoringJob {
                         if (monitorInsertion && reader.isSePresent()) {
                             logger.debug("[{}] The SE is present ", reader.getName());
                             loop.set(false);
-                            state.onEvent(AbstractObservableLocalReader.InternalEvent.SE_INSERTED);
+                            state.onMonitoringEvent(
+                                    AbstractObservableLocalReader.InternalEvent.SE_INSERTED);
                             return;
                         }
                         // polls for SE_REMOVED
                         if (!monitorInsertion && !reader.isSePresent()) {
                             logger.debug("[{}] The SE is not present ", reader.getName());
                             loop.set(false);
-                            state.onEvent(AbstractObservableLocalReader.InternalEvent.SE_REMOVED);
+                            state.onMonitoringEvent(
+                                    AbstractObservableLocalReader.InternalEvent.SE_REMOVED);
                             return;
                         }
 
@@ -53,13 +53,15 @@ public class SmartInsertionMonitoringJob implements MonitoringJob {
                 logger.trace("[{}] Invoke waitForCardPresent asynchronously", reader.getName());
                 try {
                     if (reader.waitForCardPresent()) {
-                        state.onEvent(AbstractObservableLocalReader.InternalEvent.SE_INSERTED);
+                        state.onMonitoringEvent(
+                                AbstractObservableLocalReader.InternalEvent.SE_INSERTED);
                     }
                 } catch (KeypleIOReaderException e) {
                     logger.trace(
                             "[{}] waitForCardPresent => Error while polling SE with waitForCardPresent",
                             reader.getName());
-                    state.onEvent(AbstractObservableLocalReader.InternalEvent.STOP_DETECT);
+                    state.onMonitoringEvent(
+                            AbstractObservableLocalReader.InternalEvent.STOP_DETECT);
                 }
             }
         };
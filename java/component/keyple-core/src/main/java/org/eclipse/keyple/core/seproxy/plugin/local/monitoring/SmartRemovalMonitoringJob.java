@@ -54,7 +54,8 @@ public class SmartRemovalMonitoringJob implements MonitoringJob {
                 try {
                     if (reader.waitForCardAbsentNative()) {
                         // timeout is already managed within the task
-                        state.onEvent(AbstractObservableLocalReader.InternalEvent.SE_REMOVED);
+                        state.onMonitoringEvent(
+                                AbstractObservableLocalReader.InternalEvent.SE_REMOVED);
                     } else {
                         logger.trace(
                                 "[{}] waitForCardAbsentNative => return false, task interrupted",
@@ -64,7 +65,8 @@ public class SmartRemovalMonitoringJob implements MonitoringJob {
                     logger.trace(
                             "[{}] waitForCardAbsent => Error while polling SE with waitForCardAbsent",
                             reader.getName());
-                    state.onEvent(AbstractObservableLocalReader.InternalEvent.STOP_DETECT);
+                    state.onMonitoringEvent(
+                            AbstractObservableLocalReader.InternalEvent.STOP_DETECT);
                 }
             }
         };
@@ -47,8 +47,10 @@ public class WaitForSeInsertion extends AbstractObservableState {
 
     @Override
     public void onEvent(AbstractObservableLocalReader.InternalEvent event) {
-        logger.trace("[{}] onEvent => Event {} received in currentState {}", reader.getName(),
-                event, state);
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] onEvent => Event {} received in currentState {}",
+                    reader.getName(), event, state);
+        }
 
         /*
          * Process InternalEvent
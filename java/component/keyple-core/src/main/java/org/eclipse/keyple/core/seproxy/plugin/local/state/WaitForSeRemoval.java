@@ -46,8 +46,10 @@ public class WaitForSeRemoval extends AbstractObservableState {
 
     @Override
     public void onEvent(AbstractObservableLocalReader.InternalEvent event) {
-        logger.trace("[{}] onEvent => Event {} received in currentState {}", reader.getName(),
-                event, state);
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] onEvent => Event {} received in currentState {}",
+                    reader.getName(), event, state);
+        }
 
         /*
          * Process InternalEvent
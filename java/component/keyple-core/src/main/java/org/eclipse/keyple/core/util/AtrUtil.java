@@ -0,0 +1,99 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+/**
+ * Utils around the Answer To Reset (ISO7816-3 and ISO7816-4 historical bytes)
+ */
+public final class AtrUtil {
+
+    /* compact-TLV tag of the card capabilities in the historical bytes */
+    private static final int CARD_CAPABILITIES_TAG = 0x07;
+
+    /* third software function table of the card capabilities: extended Lc and Le fields */
+    private static final int EXTENDED_LENGTH_MASK = 0x40;
+
+    private AtrUtil() {
+        throw new IllegalStateException("Atr utility class");
+    }
+
+    /**
+     * Extracts the historical bytes of an ATR
+     *
+     * @param atr the ATR
+     * @return the historical bytes (may be empty) or null if the ATR is malformed
+     */
+    public static byte[] getHistoricalBytes(byte[] atr) {
+        if (atr == null || atr.length < 2) {
+            return null;
+        }
+        int historicalBytesLength = atr[1] & 0x0F;
+        int interfaceBytesIndicator = (atr[1] & 0xF0) >> 4;
+        int index = 2;
+        while (true) {
+            /* skip TAi, TBi, TCi */
+            index += Integer.bitCount(interfaceBytesIndicator & 0x07);
+            if ((interfaceBytesIndicator & 0x08) == 0) {
+                break;
+            }
+            /* TDi gives the presence of the next interface bytes */
+            if (index >= atr.length) {
+                return null;
+            }
+            interfaceBytesIndicator = (atr[index++] & 0xF0) >> 4;
+        }
+        if (index + historicalBytesLength > atr.length) {
+            return null;
+        }
+        byte[] historicalBytes = new byte[historicalBytesLength];
+        System.arraycopy(atr, index, historicalBytes, 0, historicalBytesLength);
+        return historicalBytes;
+    }
+
+    /**
+     * Tells if the card capabilities found in the historical bytes of an ATR (ISO7816-4
+     * &sect;8.1.1.2.7) indicate the support of the extended Lc and Le fields
+     *
+     * @param atr the ATR
+     * @return true if the SE announces the extended length APDU support, false if not or if the ATR
+     *         doesn't provide the card capabilities
+     */
+    public static boolean isExtendedLengthSupported(byte[] atr) {
+        byte[] historicalBytes = getHistoricalBytes(atr);
+        if (historicalBytes == null || historicalBytes.length == 0) {
+            return false;
+        }
+        int end;
+        if (historicalBytes[0] == (byte) 0x80) {
+            /* compact-TLV objects only */
+            end = historicalBytes.length;
+        } else if (historicalBytes[0] == (byte) 0x00) {
+            /* compact-TLV objects followed by a 3 bytes status indicator */
+            end = historicalBytes.length - 3;
+        } else {
+            /* proprietary format */
+            return false;
+        }
+        int index = 1;
+        while (index < end) {
+            int tag = (historicalBytes[index] & 0xF0) >> 4;
+            int length = historicalBytes[index] & 0x0F;
+            index++;
+            if (tag == CARD_CAPABILITIES_TAG) {
+                return length >= 3 && index + 2 < end
+                        && (historicalBytes[index + 2] & EXTENDED_LENGTH_MASK) != 0;
+            }
+            index += length;
+        }
+        return false;
+    }
+}
@@ -12,6 +12,7 @@
 package org.eclipse.keyple.core.command;
 
 import static org.junit.Assert.*;
+import java.util.Arrays;
 import org.eclipse.keyple.core.CoreBaseTest;
 import org.eclipse.keyple.core.seproxy.message.ApduRequest;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
@@ -84,8 +85,31 @@ public class AbstractIso7816CommandBuilderTest extends CoreBaseTest {
         Assert.assertEquals("COMMAND_1 - TEST SUBNAME", iso7816CommandBuilder.getName());
     }
 
+    @Test
+    public void testAddSubName_request() {
+        ApduRequest apduRequest = new ApduRequest(ByteArrayUtil.fromHex("00112233445566"), false);
+        Iso7816CommandBuilder iso7816CommandBuilder =
+                new Iso7816CommandBuilder(CommandRef.COMMAND_1, apduRequest);
+        iso7816CommandBuilder.addSubName("TEST SUBNAME");
+        iso7816CommandBuilder.addSubName("OTHER");
+        Assert.assertEquals("COMMAND_1 - TEST SUBNAME - OTHER", iso7816CommandBuilder.getName());
+        Assert.assertEquals("COMMAND_1 - TEST SUBNAME - OTHER", apduRequest.getName());
+    }
+
     // TODO Rename or modify the setApduRequest method since it doesn't set the ApduRequest
 
+    @Test
+    public void testSetApduRequestDataLength() {
+        // data field filled afterwards by the builder
+        Iso7816CommandBuilder iso7816CommandBuilder =
+                new Iso7816CommandBuilder(CommandRef.COMMAND_1, null);
+        ApduRequest apduRequest = iso7816CommandBuilder.setApduRequest((byte) 0xCC,
+                CommandRef.COMMAND_1, (byte) 0xB1, (byte) 0xB2, 4, (byte) 0);
+        Assert.assertArrayEquals(ByteArrayUtil.fromHex("CC 11 B1 B2 04 00000000 00"),
+                apduRequest.getBytes());
+        Assert.assertTrue(apduRequest.isCase4());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testSetApduRequestDatainLeNon0() {
         Iso7816CommandBuilder iso7816CommandBuilder =
@@ -160,6 +184,61 @@ public class AbstractIso7816CommandBuilderTest extends CoreBaseTest {
                 apduRequest.getBytes());
     }
 
+    @Test
+    public void testSetExtendedApduRequestCase2E() {
+        Iso7816CommandBuilder iso7816CommandBuilder =
+                new Iso7816CommandBuilder(CommandRef.COMMAND_1, null);
+        ApduRequest apduRequest = iso7816CommandBuilder.setExtendedApduRequest((byte) 0x00,
+                CommandRef.COMMAND_1, (byte) 0xB1, (byte) 0xB2, null, 1000);
+        Assert.assertArrayEquals(ByteArrayUtil.fromHex("00 11 B1 B2 00 03E8"),
+                apduRequest.getBytes());
+        Assert.assertFalse(apduRequest.isCase4());
+        Assert.assertTrue(apduRequest.isExtendedLength());
+    }
+
+    @Test
+    public void testSetExtendedApduRequestCase3E() {
+        Iso7816CommandBuilder iso7816CommandBuilder =
+                new Iso7816CommandBuilder(CommandRef.COMMAND_1, null);
+        byte[] dataIn = new byte[300];
+        dataIn[0] = (byte) 0x11;
+        dataIn[299] = (byte) 0x22;
+        ApduRequest apduRequest = iso7816CommandBuilder.setExtendedApduRequest((byte) 0x00,
+                CommandRef.COMMAND_1, (byte) 0xB1, (byte) 0xB2, dataIn, null);
+        byte[] apdu = apduRequest.getBytes();
+        Assert.assertEquals(7 + 300, apdu.length);
+        Assert.assertArrayEquals(ByteArrayUtil.fromHex("00 11 B1 B2 00 012C 11"),
+                Arrays.copyOf(apdu, 8));
+        Assert.assertEquals((byte) 0x22, apdu[apdu.length - 1]);
+        Assert.assertFalse(apduRequest.isCase4());
+        Assert.assertTrue(apduRequest.isExtendedLength());
+    }
+
+    @Test
+    public void testSetExtendedApduRequestCase4E() {
+        Iso7816CommandBuilder iso7816CommandBuilder =
+                new Iso7816CommandBuilder(CommandRef.COMMAND_1, null);
+        ApduRequest apduRequest =
+                iso7816CommandBuilder.setExtendedApduRequest((byte) 0x00, CommandRef.COMMAND_1,
+                        (byte) 0xB1, (byte) 0xB2, ByteArrayUtil.fromHex("11223344"), 0);
+        Assert.assertArrayEquals(ByteArrayUtil.fromHex("00 11 B1 B2 00 0004 11223344 0000"),
+                apduRequest.getBytes());
+        Assert.assertTrue(apduRequest.isCase4());
+        Assert.assertTrue(apduRequest.isExtendedLength());
+        /* a short APDU is not extended */
+        Assert.assertFalse(iso7816CommandBuilder.setApduRequest((byte) 0x00, CommandRef.COMMAND_1,
+                (byte) 0xB1, (byte) 0xB2, ByteArrayUtil.fromHex("11223344"), (byte) 0)
+                .isExtendedLength());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetExtendedApduRequestDataTooLong() {
+        Iso7816CommandBuilder iso7816CommandBuilder =
+                new Iso7816CommandBuilder(CommandRef.COMMAND_1, null);
+        iso7816CommandBuilder.setExtendedApduRequest((byte) 0x00, CommandRef.COMMAND_1,
+                (byte) 0xB1, (byte) 0xB2, new byte[65536], null);
+    }
+
     private enum CommandRef implements CommandsTable {
         COMMAND_1("COMMAND_1", (byte) 0x11), COMMAND_2("COMMAND_2", (byte) 0x22);
 
@@ -12,6 +12,14 @@
 package org.eclipse.keyple.core.selection;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.eclipse.keyple.core.CoreBaseTest;
 import org.eclipse.keyple.core.command.AbstractApduResponseParser;
 import org.eclipse.keyple.core.command.AbstractApduResponseParserTest;
@@ -20,14 +28,18 @@ import org.eclipse.keyple.core.seproxy.MultiSeRequestProcessing;
 import org.eclipse.keyple.core.seproxy.SeSelector;
 import org.eclipse.keyple.core.seproxy.event.AbstractDefaultSelectionsRequest;
 import org.eclipse.keyple.core.seproxy.event.AbstractDefaultSelectionsResponse;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.*;
 import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -212,6 +224,181 @@ public class SeSelectionTest extends CoreBaseTest {
         Assert.assertEquals("Se Selector #1", matchingSelection.getExtraInfo());
     }
 
+    /**
+     * Processes the same selection set on repeated SE insertions: ATR filtering of each selection
+     * case followed by the processing of the default selection response.
+     */
+    @Test
+    @Ignore("Benchmark without assertion on the timing, to be run manually")
+    public void repeatedDefaultSelection_benchmark() {
+        SeSelection seSelection = createSeSelection();
+        seSelection.prepareSelection(new SeSelectionRequest(new SeSelector(
+                SeCommonProtocols.PROTOCOL_ISO14443_4,
+                new SeSelector.AtrFilter("3B8F8001805A0A0103200311[0-9A-F]{6}829000[0-9A-F]{2}"),
+                null, "Se Selector #3"), null));
+        byte[] atr = ByteArrayUtil.fromHex("3B8F8001805A0A0103200311223344829000E1");
+        SelectionStatus selectionStatus = new SelectionStatus(new AnswerToReset(atr),
+                new ApduResponse(ByteArrayUtil.fromHex("001122334455669000"), null), true);
+        List<SeResponse> seResponseList = new ArrayList<SeResponse>();
+        seResponseList.add(new SeResponse(true, true, selectionStatus, null));
+        AbstractDefaultSelectionsResponse defaultSelectionsResponse =
+                new DefaultSelectionsResponse(seResponseList);
+
+        int warmUp = 20000;
+        int iterations = 100000;
+        long start = 0;
+        for (int i = 0; i < warmUp + iterations; i++) {
+            if (i == warmUp) {
+                start = System.nanoTime();
+            }
+            for (SeRequest seRequest : ((DefaultSelectionsRequest) seSelection
+                    .getSelectionOperation()).getSelectionSeRequestSet()) {
+                SeSelector.AtrFilter atrFilter = seRequest.getSeSelector().getAtrFilter();
+                if (atrFilter != null) {
+                    Assert.assertTrue(atrFilter.atrMatches(atr));
+                }
+            }
+            Assert.assertTrue(seSelection.processDefaultSelection(defaultSelectionsResponse)
+                    .hasActiveSelection());
+        }
+        logger.info("Selection processing: {} ns per SE insertion",
+                (System.nanoTime() - start) / iterations);
+    }
+
+    @Test
+    public void getSelectionOperation_compiledOnce() {
+        SeSelection seSelection = createSeSelection();
+
+        AbstractDefaultSelectionsRequest selectionOperation = seSelection.getSelectionOperation();
+        Assert.assertSame(selectionOperation, seSelection.getSelectionOperation());
+
+        /* a new selection case invalidates the compiled plan */
+        seSelection.prepareSelection(new SeSelectionRequest(
+                new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new SeSelector.AidSelector(
+                                new SeSelector.AidSelector.IsoAid("A0A1A2A3A4"), null),
+                        "Se Selector #3"),
+                null));
+        AbstractDefaultSelectionsRequest newSelectionOperation =
+                seSelection.getSelectionOperation();
+        Assert.assertNotSame(selectionOperation, newSelectionOperation);
+        Assert.assertEquals(3, ((DefaultSelectionsRequest) newSelectionOperation)
+                .getSelectionSeRequestSet().size());
+        Assert.assertEquals(2, ((DefaultSelectionsRequest) selectionOperation)
+                .getSelectionSeRequestSet().size());
+    }
+
+    /**
+     * Explicit selection on several readers: the readers are processed simultaneously and each one
+     * gets its own result
+     */
+    @Test
+    public void processExplicitSelection_parallel() throws Exception {
+        SeSelection seSelection = createSeSelection();
+        final int nbReaders = 3;
+        /* each reader waits until all the readers are transmitting */
+        final CountDownLatch transmitting = new CountDownLatch(nbReaders);
+        List<ProxyReader> readers = new ArrayList<ProxyReader>();
+        for (int i = 0; i < nbReaders; i++) {
+            final boolean matching = i != 1;
+            ProxyReader reader = Mockito.mock(ProxyReader.class);
+            Mockito.when(reader.getName()).thenReturn("reader" + i);
+            Mockito.when(reader.transmitSet(Mockito.<Set<SeRequest>>any(),
+                    Mockito.any(MultiSeRequestProcessing.class),
+                    Mockito.any(ChannelControl.class))).thenAnswer(new Answer<List<SeResponse>>() {
+                        @Override
+                        public List<SeResponse> answer(InvocationOnMock invocation)
+                                throws Throwable {
+                            transmitting.countDown();
+                            Assert.assertTrue(transmitting.await(5, TimeUnit.SECONDS));
+                            SelectionStatus selectionStatus = new SelectionStatus(null,
+                                    new ApduResponse(ByteArrayUtil.fromHex("001122334455669000"),
+                                            null),
+                                    matching);
+                            List<SeResponse> seResponses = new ArrayList<SeResponse>();
+                            seResponses.add(new SeResponse(matching, false, selectionStatus,
+                                    new ArrayList<ApduResponse>()));
+                            seResponses.add(null);
+                            return seResponses;
+                        }
+                    });
+            readers.add(reader);
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(nbReaders);
+        try {
+            Map<String, SelectionsResult> selectionsResults =
+                    seSelection.processExplicitSelection(readers, executorService);
+
+            Assert.assertEquals(Arrays.asList("reader0", "reader1", "reader2"),
+                    new ArrayList<String>(selectionsResults.keySet()));
+            Assert.assertTrue(selectionsResults.get("reader0").hasActiveSelection());
+            Assert.assertFalse(selectionsResults.get("reader1").hasActiveSelection());
+            Assert.assertTrue(selectionsResults.get("reader2").hasActiveSelection());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test(expected = KeypleReaderException.class)
+    public void processExplicitSelection_parallel_failure() throws Exception {
+        SeSelection seSelection = createSeSelection();
+        ProxyReader reader = Mockito.mock(ProxyReader.class);
+        Mockito.when(reader.getName()).thenReturn("reader");
+        Mockito.when(reader.transmitSet(Mockito.<Set<SeRequest>>any(),
+                Mockito.any(MultiSeRequestProcessing.class), Mockito.any(ChannelControl.class)))
+                .thenThrow(new KeypleReaderException("transmission failure"));
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            seSelection.processExplicitSelection(Collections.singletonList(reader),
+                    executorService);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * The executor rejects the selection of the second reader: the selection of the first reader is
+     * cancelled or, if already started, ended before the rejection is thrown
+     */
+    @Test
+    public void processExplicitSelection_parallel_rejected() throws Exception {
+        SeSelection seSelection = createSeSelection();
+        final AtomicBoolean transmitting = new AtomicBoolean();
+        ProxyReader reader0 = Mockito.mock(ProxyReader.class);
+        Mockito.when(reader0.getName()).thenReturn("reader0");
+        Mockito.when(reader0.transmitSet(Mockito.<Set<SeRequest>>any(),
+                Mockito.any(MultiSeRequestProcessing.class), Mockito.any(ChannelControl.class)))
+                .thenAnswer(new Answer<List<SeResponse>>() {
+                    @Override
+                    public List<SeResponse> answer(InvocationOnMock invocation)
+                            throws Throwable {
+                        transmitting.set(true);
+                        Thread.sleep(100);
+                        transmitting.set(false);
+                        throw new KeypleReaderException("transmission failure");
+                    }
+                });
+        ProxyReader reader1 = Mockito.mock(ProxyReader.class);
+        Mockito.when(reader1.getName()).thenReturn("reader1");
+
+        /* a single thread and no queue: the second selection is rejected */
+        ExecutorService executorService = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<Runnable>());
+        try {
+            seSelection.processExplicitSelection(Arrays.asList(reader0, reader1),
+                    executorService);
+            Assert.fail("RejectedExecutionException expected");
+        } catch (RejectedExecutionException e) {
+            Assert.assertFalse(transmitting.get());
+        } finally {
+            executorService.shutdown();
+        }
+        Mockito.verify(reader1, Mockito.never()).transmitSet(Mockito.<Set<SeRequest>>any(),
+                Mockito.any(MultiSeRequestProcessing.class), Mockito.any(ChannelControl.class));
+    }
+
     /*
      * @Test public void processExplicitSelection() { // create a SeSelection SeSelection
      * seSelection = createSeSelection();
@@ -251,11 +438,8 @@ public class SeSelectionTest extends CoreBaseTest {
 
         seSelection.prepareSelection(new SeSelectionRequest(seSelector1, apduRequestList));
 
-        Set<Integer> successfulSelectionStatusCodes = new HashSet<Integer>() {
-            {
-                add(0x6283);
-            }
-        };
+        Set<Integer> successfulSelectionStatusCodes = new HashSet<Integer>();
+        successfulSelectionStatusCodes.add(0x6283);
 
         SeSelector seSelector2 = new SeSelector(SeCommonProtocols.PROTOCOL_B_PRIME,
                 new SeSelector.AtrFilter(".*"),
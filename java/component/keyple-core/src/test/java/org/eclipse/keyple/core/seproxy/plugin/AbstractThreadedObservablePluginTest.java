@@ -11,6 +11,9 @@
  ********************************************************************************/
 package org.eclipse.keyple.core.seproxy.plugin;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.core.CoreBaseTest;
 import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
 import org.eclipse.keyple.core.seproxy.event.PluginEvent;
@@ -51,8 +54,10 @@ public class AbstractThreadedObservablePluginTest extends CoreBaseTest {
     public void addObserver() throws Throwable {
         MockAbstractThreadedPlugin plugin = new MockAbstractThreadedPlugin("addObserverTest");
 
+        ObservablePlugin.PluginObserver obs = getOneObserver();
+
         // add observer
-        plugin.addObserver(getOneObserver());
+        plugin.addObserver(obs);
 
         Assert.assertEquals(1, plugin.countObservers());
         // test if thread is activated
@@ -60,7 +65,8 @@ public class AbstractThreadedObservablePluginTest extends CoreBaseTest {
 
 
         // shutdown thread
-        plugin.finalize();
+        plugin.removeObserver(obs);
+        Assert.assertFalse(plugin.isMonitoring());
     }
 
     @Test
@@ -77,9 +83,6 @@ public class AbstractThreadedObservablePluginTest extends CoreBaseTest {
         // test if thread is deactivated
         Assert.assertFalse(plugin.isMonitoring());
 
-        // shutdown thread
-        plugin.finalize();
-
     }
 
     @Test
@@ -96,16 +99,104 @@ public class AbstractThreadedObservablePluginTest extends CoreBaseTest {
         // test if thread is deactivated
         Assert.assertFalse(plugin.isMonitoring());
 
-        // shutdown thread
-        plugin.finalize();
+    }
+
+
+
+    @Test
+    public void nativeReadersChanged_immediateNotification() throws Throwable {
+        MockAbstractThreadedPlugin plugin = new MockAbstractThreadedPlugin("pushTest");
+        // polling would only detect the reader after 10 s
+        plugin.setPollingPeriods(10000, 10000);
+        final BlockingQueue<PluginEvent> events = new LinkedBlockingQueue<PluginEvent>();
+        ObservablePlugin.PluginObserver obs = new ObservablePlugin.PluginObserver() {
+            @Override
+            public void update(PluginEvent event) {
+                events.add(event);
+            }
+        };
+        plugin.addObserver(obs);
+        // wait for the first check of the thread
+        Assert.assertNotNull(plugin.awaitFetch(1000));
+
+        plugin.plugNativeReader("reader1", true);
+        PluginEvent event = events.poll(1, TimeUnit.SECONDS);
+
+        // notified long before the end of the polling period
+        Assert.assertNotNull(event);
+        Assert.assertEquals(PluginEvent.EventType.READER_CONNECTED, event.getEventType());
+        Assert.assertEquals("reader1", event.getReaderNames().first());
+        Assert.assertEquals(1, plugin.getReaders().size());
 
+        plugin.removeObserver(obs);
     }
 
+    @Test
+    public void polling_backoff() throws Throwable {
+        MockAbstractThreadedPlugin plugin = new MockAbstractThreadedPlugin("backoffTest");
+        plugin.setPollingPeriods(10, 80);
+        ObservablePlugin.PluginObserver obs = getOneObserver();
+        plugin.addObserver(obs);
 
+        // nothing changes: the period doubles after each check (20, 40, 80, 80), minus the jitter
+        long[] minPeriods = {18, 36, 72, 72};
+        Long previousFetch = plugin.awaitFetch(1000);
+        Assert.assertNotNull(previousFetch);
+        for (long minPeriod : minPeriods) {
+            Long fetch = plugin.awaitFetch(1000);
+            Assert.assertNotNull(fetch);
+            /* 1 ms of tolerance for the rounding of the wait */
+            long period = TimeUnit.NANOSECONDS.toMillis(fetch - previousFetch);
+            Assert.assertTrue(period >= minPeriod - 1);
+            previousFetch = fetch;
+        }
+        plugin.removeObserver(obs);
+
+        // the polling still detects the readers not signaled
+        final BlockingQueue<PluginEvent> events = new LinkedBlockingQueue<PluginEvent>();
+        obs = new ObservablePlugin.PluginObserver() {
+            @Override
+            public void update(PluginEvent event) {
+                events.add(event);
+            }
+        };
+        plugin.setPollingPeriods(10, 10);
+        plugin.addObserver(obs);
+        plugin.plugNativeReader("reader1", false);
+        PluginEvent event = events.poll(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(event);
+        Assert.assertEquals(PluginEvent.EventType.READER_CONNECTED, event.getEventType());
+        Assert.assertEquals(1, plugin.getReaders().size());
+        plugin.removeObserver(obs);
+    }
+
+    @Test
+    public void removeObserver_threadJoined() throws Throwable {
+        MockAbstractThreadedPlugin plugin = new MockAbstractThreadedPlugin("joinTest");
+        ObservablePlugin.PluginObserver obs = getOneObserver();
+        for (int i = 0; i < 20; i++) {
+            plugin.addObserver(obs);
+            Assert.assertTrue(plugin.isMonitoring());
+            plugin.removeObserver(obs);
+            Assert.assertFalse(plugin.isMonitoring());
+        }
+        // no monitoring thread left
+        for (Thread thread : getAllThreads()) {
+            Assert.assertNotEquals("joinTest-monitoring", thread.getName());
+        }
+    }
 
     /*
      * Helpers
      */
+    static Thread[] getAllThreads() {
+        Thread[] threads = new Thread[Thread.activeCount() + 10];
+        int count = Thread.enumerate(threads);
+        Thread[] result = new Thread[count];
+        System.arraycopy(threads, 0, result, 0, count);
+        return result;
+    }
+
     ObservablePlugin.PluginObserver getOneObserver() {
         return new ObservablePlugin.PluginObserver() {
             @Override
@@ -0,0 +1,160 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import org.eclipse.keyple.core.CoreBaseTest;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.eclipse.keyple.core.seproxy.plugin.mock.BlankAbstractPlugin;
+import org.eclipse.keyple.core.seproxy.plugin.mock.BlankAbstractReader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class NamedReaderSetTest extends CoreBaseTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(NamedReaderSetTest.class);
+
+    static final int NB_READERS = 1000;
+    static final int NB_LOOKUPS = 200000;
+
+    AbstractPlugin plugin;
+
+    @Before
+    public void setUp() {
+        logger.info("------------------------------");
+        logger.info("Test {}", name.getMethodName() + "");
+        logger.info("------------------------------");
+        plugin = new BlankAbstractPlugin("namedReaderSetPlugin");
+    }
+
+    static String readerName(int i) {
+        return String.format("reader%04d", i);
+    }
+
+    void plugReaders(int count) {
+        for (int i = 0; i < count; i++) {
+            plugin.readers.add(new BlankAbstractReader(plugin.getName(), readerName(i)));
+        }
+    }
+
+    @Test
+    public void getReader_indexedOnAdd() throws Exception {
+        plugReaders(3);
+        Assert.assertEquals(readerName(1), plugin.getReader(readerName(1)).getName());
+    }
+
+    @Test(expected = KeypleReaderNotFoundException.class)
+    public void getReader_notFound() throws Exception {
+        plugReaders(3);
+        plugin.getReader("unknown");
+    }
+
+    @Test(expected = KeypleReaderNotFoundException.class)
+    public void getReader_null() throws Exception {
+        plugin.getReader(null);
+    }
+
+    @Test
+    public void getReader_unindexedOnRemove() throws Exception {
+        plugReaders(3);
+        SeReader reader = plugin.getReader(readerName(1));
+        plugin.readers.remove(reader);
+        try {
+            plugin.getReader(readerName(1));
+            Assert.fail("reader should not be found");
+        } catch (KeypleReaderNotFoundException e) {
+            // expected
+        }
+        Assert.assertEquals(2, plugin.getReaderNames().size());
+    }
+
+    @Test
+    public void getReader_unindexedOnIteratorRemove() throws Exception {
+        plugReaders(3);
+        Iterator<SeReader> iterator = plugin.readers.iterator();
+        iterator.next();
+        iterator.remove();
+        Assert.assertFalse(plugin.getReaderNames().contains(readerName(0)));
+        plugin.readers.clear();
+        Assert.assertTrue(plugin.getReaderNames().isEmpty());
+    }
+
+    @Test
+    public void getReader_unindexedOnRemoveAll() throws Exception {
+        plugReaders(3);
+        List<SeReader> toRemove = new ArrayList<SeReader>();
+        toRemove.add(plugin.getReader(readerName(0)));
+        toRemove.add(plugin.getReader(readerName(2)));
+        plugin.readers.removeAll(toRemove);
+        Assert.assertEquals(1, plugin.getReaderNames().size());
+        Assert.assertEquals(readerName(1), plugin.getReaderNames().first());
+    }
+
+    @Test
+    public void getReaderNames_cachedUntilChange() {
+        plugReaders(3);
+        SortedSet<String> names = plugin.getReaderNames();
+        Assert.assertSame(names, plugin.getReaderNames());
+        Assert.assertEquals(readerName(0), names.first());
+
+        plugin.readers.add(new BlankAbstractReader(plugin.getName(), readerName(3)));
+        SortedSet<String> newNames = plugin.getReaderNames();
+        Assert.assertNotSame(names, newNames);
+        Assert.assertEquals(3, names.size());
+        Assert.assertEquals(4, newNames.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getReaderNames_unmodifiable() {
+        plugReaders(1);
+        plugin.getReaderNames().clear();
+    }
+
+    /**
+     * Measures the lookup of readers by name and the access to the reader names with 1,000 plugged
+     * readers
+     */
+    @Test
+    @Ignore("Benchmark without assertion on the timing, to be run manually")
+    public void lookup_benchmark() throws Exception {
+        plugReaders(NB_READERS);
+        Assert.assertEquals(NB_READERS, plugin.getReaderNames().size());
+        String[] names = plugin.getReaderNames().toArray(new String[NB_READERS]);
+
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < NB_LOOKUPS; i++) {
+            if (plugin.getReader(names[i % NB_READERS]) != null) {
+                found++;
+            }
+        }
+        long lookupTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < NB_LOOKUPS; i++) {
+            found += plugin.getReaderNames().size() > 0 ? 0 : 1;
+        }
+        long namesTime = System.nanoTime() - start;
+
+        Assert.assertEquals(NB_LOOKUPS, found);
+        logger.info("{} readers: getReader {} ns/op, getReaderNames {} ns/op", NB_READERS,
+                lookupTime / NB_LOOKUPS, namesTime / NB_LOOKUPS);
+    }
+}
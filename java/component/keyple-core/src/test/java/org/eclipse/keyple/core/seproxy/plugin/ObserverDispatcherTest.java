@@ -0,0 +1,234 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.CoreBaseTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ObserverDispatcherTest extends CoreBaseTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObserverDispatcherTest.class);
+
+    /**
+     * Observer recording the events received, optionally waiting before returning
+     */
+    static class RecordingObserver {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+        final long delay;
+        final CountDownLatch gate;
+
+        RecordingObserver(long delay, CountDownLatch gate) {
+            this.delay = delay;
+            this.gate = gate;
+        }
+
+        void update(Integer event) {
+            try {
+                if (gate != null) {
+                    gate.await(5, TimeUnit.SECONDS);
+                }
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+    }
+
+    ObserverDispatcher<RecordingObserver, Integer> dispatcher;
+
+    @Before
+    public void setUp() {
+        logger.info("------------------------------");
+        logger.info("Test {}", name.getMethodName() + "");
+        logger.info("------------------------------");
+        dispatcher = new ObserverDispatcher<RecordingObserver, Integer>("dispatcherTest") {
+            @Override
+            protected void deliver(RecordingObserver observer, Integer event) {
+                observer.update(event);
+            }
+        };
+    }
+
+    static void waitForEvents(RecordingObserver observer, int count) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 5000;
+        while (observer.events.size() < count && System.currentTimeMillis() < timeout) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void synchronous_deliveredByCaller() {
+        RecordingObserver observer = new RecordingObserver(0, null);
+        dispatcher.addObserver(observer);
+        dispatcher.notifyObservers(1);
+        Assert.assertEquals(Collections.singletonList(1), observer.events);
+        Assert.assertFalse(dispatcher.isAsynchronousDelivery());
+    }
+
+    @Test
+    public void addRemoveClear() {
+        RecordingObserver observer1 = new RecordingObserver(0, null);
+        RecordingObserver observer2 = new RecordingObserver(0, null);
+        dispatcher.addObserver(observer1);
+        dispatcher.addObserver(observer2);
+        Assert.assertEquals(2, dispatcher.countObservers());
+
+        dispatcher.removeObserver(observer1);
+        dispatcher.notifyObservers(1);
+        Assert.assertEquals(1, dispatcher.countObservers());
+        Assert.assertTrue(observer1.events.isEmpty());
+        Assert.assertEquals(1, observer2.events.size());
+
+        dispatcher.clearObservers();
+        Assert.assertEquals(0, dispatcher.countObservers());
+    }
+
+    @Test
+    public void removeObserver_duringNotification() {
+        final RecordingObserver observer2 = new RecordingObserver(0, null);
+        RecordingObserver observer1 = new RecordingObserver(0, null) {
+            @Override
+            void update(Integer event) {
+                super.update(event);
+                dispatcher.removeObserver(observer2);
+            }
+        };
+        dispatcher.addObserver(observer1);
+        dispatcher.addObserver(observer2);
+
+        /* the snapshot taken at the notification is not affected by the removal */
+        dispatcher.notifyObservers(1);
+        dispatcher.notifyObservers(2);
+        Assert.assertEquals(2, observer1.events.size());
+        Assert.assertEquals(Collections.singletonList(1), observer2.events);
+    }
+
+    @Test
+    public void asynchronous_slowObserverDoesNotDelayNotifier() throws Exception {
+        RecordingObserver slowObserver = new RecordingObserver(100, null);
+        RecordingObserver fastObserver = new RecordingObserver(0, null);
+        dispatcher.addObserver(slowObserver);
+        dispatcher.addObserver(fastObserver);
+        dispatcher.setAsynchronousDelivery(10, ObserverDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            dispatcher.notifyObservers(i);
+        }
+        long notifyTime = (System.nanoTime() - start) / 1000000;
+
+        /* a synchronous delivery would have taken at least 500 ms */
+        Assert.assertTrue("notification took " + notifyTime + " ms", notifyTime < 100);
+
+        waitForEvents(fastObserver, 5);
+        Assert.assertEquals(5, fastObserver.events.size());
+
+        waitForEvents(slowObserver, 5);
+        /* the events are delivered in order */
+        Assert.assertEquals(fastObserver.events, slowObserver.events);
+        Assert.assertEquals(0, dispatcher.getDroppedEventCount());
+    }
+
+    @Test
+    public void asynchronous_dropOldest() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingObserver observer = new RecordingObserver(0, gate);
+        dispatcher.addObserver(observer);
+        dispatcher.setAsynchronousDelivery(2, ObserverDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        /* the first event is held by the blocked observer, the next ones fill the queue */
+        dispatcher.notifyObservers(0);
+        Thread.sleep(50);
+        for (int i = 1; i <= 4; i++) {
+            dispatcher.notifyObservers(i);
+        }
+        gate.countDown();
+
+        waitForEvents(observer, 3);
+        Thread.sleep(50);
+        Assert.assertEquals(3, observer.events.size());
+        Assert.assertEquals(Integer.valueOf(0), observer.events.get(0));
+        Assert.assertEquals(Integer.valueOf(3), observer.events.get(1));
+        Assert.assertEquals(Integer.valueOf(4), observer.events.get(2));
+        Assert.assertEquals(2, dispatcher.getDroppedEventCount());
+    }
+
+    @Test
+    public void asynchronous_dropNewest() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingObserver observer = new RecordingObserver(0, gate);
+        dispatcher.addObserver(observer);
+        dispatcher.setAsynchronousDelivery(2, ObserverDispatcher.OverflowPolicy.DROP_NEWEST);
+
+        dispatcher.notifyObservers(0);
+        Thread.sleep(50);
+        for (int i = 1; i <= 4; i++) {
+            dispatcher.notifyObservers(i);
+        }
+        gate.countDown();
+
+        waitForEvents(observer, 3);
+        Thread.sleep(50);
+        Assert.assertEquals(3, observer.events.size());
+        Assert.assertEquals(Integer.valueOf(1), observer.events.get(1));
+        Assert.assertEquals(Integer.valueOf(2), observer.events.get(2));
+        Assert.assertEquals(2, dispatcher.getDroppedEventCount());
+    }
+
+    @Test
+    public void asynchronous_backToSynchronous() {
+        RecordingObserver observer = new RecordingObserver(0, null);
+        dispatcher.addObserver(observer);
+        dispatcher.setAsynchronousDelivery(1, ObserverDispatcher.OverflowPolicy.DROP_NEWEST);
+        Assert.assertTrue(dispatcher.isAsynchronousDelivery());
+
+        dispatcher.setSynchronousDelivery();
+        Assert.assertFalse(dispatcher.isAsynchronousDelivery());
+        dispatcher.notifyObservers(1);
+        Assert.assertEquals(Collections.singletonList(1), observer.events);
+    }
+
+    @Test
+    public void asynchronous_readdAfterLastRemoved() throws Exception {
+        RecordingObserver observer1 = new RecordingObserver(0, null);
+        dispatcher.setAsynchronousDelivery(10, ObserverDispatcher.OverflowPolicy.DROP_NEWEST);
+        dispatcher.addObserver(observer1);
+        dispatcher.notifyObservers(1);
+        waitForEvents(observer1, 1);
+
+        /* the delivery threads are released with the last observer and created again */
+        dispatcher.removeObserver(observer1);
+        RecordingObserver observer2 = new RecordingObserver(0, null);
+        dispatcher.addObserver(observer2);
+        dispatcher.notifyObservers(2);
+        waitForEvents(observer2, 1);
+        Assert.assertEquals(Collections.singletonList(2), observer2.events);
+        Assert.assertEquals(Collections.singletonList(1), observer1.events);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void asynchronous_badCapacity() {
+        dispatcher.setAsynchronousDelivery(0, ObserverDispatcher.OverflowPolicy.DROP_NEWEST);
+    }
+}
@@ -153,6 +153,20 @@ public class AbsLocalReaderTransmitTest extends CoreBaseTest {
         }
     }
 
+    @Test
+    public void transmit_protocol_matched_once() throws Exception {
+        AbstractLocalReader reader = getSpy(PLUGIN_NAME, READER_NAME);
+
+        /* 3 requests, 2 of them with the same protocol */
+        Set<SeRequest> seRequestSet = getPartialRequestSet(reader, 3);
+        reader.processSeRequestSet(seRequestSet, MultiSeRequestProcessing.PROCESS_ALL,
+                ChannelControl.CLOSE_AFTER);
+        Mockito.verify(reader, Mockito.times(1))
+                .protocolFlagMatches(SeCommonProtocols.PROTOCOL_ISO14443_4);
+        Mockito.verify(reader, Mockito.times(1))
+                .protocolFlagMatches(SeCommonProtocols.PROTOCOL_MIFARE_UL);
+    }
+
     @Test
     public void transmit_partial_response_0() throws Exception {
         AbstractLocalReader reader = getSpy(PLUGIN_NAME, READER_NAME);
@@ -215,6 +229,129 @@ public class AbsLocalReaderTransmitTest extends CoreBaseTest {
     }
 
 
+    @Test
+    public void transmit_extended_length_chaining() throws Exception {
+        AbstractLocalReader reader = getSpy(PLUGIN_NAME, READER_NAME);
+        byte[] data = new byte[300];
+        Arrays.fill(data, (byte) 0x55);
+        byte[] extendedApdu = ByteArrayUtil.fromHex("00 D6 00 00 00 012C");
+        extendedApdu = Arrays.copyOf(extendedApdu, extendedApdu.length + data.length);
+        System.arraycopy(data, 0, extendedApdu, 7, data.length);
+
+        /* first block: 255 bytes with the chaining bit, second block: 45 bytes */
+        byte[] firstBlock = new byte[5 + 255];
+        System.arraycopy(ByteArrayUtil.fromHex("10 D6 00 00 FF"), 0, firstBlock, 0, 5);
+        System.arraycopy(data, 0, firstBlock, 5, 255);
+        byte[] lastBlock = new byte[5 + 45];
+        System.arraycopy(ByteArrayUtil.fromHex("00 D6 00 00 2D"), 0, lastBlock, 0, 5);
+        System.arraycopy(data, 255, lastBlock, 5, 45);
+        doReturn(RESP_SUCCESS).when(reader).transmitApdu(firstBlock);
+        doReturn(RESP_SUCCESS).when(reader).transmitApdu(lastBlock);
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ApduRequest(extendedApdu, false, true, null));
+        SeResponse seResponse = reader.processSeRequest(
+                new SeRequest(AbsLocalReaderSelectionTest.getAidSelector(), apduRequests),
+                ChannelControl.CLOSE_AFTER);
+
+        Assert.assertEquals(1, seResponse.getApduResponses().size());
+        Assert.assertTrue(seResponse.getApduResponses().get(0).isSuccessful());
+        Mockito.verify(reader).transmitApdu(firstBlock);
+        Mockito.verify(reader).transmitApdu(lastBlock);
+        Mockito.verify(reader, Mockito.never()).transmitApdu(extendedApdu);
+    }
+
+    @Test
+    public void transmit_extended_length_chaining_stops_on_error() throws Exception {
+        AbstractLocalReader reader = getSpy(PLUGIN_NAME, READER_NAME);
+        byte[] extendedApdu = new byte[7 + 256];
+        System.arraycopy(ByteArrayUtil.fromHex("00 D6 00 00 00 0100"), 0, extendedApdu, 0, 7);
+        byte[] firstBlock = new byte[5 + 255];
+        System.arraycopy(ByteArrayUtil.fromHex("10 D6 00 00 FF"), 0, firstBlock, 0, 5);
+        doReturn(ByteArrayUtil.fromHex("6A82")).when(reader).transmitApdu(firstBlock);
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ApduRequest(extendedApdu, false, true, null));
+        SeResponse seResponse = reader.processSeRequest(
+                new SeRequest(AbsLocalReaderSelectionTest.getAidSelector(), apduRequests),
+                ChannelControl.CLOSE_AFTER);
+
+        Assert.assertEquals(0x6A82, seResponse.getApduResponses().get(0).getStatusCode());
+        Mockito.verify(reader).transmitApdu(firstBlock);
+    }
+
+    @Test
+    public void transmit_extended_length_supported() throws Exception {
+        AbstractLocalReader reader = getSpy(PLUGIN_NAME, READER_NAME);
+        doReturn(true).when(reader).isExtendedLengthSupported();
+        /* case 2E, 1000 bytes expected */
+        byte[] extendedApdu = ByteArrayUtil.fromHex("00 B0 00 00 00 03E8");
+        doReturn(RESP_SUCCESS).when(reader).transmitApdu(extendedApdu);
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ApduRequest(extendedApdu, false, true, null));
+        SeResponse seResponse = reader.processSeRequest(
+                new SeRequest(AbsLocalReaderSelectionTest.getAidSelector(), apduRequests),
+                ChannelControl.CLOSE_AFTER);
+
+        Assert.assertTrue(seResponse.getApduResponses().get(0).isSuccessful());
+        Mockito.verify(reader).transmitApdu(extendedApdu);
+    }
+
+    @Test
+    public void transmit_extended_length_chaining_get_response() throws Exception {
+        AbstractLocalReader reader = getSpy(PLUGIN_NAME, READER_NAME);
+        /* case 2E, 600 bytes expected: short Le 00h, then Get Response */
+        byte[] extendedApdu = ByteArrayUtil.fromHex("00 B0 00 00 00 0258");
+        byte[] shortApdu = ByteArrayUtil.fromHex("00 B0 00 00 00");
+        byte[] firstResponse = new byte[256 + 2];
+        Arrays.fill(firstResponse, (byte) 0x11);
+        firstResponse[256] = (byte) 0x61;
+        firstResponse[257] = (byte) 0x00;
+        byte[] secondResponse = new byte[256 + 2];
+        Arrays.fill(secondResponse, (byte) 0x22);
+        secondResponse[256] = (byte) 0x61;
+        secondResponse[257] = (byte) 0x58;
+        byte[] lastResponse = new byte[88 + 2];
+        Arrays.fill(lastResponse, (byte) 0x33);
+        lastResponse[88] = (byte) 0x90;
+        lastResponse[89] = (byte) 0x00;
+        doReturn(firstResponse).when(reader).transmitApdu(shortApdu);
+        doReturn(secondResponse).when(reader)
+                .transmitApdu(ByteArrayUtil.fromHex("00 C0 00 00 00"));
+        doReturn(lastResponse).when(reader).transmitApdu(ByteArrayUtil.fromHex("00 C0 00 00 58"));
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ApduRequest(extendedApdu, false, true, null));
+        SeResponse seResponse = reader.processSeRequest(
+                new SeRequest(AbsLocalReaderSelectionTest.getAidSelector(), apduRequests),
+                ChannelControl.CLOSE_AFTER);
+
+        ApduResponse apduResponse = seResponse.getApduResponses().get(0);
+        Assert.assertTrue(apduResponse.isSuccessful());
+        byte[] dataOut = apduResponse.getDataOut();
+        Assert.assertEquals(600, dataOut.length);
+        Assert.assertEquals((byte) 0x11, dataOut[0]);
+        Assert.assertEquals((byte) 0x22, dataOut[256]);
+        Assert.assertEquals((byte) 0x33, dataOut[599]);
+    }
+
+    @Test
+    public void transmit_not_flagged_extended_sent_as_is() throws Exception {
+        AbstractLocalReader reader = getSpy(PLUGIN_NAME, READER_NAME);
+        /* the extended length coding is only taken into account when declared by the request */
+        byte[] apdu = ByteArrayUtil.fromHex("00 B0 00 00 00 03E8");
+        doReturn(RESP_SUCCESS).when(reader).transmitApdu(apdu);
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ApduRequest(apdu, false));
+        SeResponse seResponse = reader.processSeRequest(
+                new SeRequest(AbsLocalReaderSelectionTest.getAidSelector(), apduRequests),
+                ChannelControl.CLOSE_AFTER);
+
+        Assert.assertTrue(seResponse.getApduResponses().get(0).isSuccessful());
+        Mockito.verify(reader).transmitApdu(apdu);
+    }
 
     /*
      * Partial response set: multiple read records commands, one is not defined in the StubSE
@@ -24,6 +24,7 @@ import org.eclipse.keyple.core.seproxy.event.ObservableReader;
 import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.plugin.ObserverDispatcher;
 import org.eclipse.keyple.core.seproxy.plugin.mock.BlankObservableLocalReader;
 import org.junit.Assert;
 import org.junit.Before;
@@ -84,6 +85,61 @@ public class AbsObservableLocalReaderTest extends CoreBaseTest {
 
 
 
+    /** ==== Notification ================================================== */
+
+    @Test
+    public void notifyObservers_slowObserver_async() throws Exception {
+        AbstractObservableLocalReader r = getBlank(PLUGIN_NAME, READER_NAME);
+        final CountDownLatch lock = new CountDownLatch(3);
+        r.addObserver(new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        r.addObserver(onRemovedCountDown(lock));
+        r.setAsynchronousNotification(8, ObserverDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        // three removals notified by the monitoring thread
+        long start = System.currentTimeMillis();
+        notifySeRemoved(r);
+        notifySeRemoved(r);
+        notifySeRemoved(r);
+        long elapsed = System.currentTimeMillis() - start;
+
+        // the monitoring thread is not delayed by the slow observer
+        Assert.assertTrue(elapsed < 200);
+        Assert.assertTrue(lock.await(100, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, r.getDroppedEventCount());
+    }
+
+    @Test
+    public void notifyObservers_slowObserver_sync() throws Exception {
+        AbstractObservableLocalReader r = getBlank(PLUGIN_NAME, READER_NAME);
+        r.addObserver(new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        notifySeRemoved(r);
+        notifySeRemoved(r);
+
+        // by default the observers are called by the monitoring thread
+        Assert.assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+
     /**
      * State Machine
      */
@@ -207,6 +263,54 @@ public class AbsObservableLocalReaderTest extends CoreBaseTest {
     }
 
 
+    /**
+     * An application holding the channel lease notifies the end of the SE processing and stops the
+     * detection while the insertion of a SE is notified by another thread: the insertion waits for
+     * the lease without blocking the application, and is processed (ignored, the detection being
+     * stopped) once the lease is released
+     */
+    @Test
+    public void notifySeProcessed_leaseHeldDuringInsertion() throws Exception {
+        final AbstractObservableLocalReader r = getBlank(PLUGIN_NAME, READER_NAME);
+        final CountDownLatch inserted = new CountDownLatch(1);
+        r.addObserver(new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                if (event.getEventType() == ReaderEvent.EventType.SE_INSERTED) {
+                    inserted.countDown();
+                }
+            }
+        });
+        r.startSeDetection(ObservableReader.PollingMode.REPEATING);
+
+        Thread insertion = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                r.stateService.onEvent(AbstractObservableLocalReader.InternalEvent.SE_INSERTED);
+            }
+        });
+        r.acquireChannelLease();
+        try {
+            insertion.start();
+            // wait until the insertion waits for the lease
+            while (insertion.getState() != Thread.State.WAITING) {
+                Thread.yield();
+            }
+            r.notifySeProcessed();
+            r.stopSeDetection();
+            Assert.assertEquals(AbstractObservableState.MonitoringState.WAIT_FOR_START_DETECTION,
+                    r.stateService.getCurrentMonitoringState());
+        } finally {
+            r.releaseChannelLease();
+        }
+
+        insertion.join();
+        Assert.assertEquals(AbstractObservableState.MonitoringState.WAIT_FOR_START_DETECTION,
+                r.stateService.getCurrentMonitoringState());
+        Assert.assertEquals(1, inserted.getCount());
+        Assert.assertFalse(r.isChannelLeased());
+    }
+
     @Test
     public void notifySeProcessed_withForceClosing() throws Exception {
         AbstractObservableLocalReader r = getSpy(PLUGIN_NAME, READER_NAME);
@@ -265,6 +369,12 @@ public class AbsObservableLocalReaderTest extends CoreBaseTest {
         };
     }
 
+    /* notifies a SE removal as the monitoring thread does */
+    static void notifySeRemoved(AbstractObservableLocalReader r) {
+        r.notifyObservers(new ReaderEvent(r.getPluginName(), r.getName(),
+                ReaderEvent.EventType.SE_REMOVED, null));
+    }
+
     static public ObservableReader.ReaderObserver onRemovedCountDown(final CountDownLatch lock) {
         return new ObservableReader.ReaderObserver() {
             @Override
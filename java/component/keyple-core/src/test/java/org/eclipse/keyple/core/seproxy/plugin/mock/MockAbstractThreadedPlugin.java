@@ -14,6 +14,10 @@ package org.eclipse.keyple.core.seproxy.plugin.mock;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.exception.KeypleBaseException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
@@ -22,6 +26,9 @@ import org.eclipse.keyple.core.seproxy.plugin.AbstractThreadedObservablePlugin;
 
 public class MockAbstractThreadedPlugin extends AbstractThreadedObservablePlugin {
 
+    private final SortedSet<String> nativeReadersNames = new ConcurrentSkipListSet<String>();
+    /* the times (System.nanoTime) of the checks of the native readers */
+    private final BlockingQueue<Long> fetchTimes = new LinkedBlockingQueue<Long>();
 
     public MockAbstractThreadedPlugin(String name) {
         super(name);
@@ -31,13 +38,38 @@ public class MockAbstractThreadedPlugin extends AbstractThreadedObservablePlugin
         return super.isMonitoring();
     }
 
-    public void finalize() throws Throwable {
-        super.finalize();
+    /**
+     * Simulates the connection of a native reader
+     *
+     * @param name the reader name
+     * @param signal true to signal the change to the monitoring thread
+     */
+    public void plugNativeReader(String name, boolean signal) {
+        nativeReadersNames.add(name);
+        if (signal) {
+            nativeReadersChanged();
+        }
+    }
+
+    public void setPollingPeriods(long min, long max) {
+        threadWaitTimeout = min;
+        threadWaitTimeoutMax = max;
+    }
+
+    /**
+     * Waits for the next check of the native readers
+     *
+     * @param timeout the maximum time to wait in ms
+     * @return the time (System.nanoTime) of the check, null if none occurred in time
+     */
+    public Long awaitFetch(long timeout) throws InterruptedException {
+        return fetchTimes.poll(timeout, TimeUnit.MILLISECONDS);
     }
 
     @Override
     protected SortedSet<String> fetchNativeReadersNames() throws KeypleReaderException {
-        return new TreeSet<String>();
+        fetchTimes.add(System.nanoTime());
+        return new TreeSet<String>(nativeReadersNames);
     }
 
     @Override
@@ -47,7 +79,7 @@ public class MockAbstractThreadedPlugin extends AbstractThreadedObservablePlugin
 
     @Override
     protected AbstractReader fetchNativeReader(String name) throws KeypleReaderException {
-        return null;
+        return new BlankAbstractReader(getName(), name);
     }
 
     @Override
@@ -0,0 +1,47 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class AtrUtilTest {
+    /* T=1, card capabilities 73 00 00 40: extended Lc and Le */
+    private final static String ATR_EXTENDED = "3B 85 80 01 80 73 00 00 40 4F";
+    /* no card capabilities */
+    private final static String ATR_CALYPSO = "3B8E800180318066409089120802830190000B";
+    /* card capabilities followed by a status indicator */
+    private final static String ATR_EXTENDED_STATUS = "3B 08 00 73 00 00 40 00 90 00";
+
+    @Test
+    public void getHistoricalBytes() {
+        assertArrayEquals(ByteArrayUtil.fromHex("8073000040"),
+                AtrUtil.getHistoricalBytes(ByteArrayUtil.fromHex(ATR_EXTENDED)));
+        assertArrayEquals(ByteArrayUtil.fromHex("8031806640908912080283019000"),
+                AtrUtil.getHistoricalBytes(ByteArrayUtil.fromHex(ATR_CALYPSO)));
+    }
+
+    @Test
+    public void getHistoricalBytes_malformed() {
+        assertNull(AtrUtil.getHistoricalBytes(null));
+        assertNull(AtrUtil.getHistoricalBytes(ByteArrayUtil.fromHex("3B")));
+        assertNull(AtrUtil.getHistoricalBytes(ByteArrayUtil.fromHex("3B8E8001803180")));
+    }
+
+    @Test
+    public void isExtendedLengthSupported() {
+        assertTrue(AtrUtil.isExtendedLengthSupported(ByteArrayUtil.fromHex(ATR_EXTENDED)));
+        assertTrue(AtrUtil.isExtendedLengthSupported(ByteArrayUtil.fromHex(ATR_EXTENDED_STATUS)));
+        assertFalse(AtrUtil.isExtendedLengthSupported(ByteArrayUtil.fromHex(ATR_CALYPSO)));
+        assertFalse(AtrUtil.isExtendedLengthSupported(null));
+    }
+}
@@ -33,4 +33,8 @@ public interface PcscReader extends ObservableReader {
     String SETTING_DISCONNECT_UNPOWER = "unpower";
     String SETTING_DISCONNECT_LEAVE = "leave";
     String SETTING_DISCONNECT_EJECT = "eject";
+    String SETTING_KEY_EXTENDED_LENGTH = "extended_length";
+    String SETTING_EXTENDED_LENGTH_AUTO = "auto";
+    String SETTING_EXTENDED_LENGTH_ENABLED = "enabled";
+    String SETTING_EXTENDED_LENGTH_DISABLED = "disabled";
 }
@@ -29,6 +29,7 @@ import org.eclipse.keyple.core.seproxy.plugin.local.state.WaitForSeRemoval;
 import org.eclipse.keyple.core.seproxy.plugin.local.state.WaitForStartDetect;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.core.util.AtrUtil;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +49,7 @@ final class PcscReaderImpl extends AbstractObservableLocalReader
     private String parameterCardProtocol;
     private boolean cardExclusiveMode;
     private boolean cardReset;
+    private String extendedLengthMode;
     private TransmissionMode transmissionMode;
 
     private Card card;
@@ -99,6 +101,7 @@ final class PcscReaderImpl extends AbstractObservableLocalReader
             setParameter(SETTING_KEY_PROTOCOL, null);
             setParameter(SETTING_KEY_MODE, null);
             setParameter(SETTING_KEY_DISCONNECT, null);
+            setParameter(SETTING_KEY_EXTENDED_LENGTH, null);
         } catch (KeypleBaseException ex) {
             // can not fail with null value
         }
@@ -127,12 +130,17 @@ final class PcscReaderImpl extends AbstractObservableLocalReader
                             executorService));
         }
 
+        /*
+         * the same removal monitoring job is used while the SE is processed and while waiting for
+         * its removal, it keeps running from one state to the other
+         */
+        SmartRemovalMonitoringJob removalMonitoringJob = new SmartRemovalMonitoringJob(this);
+
         states.put(AbstractObservableState.MonitoringState.WAIT_FOR_SE_PROCESSING,
-                new WaitForSeProcessing(this, new SmartRemovalMonitoringJob(this),
-                        executorService));
+                new WaitForSeProcessing(this, removalMonitoringJob, executorService));
 
         states.put(AbstractObservableState.MonitoringState.WAIT_FOR_SE_REMOVAL,
-                new WaitForSeRemoval(this, new SmartRemovalMonitoringJob(this), executorService));
+                new WaitForSeRemoval(this, removalMonitoringJob, executorService));
 
 
         return new ObservableReaderStateService(this, states,
@@ -297,6 +305,28 @@ final class PcscReaderImpl extends AbstractObservableLocalReader
         return apduResponseData.getBytes();
     }
 
+    /**
+     * Tells if the extended length APDUs can be sent as is, according to the extended_length
+     * parameter.
+     * <p>
+     * In auto mode, the card capabilities found in the ATR must announce the extended Lc and Le
+     * fields and the protocol must not be T=0, which only conveys extended length APDUs through
+     * ENVELOPE commands.
+     *
+     * @return true if the extended length APDUs are supported
+     */
+    @Override
+    protected boolean isExtendedLengthSupported() {
+        if (card == null || extendedLengthMode.equals(SETTING_EXTENDED_LENGTH_DISABLED)) {
+            return false;
+        }
+        if (extendedLengthMode.equals(SETTING_EXTENDED_LENGTH_ENABLED)) {
+            return true;
+        }
+        return !PROTOCOL_T0.equals(card.getProtocol())
+                && AtrUtil.isExtendedLengthSupported(card.getATR().getBytes());
+    }
+
     /**
      * Tells if the current SE protocol matches the provided protocol flag. If the protocol flag is
      * not defined (null), we consider here that it matches. An exception is returned when the
@@ -366,6 +396,14 @@ final class PcscReaderImpl extends AbstractObservableLocalReader
      * <li>eject: Eject</li>
      * </ul>
      * </li>
+     * <li><strong>extended_length</strong>:
+     * <ul>
+     * <li>auto: Extended length APDUs sent as is if the card capabilities of the ATR announce them
+     * and the protocol is not T=0 (default)</li>
+     * <li>enabled: Extended length APDUs always sent as is</li>
+     * <li>disabled: Extended length APDUs always sent with short APDUs and command chaining</li>
+     * </ul>
+     * </li>
      * <li><strong>thread_wait_timeout</strong>: Number of milliseconds to wait</li>
      * </ul>
      *
@@ -439,6 +477,16 @@ final class PcscReaderImpl extends AbstractObservableLocalReader
                 throw new IllegalArgumentException(
                         "Parameters not supported : " + name + " : " + value);
             }
+        } else if (name.equals(SETTING_KEY_EXTENDED_LENGTH)) {
+            if (value == null || value.equals(SETTING_EXTENDED_LENGTH_AUTO)) {
+                extendedLengthMode = SETTING_EXTENDED_LENGTH_AUTO;
+            } else if (value.equals(SETTING_EXTENDED_LENGTH_ENABLED)
+                    || value.equals(SETTING_EXTENDED_LENGTH_DISABLED)) {
+                extendedLengthMode = value;
+            } else {
+                throw new IllegalArgumentException(
+                        "Parameter value not supported " + name + " : " + value);
+            }
         } else {
             throw new IllegalArgumentException(
                     "This parameter is unknown !" + name + " : " + value);
@@ -467,6 +515,8 @@ final class PcscReaderImpl extends AbstractObservableLocalReader
             parameters.put(SETTING_KEY_MODE, SETTING_MODE_SHARED);
         }
 
+        parameters.put(SETTING_KEY_EXTENDED_LENGTH, extendedLengthMode);
+
         return parameters;
     }
 
@@ -0,0 +1,26 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.exception;
+
+/**
+ * Exception used when a remote method is rejected because too many calls are in flight, or no
+ * thread is available to send it. The call has not been sent, it can be retried later.
+ */
+public class KeypleRemoteOverloadException extends KeypleRemoteException {
+
+    private static final long serialVersionUID = 4377245125339427386L;
+
+    public KeypleRemoteOverloadException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,115 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.nativese;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.eclipse.keyple.plugin.remotese.transport.SerialTaskQueue;
+
+/**
+ * Dispatches the tasks targeting the native readers on a shared executor service: the tasks of a
+ * reader are executed one after the other in their arrival order, the tasks of different readers
+ * are executed concurrently.
+ * <p>
+ * Each reader has its own queue, at most one task of a queue is submitted to the executor service
+ * at a time. No thread is dedicated to a reader, the number of threads is the one of the executor
+ * service.
+ */
+final class NativeReaderDispatcher {
+
+    private final ExecutorService executorService;
+
+    /* native reader name, pending tasks of the reader (guarded by itself) */
+    private final Map<String, ReaderQueue> readerQueues = new HashMap<String, ReaderQueue>();
+
+    /**
+     * Constructor
+     *
+     * @param executorService the executor service running the tasks
+     */
+    NativeReaderDispatcher(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Queues a task for a native reader
+     *
+     * @param nativeReaderName the name of the native reader
+     * @param task the task to be executed after the previous tasks of the reader
+     * @throws RejectedExecutionException if the executor service doesn't accept the task
+     */
+    void dispatch(String nativeReaderName, Runnable task) {
+        while (true) {
+            ReaderQueue readerQueue;
+            synchronized (readerQueues) {
+                readerQueue = readerQueues.get(nativeReaderName);
+                if (readerQueue == null) {
+                    readerQueue = new ReaderQueue(nativeReaderName);
+                    readerQueues.put(nativeReaderName, readerQueue);
+                }
+            }
+            if (readerQueue.add(task)) {
+                return;
+            }
+            /* the queue has been closed meanwhile, its tasks are all executed */
+            forget(readerQueue);
+        }
+    }
+
+    /**
+     * Forgets the queue of a native reader once its pending tasks are executed. The tasks queued
+     * until then are executed after the pending ones, the tasks queued afterwards go to a new
+     * queue.
+     *
+     * @param nativeReaderName the name of the native reader
+     */
+    void remove(String nativeReaderName) {
+        ReaderQueue readerQueue;
+        synchronized (readerQueues) {
+            readerQueue = readerQueues.get(nativeReaderName);
+        }
+        if (readerQueue != null && readerQueue.closeWhenDrained()) {
+            forget(readerQueue);
+        }
+    }
+
+    /**
+     * Removes a closed queue from the map, unless it has already been replaced
+     */
+    private void forget(ReaderQueue readerQueue) {
+        synchronized (readerQueues) {
+            if (readerQueues.get(readerQueue.nativeReaderName) == readerQueue) {
+                readerQueues.remove(readerQueue.nativeReaderName);
+            }
+        }
+    }
+
+    /**
+     * Pending tasks of a native reader, forgotten once closed
+     */
+    private final class ReaderQueue extends SerialTaskQueue {
+
+        private final String nativeReaderName;
+
+        ReaderQueue(String nativeReaderName) {
+            super(executorService, nativeReaderName);
+            this.nativeReaderName = nativeReaderName;
+        }
+
+        @Override
+        protected void onClosed() {
+            forget(this);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.nativese;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import org.eclipse.keyple.core.seproxy.ReaderPoolPlugin;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationNoReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationReaderException;
+import org.eclipse.keyple.plugin.remotese.rm.LeaseScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Allocates the readers of the {@link ReaderPoolPlugin} of the slave on behalf of the master. A
+ * reader allocated with a lease, and not released before its end, is released to the pool.
+ * <p>
+ * The calls to the pool are serialized, the expiry of the leases running on its own thread.
+ */
+public final class ReaderPoolLeases {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReaderPoolLeases.class);
+
+    // leases of the allocated readers, by native reader name, its lock serializes the calls
+    private final LeaseScheduler<Allocation> leases =
+            new LeaseScheduler<Allocation>("keyple-pool-lease") {
+                @Override
+                protected void onExpired(Allocation allocation) {
+                    logger.info("Lease of reader {} expired, release it to the pool",
+                            allocation.reader.getName());
+                    allocation.pool.releaseReader(allocation.reader);
+                }
+            };
+
+    ReaderPoolLeases() {}
+
+    /**
+     * @param pool : pool of the slave
+     * @return the group references of the pool
+     */
+    public SortedSet<String> getReaderGroupReferences(ReaderPoolPlugin pool) {
+        synchronized (leases) {
+            return pool.getReaderGroupReferences();
+        }
+    }
+
+    /**
+     * Allocate a reader of each group reference, all or none: the readers already allocated are
+     * released if an allocation fails
+     *
+     * @param pool : pool of the slave
+     * @param groupReferences : group reference of each reader to allocate
+     * @param leaseDuration : duration of the allocation in milliseconds, 0 for no limit
+     * @return the allocated readers, in the order of the group references
+     * @throws KeypleAllocationReaderException if an allocation failed due to a technical error
+     * @throws KeypleAllocationNoReaderException if an allocation failed due to lack of available
+     *         reader
+     */
+    public List<SeReader> allocate(ReaderPoolPlugin pool, List<String> groupReferences,
+            long leaseDuration)
+            throws KeypleAllocationReaderException, KeypleAllocationNoReaderException {
+        synchronized (leases) {
+            List<SeReader> readers = new ArrayList<SeReader>(groupReferences.size());
+            try {
+                for (String groupReference : groupReferences) {
+                    readers.add(pool.allocateReader(groupReference));
+                }
+            } catch (KeypleAllocationReaderException e) {
+                releaseAll(pool, readers);
+                throw e;
+            } catch (KeypleAllocationNoReaderException e) {
+                releaseAll(pool, readers);
+                throw e;
+            }
+            if (leaseDuration > 0) {
+                for (SeReader reader : readers) {
+                    leases.start(reader.getName(), new Allocation(pool, reader), leaseDuration);
+                }
+            }
+            return readers;
+        }
+    }
+
+    /**
+     * Release a reader to the pool and end its lease, if any
+     *
+     * @param pool : pool of the slave
+     * @param reader : reader to release
+     */
+    public void release(ReaderPoolPlugin pool, SeReader reader) {
+        synchronized (leases) {
+            leases.end(reader.getName());
+            pool.releaseReader(reader);
+        }
+    }
+
+    /**
+     * @return the number of readers allocated with a lease
+     */
+    public int getLeaseCount() {
+        return leases.getLeaseCount();
+    }
+
+    private void releaseAll(ReaderPoolPlugin pool, List<SeReader> readers) {
+        for (SeReader reader : readers) {
+            pool.releaseReader(reader);
+        }
+    }
+
+    /**
+     * Reader allocated from a pool
+     */
+    private static final class Allocation {
+
+        private final ReaderPoolPlugin pool;
+        private final SeReader reader;
+
+        Allocation(ReaderPoolPlugin pool, SeReader reader) {
+            this.pool = pool;
+            this.reader = reader;
+        }
+    }
+}
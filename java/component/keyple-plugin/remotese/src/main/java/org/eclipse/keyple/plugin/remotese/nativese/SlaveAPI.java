@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import org.eclipse.keyple.core.seproxy.ReaderPlugin;
 import org.eclipse.keyple.core.seproxy.ReaderPoolPlugin;
 import org.eclipse.keyple.core.seproxy.SeProxyService;
@@ -63,6 +64,20 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
     // used in case of a poolPlugin architecture
     private ReaderPoolPlugin readerPoolPlugin;
 
+    // allocations of the readers of the pool, with their lease
+    private final ReaderPoolLeases poolLeases = new ReaderPoolLeases();
+
+    // dispatches the reader requests, null if they are processed by the thread of the DtoNode
+    private final NativeReaderDispatcher readerDispatcher;
+
+    // native reader name, connection of the reader (guarded by itself)
+    private final Map<String, ReaderConnection> connections =
+            new HashMap<String, ReaderConnection>();
+
+    // native reader name, session of the reader when it was disconnected, presented again at its
+    // next connection (guarded by connections)
+    private final Map<String, String> disconnectedSessions = new HashMap<String, String>();
+
     public static final long DEFAULT_RPC_TIMEOUT = 10000;
 
 
@@ -102,10 +117,40 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
      */
     public SlaveAPI(SeProxyService seProxyService, DtoNode dtoNode, String masterNodeId,
             long timeout, ExecutorService executorService) {
+        this(seProxyService, dtoNode, masterNodeId, timeout, executorService, null);
+    }
+
+    /**
+     * Constructor with custom timeout, custom executorService and parallel processing of the
+     * reader requests
+     * <p>
+     * The requests received for a native reader (transmit, transmitSet, default selection) are
+     * processed one after the other in their arrival order, the requests of different readers are
+     * processed concurrently by the threads of readerExecutorService: its size gives the number of
+     * readers processing a request at the same time (e.g. Executors.newFixedThreadPool(n)).
+     * <p>
+     * The responses are sent through {@link DtoNode#sendDTO(TransportDto)} once processed, the
+     * transport must therefore accept to send a response outside of the
+     * {@link DtoHandler#onDTO(TransportDto)} call.
+     *
+     * @param seProxyService : instance of the seProxyService
+     * @param dtoNode : Define which DTO sender will be called when a DTO needs to be sent.
+     * @param masterNodeId : Master Node Id to connect to
+     * @param timeout : timeout to be used before a request is abandonned
+     * @param executorService : use an external executorService to execute async task
+     * @param readerExecutorService : executorService processing the reader requests, null to
+     *        process them in the thread delivering the DTO
+     */
+    public SlaveAPI(SeProxyService seProxyService, DtoNode dtoNode, String masterNodeId,
+            long timeout, ExecutorService executorService,
+            ExecutorService readerExecutorService) {
         this.seProxyService = seProxyService;
         this.dtoNode = dtoNode;
         this.rmTxEngine = new RemoteMethodTxEngine(dtoNode, timeout, executorService);
         this.masterNodeId = masterNodeId;
+        this.readerDispatcher = readerExecutorService != null
+                ? new NativeReaderDispatcher(readerExecutorService)
+                : null;
         this.bindDtoEndpoint(dtoNode);
     }
 
@@ -128,10 +173,9 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
      *         onDTO processing, a keyple dto exception is returned
      */
     @Override
-    public TransportDto onDTO(TransportDto transportDto) {
+    public TransportDto onDTO(final TransportDto transportDto) {
 
         KeypleDto keypleDTO = transportDto.getKeypleDTO();
-        TransportDto out;
 
         logger.trace("{} onDto {}", dtoNode.getNodeId(), KeypleDtoHelper.toJson(keypleDTO));
 
@@ -139,6 +183,56 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
         logger.debug("{} Remote Method called : {} - isRequest : {}", dtoNode.getNodeId(), method,
                 keypleDTO.isRequest());
 
+        if (readerDispatcher != null && keypleDTO.isRequest() && isReaderRequest(method)) {
+            try {
+                readerDispatcher.dispatch(keypleDTO.getNativeReaderName(), new Runnable() {
+                    @Override
+                    public void run() {
+                        TransportDto out = processDto(transportDto);
+                        try {
+                            dtoNode.sendDTO(out);
+                        } catch (KeypleRemoteException e) {
+                            logger.error("{} Response to {} could not be sent", dtoNode.getNodeId(),
+                                    transportDto.getKeypleDTO().getId(), e);
+                        }
+                    }
+                });
+                // the response will be sent when the request is processed
+                return transportDto.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDTO.getId()));
+            } catch (RejectedExecutionException e) {
+                logger.warn("{} Reader executor unavailable, process the request in place",
+                        dtoNode.getNodeId());
+            }
+        }
+        return processDto(transportDto);
+    }
+
+    /**
+     * Tells if a remote method targets a native reader (its requests can be dispatched)
+     *
+     * @param method the remote method (may be null)
+     * @return true for the transmit, transmitSet, default selection and isSePresent methods
+     */
+    private static boolean isReaderRequest(RemoteMethodName method) {
+        return method == RemoteMethodName.READER_TRANSMIT
+                || method == RemoteMethodName.READER_TRANSMIT_SET
+                || method == RemoteMethodName.DEFAULT_SELECTION_REQUEST
+                || method == RemoteMethodName.READER_IS_SE_PRESENT;
+    }
+
+    /**
+     * Executes the remote method of a {@link KeypleDto}
+     *
+     * @param transportDto to be processed
+     * @return a transportDto (can be a NoResponse KeypleDto or a keyple dto exception)
+     */
+    private TransportDto processDto(TransportDto transportDto) {
+
+        KeypleDto keypleDTO = transportDto.getKeypleDTO();
+        TransportDto out;
+
+        RemoteMethodName method = RemoteMethodName.get(keypleDTO.getAction());
+
 
         try {
 
@@ -195,13 +289,24 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
                     }
                     break;
 
+                case READER_IS_SE_PRESENT:
+                    // must be a request
+                    if (keypleDTO.isRequest()) {
+                        IRemoteMethodExecutor rmIsSePresent = new RmIsSePresentExecutor(this);
+                        out = rmIsSePresent.execute(transportDto);
+                    } else {
+                        throw new IllegalStateException(
+                                "a READER_IS_SE_PRESENT response has been received by SlaveAPI");
+                    }
+                    break;
+
                 case POOL_ALLOCATE_READER:
 
                     // must be a request
                     if (keypleDTO.isRequest()) {
                         // executor
                         RmPoolAllocateExecutor rmPoolAllocateExecutor = new RmPoolAllocateExecutor(
-                                this.readerPoolPlugin, dtoNode.getNodeId());
+                                this.readerPoolPlugin, poolLeases, dtoNode.getNodeId());
                         out = rmPoolAllocateExecutor.execute(transportDto);
                     } else {
                         throw new IllegalStateException(
@@ -213,7 +318,7 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
                     // must be a request
                     if (keypleDTO.isRequest()) {
                         RmPoolReleaseExecutor rmPoolReleaseExecutor =
-                                new RmPoolReleaseExecutor(this.readerPoolPlugin);
+                                new RmPoolReleaseExecutor(this.readerPoolPlugin, poolLeases);
                         out = rmPoolReleaseExecutor.execute(transportDto);
                     } else {
                         throw new IllegalStateException(
@@ -221,6 +326,39 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
                     }
                     break;
 
+                case POOL_GROUP_REFERENCES:
+                    // must be a request
+                    if (keypleDTO.isRequest()) {
+                        out = new RmPoolGroupReferencesExecutor(this.readerPoolPlugin, poolLeases)
+                                .execute(transportDto);
+                    } else {
+                        throw new IllegalStateException(
+                                "a POOL_GROUP_REFERENCES response has been received by SlaveAPI");
+                    }
+                    break;
+
+                case POOL_ALLOCATE_READERS:
+                    // must be a request
+                    if (keypleDTO.isRequest()) {
+                        out = new RmPoolAllocateReadersExecutor(this.readerPoolPlugin, poolLeases,
+                                dtoNode.getNodeId()).execute(transportDto);
+                    } else {
+                        throw new IllegalStateException(
+                                "a POOL_ALLOCATE_READERS response has been received by SlaveAPI");
+                    }
+                    break;
+
+                case POOL_RELEASE_READERS:
+                    // must be a request
+                    if (keypleDTO.isRequest()) {
+                        out = new RmPoolReleaseReadersExecutor(this.readerPoolPlugin, poolLeases)
+                                .execute(transportDto);
+                    } else {
+                        throw new IllegalStateException(
+                                "a POOL_RELEASE_READERS response has been received by SlaveAPI");
+                    }
+                    break;
+
                 default:
                     logger.warn("**** ERROR - UNRECOGNIZED ****");
                     logger.warn("Receive unrecognized message action : {} {} {} {}",
@@ -282,19 +420,84 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
         logger.info("{} connectReader {} from device {}", dtoNode.getNodeId(),
                 localReader.getName(), dtoNode.getNodeId());
 
-        RmConnectReaderTx connect = new RmConnectReaderTx(null, localReader.getName(), null,
+        String sessionId;
+        synchronized (connections) {
+            sessionId = disconnectedSessions.remove(localReader.getName());
+        }
+        String connectedSessionId = connectReader(localReader, options, sessionId);
+        if (sessionId != null && localReader instanceof ObservableReader) {
+            // the observer removed at the disconnection is not registered when a session is
+            // presented
+            ((ObservableReader) localReader).addObserver(this);
+        }
+        return connectedSessionId;
+    }
+
+    /**
+     * Connect again the readers connected by this SlaveAPI, after a transport reconnection.
+     * <p>
+     * Each reader presents its current session id: if the Master kept the session (see
+     * {@link org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI#setSessionRetention(long)}),
+     * the existing virtual reader is resumed with its observers and its default selection,
+     * otherwise a new virtual reader is created with a new session.
+     *
+     * @throws KeypleReaderException : the first error met, after trying to reconnect every reader
+     */
+    public void reconnectReaders() throws KeypleReaderException {
+        Map<String, ReaderConnection> readerConnections;
+        synchronized (connections) {
+            readerConnections = new HashMap<String, ReaderConnection>(connections);
+        }
+
+        KeypleReaderException firstError = null;
+        for (Map.Entry<String, ReaderConnection> entry : readerConnections.entrySet()) {
+            try {
+                SeReader localReader = findLocalReader(entry.getKey());
+                connectReader(localReader, entry.getValue().options,
+                        entry.getValue().sessionId);
+            } catch (KeypleReaderException e) {
+                logger.warn("{} Reader {} could not be reconnected : {}", dtoNode.getNodeId(),
+                        entry.getKey(), e.getMessage());
+                if (firstError == null) {
+                    firstError = e;
+                }
+            }
+        }
+        if (firstError != null) {
+            throw firstError;
+        }
+    }
+
+    /**
+     * Connect a local reader, opening a new session or resuming a previous one
+     *
+     * @param localReader : native reader to be connected
+     * @param options : options will be set as parameters of virtual reader
+     * @param sessionId : session to be resumed, null to open a new session
+     * @return the session id of the virtual reader
+     */
+    private String connectReader(SeReader localReader, Map<String, String> options,
+            String sessionId) throws KeypleReaderException {
+        RmConnectReaderTx connect = new RmConnectReaderTx(sessionId, localReader.getName(), null,
                 masterNodeId, localReader, dtoNode.getNodeId(), this, options);
         try {
             // blocking call
-            return connect.execute(rmTxEngine);
+            String connectedSessionId = connect.execute(rmTxEngine);
+            synchronized (connections) {
+                connections.put(localReader.getName(),
+                        new ReaderConnection(connectedSessionId, options));
+            }
+            return connectedSessionId;
         } catch (KeypleRemoteException e) {
             throw new KeypleReaderException("An error occurred while calling connectReader", e);
         }
-
     }
 
     /**
-     * Disconnect a SeReader. Matching virtual session will be destroyed on Master node.
+     * Disconnect a SeReader. Matching virtual session will be destroyed on Master node, unless the
+     * Master keeps it (see
+     * {@link org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI#setSessionRetention(long)}): the
+     * next connection of the reader then presents the session to resume it.
      *
      * @param sessionId (optional)
      * @param nativeReaderName local name of the reader, will be used coupled with the nodeId to
@@ -313,6 +516,15 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
         try {
             // blocking call
             disconnect.execute(rmTxEngine);
+            synchronized (connections) {
+                ReaderConnection connection = connections.remove(nativeReaderName);
+                if (connection != null) {
+                    disconnectedSessions.put(nativeReaderName, connection.sessionId);
+                }
+            }
+            if (readerDispatcher != null) {
+                readerDispatcher.remove(nativeReaderName);
+            }
             SeReader nativeReader = findLocalReader(nativeReaderName);
             if (nativeReader instanceof ObservableReader) {
                 logger.debug("Disconnected reader is observable, removing slaveAPI observer");
@@ -392,5 +604,24 @@ public class SlaveAPI implements INativeReaderService, DtoHandler, ObservableRea
          */
     }
 
+    /**
+     * @return the allocations of the readers of the pool plugin, with their lease
+     */
+    public ReaderPoolLeases getReaderPoolLeases() {
+        return poolLeases;
+    }
+
+    /**
+     * Session and options of a connected native reader
+     */
+    private static final class ReaderConnection {
+
+        private final String sessionId;
+        private final Map<String, String> options;
 
+        ReaderConnection(String sessionId, Map<String, String> options) {
+            this.sessionId = sessionId;
+            this.options = options;
+        }
+    }
 }
@@ -14,6 +14,7 @@ package org.eclipse.keyple.plugin.remotese.nativese.method;
 import java.util.Map;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.event.ObservableReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
 import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
@@ -75,7 +76,10 @@ public class RmConnectReaderTx extends AbstractRemoteMethodTx<String> {
                 // find the local reader by name
                 SeReader localReader = slaveAPI.findLocalReader(nativeReaderName);
 
-                if (localReader instanceof ObservableReader) {
+                if (sessionId != null) {
+                    logger.debug("Session {} resumed, SlaveAPI already observes native reader {}",
+                            sessionId, localReader.getName());
+                } else if (localReader instanceof ObservableReader) {
                     logger.debug("Register SlaveAPI as an observer for native reader {}",
                             localReader.getName());
                     ((ObservableReader) localReader)
@@ -109,11 +113,16 @@ public class RmConnectReaderTx extends AbstractRemoteMethodTx<String> {
         body.addProperty("transmissionMode", localReader.getTransmissionMode().name());
         body.addProperty("isObservable", localReader instanceof ObservableReader);
         body.addProperty("options", JsonParser.getGson().toJson(options));
+        try {
+            // initial state of the SE presence cached by the virtual reader
+            body.addProperty("isSePresent", localReader.isSePresent());
+        } catch (KeypleIOReaderException e) {
+            logger.warn("SE presence of {} unknown : {}", localReader.getName(), e.getMessage());
+        }
 
-        return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(), null, // no
-                                                                                              // session
-                                                                                              // yet
+        // sessionId is the session to be resumed, null to open a new session
+        return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(), sessionId,
                 localReader.getName(), null, // no virtualreader yet
-                requesterNodeId, targetNodeId, id);
+                requesterNodeId, targetNodeId, getId());
     }
 }
@@ -63,6 +63,6 @@ public class RmDisconnectReaderTx extends AbstractRemoteMethodTx<Boolean> {
 
         return KeypleDtoHelper.buildRequest(getMethodName().getName(),
                 JsonParser.getGson().toJson(body, JsonObject.class), sessionId, nativeReaderName,
-                null, requesterNodeId, targetNodeId, id);
+                null, requesterNodeId, targetNodeId, getId());
     }
 }
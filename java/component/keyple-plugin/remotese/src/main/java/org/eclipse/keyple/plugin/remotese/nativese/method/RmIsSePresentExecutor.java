@@ -0,0 +1,72 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.nativese.method;
+
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.rm.IRemoteMethodExecutor;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.gson.JsonObject;
+
+/**
+ * Execute the isSePresent on Native Reader
+ */
+public class RmIsSePresentExecutor implements IRemoteMethodExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RmIsSePresentExecutor.class);
+
+    private final SlaveAPI slaveAPI;
+
+    @Override
+    public RemoteMethodName getMethodName() {
+        return RemoteMethodName.READER_IS_SE_PRESENT;
+    }
+
+    public RmIsSePresentExecutor(SlaveAPI slaveAPI) {
+        this.slaveAPI = slaveAPI;
+    }
+
+    @Override
+    public TransportDto execute(TransportDto transportDto) {
+        KeypleDto keypleDto = transportDto.getKeypleDTO();
+        String nativeReaderName = keypleDto.getNativeReaderName();
+
+        try {
+            // find native reader by name
+            SeReader reader = slaveAPI.findLocalReader(nativeReaderName);
+
+            boolean isSePresent = reader.isSePresent();
+            logger.trace("Execute locally isSePresent on {} : {}", nativeReaderName, isSePresent);
+
+            // prepare response
+            JsonObject body = new JsonObject();
+            body.addProperty("isSePresent", isSePresent);
+            return transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
+                    getMethodName().getName(), body.toString(), keypleDto.getSessionId(),
+                    nativeReaderName, keypleDto.getVirtualReaderName(), keypleDto.getTargetNodeId(),
+                    keypleDto.getRequesterNodeId(), keypleDto.getId()));
+
+        } catch (KeypleReaderException e) {
+            // if an exception occurs, send it into a keypleDto to the Master
+            return transportDto.nextTransportDTO(KeypleDtoHelper.ExceptionDTO(
+                    getMethodName().getName(), e, keypleDto.getSessionId(), nativeReaderName,
+                    keypleDto.getVirtualReaderName(), keypleDto.getTargetNodeId(),
+                    keypleDto.getRequesterNodeId(), keypleDto.getId()));
+        }
+    }
+}
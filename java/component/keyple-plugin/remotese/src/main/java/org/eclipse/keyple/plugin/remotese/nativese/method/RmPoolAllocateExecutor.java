@@ -11,11 +11,13 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.nativese.method;
 
+import java.util.Collections;
 import org.eclipse.keyple.core.seproxy.ReaderPoolPlugin;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationNoReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationReaderException;
 import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.plugin.remotese.nativese.ReaderPoolLeases;
 import org.eclipse.keyple.plugin.remotese.rm.IRemoteMethodExecutor;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
@@ -27,6 +29,7 @@ import com.google.gson.JsonObject;
 public class RmPoolAllocateExecutor implements IRemoteMethodExecutor {
 
     ReaderPoolPlugin poolPlugin;
+    ReaderPoolLeases poolLeases;
     String slaveNodeId;
 
     @Override
@@ -34,8 +37,10 @@ public class RmPoolAllocateExecutor implements IRemoteMethodExecutor {
         return RemoteMethodName.POOL_ALLOCATE_READER;
     }
 
-    public RmPoolAllocateExecutor(ReaderPoolPlugin poolPlugin, String slaveNodeId) {
+    public RmPoolAllocateExecutor(ReaderPoolPlugin poolPlugin, ReaderPoolLeases poolLeases,
+            String slaveNodeId) {
         this.poolPlugin = poolPlugin;
+        this.poolLeases = poolLeases;
         this.slaveNodeId = slaveNodeId;
     }
 
@@ -53,7 +58,8 @@ public class RmPoolAllocateExecutor implements IRemoteMethodExecutor {
         // Execute Remote Method
         SeReader seReader = null;
         try {
-            seReader = poolPlugin.allocateReader(groupReference);
+            seReader = poolLeases
+                    .allocate(poolPlugin, Collections.singletonList(groupReference), 0).get(0);
         } catch (KeypleAllocationReaderException e) {
             // if an exception occurs, send it into a keypleDto to the Master
             return transportDto.nextTransportDTO(KeypleDtoHelper.ExceptionDTO(
@@ -0,0 +1,97 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.nativese.method;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.keyple.core.seproxy.ReaderPoolPlugin;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationNoReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationReaderException;
+import org.eclipse.keyple.plugin.remotese.nativese.ReaderPoolLeases;
+import org.eclipse.keyple.plugin.remotese.rm.IRemoteMethodExecutor;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Execute the allocation of several readers, all or none, on the Reader Pool Plugin
+ */
+public class RmPoolAllocateReadersExecutor implements IRemoteMethodExecutor {
+
+    ReaderPoolPlugin poolPlugin;
+    ReaderPoolLeases poolLeases;
+    String slaveNodeId;
+
+    @Override
+    public RemoteMethodName getMethodName() {
+        return RemoteMethodName.POOL_ALLOCATE_READERS;
+    }
+
+    public RmPoolAllocateReadersExecutor(ReaderPoolPlugin poolPlugin, ReaderPoolLeases poolLeases,
+            String slaveNodeId) {
+        this.poolPlugin = poolPlugin;
+        this.poolLeases = poolLeases;
+        this.slaveNodeId = slaveNodeId;
+    }
+
+    @Override
+    public TransportDto execute(TransportDto transportDto) {
+        KeypleDto keypleDto = transportDto.getKeypleDTO();
+
+        // Extract info from keypleDto
+        JsonObject body = JsonParser.getGson().fromJson(keypleDto.getBody(), JsonObject.class);
+        List<String> groupReferences = new ArrayList<String>();
+        for (JsonElement groupReference : body.getAsJsonArray("groupReferences")) {
+            groupReferences.add(groupReference.getAsString());
+        }
+        long leaseDuration = body.get("leaseDuration").getAsLong();
+
+        // Execute Remote Method
+        List<SeReader> seReaders;
+        try {
+            seReaders = poolLeases.allocate(poolPlugin, groupReferences, leaseDuration);
+        } catch (KeypleAllocationReaderException e) {
+            // if an exception occurs, send it into a keypleDto to the Master
+            return transportDto.nextTransportDTO(KeypleDtoHelper.ExceptionDTO(
+                    getMethodName().getName(), e, null, null, null, keypleDto.getTargetNodeId(),
+                    keypleDto.getRequesterNodeId(), keypleDto.getId()));
+        } catch (KeypleAllocationNoReaderException e) {
+            // the lack of reader is part of the response, the type of exceptions is not serialized
+            JsonObject bodyResp = new JsonObject();
+            bodyResp.addProperty("noReader", e.getMessage());
+            return transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
+                    getMethodName().getName(), bodyResp.toString(), null, null, null,
+                    keypleDto.getTargetNodeId(), slaveNodeId, keypleDto.getId()));
+        }
+
+        // Build Response
+        JsonArray readers = new JsonArray();
+        for (SeReader seReader : seReaders) {
+            JsonObject reader = new JsonObject();
+            reader.addProperty("nativeReaderName", seReader.getName());
+            reader.addProperty("transmissionMode", seReader.getTransmissionMode().name());
+            readers.add(reader);
+        }
+        JsonObject bodyResp = new JsonObject();
+        bodyResp.add("readers", readers);
+
+        return transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
+                getMethodName().getName(), bodyResp.toString(), null, null, null,
+                keypleDto.getTargetNodeId(), slaveNodeId, keypleDto.getId()));
+    }
+}
@@ -0,0 +1,61 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.nativese.method;
+
+import org.eclipse.keyple.core.seproxy.ReaderPoolPlugin;
+import org.eclipse.keyple.plugin.remotese.nativese.ReaderPoolLeases;
+import org.eclipse.keyple.plugin.remotese.rm.IRemoteMethodExecutor;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Execute the listing of the group references on the Reader Pool Plugin
+ */
+public class RmPoolGroupReferencesExecutor implements IRemoteMethodExecutor {
+
+    ReaderPoolPlugin poolPlugin;
+    ReaderPoolLeases poolLeases;
+
+    @Override
+    public RemoteMethodName getMethodName() {
+        return RemoteMethodName.POOL_GROUP_REFERENCES;
+    }
+
+    public RmPoolGroupReferencesExecutor(ReaderPoolPlugin poolPlugin,
+            ReaderPoolLeases poolLeases) {
+        this.poolPlugin = poolPlugin;
+        this.poolLeases = poolLeases;
+    }
+
+    @Override
+    public TransportDto execute(TransportDto transportDto) {
+        KeypleDto keypleDto = transportDto.getKeypleDTO();
+
+        // Execute Remote Method
+        JsonArray groupReferences = new JsonArray();
+        for (String groupReference : poolLeases.getReaderGroupReferences(poolPlugin)) {
+            groupReferences.add(groupReference);
+        }
+
+        // Build Response
+        JsonObject bodyResp = new JsonObject();
+        bodyResp.add("groupReferences", groupReferences);
+
+        return transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
+                getMethodName().getName(), bodyResp.toString(), null, null, null,
+                keypleDto.getTargetNodeId(), keypleDto.getRequesterNodeId(), keypleDto.getId()));
+    }
+}
@@ -14,6 +14,7 @@ package org.eclipse.keyple.plugin.remotese.nativese.method;
 import org.eclipse.keyple.core.seproxy.ReaderPoolPlugin;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.eclipse.keyple.plugin.remotese.nativese.ReaderPoolLeases;
 import org.eclipse.keyple.plugin.remotese.rm.IRemoteMethodExecutor;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
@@ -25,14 +26,16 @@ import com.google.gson.JsonObject;
 public class RmPoolReleaseExecutor implements IRemoteMethodExecutor {
 
     ReaderPoolPlugin poolPlugin;
+    ReaderPoolLeases poolLeases;
 
     @Override
     public RemoteMethodName getMethodName() {
         return RemoteMethodName.POOL_RELEASE_READER;
     }
 
-    public RmPoolReleaseExecutor(ReaderPoolPlugin poolPlugin) {
+    public RmPoolReleaseExecutor(ReaderPoolPlugin poolPlugin, ReaderPoolLeases poolLeases) {
         this.poolPlugin = poolPlugin;
+        this.poolLeases = poolLeases;
     }
 
     @Override
@@ -50,8 +53,8 @@ public class RmPoolReleaseExecutor implements IRemoteMethodExecutor {
         try {
             seReader = poolPlugin.getReader(nativeReaderName);
 
-            // Execute Remote Method
-            poolPlugin.releaseReader(seReader);
+            // Execute Remote Method, ending the lease of the reader if any
+            poolLeases.release(poolPlugin, seReader);
 
             // Build Response
             JsonObject bodyResp = new JsonObject();
@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.nativese.method;
+
+import org.eclipse.keyple.core.seproxy.ReaderPoolPlugin;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.eclipse.keyple.plugin.remotese.nativese.ReaderPoolLeases;
+import org.eclipse.keyple.plugin.remotese.rm.IRemoteMethodExecutor;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Execute the release of several readers on the Reader Pool Plugin
+ */
+public class RmPoolReleaseReadersExecutor implements IRemoteMethodExecutor {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(RmPoolReleaseReadersExecutor.class);
+
+    ReaderPoolPlugin poolPlugin;
+    ReaderPoolLeases poolLeases;
+
+    @Override
+    public RemoteMethodName getMethodName() {
+        return RemoteMethodName.POOL_RELEASE_READERS;
+    }
+
+    public RmPoolReleaseReadersExecutor(ReaderPoolPlugin poolPlugin,
+            ReaderPoolLeases poolLeases) {
+        this.poolPlugin = poolPlugin;
+        this.poolLeases = poolLeases;
+    }
+
+    @Override
+    public TransportDto execute(TransportDto transportDto) {
+        KeypleDto keypleDto = transportDto.getKeypleDTO();
+
+        // Extract info from keypleDto
+        JsonObject body = JsonParser.getGson().fromJson(keypleDto.getBody(), JsonObject.class);
+
+        // Execute Remote Method on each reader found, ending their lease if any
+        JsonArray released = new JsonArray();
+        for (JsonElement nativeReaderName : body.getAsJsonArray("nativeReaderNames")) {
+            try {
+                poolLeases.release(poolPlugin,
+                        poolPlugin.getReader(nativeReaderName.getAsString()));
+                released.add(nativeReaderName);
+            } catch (KeypleReaderNotFoundException e) {
+                logger.warn("Reader {} to release was not found", nativeReaderName.getAsString());
+            }
+        }
+
+        // Build Response with the released readers
+        JsonObject bodyResp = new JsonObject();
+        bodyResp.add("nativeReaderNames", released);
+
+        return transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
+                getMethodName().getName(), bodyResp.toString(), null, null, null,
+                keypleDto.getTargetNodeId(), keypleDto.getRequesterNodeId(), keypleDto.getId()));
+    }
+}
@@ -14,6 +14,9 @@ package org.eclipse.keyple.plugin.remotese.pluginse;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.core.seproxy.SeProxyService;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.exception.KeyplePluginInstantiationException;
@@ -21,6 +24,7 @@ import org.eclipse.keyple.core.seproxy.exception.KeyplePluginNotFoundException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxLimiter;
 import org.eclipse.keyple.plugin.remotese.transport.*;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
@@ -36,8 +40,19 @@ import org.slf4j.LoggerFactory;
  * Init this API with a {@link DtoSender} of your implementation. Link this API to one your
  * {@link DtoHandler}.
  *
+ * When bound to a {@link HeartbeatDtoNode}, this API listens to the liveness of the slave nodes:
+ * the calls to an unreachable slave fail at once and its virtual readers are disconnected when it
+ * is lost. Register it with {@link HeartbeatDtoNode#addNodeLivenessListener(NodeLivenessListener)}
+ * when the HeartbeatDtoNode is itself decorated.
+ *
+ * The remote calls can be bounded per plugin and per slave node (see
+ * {@link #setMaxInFlightCalls(int)}) and the threads sending them (see
+ * {@link #newBoundedExecutorService(int)}), a call over a limit or finding no thread to be sent is
+ * rejected at once with a
+ * {@link org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException}.
+ *
  */
-public class MasterAPI implements DtoHandler {
+public class MasterAPI implements DtoHandler, NodeLivenessListener {
 
     private static final Logger logger = LoggerFactory.getLogger(MasterAPI.class);
 
@@ -100,6 +115,24 @@ public class MasterAPI implements DtoHandler {
                 Executors.newCachedThreadPool());
     }
 
+    /**
+     * Create an executor service running at most maxThreads tasks (remote calls being sent, reader
+     * events being notified), to be used along with {@link #setMaxInFlightCalls(int)} instead of
+     * the default cached pool. The tasks are not queued: a task submitted while maxThreads tasks
+     * are running is rejected, the remote call fails with a
+     * {@link org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException} and the
+     * reader event is notified by the thread receiving it. Idle threads are released after 60
+     * seconds.
+     *
+     * @param maxThreads : maximum number of threads
+     * @return the executor service to give to
+     *         {@link #MasterAPI(SeProxyService, DtoNode, long, int, String, ExecutorService)}
+     */
+    public static ExecutorService newBoundedExecutorService(int maxThreads) {
+        return new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>());
+    }
+
     /**
      * Build a new MasterAPI with custom rpcTimeout and custom executor service
      *
@@ -178,6 +211,10 @@ public class MasterAPI implements DtoHandler {
 
         // Set this service as the Dto Handler for the node
         this.bindDtoEndpoint(dtoNode);
+
+        if (dtoNode instanceof HeartbeatDtoNode) {
+            ((HeartbeatDtoNode) dtoNode).addNodeLivenessListener(this);
+        }
     }
 
     /**
@@ -249,6 +286,7 @@ public class MasterAPI implements DtoHandler {
                 case READER_TRANSMIT:
                 case READER_TRANSMIT_SET:
                 case DEFAULT_SELECTION_REQUEST:
+                case READER_IS_SE_PRESENT:
                     if (keypleDTO.isRequest()) {
                         throw new IllegalStateException("a " + keypleDTO.getAction()
                                 + " request has been received by MasterAPI");
@@ -263,6 +301,9 @@ public class MasterAPI implements DtoHandler {
 
                 case POOL_ALLOCATE_READER:
                 case POOL_RELEASE_READER:
+                case POOL_GROUP_REFERENCES:
+                case POOL_ALLOCATE_READERS:
+                case POOL_RELEASE_READERS:
                     if (keypleDTO.isRequest()) {
                         throw new IllegalStateException("a " + keypleDTO.getAction()
                                 + " request has been received by MasterAPI");
@@ -295,6 +336,92 @@ public class MasterAPI implements DtoHandler {
 
 
 
+    /**
+     * Keep the virtual readers of a lost slave node to resume their sessions when the slave
+     * reconnects its readers (see {@link org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI#reconnectReaders()}).
+     * The readers disconnected by their slave are kept the same way, until it connects them again.
+     * A detached virtual reader is disconnected (READER_DISCONNECTED) but keeps its observers and
+     * its default selection, it is connected again (READER_CONNECTED) when its session is resumed.
+     * By default, the virtual readers of a lost slave node are removed at once.
+     *
+     * @param sessionRetention : time in milliseconds a session can be resumed, 0 to remove the
+     *        virtual readers at once
+     */
+    public void setSessionRetention(long sessionRetention) {
+        plugin.setSessionRetention(sessionRetention);
+    }
+
+    /**
+     * Bound the remote calls in flight for all the virtual readers of the plugin, the calls over
+     * the limit are rejected
+     *
+     * @param maxCalls : maximum number of calls waiting for their response, 0 for no limit
+     *        (default)
+     */
+    public void setMaxInFlightCalls(int maxCalls) {
+        plugin.setMaxCalls(maxCalls);
+    }
+
+    /**
+     * Bound the remote calls in flight towards each slave node, the calls over the limit are
+     * rejected
+     *
+     * @param maxCallsPerNode : maximum number of calls waiting for their response, 0 for no limit
+     *        (default)
+     */
+    public void setMaxInFlightCallsPerNode(int maxCallsPerNode) {
+        plugin.setMaxCallsPerNode(maxCallsPerNode);
+    }
+
+    /**
+     * Retrieve the metrics of the remote calls of the plugin: calls in flight, peak, rejections
+     *
+     * @return the limiter of the plugin
+     */
+    public RemoteMethodTxLimiter getCallLimiter() {
+        return plugin.getCallLimiter();
+    }
+
+    /**
+     * Retrieve the metrics of the remote calls towards a slave node: calls in flight, peak,
+     * rejections
+     *
+     * @param slaveNodeId : id of the slave node
+     * @return the limiter of the slave node
+     */
+    public RemoteMethodTxLimiter getCallLimiter(String slaveNodeId) {
+        return plugin.getCallLimiter(slaveNodeId);
+    }
+
+    /**
+     * @return number of threads of the executor service running a task, -1 if the executor
+     *         service is not a {@link ThreadPoolExecutor}
+     */
+    public int getActiveThreads() {
+        if (executorService instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executorService).getActiveCount();
+        }
+        return -1;
+    }
+
+    @Override
+    public void onNodeUnreachable(String nodeId) {
+        logger.warn("Slave node {} is unreachable, its remote calls fail", nodeId);
+        plugin.onSlaveUnreachable(nodeId);
+    }
+
+    @Override
+    public void onNodeReconnected(String nodeId) {
+        logger.info("Slave node {} is reachable again", nodeId);
+        plugin.onSlaveReconnected(nodeId);
+    }
+
+    @Override
+    public void onNodeLost(String nodeId) {
+        logger.warn("Slave node {} is lost, disconnect its virtual readers", nodeId);
+        plugin.onSlaveLost(nodeId);
+    }
+
     /**
      * Retrieve reader by its session Id
      * 
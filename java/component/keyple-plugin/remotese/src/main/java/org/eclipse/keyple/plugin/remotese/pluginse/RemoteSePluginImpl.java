@@ -12,7 +12,13 @@
 package org.eclipse.keyple.plugin.remotese.pluginse;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.event.PluginEvent;
 import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
@@ -22,6 +28,7 @@ import org.eclipse.keyple.core.seproxy.message.ProxyReader;
 import org.eclipse.keyple.core.seproxy.plugin.AbstractObservablePlugin;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxEngine;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxLimiter;
 import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +51,28 @@ class RemoteSePluginImpl extends AbstractObservablePlugin implements RemoteSePlu
     private final Map<String, String> parameters;
     private ExecutorService executorService;
 
+    // time in milliseconds the virtual readers of a lost slave node can be resumed, 0 to remove
+    // them at once
+    private volatile long sessionRetention;
+
+    // virtual reader name, virtual reader of a lost slave node waiting to be resumed (guarded by
+    // itself)
+    private final Map<String, DetachedReader> detachedReaders =
+            new HashMap<String, DetachedReader>();
+
+    // releases the detached virtual readers at the end of their retention
+    private final ScheduledThreadPoolExecutor retentionScheduler;
+
+    // remote calls in flight for all the virtual readers
+    private final RemoteMethodTxLimiter callLimiter;
+
+    // slave node id, remote calls in flight towards the slave node
+    private final ConcurrentMap<String, RemoteMethodTxLimiter> nodeCallLimiters =
+            new ConcurrentHashMap<String, RemoteMethodTxLimiter>();
+
+    // maximum number of remote calls in flight towards a slave node, 0 for no limit
+    private volatile int maxCallsPerNode;
+
     /**
      * RemoteSePlugin is wrapped into MasterAPI and instantiated like a standard plugin
      * by @SeProxyService. Use MasterAPI
@@ -57,18 +86,90 @@ class RemoteSePluginImpl extends AbstractObservablePlugin implements RemoteSePlu
         this.parameters = new HashMap<String, String>();
         this.rpcTimeout = rpcTimeout;
         this.executorService = executorService;
+        this.callLimiter = new RemoteMethodTxLimiter(pluginName, 0);
+
+        retentionScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "keyple-remote-session-retention");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        retentionScheduler.setKeepAliveTime(60, TimeUnit.SECONDS);
+        retentionScheduler.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Set the maximum number of remote calls in flight for the plugin (internal method)
+     *
+     * @param maxCalls : maximum number of calls, 0 for no limit
+     */
+    void setMaxCalls(int maxCalls) {
+        callLimiter.setLimit(maxCalls);
+    }
+
+    /**
+     * Set the maximum number of remote calls in flight towards each slave node (internal method)
+     *
+     * @param maxCallsPerNode : maximum number of calls, 0 for no limit
+     */
+    void setMaxCallsPerNode(int maxCallsPerNode) {
+        if (maxCallsPerNode < 0) {
+            throw new IllegalArgumentException("The limit must not be negative");
+        }
+        this.maxCallsPerNode = maxCallsPerNode;
+        for (RemoteMethodTxLimiter limiter : nodeCallLimiters.values()) {
+            limiter.setLimit(maxCallsPerNode);
+        }
+    }
+
+    /**
+     * @return the limiter counting the remote calls in flight for the plugin
+     */
+    RemoteMethodTxLimiter getCallLimiter() {
+        return callLimiter;
+    }
+
+    /**
+     * @param slaveNodeId : id of the slave node
+     * @return the limiter counting the remote calls in flight towards the slave node
+     */
+    RemoteMethodTxLimiter getCallLimiter(String slaveNodeId) {
+        RemoteMethodTxLimiter limiter = nodeCallLimiters.get(slaveNodeId);
+        if (limiter == null) {
+            RemoteMethodTxLimiter newLimiter =
+                    new RemoteMethodTxLimiter(getName() + "/" + slaveNodeId, maxCallsPerNode);
+            limiter = nodeCallLimiters.putIfAbsent(slaveNodeId, newLimiter);
+            if (limiter == null) {
+                limiter = newLimiter;
+                // the limit may have changed meanwhile
+                limiter.setLimit(maxCallsPerNode);
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * Create the remote method engine of a virtual reader, bounded by the limits of the plugin and
+     * of the slave node
+     */
+    private RemoteMethodTxEngine newRmTxEngine(String slaveNodeId) {
+        RemoteMethodTxEngine rmTxEngine =
+                new RemoteMethodTxEngine(dtoSender, rpcTimeout, executorService);
+        rmTxEngine.setLimiters(callLimiter, getCallLimiter(slaveNodeId));
+        return rmTxEngine;
     }
 
 
     public VirtualReaderImpl getReaderByRemoteName(String remoteName, String slaveNodeId)
             throws KeypleReaderNotFoundException {
-        for (SeReader virtualReader : readers) {
-            if (((VirtualReaderImpl) virtualReader).getName()
-                    .equals(RemoteSePluginImpl.generateReaderName(remoteName, slaveNodeId))) {
-                return (VirtualReaderImpl) virtualReader;
-            }
+        try {
+            return (VirtualReaderImpl) getReader(
+                    RemoteSePluginImpl.generateReaderName(remoteName, slaveNodeId));
+        } catch (KeypleReaderNotFoundException e) {
+            throw new KeypleReaderNotFoundException(remoteName);
         }
-        throw new KeypleReaderNotFoundException(remoteName);
     }
 
 
@@ -79,12 +180,110 @@ class RemoteSePluginImpl extends AbstractObservablePlugin implements RemoteSePlu
     }
 
 
+    /**
+     * A slave disconnected one of its readers (internal method): the virtual reader is detached
+     * within the session retention, removed otherwise
+     *
+     * @param nativeReaderName : name of the native reader
+     * @param slaveNodeId : slave node where the native reader is hosted
+     * @throws KeypleReaderNotFoundException if no virtual reader match the native reader name and
+     *         slave node Id
+     */
+    void onReaderDisconnected(String nativeReaderName, String slaveNodeId)
+            throws KeypleReaderNotFoundException {
+        if (sessionRetention > 0) {
+            detachVirtualReader(getReaderByRemoteName(nativeReaderName, slaveNodeId));
+        } else {
+            removeVirtualReader(nativeReaderName, slaveNodeId);
+        }
+    }
+
+    /**
+     * Set the time the virtual readers of a lost slave node, or disconnected by their slave, are
+     * kept to be resumed (internal method)
+     *
+     * @param sessionRetention : time in milliseconds, 0 to remove the readers at once
+     */
+    void setSessionRetention(long sessionRetention) {
+        if (sessionRetention < 0) {
+            throw new IllegalArgumentException("The session retention must not be negative");
+        }
+        this.sessionRetention = sessionRetention;
+    }
+
+    /**
+     * Resume the session of a virtual reader when its slave reconnects (internal method)
+     * <p>
+     * The virtual reader is still connected if the master did not notice the disconnection, its
+     * remote calls are sent again. The virtual reader is detached if its slave node has been lost
+     * (or its slave disconnected it) within the session retention, it is connected again with its
+     * observers and its default selection (READER_CONNECTED is notified).
+     * <p>
+     * A virtual reader connected with another session is stale, the slave having lost track of
+     * it: it is removed (READER_DISCONNECTED is notified) so that a new one can be created.
+     *
+     * @param slaveNodeId : slave node where the native reader is hosted
+     * @param nativeReaderName : name of the native reader
+     * @param sessionId : session id presented by the slave
+     * @param sePresent : SE presence on the native reader, null if unknown (the presence known
+     *        before is then kept)
+     * @return the resumed virtual reader, null if the session is unknown or expired
+     */
+    VirtualReaderImpl resumeVirtualReader(String slaveNodeId, String nativeReaderName,
+            String sessionId, Boolean sePresent) {
+        try {
+            VirtualReaderImpl virtualReader = getReaderByRemoteName(nativeReaderName, slaveNodeId);
+            if (virtualReader.getSession().getSessionId().equals(sessionId)) {
+                logger.info("Resume the session {} of the connected VirtualReader {}", sessionId,
+                        virtualReader.getName());
+                if (sePresent != null) {
+                    virtualReader.setSePresent(sePresent);
+                }
+                virtualReader.getRmTxEngine().setUnreachable(null);
+                return virtualReader;
+            }
+            logger.warn("Session {} presented for VirtualReader {} connected with session {},"
+                    + " replace it", sessionId, virtualReader.getName(),
+                    virtualReader.getSession().getSessionId());
+            removeVirtualReader(nativeReaderName, slaveNodeId);
+            return null;
+        } catch (KeypleReaderNotFoundException e) {
+            // not connected, may be detached
+        }
+
+        DetachedReader detachedReader;
+        synchronized (detachedReaders) {
+            detachedReader = findDetachedReader(nativeReaderName, slaveNodeId);
+            if (detachedReader == null || !detachedReader.virtualReader.getSession()
+                    .getSessionId().equals(sessionId)) {
+                return null;
+            }
+            detachedReaders.remove(detachedReader.virtualReader.getName());
+            detachedReader.expiryTask.cancel(false);
+        }
+        VirtualReaderImpl virtualReader = detachedReader.virtualReader;
+        logger.info("Resume the session {} of the detached VirtualReader {}", sessionId,
+                virtualReader.getName());
+        if (sePresent != null) {
+            virtualReader.setSePresent(sePresent);
+        }
+        virtualReader.getRmTxEngine().setUnreachable(null);
+        readers.add(virtualReader);
+        notifyObservers(new PluginEvent(getName(), virtualReader.getName(),
+                PluginEvent.EventType.READER_CONNECTED));
+        return virtualReader;
+    }
+
     /**
      * Create a virtual reader (internal method)
+     * <p>
+     * The SE presence is set before READER_CONNECTED is notified, the observers can read it.
+     *
+     * @param sePresent : SE presence on the native reader, null if unknown
      */
     ProxyReader createVirtualReader(String slaveNodeId, String nativeReaderName,
             DtoSender dtoSender, TransmissionMode transmissionMode, Boolean isObservable,
-            Map<String, String> options) throws KeypleReaderException {
+            Map<String, String> options, Boolean sePresent) throws KeypleReaderException {
 
         // create a new session for the new reader
         VirtualReaderSession session =
@@ -100,6 +299,9 @@ class RemoteSePluginImpl extends AbstractObservablePlugin implements RemoteSePlu
         }
 
 
+        // a new session replaces a detached one
+        discardDetachedReader(nativeReaderName, slaveNodeId);
+
         // check if reader is not already connected (by localReaderName)
         logger.debug(
                 "Create a new Virtual Reader with localReaderName {} with session {} isObservable {}  for slaveNodeId {}",
@@ -112,13 +314,12 @@ class RemoteSePluginImpl extends AbstractObservablePlugin implements RemoteSePlu
         VirtualReaderImpl virtualReader;
         if (Boolean.TRUE.equals(isObservable)) {
             virtualReader = new VirtualObservableReaderImpl(session, nativeReaderName,
-                    new RemoteMethodTxEngine(dtoSender, rpcTimeout, executorService), slaveNodeId,
-                    transmissionMode, options);
+                    newRmTxEngine(slaveNodeId), slaveNodeId, transmissionMode, options);
         } else {
             virtualReader = new VirtualReaderImpl(session, nativeReaderName,
-                    new RemoteMethodTxEngine(dtoSender, rpcTimeout, executorService), slaveNodeId,
-                    transmissionMode, options);
+                    newRmTxEngine(slaveNodeId), slaveNodeId, transmissionMode, options);
         }
+        virtualReader.setSePresent(sePresent);
         readers.add(virtualReader);
 
         notifyObservers(new PluginEvent(getName(), virtualReader.getName(),
@@ -158,6 +359,146 @@ class RemoteSePluginImpl extends AbstractObservablePlugin implements RemoteSePlu
                 PluginEvent.EventType.READER_DISCONNECTED));
     }
 
+    /**
+     * The slave node is unreachable: the pending and next remote calls of its virtual readers fail
+     * at once (internal method)
+     *
+     * @param slaveNodeId : slave node that stopped answering
+     */
+    void onSlaveUnreachable(String slaveNodeId) {
+        for (VirtualReaderImpl virtualReader : getVirtualReaders(slaveNodeId)) {
+            virtualReader.getRmTxEngine()
+                    .setUnreachable("Slave node " + slaveNodeId + " is unreachable");
+        }
+    }
+
+    /**
+     * The slave node is reachable again, the remote calls of its virtual readers are sent again
+     * (internal method)
+     *
+     * @param slaveNodeId : slave node heard from again
+     */
+    void onSlaveReconnected(String slaveNodeId) {
+        for (VirtualReaderImpl virtualReader : getVirtualReaders(slaveNodeId)) {
+            virtualReader.getRmTxEngine().setUnreachable(null);
+        }
+    }
+
+    /**
+     * The slave node is lost: its virtual readers are detached within the session retention,
+     * removed otherwise (internal method)
+     *
+     * @param slaveNodeId : slave node unreachable for the whole grace period
+     */
+    void onSlaveLost(String slaveNodeId) {
+        onSlaveUnreachable(slaveNodeId);
+        for (VirtualReaderImpl virtualReader : getVirtualReaders(slaveNodeId)) {
+            if (sessionRetention > 0) {
+                detachVirtualReader(virtualReader);
+                continue;
+            }
+            try {
+                removeVirtualReader(virtualReader.getNativeReaderName(), slaveNodeId);
+            } catch (KeypleReaderNotFoundException e) {
+                // already disconnected
+            }
+        }
+        if (sessionRetention == 0) {
+            // no virtual reader uses the limiter of the node any more
+            nodeCallLimiters.remove(slaveNodeId);
+        }
+    }
+
+    /**
+     * Disconnect a virtual reader but keep it, with its observers, to be resumed within the
+     * session retention
+     */
+    private void detachVirtualReader(VirtualReaderImpl virtualReader) {
+        if (!readers.remove(virtualReader)) {
+            return;
+        }
+        logger.info("Detach VirtualReader {} with session {} for {} ms", virtualReader.getName(),
+                virtualReader.getSession().getSessionId(), sessionRetention);
+        // the SE presence is kept, the slave sends the current one when it reconnects
+        final DetachedReader detachedReader = new DetachedReader(virtualReader);
+        synchronized (detachedReaders) {
+            detachedReaders.put(virtualReader.getName(), detachedReader);
+            detachedReader.expiryTask = retentionScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    expireDetachedReader(detachedReader);
+                }
+            }, sessionRetention, TimeUnit.MILLISECONDS);
+        }
+        notifyObservers(new PluginEvent(getName(), virtualReader.getName(),
+                PluginEvent.EventType.READER_DISCONNECTED));
+    }
+
+    /**
+     * Forget the detached virtual reader of a native reader, if any
+     */
+    private void discardDetachedReader(String nativeReaderName, String slaveNodeId) {
+        synchronized (detachedReaders) {
+            DetachedReader detachedReader = findDetachedReader(nativeReaderName, slaveNodeId);
+            if (detachedReader != null) {
+                detachedReaders.remove(detachedReader.virtualReader.getName());
+                detachedReader.expiryTask.cancel(false);
+                clearObservers(detachedReader.virtualReader);
+            }
+        }
+    }
+
+    /**
+     * Find the detached virtual reader of a native reader, must be called while holding the lock
+     * of detachedReaders
+     */
+    private DetachedReader findDetachedReader(String nativeReaderName, String slaveNodeId) {
+        for (DetachedReader detachedReader : detachedReaders.values()) {
+            if (detachedReader.virtualReader.slaveNodeId.equals(slaveNodeId) && detachedReader
+                    .virtualReader.getNativeReaderName().equals(nativeReaderName)) {
+                return detachedReader;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forget a detached virtual reader at the end of its retention, unless it has been resumed or
+     * replaced meanwhile
+     */
+    private void expireDetachedReader(DetachedReader detachedReader) {
+        VirtualReaderImpl virtualReader = detachedReader.virtualReader;
+        synchronized (detachedReaders) {
+            if (detachedReaders.get(virtualReader.getName()) != detachedReader) {
+                return;
+            }
+            detachedReaders.remove(virtualReader.getName());
+        }
+        logger.info("Session {} of VirtualReader {} expired",
+                virtualReader.getSession().getSessionId(), virtualReader.getName());
+        clearObservers(virtualReader);
+    }
+
+    private static void clearObservers(VirtualReaderImpl virtualReader) {
+        if (virtualReader instanceof VirtualObservableReader) {
+            ((VirtualObservableReader) virtualReader).clearObservers();
+        }
+    }
+
+    /**
+     * @param slaveNodeId : slave node id
+     * @return a copy of the virtual readers of the slave node
+     */
+    private List<VirtualReaderImpl> getVirtualReaders(String slaveNodeId) {
+        List<VirtualReaderImpl> virtualReaders = new ArrayList<VirtualReaderImpl>();
+        for (SeReader reader : new ArrayList<SeReader>(readers)) {
+            if (slaveNodeId.equals(((VirtualReaderImpl) reader).slaveNodeId)) {
+                virtualReaders.add((VirtualReaderImpl) reader);
+            }
+        }
+        return virtualReaders;
+    }
+
     /**
      * Propagate a received event from slave device (internal method)
      *
@@ -167,6 +508,8 @@ class RemoteSePluginImpl extends AbstractObservablePlugin implements RemoteSePlu
     void onReaderEvent(ReaderEvent event) throws KeypleReaderNotFoundException {
         logger.debug("Dispatch ReaderEvent to the appropriate Reader : {}", event.getReaderName());
         VirtualReader virtualReader = (VirtualReader) getReader(event.getReaderName());
+        // update the SE presence before notifying the observers
+        ((VirtualReaderImpl) virtualReader).onSeEvent(event.getEventType());
         if (virtualReader instanceof VirtualObservableReader) {
             ((VirtualObservableReaderImpl) virtualReader).onRemoteReaderEvent(event);
         } else {
@@ -177,6 +520,21 @@ class RemoteSePluginImpl extends AbstractObservablePlugin implements RemoteSePlu
     }
 
 
+    /**
+     * Virtual reader of a lost slave node waiting to be resumed
+     */
+    private static final class DetachedReader {
+
+        private final VirtualReaderImpl virtualReader;
+
+        // forgets the reader at the end of the retention (guarded by detachedReaders)
+        private ScheduledFuture<?> expiryTask;
+
+        DetachedReader(VirtualReaderImpl virtualReader) {
+            this.virtualReader = virtualReader;
+        }
+    }
+
     /**
      * Init Native Readers to empty Set
      */
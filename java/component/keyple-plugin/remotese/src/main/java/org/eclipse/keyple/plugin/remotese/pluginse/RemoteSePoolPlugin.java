@@ -11,7 +11,12 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.pluginse;
 
+import java.util.Collection;
+import java.util.List;
 import org.eclipse.keyple.core.seproxy.ReaderPoolPlugin;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationNoReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationReaderException;
 
 /**
  * Using a RemoteSePoolPlugin is slightly different
@@ -25,4 +30,53 @@ public interface RemoteSePoolPlugin extends RemoteSePlugin, ReaderPoolPlugin {
      */
     void bind(String slaveNodeId);
 
+    /**
+     * Allocate a reader with a lease: the reader not released at the end of the lease is released
+     * to the pool of the slave, and its virtual reader is disconnected
+     *
+     * @param groupReference the reference of the group to which the reader belongs
+     * @param leaseDuration duration of the allocation in milliseconds, 0 for no limit
+     * @return the virtual reader of the allocated reader
+     * @throws KeypleAllocationReaderException if the allocation failed due to a technical error
+     * @throws KeypleAllocationNoReaderException if the allocation failed due to lack of available
+     *         reader
+     */
+    SeReader allocateReader(String groupReference, long leaseDuration)
+            throws KeypleAllocationReaderException, KeypleAllocationNoReaderException;
+
+    /**
+     * Allocate several readers in one exchange with the slave, all or none
+     *
+     * @param groupReferences the reference of the group of each reader, repeated to allocate
+     *        several readers of a group
+     * @return the virtual readers of the allocated readers, in the order of the group references
+     * @throws KeypleAllocationReaderException if an allocation failed due to a technical error
+     * @throws KeypleAllocationNoReaderException if an allocation failed due to lack of available
+     *         reader
+     */
+    List<SeReader> allocateReaders(List<String> groupReferences)
+            throws KeypleAllocationReaderException, KeypleAllocationNoReaderException;
+
+    /**
+     * Allocate several readers in one exchange with the slave, all or none, with a lease
+     *
+     * @param groupReferences the reference of the group of each reader, repeated to allocate
+     *        several readers of a group
+     * @param leaseDuration duration of the allocation in milliseconds, 0 for no limit
+     * @return the virtual readers of the allocated readers, in the order of the group references
+     * @throws KeypleAllocationReaderException if an allocation failed due to a technical error
+     * @throws KeypleAllocationNoReaderException if an allocation failed due to lack of available
+     *         reader
+     * @see #allocateReader(String, long)
+     */
+    List<SeReader> allocateReaders(List<String> groupReferences, long leaseDuration)
+            throws KeypleAllocationReaderException, KeypleAllocationNoReaderException;
+
+    /**
+     * Release several readers in one exchange with the slave
+     *
+     * @param seReaders the virtual readers to be released
+     */
+    void releaseReaders(Collection<SeReader> seReaders);
+
 }
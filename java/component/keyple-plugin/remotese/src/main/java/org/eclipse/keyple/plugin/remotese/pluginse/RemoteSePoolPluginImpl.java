@@ -11,12 +11,20 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.pluginse;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutorService;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationNoReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
 import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException;
+import org.eclipse.keyple.plugin.remotese.rm.LeaseScheduler;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxPoolEngine;
 import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
 import org.slf4j.Logger;
@@ -36,6 +44,15 @@ class RemoteSePoolPluginImpl extends RemoteSePluginImpl implements RemoteSePoolP
     String slaveNodeId;
     RemoteMethodTxPoolEngine rmTxEngine;
 
+    // leases of the allocated readers, by virtual reader name
+    private final LeaseScheduler<VirtualReaderImpl> leases =
+            new LeaseScheduler<VirtualReaderImpl>("keyple-remote-pool-lease") {
+                @Override
+                protected void onExpired(VirtualReaderImpl virtualReader) {
+                    expire(virtualReader);
+                }
+            };
+
     /**
      * Only {@link MasterAPI} can instantiate a RemoteSePlugin
      */
@@ -45,18 +62,36 @@ class RemoteSePoolPluginImpl extends RemoteSePluginImpl implements RemoteSePoolP
 
         // allocate a rmTxPoolEngine
         rmTxEngine = new RemoteMethodTxPoolEngine(sender, rpcTimeout, executorService);
+        rmTxEngine.setLimiters(getCallLimiter());
     }
 
     public void bind(String slaveNodeId) {
         this.slaveNodeId = slaveNodeId;
+        rmTxEngine.setLimiters(getCallLimiter(), getCallLimiter(slaveNodeId));
     }
 
+    /**
+     * Get the group references of the pool of the slave node
+     *
+     * @return the group references, empty if the slave could not be reached
+     */
     @Override
     public SortedSet<String> getReaderGroupReferences() {
-        /*
-         * Not implemented
-         */
-        return null;
+        if (slaveNodeId == null) {
+            throw new IllegalStateException(
+                    "RemoteSePluginPool is not bind to any Slave Node, invoke RemoteSePluginPool#bind()");
+        }
+
+        RmPoolGroupReferencesTx groupReferences =
+                new RmPoolGroupReferencesTx(slaveNodeId, dtoSender.getNodeId());
+        try {
+            // blocking call
+            return groupReferences.execute(rmTxEngine);
+        } catch (KeypleRemoteException e) {
+            logger.error("Impossible to get the group references of slave node {} : {}",
+                    slaveNodeId, e.getMessage());
+            return new TreeSet<String>();
+        }
     }
 
     @Override
@@ -75,16 +110,56 @@ class RemoteSePoolPluginImpl extends RemoteSePluginImpl implements RemoteSePoolP
             // blocking call
             return allocate.execute(rmTxEngine);
         } catch (KeypleRemoteException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof KeypleAllocationReaderException) {
-                throw (KeypleAllocationReaderException) cause;
-            } else if (cause instanceof KeypleAllocationNoReaderException) {
-                throw (KeypleAllocationNoReaderException) cause;
-            } else {
-                throw new KeypleAllocationReaderException(
-                        "Unexpected error while remotely allocating a reader", cause);
+            throw toAllocationException(e);
+        }
+    }
+
+    @Override
+    public SeReader allocateReader(String groupReference, long leaseDuration)
+            throws KeypleAllocationReaderException, KeypleAllocationNoReaderException {
+        if (leaseDuration <= 0) {
+            return allocateReader(groupReference);
+        }
+        return allocateReaders(Collections.singletonList(groupReference), leaseDuration).get(0);
+    }
+
+    @Override
+    public List<SeReader> allocateReaders(List<String> groupReferences)
+            throws KeypleAllocationReaderException, KeypleAllocationNoReaderException {
+        return allocateReaders(groupReferences, 0);
+    }
+
+    @Override
+    public List<SeReader> allocateReaders(List<String> groupReferences, long leaseDuration)
+            throws KeypleAllocationReaderException, KeypleAllocationNoReaderException {
+
+        if (slaveNodeId == null) {
+            throw new IllegalStateException(
+                    "RemoteSePluginPool is not bind to any Slave Node, invoke RemoteSePluginPool#bind()");
+        }
+
+        // the lease starts before the slave starts its own
+        long start = System.currentTimeMillis();
+
+        // call remote method for allocateReaders
+        RmPoolAllocateReadersTx allocate = new RmPoolAllocateReadersTx(groupReferences,
+                leaseDuration, this, this.dtoSender, slaveNodeId, dtoSender.getNodeId());
+        List<SeReader> seReaders;
+        try {
+            // blocking call
+            seReaders = allocate.execute(rmTxEngine);
+        } catch (KeypleRemoteException e) {
+            releaseOrphanReaders(allocate.getOrphanReaderNames());
+            throw toAllocationException(e);
+        }
+
+        if (leaseDuration > 0) {
+            long delay = Math.max(0, start + leaseDuration - System.currentTimeMillis());
+            for (SeReader seReader : seReaders) {
+                leases.start(seReader.getName(), (VirtualReaderImpl) seReader, delay);
             }
         }
+        return seReaders;
     }
 
     @Override
@@ -111,12 +186,121 @@ class RemoteSePoolPluginImpl extends RemoteSePluginImpl implements RemoteSePoolP
         try {
             // blocking call
             releaseTx.execute(rmTxEngine);
+            leases.end(virtualReader.getName());
         } catch (KeypleRemoteException e) {
             logger.error("Impossible to release reader {} {}", virtualReader.getName(),
                     virtualReader.getNativeReaderName());
         }
     }
 
+    @Override
+    public void releaseReaders(Collection<SeReader> seReaders) {
+        if (slaveNodeId == null) {
+            throw new IllegalStateException(
+                    "RemoteSePluginPool is not bind to any Slave Node, invoke RemoteSePluginPool#bind() first");
+        }
+
+        List<String> nativeReaderNames = new ArrayList<String>(seReaders.size());
+        for (SeReader seReader : seReaders) {
+            if (!(seReader instanceof VirtualReaderImpl)) {
+                throw new IllegalStateException(
+                        "RemoteSePluginPool can release only VirtualReader, seReader is type of "
+                                + seReader.getClass().getSimpleName());
+            }
+            nativeReaderNames.add(((VirtualReaderImpl) seReader).getNativeReaderName());
+        }
+
+        // call remote method for releaseReaders
+        RmPoolReleaseReadersTx releaseTx = new RmPoolReleaseReadersTx(nativeReaderNames, this,
+                slaveNodeId, dtoSender.getNodeId());
+        try {
+            // blocking call
+            int released = releaseTx.execute(rmTxEngine);
+            if (released < seReaders.size()) {
+                logger.warn("{} readers released out of {}", released, seReaders.size());
+            }
+            for (SeReader seReader : seReaders) {
+                leases.end(seReader.getName());
+            }
+        } catch (KeypleRemoteException e) {
+            logger.error("Impossible to release readers {}", nativeReaderNames);
+        }
+    }
+
+    /**
+     * Release the readers allocated by the slave whose virtual readers could not be created
+     */
+    private void releaseOrphanReaders(List<String> nativeReaderNames) {
+        if (nativeReaderNames.isEmpty()) {
+            return;
+        }
+        RmPoolReleaseReadersTx releaseTx = new RmPoolReleaseReadersTx(nativeReaderNames, this,
+                slaveNodeId, dtoSender.getNodeId());
+        try {
+            // blocking call
+            releaseTx.execute(rmTxEngine);
+        } catch (KeypleRemoteException e) {
+            logger.error("Impossible to release readers {}", nativeReaderNames);
+        }
+    }
+
+    /**
+     * Disconnect the virtual reader whose lease expired, the slave releases its reader to the
+     * pool
+     */
+    private void expire(VirtualReaderImpl virtualReader) {
+        logger.info("Lease of reader {} expired, disconnect it", virtualReader.getName());
+        try {
+            removeVirtualReader(virtualReader.getNativeReaderName(),
+                    virtualReader.getSession().getSlaveNodeId());
+        } catch (KeypleReaderNotFoundException e) {
+            // already disconnected
+        }
+    }
+
+    /**
+     * Convert the failure of a remote allocation into the exception of the pool plugin
+     */
+    private static KeypleAllocationReaderException toAllocationException(KeypleRemoteException e)
+            throws KeypleAllocationNoReaderException {
+        Throwable cause = e.getCause();
+        if (cause instanceof KeypleAllocationReaderException) {
+            return (KeypleAllocationReaderException) cause;
+        } else if (cause instanceof KeypleAllocationNoReaderException) {
+            throw (KeypleAllocationNoReaderException) cause;
+        } else if (e instanceof KeypleRemoteOverloadException) {
+            return new KeypleAllocationReaderException(e.getMessage(), e);
+        } else {
+            return new KeypleAllocationReaderException(
+                    "Unexpected error while remotely allocating a reader", cause);
+        }
+    }
+
+    @Override
+    void onSlaveUnreachable(String slaveNodeId) {
+        super.onSlaveUnreachable(slaveNodeId);
+        if (slaveNodeId.equals(this.slaveNodeId)) {
+            rmTxEngine.setUnreachable("Slave node " + slaveNodeId + " is unreachable");
+        }
+    }
+
+    @Override
+    void onSlaveReconnected(String slaveNodeId) {
+        super.onSlaveReconnected(slaveNodeId);
+        if (slaveNodeId.equals(this.slaveNodeId)) {
+            rmTxEngine.setUnreachable(null);
+        }
+    }
+
+    @Override
+    void onSlaveLost(String slaveNodeId) {
+        super.onSlaveLost(slaveNodeId);
+        if (slaveNodeId.equals(this.slaveNodeId)) {
+            /* the pool may be reached again through a new connection */
+            rmTxEngine.setUnreachable(null);
+        }
+    }
+
     RemoteMethodTxPoolEngine getRmTxEngine() {
         return rmTxEngine;
     }
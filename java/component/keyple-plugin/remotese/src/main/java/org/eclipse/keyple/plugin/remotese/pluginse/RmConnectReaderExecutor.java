@@ -63,13 +63,27 @@ class RmConnectReaderExecutor implements IRemoteMethodExecutor {
                 JsonParser.getGson().fromJson(body.get("options").getAsString(), Map.class);
 
 
+        // SE presence on the native reader, absent if unknown
+        Boolean isSePresent = null;
+        if (body.has("isSePresent")) {
+            isSePresent = body.get("isSePresent").getAsBoolean();
+        }
+
         VirtualReaderImpl virtualReader = null;
         try {
-            // create a virtual Reader
-            virtualReader = (VirtualReaderImpl) this.plugin.createVirtualReader(slaveNodeId,
-                    nativeReaderName, this.dtoSender, TransmissionMode.valueOf(transmissionMode),
-                    isObservable, options);
-
+            // resume the session presented by the slave, if any
+            if (keypleDto.getSessionId() != null) {
+                virtualReader = this.plugin.resumeVirtualReader(slaveNodeId, nativeReaderName,
+                        keypleDto.getSessionId(), isSePresent);
+            }
+
+            if (virtualReader == null) {
+                // create a virtual Reader
+                virtualReader = (VirtualReaderImpl) this.plugin.createVirtualReader(slaveNodeId,
+                        nativeReaderName, this.dtoSender,
+                        TransmissionMode.valueOf(transmissionMode), isObservable, options,
+                        isSePresent);
+            }
 
             // create response
             JsonObject respBody = new JsonObject();
@@ -49,7 +49,7 @@ class RmDisconnectReaderExecutor implements IRemoteMethodExecutor {
         String nativeReaderName = keypleDto.getNativeReaderName();
 
         try {
-            plugin.removeVirtualReader(nativeReaderName,
+            plugin.onReaderDisconnected(nativeReaderName,
                     transportDto.getKeypleDTO().getRequesterNodeId());
             JsonObject body = new JsonObject();
             body.addProperty("status", true);
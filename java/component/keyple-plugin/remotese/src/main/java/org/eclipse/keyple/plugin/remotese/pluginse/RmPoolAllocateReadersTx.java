@@ -0,0 +1,147 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.pluginse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationNoReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.rm.AbstractRemoteMethodTx;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Handle the allocation of several readers of the Reader Pool Plugin of a slave in one exchange
+ */
+public class RmPoolAllocateReadersTx extends AbstractRemoteMethodTx<List<SeReader>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RmPoolAllocateReadersTx.class);
+
+    List<String> groupReferences;
+    long leaseDuration;
+    RemoteSePoolPluginImpl virtualPoolPlugin;
+    DtoSender dtoSender;
+
+    // readers allocated by the slave whose virtual readers could not be created
+    private final List<String> orphanReaderNames = new ArrayList<String>();
+
+    public RmPoolAllocateReadersTx(List<String> groupReferences, long leaseDuration,
+            RemoteSePoolPluginImpl virtualPoolPlugin, DtoSender dtoSender, String slaveNodeId,
+            String requesterNodeId) {
+        super(null, null, null, slaveNodeId, requesterNodeId);
+        this.groupReferences = groupReferences;
+        this.leaseDuration = leaseDuration;
+        this.dtoSender = dtoSender;
+        this.virtualPoolPlugin = virtualPoolPlugin;
+    }
+
+    @Override
+    public RemoteMethodName getMethodName() {
+        return RemoteMethodName.POOL_ALLOCATE_READERS;
+    }
+
+    @Override
+    protected KeypleDto dto() {
+        JsonArray groupReferencesJson = new JsonArray();
+        for (String groupReference : groupReferences) {
+            groupReferencesJson.add(groupReference);
+        }
+        JsonObject body = new JsonObject();
+        body.add("groupReferences", groupReferencesJson);
+        body.addProperty("leaseDuration", leaseDuration);
+
+        return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(), null, null,
+                null, requesterNodeId, targetNodeId, getId());
+    }
+
+    @Override
+    protected List<SeReader> parseResponse(KeypleDto keypleDto) throws KeypleRemoteException {
+        logger.trace("KeypleDto : {}", keypleDto);
+        if (KeypleDtoHelper.containsException(keypleDto)) {
+            logger.trace("KeypleDto contains an exception: {}", keypleDto);
+            KeypleReaderException ex = JsonParser.getGson().fromJson(keypleDto.getError(),
+                    KeypleReaderException.class);
+            throw new KeypleRemoteException(
+                    "An exception occurs while calling the remote method allocateReaders", ex);
+        } else {
+            logger.trace("KeypleDto contains a response: {}", keypleDto);
+
+            JsonObject body = JsonParser.getGson().fromJson(keypleDto.getBody(), JsonObject.class);
+            if (body.has("noReader")) {
+                String message = body.get("noReader").getAsString();
+                throw new KeypleRemoteException(message,
+                        new KeypleAllocationNoReaderException(message));
+            }
+            String slaveNodeId = keypleDto.getRequesterNodeId();
+
+            // create the Virtual Readers related to the Reader Allocations
+            List<SeReader> virtualReaders = new ArrayList<SeReader>();
+            try {
+                for (JsonElement reader : body.getAsJsonArray("readers")) {
+                    JsonObject readerJson = reader.getAsJsonObject();
+
+                    // options are not supported in this mode
+                    Map<String, String> options = new HashMap<String, String>();
+
+                    virtualReaders.add(this.virtualPoolPlugin.createVirtualReader(slaveNodeId,
+                            readerJson.get("nativeReaderName").getAsString(), this.dtoSender,
+                            TransmissionMode
+                                    .valueOf(readerJson.get("transmissionMode").getAsString()),
+                            false, options, null));
+                }
+                return virtualReaders;
+
+            } catch (KeypleReaderException e) {
+                // all or none: the slave is to release every allocated reader
+                for (JsonElement reader : body.getAsJsonArray("readers")) {
+                    orphanReaderNames.add(
+                            reader.getAsJsonObject().get("nativeReaderName").getAsString());
+                }
+                removeVirtualReaders(virtualReaders, slaveNodeId);
+                throw new KeypleRemoteException(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the native readers allocated by the slave whose virtual readers could not be
+     *         created, to be released
+     */
+    List<String> getOrphanReaderNames() {
+        return orphanReaderNames;
+    }
+
+    private void removeVirtualReaders(List<SeReader> virtualReaders, String slaveNodeId) {
+        for (SeReader virtualReader : virtualReaders) {
+            try {
+                this.virtualPoolPlugin.removeVirtualReader(
+                        ((VirtualReaderImpl) virtualReader).getNativeReaderName(), slaveNodeId);
+            } catch (KeypleReaderNotFoundException e) {
+                logger.debug("Virtual reader {} already removed", virtualReader.getName());
+            }
+        }
+    }
+}
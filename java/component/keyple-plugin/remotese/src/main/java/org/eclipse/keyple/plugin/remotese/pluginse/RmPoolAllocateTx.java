@@ -55,7 +55,7 @@ public class RmPoolAllocateTx extends AbstractRemoteMethodTx<SeReader> {
         body.addProperty("groupReference", groupReference);
 
         return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(), null, null,
-                null, requesterNodeId, targetNodeId, id);
+                null, requesterNodeId, targetNodeId, getId());
     }
 
 
@@ -84,7 +84,8 @@ public class RmPoolAllocateTx extends AbstractRemoteMethodTx<SeReader> {
                 VirtualReaderImpl virtualReader =
                         (VirtualReaderImpl) this.virtualPoolPlugin.createVirtualReader(slaveNodeId,
                                 nativeReaderName, this.dtoSender,
-                                TransmissionMode.valueOf(transmissionMode), false, options);
+                                TransmissionMode.valueOf(transmissionMode), false, options,
+                                null);
 
                 return virtualReader;
 
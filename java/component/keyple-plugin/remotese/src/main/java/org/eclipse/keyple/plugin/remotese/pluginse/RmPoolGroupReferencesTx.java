@@ -0,0 +1,69 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.pluginse;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.rm.AbstractRemoteMethodTx;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Handle the listing of the group references of the Reader Pool Plugin of a slave
+ */
+public class RmPoolGroupReferencesTx extends AbstractRemoteMethodTx<SortedSet<String>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RmPoolGroupReferencesTx.class);
+
+    public RmPoolGroupReferencesTx(String slaveNodeId, String requesterNodeId) {
+        super(null, null, null, slaveNodeId, requesterNodeId);
+    }
+
+    @Override
+    public RemoteMethodName getMethodName() {
+        return RemoteMethodName.POOL_GROUP_REFERENCES;
+    }
+
+    @Override
+    protected KeypleDto dto() {
+        return KeypleDtoHelper.buildRequest(getMethodName().getName(), "{}", null, null, null,
+                requesterNodeId, targetNodeId, getId());
+    }
+
+    @Override
+    protected SortedSet<String> parseResponse(KeypleDto keypleDto) throws KeypleRemoteException {
+        logger.trace("KeypleDto : {}", keypleDto);
+        if (KeypleDtoHelper.containsException(keypleDto)) {
+            logger.trace("KeypleDto contains an exception: {}", keypleDto);
+            KeypleReaderException ex = JsonParser.getGson().fromJson(keypleDto.getError(),
+                    KeypleReaderException.class);
+            throw new KeypleRemoteException(
+                    "An exception occurs while calling the remote method getReaderGroupReferences",
+                    ex);
+        } else {
+            JsonObject body = JsonParser.getGson().fromJson(keypleDto.getBody(), JsonObject.class);
+            SortedSet<String> groupReferences = new TreeSet<String>();
+            for (JsonElement groupReference : body.getAsJsonArray("groupReferences")) {
+                groupReferences.add(groupReference.getAsString());
+            }
+            return groupReferences;
+        }
+    }
+}
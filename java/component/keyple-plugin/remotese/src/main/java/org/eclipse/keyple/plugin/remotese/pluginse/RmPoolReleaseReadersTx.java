@@ -0,0 +1,97 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.pluginse;
+
+import java.util.List;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.rm.AbstractRemoteMethodTx;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Handle the release of several readers to the Reader Pool Plugin of a slave in one exchange
+ */
+public class RmPoolReleaseReadersTx extends AbstractRemoteMethodTx<Integer> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RmPoolReleaseReadersTx.class);
+
+    List<String> nativeReaderNames;
+    RemoteSePoolPluginImpl virtualPoolPlugin;
+
+    public RmPoolReleaseReadersTx(List<String> nativeReaderNames,
+            RemoteSePoolPluginImpl virtualPoolPlugin, String slaveNodeId,
+            String requesterNodeId) {
+        super(null, null, null, slaveNodeId, requesterNodeId);
+        this.nativeReaderNames = nativeReaderNames;
+        this.virtualPoolPlugin = virtualPoolPlugin;
+    }
+
+    @Override
+    public RemoteMethodName getMethodName() {
+        return RemoteMethodName.POOL_RELEASE_READERS;
+    }
+
+    @Override
+    protected KeypleDto dto() {
+        JsonArray nativeReaderNamesJson = new JsonArray();
+        for (String nativeReaderName : nativeReaderNames) {
+            nativeReaderNamesJson.add(nativeReaderName);
+        }
+        JsonObject body = new JsonObject();
+        body.add("nativeReaderNames", nativeReaderNamesJson);
+
+        return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(), null, null,
+                null, requesterNodeId, targetNodeId, getId());
+    }
+
+    /**
+     * @return the number of readers released
+     */
+    @Override
+    protected Integer parseResponse(KeypleDto keypleDto) throws KeypleRemoteException {
+        logger.trace("KeypleDto : {}", keypleDto);
+        if (KeypleDtoHelper.containsException(keypleDto)) {
+            logger.trace("KeypleDto contains an exception: {}", keypleDto);
+            KeypleReaderException ex = JsonParser.getGson().fromJson(keypleDto.getError(),
+                    KeypleReaderException.class);
+            throw new KeypleRemoteException(
+                    "An exception occurs while calling the remote method releaseReaders", ex);
+        } else {
+            logger.trace("KeypleDto contains a response: {}", keypleDto);
+
+            JsonObject body = JsonParser.getGson().fromJson(keypleDto.getBody(), JsonObject.class);
+            JsonArray released = body.getAsJsonArray("nativeReaderNames");
+
+            // remove the Virtual Readers of the released readers
+            for (JsonElement nativeReaderName : released) {
+                try {
+                    this.virtualPoolPlugin.removeVirtualReader(nativeReaderName.getAsString(),
+                            keypleDto.getRequesterNodeId());
+                } catch (KeypleReaderNotFoundException e) {
+                    // lease expired meanwhile
+                    logger.debug("Virtual reader of {} already removed",
+                            nativeReaderName.getAsString());
+                }
+            }
+            return released.size();
+        }
+    }
+}
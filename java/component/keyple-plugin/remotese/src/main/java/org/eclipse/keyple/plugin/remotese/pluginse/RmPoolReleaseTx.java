@@ -49,7 +49,7 @@ public class RmPoolReleaseTx extends AbstractRemoteMethodTx<Boolean> {
         body.addProperty("nativeReaderName", nativeReaderName);
 
         return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(), sessionId,
-                nativeReaderName, virtualReaderName, requesterNodeId, targetNodeId, id);
+                nativeReaderName, virtualReaderName, requesterNodeId, targetNodeId, getId());
     }
 
 
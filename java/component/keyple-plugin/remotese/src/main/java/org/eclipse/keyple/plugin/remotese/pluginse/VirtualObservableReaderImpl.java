@@ -13,6 +13,7 @@ package org.eclipse.keyple.plugin.remotese.pluginse;
 
 import static org.eclipse.keyple.core.seproxy.ChannelControl.CLOSE_AFTER;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import org.eclipse.keyple.core.seproxy.event.AbstractDefaultSelectionsRequest;
 import org.eclipse.keyple.core.seproxy.event.ObservableReader;
 import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
@@ -101,6 +102,14 @@ final class VirtualObservableReaderImpl extends VirtualReaderImpl
         }
     }
 
+    /**
+     * The native reader is observed by the slave, the SE presence is kept up to date by its events
+     */
+    @Override
+    final boolean forwardsSeEvents() {
+        return true;
+    }
+
     @Override
     public final int countObservers() {
         return observers == null ? 0 : observers.size();
@@ -158,12 +167,19 @@ final class VirtualObservableReaderImpl extends VirtualReaderImpl
             final VirtualObservableReaderImpl thisReader = this;
             // launch event another thread to permit blocking method to be used in update
             // method (such as transmit)
-            rmTxEngine.getExecutorService().execute(new Runnable() {
-                @Override
-                public void run() {
-                    thisReader.notifyObservers(event);
-                }
-            });
+            try {
+                rmTxEngine.getExecutorService().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        thisReader.notifyObservers(event);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // an event is never dropped: notify it from the thread receiving it
+                logger.warn("{} no thread available to notify the event {}, notified inline",
+                        this.getName(), event.getEventType());
+                notifyObservers(event);
+            }
         } else {
             logger.debug(
                     "An event was received but no observers are declared into VirtualReader : {} {}",
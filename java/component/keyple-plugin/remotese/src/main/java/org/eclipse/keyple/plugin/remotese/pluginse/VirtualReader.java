@@ -12,6 +12,7 @@
 package org.eclipse.keyple.plugin.remotese.pluginse;
 
 import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 
 /**
  * Define a Virtual Reader (non observable)
@@ -30,4 +31,14 @@ public interface VirtualReader extends SeReader {
      * @return virtual reader session
      */
     public VirtualReaderSession getSession();
+
+    /**
+     * Ask the native reader whether an SE is present and update the SE presence returned by
+     * {@link #isSePresent()}. When the native reader forwards its events, this SE presence is
+     * otherwise maintained from the reader events of the slave without any remote call
+     *
+     * @return true if an SE is present in the native reader
+     * @throws KeypleReaderException if the slave can not be reached or the native reader fails
+     */
+    boolean refreshSePresence() throws KeypleReaderException;
 }
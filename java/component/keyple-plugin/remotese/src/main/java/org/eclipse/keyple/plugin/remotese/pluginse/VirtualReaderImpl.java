@@ -17,6 +17,8 @@ import java.util.Map;
 import java.util.Set;
 import org.eclipse.keyple.core.seproxy.ChannelControl;
 import org.eclipse.keyple.core.seproxy.MultiSeRequestProcessing;
+import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.SeRequest;
 import org.eclipse.keyple.core.seproxy.message.SeResponse;
@@ -24,6 +26,8 @@ import org.eclipse.keyple.core.seproxy.plugin.AbstractReader;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException;
+import org.eclipse.keyple.plugin.remotese.pluginse.method.RmIsSePresentTx;
 import org.eclipse.keyple.plugin.remotese.pluginse.method.RmTransmitSetTx;
 import org.eclipse.keyple.plugin.remotese.pluginse.method.RmTransmitTx;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxEngine;
@@ -46,6 +50,12 @@ class VirtualReaderImpl extends AbstractReader implements VirtualReader {
 
     private Map<String, String> parameters = new HashMap<String, String>();
 
+    // SE presence on the native reader, null while unknown
+    private Boolean sePresent;
+
+    // number of SE presence updates, to detect an update made during a refresh
+    private long sePresenceUpdates;
+
     /**
      * Create a new Virtual Reader (only called by @{@link RemoteSePluginImpl})
      * 
@@ -68,7 +78,7 @@ class VirtualReaderImpl extends AbstractReader implements VirtualReader {
     }
 
     /**
-     * @return the current transmission mode
+     * @return the transmission mode of the native reader, sent by the slave at connection
      */
     public TransmissionMode getTransmissionMode() {
         return transmissionMode;
@@ -88,11 +98,99 @@ class VirtualReaderImpl extends AbstractReader implements VirtualReader {
     }
 
 
+    /**
+     * Returns the SE presence known by the master, without remote call, when the native reader
+     * forwards its events: it is sent by the slave when the reader connects, then kept up to date
+     * with the SE_INSERTED, SE_MATCHED and SE_REMOVED events. Otherwise the native reader is asked
+     * (see {@link #refreshSePresence()}).
+     *
+     * @return true if an SE is present, false if not or if the SE presence is unknown
+     * @throws KeypleIOReaderException if the native reader can't be asked
+     */
     @Override
-    public boolean isSePresent() {
-        logger.warn("{} isSePresent is not implemented in VirtualReader, returns false",
-                this.getName());
-        return false;// not implemented
+    public boolean isSePresent() throws KeypleIOReaderException {
+        if (!forwardsSeEvents()) {
+            try {
+                return refreshSePresence();
+            } catch (KeypleIOReaderException e) {
+                throw e;
+            } catch (KeypleReaderException e) {
+                throw new KeypleIOReaderException(e.getMessage(), e);
+            }
+        }
+        Boolean present;
+        synchronized (this) {
+            present = sePresent;
+        }
+        if (present == null) {
+            logger.debug("{} SE presence is unknown, returns false", this.getName());
+            return false;
+        }
+        return present;
+    }
+
+    /**
+     * @return true if the native reader forwards its events, false by default
+     */
+    boolean forwardsSeEvents() {
+        return false;
+    }
+
+    @Override
+    public boolean refreshSePresence() throws KeypleReaderException {
+        long updates;
+        synchronized (this) {
+            updates = sePresenceUpdates;
+        }
+        RmIsSePresentTx isSePresent = new RmIsSePresentTx(session.getSessionId(),
+                this.getNativeReaderName(), this.getName(), session.getMasterNodeId(),
+                session.getSlaveNodeId());
+        boolean present;
+        try {
+            // blocking call
+            present = isSePresent.execute(rmTxEngine);
+        } catch (KeypleRemoteException e) {
+            logger.error(
+                    "{} - refreshSePresence encounters an exception while communicating with slave. sessionId:{} error:{}",
+                    this.getName(), this.getSession().getSessionId(), e.getMessage());
+            throw toKeypleReaderException(e);
+        }
+        synchronized (this) {
+            // an event received meanwhile is more recent than the answer
+            if (updates == sePresenceUpdates) {
+                setSePresent(present);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * Set the SE presence on the native reader
+     *
+     * @param present : SE presence, null if unknown
+     */
+    synchronized void setSePresent(Boolean present) {
+        sePresent = present;
+        sePresenceUpdates++;
+    }
+
+    /**
+     * Update the SE presence from an event of the native reader
+     *
+     * @param eventType : type of the event
+     */
+    void onSeEvent(ReaderEvent.EventType eventType) {
+        switch (eventType) {
+            case SE_INSERTED:
+            case SE_MATCHED:
+                setSePresent(true);
+                break;
+            case SE_REMOVED:
+                setSePresent(false);
+                break;
+            default:
+                break;
+        }
     }
 
     /**
@@ -182,6 +280,10 @@ class VirtualReaderImpl extends AbstractReader implements VirtualReader {
 
 
     private KeypleReaderException toKeypleReaderException(KeypleRemoteException e) {
+        if (e instanceof KeypleRemoteOverloadException) {
+            // keep the overload visible to the application, the call can be retried
+            return new KeypleReaderException(e.getMessage(), e);
+        }
         if (e.getCause() != null) {
             if (e.getCause() instanceof KeypleReaderException) {
                 // KeypleReaderException is inside the KeypleRemoteException
@@ -11,12 +11,15 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.pluginse;
 
+import org.eclipse.keyple.plugin.remotese.rm.IdGenerator;
+
 /**
  * Create Virtual Reader Sessions
  */
 class VirtualReaderSessionFactory {
 
-
+    // identifiers of the sessions, unique within the master node
+    private static final IdGenerator ids = new IdGenerator("s");
 
     /**
      * Create a new session (internal method used by VirtualReader)
@@ -27,8 +30,7 @@ class VirtualReaderSessionFactory {
      */
     public VirtualReaderSession createSession(String nativeReaderName, String slaveNodeId,
             String masterNodeId) {
-        return new VirtualReaderSessionImpl(generateSessionId(nativeReaderName, slaveNodeId),
-                slaveNodeId, masterNodeId);
+        return new VirtualReaderSessionImpl(generateSessionId(), slaveNodeId, masterNodeId);
     }
 
 
@@ -37,14 +39,13 @@ class VirtualReaderSessionFactory {
      */
 
     /**
-     * Generate a unique sessionId for a new connecting localreader
+     * Generate a unique sessionId for a new connecting localreader, even when several readers
+     * connect in the same millisecond
      * 
-     * @param nativeReaderName : Local Reader Name
-     * @param nodeId : Node Id from which the local reader name connect to
      * @return unique sessionId
      */
-    private String generateSessionId(String nativeReaderName, String nodeId) {
-        return nativeReaderName + nodeId + String.valueOf(System.currentTimeMillis());
+    private String generateSessionId() {
+        return ids.nextString();
     }
 
 
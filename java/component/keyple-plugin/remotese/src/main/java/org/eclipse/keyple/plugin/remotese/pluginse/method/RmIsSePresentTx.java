@@ -0,0 +1,62 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.pluginse.method;
+
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.rm.AbstractRemoteMethodTx;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodName;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.gson.JsonObject;
+
+/**
+ * Handle the isSePresent keypleDTO serialization and deserialization
+ */
+public class RmIsSePresentTx extends AbstractRemoteMethodTx<Boolean> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RmIsSePresentTx.class);
+
+    @Override
+    public RemoteMethodName getMethodName() {
+        return RemoteMethodName.READER_IS_SE_PRESENT;
+    }
+
+    public RmIsSePresentTx(String sessionId, String nativeReaderName, String virtualReaderName,
+            String requesterNodeId, String slaveNodeId) {
+        super(sessionId, nativeReaderName, virtualReaderName, slaveNodeId, requesterNodeId);
+    }
+
+    @Override
+    public KeypleDto dto() {
+        return KeypleDtoHelper.buildRequest(getMethodName().getName(), "{}", this.sessionId,
+                this.nativeReaderName, this.virtualReaderName, requesterNodeId, targetNodeId,
+                getId());
+    }
+
+    @Override
+    public Boolean parseResponse(KeypleDto keypleDto) throws KeypleRemoteException {
+        if (KeypleDtoHelper.containsException(keypleDto)) {
+            logger.trace("KeypleDto contains an exception: {}", keypleDto);
+            KeypleReaderException ex = JsonParser.getGson().fromJson(keypleDto.getError(),
+                    KeypleReaderException.class);
+            throw new KeypleRemoteException(
+                    "An exception occurs while calling the remote method isSePresent", ex);
+        } else {
+            JsonObject body = JsonParser.getGson().fromJson(keypleDto.getBody(), JsonObject.class);
+            return body.get("isSePresent").getAsBoolean();
+        }
+    }
+}
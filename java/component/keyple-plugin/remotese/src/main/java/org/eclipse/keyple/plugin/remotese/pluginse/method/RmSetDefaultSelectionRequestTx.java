@@ -23,7 +23,7 @@ import com.google.gson.JsonObject;
 /**
  * Handle the DefaultSelectionRequest keypleDTO serialization and deserialization
  */
-public class RmSetDefaultSelectionRequestTx extends AbstractRemoteMethodTx {
+public class RmSetDefaultSelectionRequestTx extends AbstractRemoteMethodTx<Object> {
 
     private final AbstractDefaultSelectionsRequest defaultSelectionsRequest;
     private final ObservableReader.NotificationMode notificationMode;
@@ -83,7 +83,7 @@ public class RmSetDefaultSelectionRequestTx extends AbstractRemoteMethodTx {
 
         return KeypleDtoHelper.buildRequest(getMethodName().getName(),
                 JsonParser.getGson().toJson(body, JsonObject.class), sessionId, nativeReaderName,
-                virtualReaderName, requesterNodeId, targetNodeId, id);
+                virtualReaderName, requesterNodeId, targetNodeId, getId());
 
     }
 }
@@ -72,7 +72,7 @@ public class RmTransmitSetTx extends AbstractRemoteMethodTx<List<SeResponse>> {
 
         return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(),
                 this.sessionId, this.nativeReaderName, this.virtualReaderName, requesterNodeId,
-                targetNodeId, id);
+                targetNodeId, getId());
     }
 
 
@@ -59,7 +59,7 @@ public class RmTransmitTx extends AbstractRemoteMethodTx<SeResponse> {
 
         return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(),
                 this.sessionId, this.nativeReaderName, this.virtualReaderName, requesterNodeId,
-                targetNodeId, id);
+                targetNodeId, getId());
     }
 
 
@@ -11,11 +11,13 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.rm;
 
-import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException;
 import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.slf4j.Logger;
@@ -35,17 +37,22 @@ public abstract class AbstractRemoteMethodTx<T> {
     protected final String virtualReaderName;
     protected final String targetNodeId;
     protected final String requesterNodeId;
-    protected final String id;
+
+    // identifiers of the transactions, unique within the node
+    private static final IdGenerator ids = new IdGenerator("t");
+
+    // identifier correlating the response with this transaction
+    protected final long txId;
     protected Boolean isRegistered;
 
     // response
     private T response;
 
     // exception thrown if any
-    private KeypleRemoteException remoteException;
+    private volatile KeypleRemoteException remoteException;
 
     // blocking mechanism
-    private CountDownLatch lock;
+    private final CountDownLatch lock = new CountDownLatch(1);
     private IRemoteMethodTxCallback<T> callback;
     private long timeout;
 
@@ -53,6 +60,10 @@ public abstract class AbstractRemoteMethodTx<T> {
 
     private ExecutorService executorService;
 
+    // limiters whose permit is held by this transaction, null once released
+    private final AtomicReference<RemoteMethodTxLimiter[]> permits =
+            new AtomicReference<RemoteMethodTxLimiter[]>();
+
     protected AbstractRemoteMethodTx(String sessionId, String nativeReaderName,
             String virtualReaderName, String targetNodeId, String requesterNodeId) {
         this.sessionId = sessionId;
@@ -61,8 +72,8 @@ public abstract class AbstractRemoteMethodTx<T> {
         this.targetNodeId = targetNodeId;
         this.requesterNodeId = requesterNodeId;
 
-        // generate id
-        this.id = UUID.randomUUID().toString();
+        // generate id, its string form is only built for the keypleDto
+        this.txId = ids.next();
 
     }
 
@@ -129,18 +140,24 @@ public abstract class AbstractRemoteMethodTx<T> {
         // logger.debug("Blocking Get {}", this.getClass().getCanonicalName());
 
         try {
-            // define lock
-            lock = new CountDownLatch(1);
-
-            executorService.execute(sendTask(this, new IRemoteMethodTxCallback<T>() {
-                @Override
-                public void get(T response, KeypleRemoteException exception) {
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("Release lock of {}", this.toString());
-                    }
-                    lock.countDown();
+            // the engine fails the call at once if the target node is unreachable or overloaded
+            if (remoteException == null) {
+                try {
+                    executorService.execute(sendTask(this, new IRemoteMethodTxCallback<T>() {
+                        @Override
+                        public void get(T response, KeypleRemoteException exception) {
+                            if (logger.isTraceEnabled()) {
+                                logger.trace("Release lock of {}", this.toString());
+                            }
+                            lock.countDown();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    rmTxEngine.unregister(this);
+                    throw new KeypleRemoteOverloadException(
+                            "No thread available to send " + this.toString());
                 }
-            }));
+            }
 
             if (logger.isTraceEnabled()) {
                 logger.trace("Lock thread for {}", this.toString());
@@ -162,6 +179,7 @@ public abstract class AbstractRemoteMethodTx<T> {
                 /*
                  * timeout, no answer has been received
                  */
+                rmTxEngine.unregister(this);
                 throw new KeypleRemoteException(
                         "Waiting time elapsed, no answer received from the other node for "
                                 + this.toString());
@@ -173,6 +191,40 @@ public abstract class AbstractRemoteMethodTx<T> {
                     "Thread locking has been interrupted while waiting for answer for "
                             + this.toString(),
                     e);
+        } finally {
+            releasePermits();
+        }
+    }
+
+    /**
+     * Take a permit of each limiter, to be called by the tx manager at the registration
+     *
+     * @param limiters limiters of the tx manager
+     * @return null if the permits are taken, else the limiter without permit left (no permit is
+     *         then held)
+     */
+    RemoteMethodTxLimiter acquirePermits(RemoteMethodTxLimiter[] limiters) {
+        for (int i = 0; i < limiters.length; i++) {
+            if (!limiters[i].tryAcquire()) {
+                for (int j = 0; j < i; j++) {
+                    limiters[j].release();
+                }
+                return limiters[i];
+            }
+        }
+        permits.set(limiters);
+        return null;
+    }
+
+    /**
+     * Give back the permits held by this transaction, if any
+     */
+    void releasePermits() {
+        RemoteMethodTxLimiter[] held = permits.getAndSet(null);
+        if (held != null) {
+            for (RemoteMethodTxLimiter limiter : held) {
+                limiter.release();
+            }
         }
     }
 
@@ -194,6 +246,23 @@ public abstract class AbstractRemoteMethodTx<T> {
         }
     }
 
+    /**
+     * Fails the call without waiting for the response, to be called by the tx manager when the
+     * target node is unreachable
+     *
+     * @param exception the exception thrown to the caller
+     */
+    void fail(KeypleRemoteException exception) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("Fail {} : {}", this.toString(), exception.getMessage());
+        }
+        this.remoteException = exception;
+        lock.countDown();
+        if (this.callback != null) {
+            this.callback.get(null, exception);
+        }
+    }
+
     /**
      * Mark or Unmark as registered
      * 
@@ -217,7 +286,15 @@ public abstract class AbstractRemoteMethodTx<T> {
 
 
     public String getId() {
-        return id;
+        return ids.format(txId);
+    }
+
+    /**
+     * @param id : id of a keypleDto
+     * @return the transaction id, 0 if the id does not come from a transaction of this node
+     */
+    static long parseId(String id) {
+        return ids.parse(id);
     }
 
     @Override
@@ -226,11 +303,11 @@ public abstract class AbstractRemoteMethodTx<T> {
                 + getMethodName() + '\'' + ", nativeReaderName='" + nativeReaderName + '\''
                 + ", virtualReaderName='" + virtualReaderName + '\'' + ", targetNodeId='"
                 + targetNodeId + '\'' + ", requesterNodeId='" + requesterNodeId + '\'' + ", id='"
-                + id + '\'' + '}';
+                + getId() + '\'' + '}';
     }
 
 
-    public Runnable sendTask(final AbstractRemoteMethodTx thisInstance,
+    public Runnable sendTask(final AbstractRemoteMethodTx<T> thisInstance,
             final IRemoteMethodTxCallback callback) {
         return new Runnable() {
             @Override
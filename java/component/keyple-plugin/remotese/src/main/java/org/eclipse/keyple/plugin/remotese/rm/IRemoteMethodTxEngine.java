@@ -15,8 +15,23 @@ import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
 
 public interface IRemoteMethodTxEngine {
 
-    void register(final AbstractRemoteMethodTx rm);
+    void register(final AbstractRemoteMethodTx<?> rm);
 
     TransportDto onResponseDto(TransportDto message);
 
+    /**
+     * Forgets a transaction which will not receive its response (timeout, rejection)
+     *
+     * @param rm the transaction
+     */
+    void unregister(AbstractRemoteMethodTx<?> rm);
+
+    /**
+     * Fails the pending transactions and the next ones while the target node is unreachable
+     *
+     * @param reason the message of the exception thrown to the callers, null when the node is
+     *        reachable again
+     */
+    void setUnreachable(String reason);
+
 }
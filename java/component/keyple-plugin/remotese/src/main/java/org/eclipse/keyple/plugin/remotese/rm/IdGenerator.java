@@ -0,0 +1,81 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.rm;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates compact identifiers, unique and increasing within a node : a counter, formatted at the
+ * wire boundary with the prefix of its kind and of the running instance of the node.
+ * <p>
+ * The instance prefix, drawn from the start time of the node and a random number, distinguishes
+ * the identifiers of this run from those of a previous run (e.g. a session presented by a slave
+ * after a restart of the master) and from those of another node started at the same time.
+ */
+public final class IdGenerator {
+
+    // radix of the string form of the identifiers
+    private static final int RADIX = Character.MAX_RADIX;
+
+    // prefix of the identifiers generated by this instance of the node
+    private static final String INSTANCE = Long.toString(System.currentTimeMillis(), RADIX)
+            + Long.toString(new SecureRandom().nextInt() & 0xFFFFFFFFL, RADIX);
+
+    private final String prefix;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * @param kind : short prefix of the kind of identifiers, distinct for each generator
+     */
+    public IdGenerator(String kind) {
+        this.prefix = kind + INSTANCE + '-';
+    }
+
+    /**
+     * @return a new identifier, strictly greater than the previous ones
+     */
+    public long next() {
+        return counter.incrementAndGet();
+    }
+
+    /**
+     * @param id : identifier generated by this generator
+     * @return the string form of the identifier, as sent on the wire
+     */
+    public String format(long id) {
+        return prefix + Long.toString(id, RADIX);
+    }
+
+    /**
+     * @param id : string form of an identifier, may be null
+     * @return the identifier, 0 if it was not generated by this generator
+     */
+    public long parse(String id) {
+        if (id == null || !id.startsWith(prefix)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(id.substring(prefix.length()), RADIX);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return a new identifier, in its string form
+     */
+    public String nextString() {
+        return format(next());
+    }
+}
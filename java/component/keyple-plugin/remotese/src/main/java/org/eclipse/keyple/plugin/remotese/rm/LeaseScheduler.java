@@ -0,0 +1,128 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.rm;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases of the readers allocated from a pool, by reader name: a reader not released before the
+ * end of its lease is handed to {@link #onExpired(Object)}.
+ * <p>
+ * The leases expire on their own thread, which stops when no lease is pending. The methods are
+ * synchronized on this object, which can be used to serialize other calls with the expiries.
+ *
+ * @param <T> the allocated reader
+ */
+public abstract class LeaseScheduler<T> {
+
+    // leases of the allocated readers, by reader name
+    private final Map<String, Lease> leases = new HashMap<String, Lease>();
+
+    // runs the expiry of the leases, its thread stops when no lease is pending
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * @param threadName : name of the thread running the expiry of the leases
+     */
+    protected LeaseScheduler(final String threadName) {
+        scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.setKeepAliveTime(60, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Start the lease of an allocated reader, replacing its previous lease if any
+     *
+     * @param readerName : name of the reader
+     * @param reader : the allocated reader
+     * @param duration : duration of the lease in milliseconds
+     */
+    public final synchronized void start(String readerName, T reader, long duration) {
+        Lease lease = new Lease(readerName, reader);
+        lease.expiry = scheduler.schedule(lease, duration, TimeUnit.MILLISECONDS);
+        Lease previous = leases.put(readerName, lease);
+        if (previous != null) {
+            previous.expiry.cancel(false);
+        }
+    }
+
+    /**
+     * End the lease of a released reader, if any
+     *
+     * @param readerName : name of the reader
+     * @return true if the reader had a lease
+     */
+    public final synchronized boolean end(String readerName) {
+        Lease lease = leases.remove(readerName);
+        if (lease == null) {
+            return false;
+        }
+        lease.expiry.cancel(false);
+        return true;
+    }
+
+    /**
+     * @return the number of readers allocated with a lease
+     */
+    public final synchronized int getLeaseCount() {
+        return leases.size();
+    }
+
+    /**
+     * Called by the lease thread, holding the lock of this object, when the lease of a reader
+     * expired
+     *
+     * @param reader : the reader whose lease expired, to be released
+     */
+    protected abstract void onExpired(T reader);
+
+    private synchronized void expire(Lease lease) {
+        // the reader may have been released, then allocated again with a new lease
+        if (leases.get(lease.readerName) != lease) {
+            return;
+        }
+        leases.remove(lease.readerName);
+        onExpired(lease.reader);
+    }
+
+    /**
+     * Lease of an allocated reader, expires when run
+     */
+    private final class Lease implements Runnable {
+
+        private final String readerName;
+        private final T reader;
+        private ScheduledFuture<?> expiry;
+
+        Lease(String readerName, T reader) {
+            this.readerName = readerName;
+            this.reader = reader;
+        }
+
+        @Override
+        public void run() {
+            expire(this);
+        }
+    }
+}
@@ -28,9 +28,17 @@ public enum RemoteMethodName {
 
     DEFAULT_SELECTION_REQUEST("default_selection_request"),
 
+    READER_IS_SE_PRESENT("reader_isSePresent"),
+
     POOL_ALLOCATE_READER("pool_allocate_reader"),
 
-    POOL_RELEASE_READER("pool_release_reader");
+    POOL_RELEASE_READER("pool_release_reader"),
+
+    POOL_GROUP_REFERENCES("pool_group_references"),
+
+    POOL_ALLOCATE_READERS("pool_allocate_readers"),
+
+    POOL_RELEASE_READERS("pool_release_readers");
 
     private String name;
 
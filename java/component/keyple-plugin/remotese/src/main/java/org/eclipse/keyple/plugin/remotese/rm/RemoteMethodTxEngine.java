@@ -12,6 +12,8 @@
 package org.eclipse.keyple.plugin.remotese.rm;
 
 import java.util.concurrent.ExecutorService;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException;
 import org.eclipse.keyple.plugin.remotese.transport.*;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
@@ -29,7 +31,7 @@ public class RemoteMethodTxEngine implements IRemoteMethodTxEngine {
     private static final Logger logger = LoggerFactory.getLogger(RemoteMethodTxEngine.class);
 
     // waiting transaction, supports only one at the time
-    private AbstractRemoteMethodTx remoteMethodTx;
+    private AbstractRemoteMethodTx<?> remoteMethodTx;
 
     // Executor to run async task required in RemoteMethodTx
     final private ExecutorService executorService;
@@ -40,6 +42,12 @@ public class RemoteMethodTxEngine implements IRemoteMethodTxEngine {
     // timeout to wait for the answer, in milliseconds
     private final long timeout;
 
+    // reason of the failure of the transactions while the target node is unreachable, else null
+    private String unreachableReason;
+
+    // limiters whose permit is taken by each transaction
+    private RemoteMethodTxLimiter[] limiters = new RemoteMethodTxLimiter[0];
+
 
     /**
      *
@@ -65,7 +73,7 @@ public class RemoteMethodTxEngine implements IRemoteMethodTxEngine {
      * @return TransportDto : response of the message processing, should be a NoResponse
      */
     @Override
-    public TransportDto onResponseDto(TransportDto message) {
+    public synchronized TransportDto onResponseDto(TransportDto message) {
         /*
          * Extract KeypleDto
          */
@@ -96,7 +104,7 @@ public class RemoteMethodTxEngine implements IRemoteMethodTxEngine {
         /*
          * Check that ids match
          */
-        if (!remoteMethodTx.getId().equals(keypleDto.getId())) {
+        if (remoteMethodTx.txId != AbstractRemoteMethodTx.parseId(keypleDto.getId())) {
             logger.error("RemoteMethodTxEngine receives a KeypleDto response but ids don't match : "
                     + keypleDto);
             throw new IllegalArgumentException(
@@ -128,14 +136,56 @@ public class RemoteMethodTxEngine implements IRemoteMethodTxEngine {
      * @param rm : RemoteMethodTx to be executed
      */
     @Override
-    public void register(final AbstractRemoteMethodTx rm) {
+    public synchronized void register(final AbstractRemoteMethodTx<?> rm) {
         if (logger.isTraceEnabled()) {
-            logger.trace("Register RemoteMethod to engine : {} ", rm.id);
+            logger.trace("Register RemoteMethod to engine : {} ", rm.txId);
         }
         rm.setExecutorService(executorService);
         rm.setRegistered(true);
-        remoteMethodTx = rm;
         rm.setDtoSender(sender);
         rm.setTimeout(timeout);
+        if (unreachableReason != null) {
+            rm.fail(new KeypleRemoteException(unreachableReason));
+            return;
+        }
+        RemoteMethodTxLimiter fullLimiter = rm.acquirePermits(limiters);
+        if (fullLimiter != null) {
+            rm.fail(overload(fullLimiter));
+        } else {
+            remoteMethodTx = rm;
+        }
+    }
+
+    @Override
+    public synchronized void unregister(AbstractRemoteMethodTx<?> rm) {
+        if (remoteMethodTx == rm) {
+            remoteMethodTx = null;
+        }
+    }
+
+    @Override
+    public synchronized void setUnreachable(String reason) {
+        unreachableReason = reason;
+        if (reason != null && remoteMethodTx != null) {
+            logger.debug("Fail pending RemoteMethod {} : {}", remoteMethodTx.txId, reason);
+            remoteMethodTx.fail(new KeypleRemoteException(reason));
+            remoteMethodTx = null;
+        }
+    }
+
+    /**
+     * Set the limiters whose permit is taken by each transaction, a transaction finding one of them
+     * full is rejected
+     *
+     * @param limiters : limiters of the transactions, for instance of the plugin and of the target
+     *        node
+     */
+    public synchronized void setLimiters(RemoteMethodTxLimiter... limiters) {
+        this.limiters = limiters.clone();
+    }
+
+    private static KeypleRemoteOverloadException overload(RemoteMethodTxLimiter limiter) {
+        return new KeypleRemoteOverloadException("Too many remote calls in flight for "
+                + limiter.getName() + " (limit " + limiter.getLimit() + ")");
     }
 }
@@ -0,0 +1,127 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.rm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the number of remote method transactions in flight, for instance towards a slave node or
+ * for a whole plugin, and counts them.
+ * <p>
+ * A transaction takes a permit of each limiter of its {@link IRemoteMethodTxEngine} when it is
+ * registered, and gives it back once it is answered, failed or timed out. A transaction finding a
+ * limiter full is rejected at once with a
+ * {@link org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException}.
+ */
+public class RemoteMethodTxLimiter {
+
+    private final String name;
+
+    // maximum number of transactions in flight, 0 for no limit
+    private volatile int limit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param name : name of the limiter, used in the rejection messages
+     * @param limit : maximum number of transactions in flight, 0 for no limit
+     */
+    public RemoteMethodTxLimiter(String name, int limit) {
+        this.name = name;
+        setLimit(limit);
+    }
+
+    /**
+     * Take a permit if the limit is not reached
+     *
+     * @return true if the permit has been taken, false if the transaction must be rejected
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            int max = limit;
+            if (max > 0 && current >= max) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                int highest;
+                while ((highest = peak.get()) < current + 1
+                        && !peak.compareAndSet(highest, current + 1)) {
+                    // retry
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a permit
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Change the limit, the transactions in flight are not affected
+     *
+     * @param limit : maximum number of transactions in flight, 0 for no limit
+     */
+    public void setLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The limit must not be negative");
+        }
+        this.limit = limit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return maximum number of transactions in flight, 0 for no limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return number of transactions waiting for their response
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return highest number of transactions in flight since the creation of the limiter
+     */
+    public int getPeak() {
+        return peak.get();
+    }
+
+    /**
+     * @return number of transactions rejected since the creation of the limiter
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteMethodTxLimiter{" + "name='" + name + '\'' + ", limit=" + limit
+                + ", inFlight=" + inFlight.get() + ", peak=" + peak.get() + ", rejected="
+                + rejected.get() + '}';
+    }
+}
@@ -14,6 +14,8 @@ package org.eclipse.keyple.plugin.remotese.rm;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException;
 import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
@@ -31,7 +33,7 @@ public class RemoteMethodTxPoolEngine implements IRemoteMethodTxEngine {
     private static final Logger logger = LoggerFactory.getLogger(RemoteMethodTxPoolEngine.class);
 
     // rm id, rm
-    private Map<String, AbstractRemoteMethodTx> queue;
+    private Map<Long, AbstractRemoteMethodTx<?>> queue;
 
     // Executor to run async task required in RemoteMethodTx
     final private ExecutorService executorService;
@@ -41,6 +43,12 @@ public class RemoteMethodTxPoolEngine implements IRemoteMethodTxEngine {
     // timeout to wait for the answer, in milliseconds
     private final long timeout;
 
+    // reason of the failure of the transactions while the target node is unreachable, else null
+    private String unreachableReason;
+
+    // limiters whose permit is taken by each transaction
+    private RemoteMethodTxLimiter[] limiters = new RemoteMethodTxLimiter[0];
+
     /**
      *
      * @param sender : dtosender used to send the keypleDto
@@ -49,7 +57,7 @@ public class RemoteMethodTxPoolEngine implements IRemoteMethodTxEngine {
      */
     public RemoteMethodTxPoolEngine(DtoSender sender, long timeout,
             ExecutorService executorService) {
-        this.queue = new ConcurrentHashMap<String, AbstractRemoteMethodTx>();
+        this.queue = new ConcurrentHashMap<Long, AbstractRemoteMethodTx<?>>();
         this.sender = sender;
         this.timeout = timeout;
         this.executorService = executorService;
@@ -63,24 +71,24 @@ public class RemoteMethodTxPoolEngine implements IRemoteMethodTxEngine {
      * @return TransportDto : response of the message processing, should be a NoResponse
      */
     @Override
-    public TransportDto onResponseDto(TransportDto message) {
+    public synchronized TransportDto onResponseDto(TransportDto message) {
         KeypleDto keypleDto = message.getKeypleDTO();
 
         if (keypleDto.isRequest()) {
             throw new IllegalArgumentException(
                     "RemoteMethodTxEngine expects a KeypleDto response. " + keypleDto);
         }
-        if (!queue.containsKey(keypleDto.getId())) {
+        // remove rm
+        AbstractRemoteMethodTx<?> rm =
+                queue.remove(AbstractRemoteMethodTx.parseId(keypleDto.getId()));
+        if (rm == null) {
             throw new IllegalStateException(
                     "RemoteMethodTxEngine receives a KeypleDto response but no remoteMethodTx are defined : "
                             + keypleDto);
         }
 
         // set response in rm request
-        queue.get(keypleDto.getId()).setResponse(keypleDto);
-
-        // remove rm
-        queue.remove(keypleDto.getId());
+        rm.setResponse(keypleDto);
 
         return message.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
     }
@@ -91,12 +99,54 @@ public class RemoteMethodTxPoolEngine implements IRemoteMethodTxEngine {
      * @param rm : RemoteMethodTx to be executed
      */
     @Override
-    public void register(final AbstractRemoteMethodTx rm) {
+    public synchronized void register(final AbstractRemoteMethodTx<?> rm) {
         logger.debug("Register rm to engine : {}", rm);
         rm.setRegistered(true);
         rm.setExecutorService(executorService);
-        queue.put(rm.id, rm);
         rm.setDtoSender(sender);
         rm.setTimeout(timeout);
+        if (unreachableReason != null) {
+            rm.fail(new KeypleRemoteException(unreachableReason));
+            return;
+        }
+        RemoteMethodTxLimiter fullLimiter = rm.acquirePermits(limiters);
+        if (fullLimiter != null) {
+            rm.fail(overload(fullLimiter));
+        } else {
+            queue.put(rm.txId, rm);
+        }
+    }
+
+    @Override
+    public synchronized void unregister(AbstractRemoteMethodTx<?> rm) {
+        queue.remove(rm.txId);
+    }
+
+    @Override
+    public synchronized void setUnreachable(String reason) {
+        unreachableReason = reason;
+        if (reason != null) {
+            for (AbstractRemoteMethodTx<?> rm : queue.values()) {
+                logger.debug("Fail pending RemoteMethod {} : {}", rm.txId, reason);
+                rm.fail(new KeypleRemoteException(reason));
+            }
+            queue.clear();
+        }
+    }
+
+    /**
+     * Set the limiters whose permit is taken by each transaction, a transaction finding one of them
+     * full is rejected
+     *
+     * @param limiters : limiters of the transactions, for instance of the plugin and of the target
+     *        node
+     */
+    public synchronized void setLimiters(RemoteMethodTxLimiter... limiters) {
+        this.limiters = limiters.clone();
+    }
+
+    private static KeypleRemoteOverloadException overload(RemoteMethodTxLimiter limiter) {
+        return new KeypleRemoteOverloadException("Too many remote calls in flight for "
+                + limiter.getName() + " (limit " + limiter.getLimit() + ")");
     }
 }
@@ -0,0 +1,375 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.DefaultTransportDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * DtoNode decorator packing the KeypleDto sent to the same node into a single message.
+ * <p>
+ * The KeypleDto sent within a time window (or until the maximum batch size is reached) to a node
+ * are sent together in an envelope KeypleDto (action {@link #BATCH_ACTION}). On receipt, the
+ * envelope is unpacked and each KeypleDto is given to the {@link DtoHandler} in its sending order;
+ * the responses of the handler are sent back batched in the same way. The batching is thus
+ * transparent to the DtoHandler ({@link org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI},
+ * {@link org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI}).
+ * <p>
+ * Both nodes must be decorated. The batching saves messages (websocket frames, HTTP polling
+ * responses) at the cost of a latency up to the time window for each KeypleDto: it suits links
+ * where the per message overhead is high and several readers are used at the same time.
+ * <p>
+ * When a batch can't be sent, an error response is given to the local DtoHandler for each request
+ * of the batch, so that the callers don't wait for the timeout of their call.
+ */
+public class BatchingDtoNode implements DtoNode {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingDtoNode.class);
+
+    /** action of the envelope KeypleDto */
+    public static final String BATCH_ACTION = "dto_batch";
+
+    private static final Type DTO_LIST_TYPE = new TypeToken<List<KeypleDto>>() {}.getType();
+
+    private final DtoNode node;
+    private final long window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+
+    /* handler of the decorated node, receiving the error responses of the requests not sent */
+    private volatile DtoHandler handler;
+
+    /* target node id, pending batch */
+    private final Map<String, Batch> batches = new HashMap<String, Batch>();
+
+    private final AtomicLong sentMessageCount = new AtomicLong();
+    private final AtomicLong sentDtoCount = new AtomicLong();
+
+    /**
+     * Decorates a DtoNode with a dedicated daemon scheduler thread, to be stopped with
+     * {@link #stop()}
+     *
+     * @param node : the DtoNode sending and receiving the messages
+     * @param window : maximum time in milliseconds a KeypleDto waits for other ones (0 to disable
+     *        the batching)
+     * @param maxBatchSize : number of KeypleDto triggering the sending of the batch
+     */
+    public BatchingDtoNode(DtoNode node, long window, int maxBatchSize) {
+        this(node, window, maxBatchSize,
+                Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "keyple-dto-batching");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }), true);
+    }
+
+    /**
+     * Decorates a DtoNode
+     *
+     * @param node : the DtoNode sending and receiving the messages
+     * @param window : maximum time in milliseconds a KeypleDto waits for other ones (0 to disable
+     *        the batching)
+     * @param maxBatchSize : number of KeypleDto triggering the sending of the batch
+     * @param scheduler : scheduler sending the batches at the end of the time window
+     */
+    public BatchingDtoNode(DtoNode node, long window, int maxBatchSize,
+            ScheduledExecutorService scheduler) {
+        this(node, window, maxBatchSize, scheduler, false);
+    }
+
+    private BatchingDtoNode(DtoNode node, long window, int maxBatchSize,
+            ScheduledExecutorService scheduler, boolean ownScheduler) {
+        if (window < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException(
+                    "The window must not be negative and the batch size must be positive.");
+        }
+        this.node = node;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+    }
+
+    @Override
+    public void setDtoHandler(final DtoHandler handler) {
+        this.handler = handler;
+        node.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                KeypleDto keypleDto = transportDto.getKeypleDTO();
+                if (!isBatch(keypleDto)) {
+                    return handler.onDTO(transportDto);
+                }
+                List<KeypleDto> keypleDtos =
+                        JsonParser.getGson().fromJson(keypleDto.getBody(), DTO_LIST_TYPE);
+                if (logger.isTraceEnabled()) {
+                    logger.trace("{} unpack {} KeypleDto from {}", getNodeId(), keypleDtos.size(),
+                            keypleDto.getRequesterNodeId());
+                }
+                for (KeypleDto dto : keypleDtos) {
+                    TransportDto response = handler.onDTO(transportDto.nextTransportDTO(dto));
+                    if (response != null && !KeypleDtoHelper.isNoResponse(response.getKeypleDTO())) {
+                        try {
+                            sendDTO(response);
+                        } catch (KeypleRemoteException e) {
+                            logger.error("{} response to {} could not be sent", getNodeId(),
+                                    dto.getId(), e);
+                        }
+                    }
+                }
+                return transportDto.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+            }
+        });
+    }
+
+    @Override
+    public void sendDTO(TransportDto message) throws KeypleRemoteException {
+        if (window == 0 || KeypleDtoHelper.isNoResponse(message.getKeypleDTO())) {
+            countUnbatched(message.getKeypleDTO());
+            node.sendDTO(message);
+            return;
+        }
+        getBatch(message.getKeypleDTO().getTargetNodeId()).add(message.getKeypleDTO(), message);
+    }
+
+    @Override
+    public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+        if (window == 0 || KeypleDtoHelper.isNoResponse(message)) {
+            countUnbatched(message);
+            node.sendDTO(message);
+            return;
+        }
+        getBatch(message.getTargetNodeId()).add(message, null);
+    }
+
+    @Override
+    public String getNodeId() {
+        return node.getNodeId();
+    }
+
+    /**
+     * Sends immediately all the pending KeypleDto
+     *
+     * @throws KeypleRemoteException if a batch could not be sent
+     */
+    public void flush() throws KeypleRemoteException {
+        List<Batch> pendingBatches;
+        synchronized (batches) {
+            pendingBatches = new ArrayList<Batch>(batches.values());
+        }
+        for (Batch batch : pendingBatches) {
+            batch.flush();
+        }
+    }
+
+    /**
+     * Sends the pending KeypleDto, then stops the scheduler if it has been created by this node
+     */
+    public void stop() {
+        List<Batch> pendingBatches;
+        synchronized (batches) {
+            pendingBatches = new ArrayList<Batch>(batches.values());
+        }
+        for (Batch batch : pendingBatches) {
+            batch.run();
+        }
+        if (ownScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * @return the number of messages sent through the decorated node
+     */
+    public long getSentMessageCount() {
+        return sentMessageCount.get();
+    }
+
+    /**
+     * @return the number of KeypleDto sent, batched or not
+     */
+    public long getSentDtoCount() {
+        return sentDtoCount.get();
+    }
+
+    /**
+     * Tells if a KeypleDto is an envelope
+     *
+     * @param keypleDto the KeypleDto
+     * @return true if it contains batched KeypleDto
+     */
+    public static boolean isBatch(KeypleDto keypleDto) {
+        return BATCH_ACTION.equals(keypleDto.getAction());
+    }
+
+    private void countUnbatched(KeypleDto keypleDto) {
+        if (!KeypleDtoHelper.isNoResponse(keypleDto)) {
+            sentDtoCount.incrementAndGet();
+            sentMessageCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Answers locally with an error the requests of a batch that could not be sent
+     */
+    private void failRequests(List<KeypleDto> keypleDtos, TransportDto channel,
+            KeypleRemoteException exception) {
+        DtoHandler localHandler = handler;
+        if (localHandler == null) {
+            return;
+        }
+        for (KeypleDto keypleDto : keypleDtos) {
+            if (!keypleDto.isRequest() || keypleDto.getId() == null) {
+                /* responses and notifications are not awaited */
+                continue;
+            }
+            KeypleDto error = KeypleDtoHelper.ExceptionDTO(keypleDto.getAction(), exception,
+                    keypleDto.getSessionId(), keypleDto.getNativeReaderName(),
+                    keypleDto.getVirtualReaderName(), keypleDto.getTargetNodeId(),
+                    keypleDto.getRequesterNodeId(), keypleDto.getId());
+            try {
+                localHandler.onDTO(channel != null ? channel.nextTransportDTO(error)
+                        : new DefaultTransportDto(error));
+            } catch (RuntimeException e) {
+                logger.error("{} error response to {} could not be processed", getNodeId(),
+                        keypleDto.getId(), e);
+            }
+        }
+    }
+
+    private Batch getBatch(String targetNodeId) {
+        synchronized (batches) {
+            Batch batch = batches.get(targetNodeId);
+            if (batch == null) {
+                batch = new Batch(targetNodeId);
+                batches.put(targetNodeId, batch);
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * KeypleDto waiting to be sent to a node. The batches of a node are sent one at a time, in
+     * order, by the scheduler: the threads adding KeypleDto never wait for a sending.
+     */
+    private final class Batch implements Runnable {
+
+        private final String targetNodeId;
+
+        /* held while a batch is sent to keep the sending order */
+        private final Object sendLock = new Object();
+
+        private List<KeypleDto> keypleDtos = new ArrayList<KeypleDto>();
+
+        /* last TransportDto given, used to send the batch on the same channel */
+        private TransportDto channel;
+
+        private ScheduledFuture<?> flushTask;
+
+        Batch(String targetNodeId) {
+            this.targetNodeId = targetNodeId;
+        }
+
+        synchronized void add(KeypleDto keypleDto, TransportDto transportDto) {
+            keypleDtos.add(keypleDto);
+            if (transportDto != null) {
+                channel = transportDto;
+            }
+            if (keypleDtos.size() == maxBatchSize) {
+                /* the batch is full: sent right away */
+                if (flushTask != null) {
+                    flushTask.cancel(false);
+                }
+                flushTask = scheduler.schedule(this, 0, TimeUnit.MILLISECONDS);
+            } else if (flushTask == null) {
+                flushTask = scheduler.schedule(this, window, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        void flush() throws KeypleRemoteException {
+            synchronized (sendLock) {
+                List<KeypleDto> pendingDtos;
+                TransportDto pendingChannel;
+                synchronized (this) {
+                    if (flushTask != null) {
+                        flushTask.cancel(false);
+                        flushTask = null;
+                    }
+                    if (keypleDtos.isEmpty()) {
+                        return;
+                    }
+                    pendingDtos = keypleDtos;
+                    pendingChannel = channel;
+                    keypleDtos = new ArrayList<KeypleDto>();
+                    channel = null;
+                }
+                KeypleDto message;
+                if (pendingDtos.size() == 1) {
+                    message = pendingDtos.get(0);
+                } else {
+                    message = KeypleDtoHelper.buildNotification(BATCH_ACTION,
+                            JsonParser.getGson().toJson(pendingDtos, DTO_LIST_TYPE), null, null,
+                            null, getNodeId(), targetNodeId);
+                }
+                if (logger.isTraceEnabled()) {
+                    logger.trace("{} send {} KeypleDto to {}", getNodeId(), pendingDtos.size(),
+                            targetNodeId);
+                }
+                sentDtoCount.addAndGet(pendingDtos.size());
+                sentMessageCount.incrementAndGet();
+                try {
+                    if (pendingChannel != null) {
+                        node.sendDTO(pendingChannel.nextTransportDTO(message));
+                    } else {
+                        node.sendDTO(message);
+                    }
+                } catch (KeypleRemoteException e) {
+                    sentDtoCount.addAndGet(-pendingDtos.size());
+                    sentMessageCount.decrementAndGet();
+                    failRequests(pendingDtos, pendingChannel, e);
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                flush();
+            } catch (KeypleRemoteException e) {
+                logger.error("{} batch to {} could not be sent", getNodeId(), targetNodeId, e);
+            }
+        }
+    }
+}
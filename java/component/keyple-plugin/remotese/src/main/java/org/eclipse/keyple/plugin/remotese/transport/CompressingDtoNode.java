@@ -0,0 +1,315 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.codec.DtoCodec;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DtoNode decorator encoding the large bodies of the KeypleDto with a codec negotiated with each
+ * node (e.g. {@link org.eclipse.keyple.plugin.remotese.transport.codec.DeflateDtoCodec}).
+ * <p>
+ * The negotiation is carried by the KeypleDto themselves: the first KeypleDto sent to a node list
+ * the codecs this node decodes ({@link KeypleDto#getAcceptedCodecs()}), until the node answers with
+ * its own list; the list is then sent once more for the node to learn it, and no more. The bodies
+ * sent to a node are encoded with the first codec of this node accepted by the other node, when
+ * they are at least threshold characters long and the encoding makes them shorter.
+ * <p>
+ * A node that doesn't negotiate ignores the offer (unknown json field) and never receives an
+ * encoded body; the offers to it stop after {@link #MAX_UNANSWERED_OFFERS} KeypleDto. Responses
+ * returned by the {@link DtoHandler} are encoded as well. When used with a
+ * {@link BatchingDtoNode}, decorate the batching node to encode the whole batches.
+ * <p>
+ * The negotiation with a node is forgotten when the node is reconnected or lost, as it may have
+ * been restarted with other codecs: this node listens to the {@link HeartbeatDtoNode} it decorates,
+ * or can be registered with {@link HeartbeatDtoNode#addNodeLivenessListener(NodeLivenessListener)}.
+ */
+public class CompressingDtoNode implements DtoNode, NodeLivenessListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressingDtoNode.class);
+
+    /** number of KeypleDto carrying the offer sent to a node that doesn't answer with its own */
+    public static final int MAX_UNANSWERED_OFFERS = 16;
+
+    private final DtoNode node;
+    private final int threshold;
+    private final List<DtoCodec> codecs;
+
+    /* codec names, comma separated */
+    private final String offer;
+
+    /* node id, negotiation with the node */
+    private final ConcurrentMap<String, Peer> peers = new ConcurrentHashMap<String, Peer>();
+
+    /**
+     * Decorates a DtoNode
+     *
+     * @param node : the DtoNode sending and receiving the messages
+     * @param threshold : minimum length of the bodies to encode
+     * @param codecs : the codecs this node encodes and decodes, by order of preference
+     */
+    public CompressingDtoNode(DtoNode node, int threshold, DtoCodec... codecs) {
+        if (threshold < 0 || codecs.length == 0) {
+            throw new IllegalArgumentException(
+                    "The threshold must not be negative and at least one codec is required.");
+        }
+        this.node = node;
+        this.threshold = threshold;
+        this.codecs = new ArrayList<DtoCodec>();
+        StringBuilder names = new StringBuilder();
+        for (DtoCodec codec : codecs) {
+            if (codec.getName().indexOf(',') >= 0 || getCodec(codec.getName()) != null) {
+                throw new IllegalArgumentException("Invalid codec name : " + codec.getName());
+            }
+            this.codecs.add(codec);
+            names.append(names.length() == 0 ? "" : ",").append(codec.getName());
+        }
+        this.offer = names.toString();
+
+        if (node instanceof HeartbeatDtoNode) {
+            ((HeartbeatDtoNode) node).addNodeLivenessListener(this);
+        }
+    }
+
+    @Override
+    public void setDtoHandler(final DtoHandler handler) {
+        node.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                KeypleDto keypleDto = transportDto.getKeypleDTO();
+                KeypleDto decoded;
+                try {
+                    decoded = decode(keypleDto);
+                } catch (IllegalArgumentException e) {
+                    logger.error("{} unable to decode the KeypleDto {} from {}", getNodeId(),
+                            keypleDto.getId(), keypleDto.getRequesterNodeId(), e);
+                    if (!keypleDto.isRequest() || keypleDto.getId() == null) {
+                        return transportDto
+                                .nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+                    }
+                    return transportDto.nextTransportDTO(encode(KeypleDtoHelper.ExceptionDTO(
+                            keypleDto.getAction(), e, keypleDto.getSessionId(),
+                            keypleDto.getNativeReaderName(), keypleDto.getVirtualReaderName(),
+                            getNodeId(), keypleDto.getRequesterNodeId(), keypleDto.getId())));
+                }
+                TransportDto response = handler.onDTO(
+                        decoded == keypleDto ? transportDto : transportDto.nextTransportDTO(decoded));
+                if (response == null) {
+                    return null;
+                }
+                KeypleDto encoded = encode(response.getKeypleDTO());
+                return encoded == response.getKeypleDTO() ? response
+                        : response.nextTransportDTO(encoded);
+            }
+        });
+    }
+
+    @Override
+    public void sendDTO(TransportDto message) throws KeypleRemoteException {
+        KeypleDto encoded = encode(message.getKeypleDTO());
+        node.sendDTO(encoded == message.getKeypleDTO() ? message : message.nextTransportDTO(encoded));
+    }
+
+    @Override
+    public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+        node.sendDTO(encode(message));
+    }
+
+    @Override
+    public String getNodeId() {
+        return node.getNodeId();
+    }
+
+    /**
+     * @param nodeId the id of a node
+     * @return the name of the codec used to encode the bodies sent to the node, null if none has
+     *         been negotiated yet
+     */
+    public String getNegotiatedCodec(String nodeId) {
+        Peer peer = peers.get(nodeId);
+        DtoCodec codec = peer != null ? peer.codec : null;
+        return codec != null ? codec.getName() : null;
+    }
+
+    /**
+     * Forgets the negotiation with a node, to be called when the node reconnects as it may have
+     * been restarted with other codecs
+     *
+     * @param nodeId the id of the node
+     */
+    public void resetNegotiation(String nodeId) {
+        peers.remove(nodeId);
+    }
+
+    @Override
+    public void onNodeUnreachable(String nodeId) {
+        // the negotiation is kept until the node is heard from again or lost
+    }
+
+    @Override
+    public void onNodeReconnected(String nodeId) {
+        resetNegotiation(nodeId);
+    }
+
+    @Override
+    public void onNodeLost(String nodeId) {
+        resetNegotiation(nodeId);
+    }
+
+    /**
+     * Adds the offer and encodes the body of a KeypleDto to be sent
+     *
+     * @return the KeypleDto to send, the one given if it is unchanged
+     */
+    private KeypleDto encode(KeypleDto keypleDto) {
+        if (KeypleDtoHelper.isNoResponse(keypleDto) || keypleDto.getTargetNodeId() == null
+                || keypleDto.getCodec() != null) {
+            return keypleDto;
+        }
+        Peer peer = getPeer(keypleDto.getTargetNodeId());
+        String acceptedCodecs = peer.nextOffer() ? offer : null;
+        DtoCodec codec = peer.codec;
+        String body = keypleDto.getBody();
+        String codecName = null;
+        if (codec != null && body != null && body.length() >= threshold) {
+            String encodedBody = codec.encode(body);
+            if (encodedBody.length() < body.length()) {
+                body = encodedBody;
+                codecName = codec.getName();
+            }
+        }
+        if (acceptedCodecs == null && codecName == null) {
+            return keypleDto;
+        }
+        return new KeypleDto(keypleDto.getAction(), body, keypleDto.isRequest(),
+                keypleDto.getSessionId(), keypleDto.getNativeReaderName(),
+                keypleDto.getVirtualReaderName(), keypleDto.getRequesterNodeId(),
+                keypleDto.getTargetNodeId(), keypleDto.getId(), keypleDto.getError(), codecName,
+                acceptedCodecs);
+    }
+
+    /**
+     * Records the offer and decodes the body of a received KeypleDto
+     *
+     * @return the KeypleDto without encoding, the one given if it is unchanged
+     * @throws IllegalArgumentException if the codec is unknown or the body is invalid
+     */
+    private KeypleDto decode(KeypleDto keypleDto) {
+        if (keypleDto.getAcceptedCodecs() != null && keypleDto.getRequesterNodeId() != null) {
+            DtoCodec selected = null;
+            List<String> names = split(keypleDto.getAcceptedCodecs());
+            for (DtoCodec codec : codecs) {
+                if (names.contains(codec.getName())) {
+                    selected = codec;
+                    break;
+                }
+            }
+            getPeer(keypleDto.getRequesterNodeId()).onOffer(selected);
+            logger.trace("{} negotiated codec with {} : {}", getNodeId(),
+                    keypleDto.getRequesterNodeId(), selected != null ? selected.getName() : null);
+        }
+        if (keypleDto.getCodec() == null && keypleDto.getAcceptedCodecs() == null) {
+            return keypleDto;
+        }
+        String body = keypleDto.getBody();
+        if (keypleDto.getCodec() != null) {
+            DtoCodec codec = getCodec(keypleDto.getCodec());
+            if (codec == null) {
+                throw new IllegalArgumentException("Unknown codec : " + keypleDto.getCodec());
+            }
+            body = codec.decode(body);
+        }
+        return new KeypleDto(keypleDto.getAction(), body, keypleDto.isRequest(),
+                keypleDto.getSessionId(), keypleDto.getNativeReaderName(),
+                keypleDto.getVirtualReaderName(), keypleDto.getRequesterNodeId(),
+                keypleDto.getTargetNodeId(), keypleDto.getId(), keypleDto.getError());
+    }
+
+    private DtoCodec getCodec(String name) {
+        for (DtoCodec codec : codecs) {
+            if (codec.getName().equals(name)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    private Peer getPeer(String nodeId) {
+        Peer peer = peers.get(nodeId);
+        if (peer == null) {
+            Peer newPeer = new Peer();
+            peer = peers.putIfAbsent(nodeId, newPeer);
+            if (peer == null) {
+                peer = newPeer;
+            }
+        }
+        return peer;
+    }
+
+    private static List<String> split(String names) {
+        List<String> list = new ArrayList<String>();
+        for (String name : names.split(",")) {
+            list.add(name.trim());
+        }
+        return list;
+    }
+
+    /**
+     * State of the negotiation with a node
+     */
+    private static final class Peer {
+
+        /* codec encoding the bodies sent to the node, null if none */
+        private volatile DtoCodec codec;
+
+        private boolean offerReceived;
+        private boolean offerAcknowledged;
+        private int unansweredOffers;
+
+        /**
+         * @return true if the next KeypleDto sent to the node carries the offer
+         */
+        synchronized boolean nextOffer() {
+            if (offerReceived) {
+                if (offerAcknowledged) {
+                    return false;
+                }
+                offerAcknowledged = true;
+                return true;
+            }
+            if (unansweredOffers < MAX_UNANSWERED_OFFERS) {
+                unansweredOffers++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * The node sent its offer
+         *
+         * @param selected the codec selected in the offer, null if none
+         */
+        synchronized void onOffer(DtoCodec selected) {
+            codec = selected;
+            offerReceived = true;
+        }
+    }
+}
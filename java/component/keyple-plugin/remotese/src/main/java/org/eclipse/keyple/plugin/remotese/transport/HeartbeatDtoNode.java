@@ -0,0 +1,314 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DtoNode decorator monitoring the liveness of the nodes it exchanges with.
+ * <p>
+ * A heartbeat KeypleDto (action {@link #HEARTBEAT_ACTION}) is sent to each known node when nothing
+ * else has been sent to it during the heartbeat interval. Any KeypleDto received from a node proves
+ * it is alive. A node silent during the timeout is reported unreachable to the
+ * {@link NodeLivenessListener}s, then lost if it stays silent during the grace period, reconnected
+ * if it is heard from within the grace period. The detection latency is between the timeout and
+ * the timeout plus one interval.
+ * <p>
+ * Both nodes must be decorated, the heartbeats are consumed by this node and never reach the
+ * {@link DtoHandler}. A {@link org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI} bound to this
+ * node listens to it: the calls to an unreachable slave fail immediately and its virtual readers
+ * are disconnected when it is lost.
+ */
+public class HeartbeatDtoNode implements DtoNode {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeartbeatDtoNode.class);
+
+    /** action of the heartbeat KeypleDto */
+    public static final String HEARTBEAT_ACTION = "node_heartbeat";
+
+    private final DtoNode node;
+    private final long interval;
+    private final long timeout;
+    private final long gracePeriod;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private final ScheduledFuture<?> heartbeatTask;
+
+    /* node id, liveness of the node */
+    private final ConcurrentMap<String, Peer> peers = new ConcurrentHashMap<String, Peer>();
+
+    private final List<NodeLivenessListener> listeners =
+            new CopyOnWriteArrayList<NodeLivenessListener>();
+
+    /**
+     * Decorates a DtoNode with a dedicated scheduler thread, to be stopped with {@link #stop()}
+     *
+     * @param node : the DtoNode sending and receiving the messages
+     * @param interval : maximum time in milliseconds without sending anything to a node
+     * @param timeout : time in milliseconds without receiving anything from a node before it is
+     *        unreachable, greater than the interval
+     * @param gracePeriod : time in milliseconds an unreachable node has to reconnect before it is
+     *        lost
+     */
+    public HeartbeatDtoNode(DtoNode node, long interval, long timeout, long gracePeriod) {
+        this(node, interval, timeout, gracePeriod, Executors.newSingleThreadScheduledExecutor(),
+                true);
+    }
+
+    /**
+     * Decorates a DtoNode
+     *
+     * @param node : the DtoNode sending and receiving the messages
+     * @param interval : maximum time in milliseconds without sending anything to a node
+     * @param timeout : time in milliseconds without receiving anything from a node before it is
+     *        unreachable, greater than the interval
+     * @param gracePeriod : time in milliseconds an unreachable node has to reconnect before it is
+     *        lost
+     * @param scheduler : scheduler sending the heartbeats and checking the liveness of the nodes
+     */
+    public HeartbeatDtoNode(DtoNode node, long interval, long timeout, long gracePeriod,
+            ScheduledExecutorService scheduler) {
+        this(node, interval, timeout, gracePeriod, scheduler, false);
+    }
+
+    private HeartbeatDtoNode(DtoNode node, long interval, long timeout, long gracePeriod,
+            ScheduledExecutorService scheduler, boolean ownScheduler) {
+        if (interval <= 0 || timeout <= interval || gracePeriod < 0) {
+            throw new IllegalArgumentException(
+                    "The interval must be positive, the timeout greater than the interval and the grace period not negative.");
+        }
+        this.node = node;
+        this.interval = interval;
+        this.timeout = timeout;
+        this.gracePeriod = gracePeriod;
+        this.scheduler = scheduler;
+        this.ownScheduler = ownScheduler;
+        this.heartbeatTask = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    checkPeers();
+                } catch (RuntimeException e) {
+                    logger.error("{} unexpected error while checking the nodes", getNodeId(), e);
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setDtoHandler(final DtoHandler handler) {
+        node.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                KeypleDto keypleDto = transportDto.getKeypleDTO();
+                onReceived(keypleDto.getRequesterNodeId());
+                if (isHeartbeat(keypleDto)) {
+                    return transportDto
+                            .nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+                }
+                TransportDto response = handler.onDTO(transportDto);
+                if (response != null && !KeypleDtoHelper.isNoResponse(response.getKeypleDTO())) {
+                    onSent(response.getKeypleDTO().getTargetNodeId());
+                }
+                return response;
+            }
+        });
+    }
+
+    @Override
+    public void sendDTO(TransportDto message) throws KeypleRemoteException {
+        if (!KeypleDtoHelper.isNoResponse(message.getKeypleDTO())) {
+            onSent(message.getKeypleDTO().getTargetNodeId());
+        }
+        node.sendDTO(message);
+    }
+
+    @Override
+    public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+        if (!KeypleDtoHelper.isNoResponse(message)) {
+            onSent(message.getTargetNodeId());
+        }
+        node.sendDTO(message);
+    }
+
+    @Override
+    public String getNodeId() {
+        return node.getNodeId();
+    }
+
+    /**
+     * @param listener the listener notified of the liveness changes of the nodes
+     */
+    public void addNodeLivenessListener(NodeLivenessListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove
+     */
+    public void removeNodeLivenessListener(NodeLivenessListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param nodeId the id of a node
+     * @return true if the node is monitored and has been heard from within the timeout
+     */
+    public boolean isReachable(String nodeId) {
+        Peer peer = peers.get(nodeId);
+        return peer != null && !peer.unreachable;
+    }
+
+    /**
+     * Stops monitoring a node that left, no heartbeat is sent to it anymore until it sends or
+     * receives a KeypleDto again
+     *
+     * @param nodeId the id of the node
+     */
+    public void forget(String nodeId) {
+        peers.remove(nodeId);
+    }
+
+    /**
+     * Stops the heartbeats, and the scheduler if it has been created by this node
+     */
+    public void stop() {
+        heartbeatTask.cancel(false);
+        if (ownScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Tells if a KeypleDto is a heartbeat
+     *
+     * @param keypleDto the KeypleDto
+     * @return true if it is a heartbeat
+     */
+    public static boolean isHeartbeat(KeypleDto keypleDto) {
+        return HEARTBEAT_ACTION.equals(keypleDto.getAction());
+    }
+
+    private void onSent(String nodeId) {
+        if (nodeId != null) {
+            getPeer(nodeId).lastSent = System.nanoTime();
+        }
+    }
+
+    private void onReceived(String nodeId) {
+        if (nodeId == null) {
+            return;
+        }
+        Peer peer = getPeer(nodeId);
+        peer.lastReceived = System.nanoTime();
+        boolean reconnected;
+        synchronized (peer) {
+            reconnected = peer.unreachable;
+            peer.unreachable = false;
+        }
+        if (reconnected) {
+            logger.info("{} node {} reconnected", getNodeId(), nodeId);
+            for (NodeLivenessListener listener : listeners) {
+                listener.onNodeReconnected(nodeId);
+            }
+        }
+    }
+
+    /**
+     * Sends the heartbeats and detects the silent nodes
+     */
+    private void checkPeers() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Peer> entry : peers.entrySet()) {
+            String nodeId = entry.getKey();
+            Peer peer = entry.getValue();
+            long silence = TimeUnit.NANOSECONDS.toMillis(now - peer.lastReceived);
+            boolean unreachable = false;
+            boolean lost = false;
+            synchronized (peer) {
+                if (silence >= timeout && !peer.unreachable) {
+                    peer.unreachable = true;
+                    unreachable = true;
+                }
+                if (silence >= timeout + gracePeriod && peers.remove(nodeId, peer)) {
+                    lost = true;
+                }
+            }
+            if (unreachable) {
+                logger.warn("{} node {} is unreachable, nothing received for {} ms", getNodeId(),
+                        nodeId, silence);
+                for (NodeLivenessListener listener : listeners) {
+                    listener.onNodeUnreachable(nodeId);
+                }
+            }
+            if (lost) {
+                logger.warn("{} node {} is lost", getNodeId(), nodeId);
+                for (NodeLivenessListener listener : listeners) {
+                    listener.onNodeLost(nodeId);
+                }
+            } else if (TimeUnit.NANOSECONDS.toMillis(now - peer.lastSent) >= interval) {
+                sendHeartbeat(nodeId);
+            }
+        }
+    }
+
+    private void sendHeartbeat(String nodeId) {
+        try {
+            sendDTO(KeypleDtoHelper.buildNotification(HEARTBEAT_ACTION, null, null, null, null,
+                    getNodeId(), nodeId));
+        } catch (KeypleRemoteException e) {
+            logger.debug("{} heartbeat to {} could not be sent : {}", getNodeId(), nodeId,
+                    e.getMessage());
+        } catch (RuntimeException e) {
+            logger.debug("{} heartbeat to {} could not be sent : {}", getNodeId(), nodeId,
+                    e.getMessage());
+        }
+    }
+
+    private Peer getPeer(String nodeId) {
+        Peer peer = peers.get(nodeId);
+        if (peer == null) {
+            Peer newPeer = new Peer();
+            peer = peers.putIfAbsent(nodeId, newPeer);
+            if (peer == null) {
+                peer = newPeer;
+            }
+        }
+        return peer;
+    }
+
+    /**
+     * Liveness of a node, times in nanoseconds
+     */
+    private static final class Peer {
+
+        private volatile long lastReceived = System.nanoTime();
+        private volatile long lastSent = System.nanoTime();
+
+        /* changed under the lock of the peer */
+        private volatile boolean unreachable;
+    }
+}
@@ -0,0 +1,40 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+/**
+ * Listener of the liveness of the nodes a {@link HeartbeatDtoNode} exchanges with
+ */
+public interface NodeLivenessListener {
+
+    /**
+     * Nothing has been received from the node during the heartbeat timeout, the pending calls to
+     * the node will not be answered
+     *
+     * @param nodeId the id of the node
+     */
+    void onNodeUnreachable(String nodeId);
+
+    /**
+     * The unreachable node has been heard from again within the grace period
+     *
+     * @param nodeId the id of the node
+     */
+    void onNodeReconnected(String nodeId);
+
+    /**
+     * The node has been unreachable for the whole grace period, it is no more monitored
+     *
+     * @param nodeId the id of the node
+     */
+    void onNodeLost(String nodeId);
+}
@@ -0,0 +1,138 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tasks executed one after the other in their arrival order by a shared executor: at most one
+ * drain of the queue is submitted to the executor at a time, no thread is dedicated to the queue.
+ * <p>
+ * A queue can be closed once drained: it then accepts no more task, so that the tasks given to a
+ * queue replacing it can't run concurrently with its own ones.
+ */
+public class SerialTaskQueue implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerialTaskQueue.class);
+
+    private final Executor executor;
+    private final String name;
+
+    private final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+
+    /* true while a drain of the queue is submitted or running */
+    private boolean draining;
+
+    /* true when the queue is to be closed at the end of the current drain */
+    private boolean closeRequested;
+
+    /* true when the queue accepts no more task */
+    private boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param executor the executor running the tasks
+     * @param name name of the queue, for the logs
+     */
+    public SerialTaskQueue(Executor executor, String name) {
+        this.executor = executor;
+        this.name = name;
+    }
+
+    /**
+     * Queue a task
+     *
+     * @param task the task to be executed after the previous tasks of the queue
+     * @return false if the queue is closed, the task is then not queued
+     * @throws RejectedExecutionException if the executor doesn't accept the task
+     */
+    public final boolean add(Runnable task) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            tasks.add(task);
+            if (draining) {
+                return true;
+            }
+            draining = true;
+        }
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            boolean closedNow;
+            synchronized (this) {
+                tasks.remove(task);
+                draining = false;
+                closedNow = closed = closeRequested && tasks.isEmpty();
+            }
+            if (closedNow) {
+                onClosed();
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Close the queue now if it is idle, at the end of the current drain otherwise. The tasks
+     * queued until then are executed.
+     *
+     * @return true if the queue has been closed now, {@link #onClosed()} is then not called
+     */
+    public final synchronized boolean closeWhenDrained() {
+        if (draining) {
+            closeRequested = true;
+            return false;
+        }
+        closed = true;
+        return true;
+    }
+
+    /**
+     * Called by the executor thread when the queue is closed at the end of its drain, outside of
+     * the lock of the queue. Does nothing by default.
+     */
+    protected void onClosed() {}
+
+    @Override
+    public final void run() {
+        while (true) {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+                if (task == null) {
+                    draining = false;
+                    if (!closeRequested) {
+                        return;
+                    }
+                    closed = true;
+                }
+            }
+            if (task == null) {
+                onClosed();
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("[{}] Unexpected error while processing a task", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.codec;
+
+/**
+ * Base64 encoding (RFC 4648, with padding) of byte buffers, not available in Java 6
+ */
+final class Base64 {
+
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private static final int[] VALUES = new int[128];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = -1;
+        }
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Encodes the first bytes of a buffer
+     *
+     * @param data the buffer
+     * @param length the number of bytes to encode
+     * @return the base64 string
+     */
+    static String encode(byte[] data, int length) {
+        char[] out = new char[(length + 2) / 3 * 4];
+        int o = 0;
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int bits = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF);
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3F];
+            out[o++] = ALPHABET[(bits >>> 6) & 0x3F];
+            out[o++] = ALPHABET[bits & 0x3F];
+        }
+        if (i < length) {
+            int bits = (data[i] & 0xFF) << 16;
+            if (i + 1 < length) {
+                bits |= (data[i + 1] & 0xFF) << 8;
+            }
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3F];
+            out[o++] = i + 1 < length ? ALPHABET[(bits >>> 6) & 0x3F] : '=';
+            out[o] = '=';
+        }
+        return new String(out);
+    }
+
+    /**
+     * @param encoded a base64 string
+     * @return the number of bytes it encodes
+     * @throws IllegalArgumentException if the length of the string is not valid
+     */
+    static int decodedLength(String encoded) {
+        int length = encoded.length();
+        if (length % 4 != 0) {
+            throw new IllegalArgumentException("Invalid base64 length : " + length);
+        }
+        int padding = 0;
+        if (length > 0 && encoded.charAt(length - 1) == '=') {
+            padding = encoded.charAt(length - 2) == '=' ? 2 : 1;
+        }
+        return length / 4 * 3 - padding;
+    }
+
+    /**
+     * Decodes a base64 string into a buffer
+     *
+     * @param encoded the base64 string
+     * @param out the buffer, at least {@link #decodedLength(String)} long
+     * @return the number of bytes decoded
+     * @throws IllegalArgumentException if the string is not valid base64
+     */
+    static int decode(String encoded, byte[] out) {
+        int length = decodedLength(encoded);
+        int o = 0;
+        for (int i = 0; i < encoded.length(); i += 4) {
+            int bits = value(encoded, i) << 18 | value(encoded, i + 1) << 12;
+            boolean third = encoded.charAt(i + 2) != '=';
+            boolean fourth = encoded.charAt(i + 3) != '=';
+            if (third) {
+                bits |= value(encoded, i + 2) << 6;
+            }
+            if (fourth) {
+                bits |= value(encoded, i + 3);
+            }
+            out[o++] = (byte) (bits >>> 16);
+            if (third && o < length) {
+                out[o++] = (byte) (bits >>> 8);
+            }
+            if (fourth && o < length) {
+                out[o++] = (byte) bits;
+            }
+        }
+        if (o != length) {
+            throw new IllegalArgumentException("Invalid base64 padding");
+        }
+        return length;
+    }
+
+    private static int value(String encoded, int index) {
+        char c = encoded.charAt(index);
+        int value = c < VALUES.length ? VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid base64 character at " + index);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,222 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.codec;
+
+import java.nio.charset.Charset;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * DEFLATE (zlib format) codec, the compressed body is base64 encoded.
+ * <p>
+ * The {@link Deflater}, {@link Inflater} and their byte buffers are pooled: a node compressing
+ * messages from n threads at the same time keeps n workspaces, which are reset and reused instead
+ * of being allocated (and their native memory released) for each message. Buffers grown by a large
+ * message are not kept in the pool. The workspaces exceeding the pool size, and the pooled ones
+ * when the codec is closed, are ended to release their native memory at once.
+ * <p>
+ * The size of a decoded body is limited: a small body can't be inflated into an unbounded buffer.
+ */
+public final class DeflateDtoCodec implements DtoCodec {
+
+    /** name of the codec */
+    public static final String NAME = "deflate";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int BUFFER_SIZE = 4096;
+
+    /* size above which a grown buffer is dropped when the workspace is released */
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+    /* number of idle workspaces kept in the pool */
+    private static final int MAX_POOLED_WORKSPACES = 16;
+
+    /** default maximum size in bytes of a decoded body */
+    public static final int DEFAULT_MAX_DECODED_SIZE = 4 * 1024 * 1024;
+
+    private final int level;
+    private final int maxDecodedSize;
+
+    private final Queue<Workspace> workspaces = new ConcurrentLinkedQueue<Workspace>();
+
+    /* size of the pool, the size of a ConcurrentLinkedQueue is not a constant time operation */
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    /**
+     * Codec favoring the speed ({@link Deflater#BEST_SPEED}), suitable for the json bodies made of
+     * hex strings
+     */
+    public DeflateDtoCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Codec with a given compression level
+     *
+     * @param level : the compression level, from {@link Deflater#BEST_SPEED} to
+     *        {@link Deflater#BEST_COMPRESSION}
+     */
+    public DeflateDtoCodec(int level) {
+        this(level, DEFAULT_MAX_DECODED_SIZE);
+    }
+
+    /**
+     * Codec with a given compression level and maximum size of the decoded bodies
+     *
+     * @param level : the compression level, from {@link Deflater#BEST_SPEED} to
+     *        {@link Deflater#BEST_COMPRESSION}
+     * @param maxDecodedSize : the maximum size in bytes of a decoded body, a larger body is
+     *        rejected by {@link #decode(String)}
+     */
+    public DeflateDtoCodec(int level, int maxDecodedSize) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level : " + level);
+        }
+        if (maxDecodedSize <= 0) {
+            throw new IllegalArgumentException("Invalid maximum decoded size : " + maxDecodedSize);
+        }
+        this.level = level;
+        this.maxDecodedSize = maxDecodedSize;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String encode(String body) {
+        Workspace workspace = acquire();
+        try {
+            Deflater deflater = workspace.deflater;
+            deflater.setInput(body.getBytes(UTF_8));
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == workspace.output.length) {
+                    workspace.output = grow(workspace.output);
+                }
+                length += deflater.deflate(workspace.output, length,
+                        workspace.output.length - length);
+            }
+            return Base64.encode(workspace.output, length);
+        } finally {
+            release(workspace);
+        }
+    }
+
+    @Override
+    public String decode(String encodedBody) {
+        Workspace workspace = acquire();
+        try {
+            int inputLength = Base64.decodedLength(encodedBody);
+            if (inputLength > workspace.input.length) {
+                workspace.input = new byte[inputLength];
+            }
+            Base64.decode(encodedBody, workspace.input);
+            Inflater inflater = workspace.inflater;
+            inflater.setInput(workspace.input, 0, inputLength);
+            int length = 0;
+            while (!inflater.finished()) {
+                int limit = Math.min(workspace.output.length, maxDecodedSize);
+                if (length == limit) {
+                    if (limit == maxDecodedSize) {
+                        throw new IllegalArgumentException("Deflate body larger than "
+                                + maxDecodedSize + " bytes once decoded");
+                    }
+                    workspace.output = grow(workspace.output);
+                    limit = Math.min(workspace.output.length, maxDecodedSize);
+                }
+                int inflated = inflater.inflate(workspace.output, length, limit - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated deflate body");
+                }
+                length += inflated;
+            }
+            return new String(workspace.output, 0, length, UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid deflate body", e);
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * Ends the pooled Deflater and Inflater. The codec remains usable, the workspaces being then
+     * allocated again.
+     */
+    public void close() {
+        Workspace workspace;
+        while ((workspace = workspaces.poll()) != null) {
+            pooledCount.decrementAndGet();
+            workspace.end();
+        }
+    }
+
+    private Workspace acquire() {
+        Workspace workspace = workspaces.poll();
+        if (workspace == null) {
+            return new Workspace(level);
+        }
+        pooledCount.decrementAndGet();
+        return workspace;
+    }
+
+    private void release(Workspace workspace) {
+        if (pooledCount.incrementAndGet() > MAX_POOLED_WORKSPACES) {
+            /* enough idle workspaces: this one is discarded */
+            pooledCount.decrementAndGet();
+            workspace.end();
+            return;
+        }
+        workspace.deflater.reset();
+        workspace.inflater.reset();
+        if (workspace.output.length > MAX_POOLED_BUFFER_SIZE) {
+            workspace.output = new byte[BUFFER_SIZE];
+        }
+        if (workspace.input.length > MAX_POOLED_BUFFER_SIZE) {
+            workspace.input = new byte[BUFFER_SIZE];
+        }
+        workspaces.offer(workspace);
+    }
+
+    private static byte[] grow(byte[] buffer) {
+        byte[] grown = new byte[buffer.length * 2];
+        System.arraycopy(buffer, 0, grown, 0, buffer.length);
+        return grown;
+    }
+
+    /**
+     * Deflater, Inflater and buffers used by one thread at a time
+     */
+    private static final class Workspace {
+
+        private final Deflater deflater;
+        private final Inflater inflater = new Inflater();
+        private byte[] input = new byte[BUFFER_SIZE];
+        private byte[] output = new byte[BUFFER_SIZE];
+
+        Workspace(int level) {
+            deflater = new Deflater(level);
+        }
+
+        void end() {
+            deflater.end();
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.codec;
+
+/**
+ * Encoding of the body of a {@link org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto}.
+ * <p>
+ * The encoded body must remain a String to be carried in the json serialization of the KeypleDto.
+ * Implementations must be thread safe.
+ */
+public interface DtoCodec {
+
+    /**
+     * Name of the codec, exchanged by the nodes during the negotiation
+     *
+     * @return a name without comma, unique among the codecs of a node
+     */
+    String getName();
+
+    /**
+     * Encodes a body
+     *
+     * @param body the json body
+     * @return the encoded body
+     */
+    String encode(String body);
+
+    /**
+     * Decodes a body encoded by {@link #encode(String)}
+     *
+     * @param encodedBody the encoded body
+     * @return the json body
+     * @throws IllegalArgumentException if the body is not a valid encoded body
+     */
+    String decode(String encodedBody);
+}
@@ -11,8 +11,8 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.transport.impl.java;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.keyple.core.seproxy.exception.KeypleRuntimeException;
 import org.eclipse.keyple.plugin.remotese.transport.*;
 import org.eclipse.keyple.plugin.remotese.transport.factory.ServerNode;
@@ -34,7 +34,7 @@ public class LocalServer implements ServerNode {
     private final Map<String, LocalClient> client_ids;
 
     public LocalServer(String serverNodeId) {
-        this.client_ids = new HashMap<String, LocalClient>();
+        this.client_ids = new ConcurrentHashMap<String, LocalClient>();
         this.serverNodeId = serverNodeId;
     }
 
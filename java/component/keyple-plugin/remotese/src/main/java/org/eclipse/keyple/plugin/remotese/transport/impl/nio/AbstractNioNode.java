@@ -0,0 +1,204 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException;
+import org.eclipse.keyple.plugin.remotese.transport.DtoHandler;
+import org.eclipse.keyple.plugin.remotese.transport.DtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processing of the KeypleDto received by a NIO node
+ * <p>
+ * The frames are parsed by the selector loop, the KeypleDto are processed by the worker executor
+ * so that the loop thread never waits for a {@link DtoHandler}. The requests and notifications are
+ * processed in their arrival order for a given native reader and concurrently for different
+ * readers. The responses bypass these queues: they only release a waiting remote method and must
+ * not wait behind a request blocked on them.
+ * <p>
+ * A request the worker executor doesn't accept is answered with a
+ * {@link KeypleRemoteOverloadException}.
+ */
+abstract class AbstractNioNode implements DtoNode, NioConnection.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractNioNode.class);
+
+    private final String nodeId;
+    final NioSettings settings;
+    final ExecutorService workers;
+    private volatile DtoHandler dtoHandler;
+
+    AbstractNioNode(String nodeId, NioSettings settings, ExecutorService workers) {
+        this.nodeId = nodeId;
+        this.settings = settings;
+        this.workers = workers;
+    }
+
+    @Override
+    public void setDtoHandler(DtoHandler handler) {
+        this.dtoHandler = handler;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void sendDTO(TransportDto transportDto) throws KeypleRemoteException {
+        if (KeypleDtoHelper.isNoResponse(transportDto.getKeypleDTO())) {
+            logger.trace("Keyple DTO is empty, do not send it");
+            return;
+        }
+        NioConnection connection = transportDto instanceof NioTransportDto
+                ? ((NioTransportDto) transportDto).getConnection()
+                : null;
+        if (connection != null && !connection.isClosed()) {
+            connection.send(KeypleDtoHelper.toJson(transportDto.getKeypleDTO()));
+        } else {
+            // no connection in the transport dto, find it by the target node id
+            sendDTO(transportDto.getKeypleDTO());
+        }
+    }
+
+    @Override
+    public void sendDTO(KeypleDto keypleDto) throws KeypleRemoteException {
+        if (KeypleDtoHelper.isNoResponse(keypleDto)) {
+            logger.trace("Keyple DTO is empty, do not send it");
+            return;
+        }
+        NioConnection connection = getConnection(keypleDto.getTargetNodeId());
+        if (connection == null || connection.isClosed()) {
+            throw new KeypleRemoteException(
+                    "No connection from " + nodeId + " to " + keypleDto.getTargetNodeId());
+        }
+        connection.send(KeypleDtoHelper.toJson(keypleDto));
+    }
+
+    /**
+     * Find the connection to a node
+     *
+     * @param targetNodeId id of the node
+     * @return the connection, null if the node is not connected
+     */
+    abstract NioConnection getConnection(String targetNodeId);
+
+    /**
+     * Called by the loop thread for each received KeypleDto, before its processing
+     *
+     * @return false if the KeypleDto is to be dropped
+     */
+    boolean onReceived(NioConnection connection, KeypleDto keypleDto) {
+        return true;
+    }
+
+    @Override
+    public void onFrame(final NioConnection connection, String frame) {
+        final KeypleDto keypleDto;
+        try {
+            keypleDto = KeypleDtoHelper.fromJson(frame);
+        } catch (RuntimeException e) {
+            logger.warn("{} received an invalid frame from {} : {}", nodeId,
+                    connection.getRemoteNodeId(), e.getMessage());
+            connection.close();
+            return;
+        }
+        if (keypleDto == null) {
+            return;
+        }
+        if (!onReceived(connection, keypleDto)) {
+            return;
+        }
+
+        if (!keypleDto.isRequest()) {
+            try {
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        process(connection, keypleDto);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the waiting remote method is released by the loop thread rather than timing out
+                process(connection, keypleDto);
+            }
+            return;
+        }
+        String orderingKey =
+                keypleDto.getNativeReaderName() != null ? keypleDto.getNativeReaderName() : "";
+        try {
+            connection.dispatch(orderingKey, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        process(connection, keypleDto);
+                    } finally {
+                        connection.requestProcessed();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("{} worker executor unavailable, {} from {} rejected", nodeId,
+                    keypleDto.getAction(), connection.getRemoteNodeId());
+            reject(connection, keypleDto);
+        }
+    }
+
+    /**
+     * Answer a request that could not be processed, a notification is only dropped
+     */
+    private void reject(NioConnection connection, KeypleDto keypleDto) {
+        if (keypleDto.getId() == null) {
+            return;
+        }
+        KeypleDto error = KeypleDtoHelper.ExceptionDTO(keypleDto.getAction(),
+                new KeypleRemoteOverloadException(
+                        "The requests of " + nodeId + " can't be processed for now"),
+                keypleDto.getSessionId(), keypleDto.getNativeReaderName(),
+                keypleDto.getVirtualReaderName(), nodeId, keypleDto.getRequesterNodeId(),
+                keypleDto.getId());
+        try {
+            sendDTO(new NioTransportDto(error, connection));
+        } catch (KeypleRemoteException e) {
+            logger.warn("{} could not reject {} from {} : {}", nodeId, keypleDto.getAction(),
+                    connection.getRemoteNodeId(), e.getMessage());
+        }
+    }
+
+    private void process(NioConnection connection, KeypleDto keypleDto) {
+        DtoHandler handler = dtoHandler;
+        if (handler == null) {
+            logger.warn("{} has no DtoHandler, {} from {} dropped", nodeId, keypleDto.getAction(),
+                    connection.getRemoteNodeId());
+            return;
+        }
+        try {
+            TransportDto response = handler.onDTO(new NioTransportDto(keypleDto, connection));
+            if (response != null) {
+                sendDTO(response);
+            }
+        } catch (KeypleRemoteException e) {
+            logger.warn("{} could not respond to {} from {} : {}", nodeId, keypleDto.getAction(),
+                    connection.getRemoteNodeId(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("{} failed to process {} from {}", nodeId, keypleDto.getAction(),
+                    connection.getRemoteNodeId(), e);
+        }
+    }
+}
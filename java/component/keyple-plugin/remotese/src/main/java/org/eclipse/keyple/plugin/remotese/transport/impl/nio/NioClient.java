@@ -0,0 +1,148 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.eclipse.keyple.plugin.remotese.transport.factory.ClientNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client side of the NIO TCP transport, the clients of a {@link NioTransportFactory} share the same
+ * selector thread and worker executor.
+ * <p>
+ * The client must be connected with {@link #connect(ConnectCallback)}, the KeypleDto sent before
+ * the connection is established are queued.
+ */
+public class NioClient extends AbstractNioNode implements ClientNode {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioClient.class);
+
+    private final String serverNodeId;
+    private final InetSocketAddress serverAddress;
+    private final NioSelectorLoop loop;
+
+    private volatile NioConnection connection;
+    private volatile ConnectCallback connectCallback;
+
+    NioClient(String clientNodeId, String serverNodeId, InetSocketAddress serverAddress,
+            NioSelectorLoop loop, NioSettings settings, ExecutorService workers) {
+        super(clientNodeId, settings, workers);
+        this.serverNodeId = serverNodeId;
+        this.serverAddress = serverAddress;
+        this.loop = loop;
+    }
+
+    @Override
+    public void connect(ConnectCallback connectCallback) {
+        NioConnection current = connection;
+        if (current != null && !current.isClosed()) {
+            logger.warn("NIO client {} is already connected", getNodeId());
+            return;
+        }
+        logger.debug("Connect NIO client {} to {}", getNodeId(), serverAddress);
+        this.connectCallback = connectCallback;
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            NioConnection newConnection =
+                    new NioConnection(channel, loop, settings, this, workers);
+            newConnection.setRemoteNodeId(serverNodeId);
+            connection = newConnection;
+            newConnection.register(!channel.connect(serverAddress));
+        } catch (IOException e) {
+            logger.warn("NIO client {} could not connect to {} : {}", getNodeId(), serverAddress,
+                    e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // already failed
+                }
+            }
+            notifyConnectResult(false);
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        NioConnection current = connection;
+        if (current != null) {
+            logger.debug("Disconnect NIO client {}", getNodeId());
+            current.close();
+        }
+    }
+
+    /**
+     * @return true if the connection to the server is established
+     */
+    public boolean isConnected() {
+        NioConnection current = connection;
+        return current != null && current.isEstablished() && !current.isClosed();
+    }
+
+    @Override
+    public String getServerNodeId() {
+        return serverNodeId;
+    }
+
+    @Override
+    NioConnection getConnection(String targetNodeId) {
+        // every KeypleDto goes to the server
+        return connection;
+    }
+
+    @Override
+    public void onConnected(NioConnection connection) {
+        logger.debug("NIO client {} connected to {}", getNodeId(), serverAddress);
+        notifyConnectResult(true);
+    }
+
+    @Override
+    public void onClosed(NioConnection connection) {
+        if (!connection.isEstablished()) {
+            notifyConnectResult(false);
+        }
+    }
+
+    /**
+     * Call the connect callback in a worker thread, it may use the blocking remote methods
+     */
+    private void notifyConnectResult(final boolean success) {
+        final ConnectCallback callback = connectCallback;
+        connectCallback = null;
+        if (callback == null) {
+            return;
+        }
+        Runnable notification = new Runnable() {
+            @Override
+            public void run() {
+                if (success) {
+                    callback.onConnectSuccess();
+                } else {
+                    callback.onConnectFailure();
+                }
+            }
+        };
+        try {
+            workers.execute(notification);
+        } catch (RejectedExecutionException e) {
+            notification.run();
+        }
+    }
+}
@@ -0,0 +1,482 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.SerialTaskQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TCP connection of the NIO transport, read and written by a {@link NioSelectorLoop}.
+ * <p>
+ * The stream is made of frames: a 4 bytes big endian length followed by the UTF-8 payload.
+ * <ul>
+ * <li>The frames to be sent are queued, the loop writes them when the socket accepts data. A
+ * sender is blocked while the queued bytes exceed maxPendingBytes, and fails after sendTimeout.</li>
+ * <li>The received frames are given to the listener by the loop thread. While the received
+ * requests waiting to be processed exceed maxPendingFrames, the connection is not read any more:
+ * the TCP flow control then slows down the peer.</li>
+ * </ul>
+ */
+final class NioConnection implements NioSelectorLoop.Selectable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioConnection.class);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int HEADER_LENGTH = 4;
+
+    private static final int INITIAL_READ_BUFFER_SIZE = 4096;
+
+    /* read buffers larger than this are released once empty */
+    private static final int MAX_IDLE_READ_BUFFER_SIZE = 64 * 1024;
+
+    /* maximum number of frames given to a single gathering write */
+    private static final int MAX_GATHERED_FRAMES = 64;
+
+    /**
+     * Receives the events of a connection
+     */
+    interface Listener {
+
+        /**
+         * Called by the loop thread once the connection is established
+         */
+        void onConnected(NioConnection connection);
+
+        /**
+         * Called by the loop thread for each received frame
+         */
+        void onFrame(NioConnection connection, String frame);
+
+        /**
+         * Called once when the connection is closed
+         */
+        void onClosed(NioConnection connection);
+    }
+
+    private final SocketChannel channel;
+    private final NioSelectorLoop loop;
+    private final NioSettings settings;
+    private final Listener listener;
+    private final Executor executor;
+
+    /* selection key, set by the loop thread at the registration */
+    private SelectionKey key;
+
+    /* accessed by the loop thread only */
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger pendingBytes = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+    private final AtomicInteger blockedSenders = new AtomicInteger();
+
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private volatile boolean readPaused;
+
+    private volatile boolean established;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /* node id of the peer, once known */
+    private volatile String remoteNodeId;
+
+    /* ordering key, queue of the received requests (guarded by itself) */
+    private final Map<String, SerialTaskQueue> requestQueues =
+            new HashMap<String, SerialTaskQueue>();
+
+    /* frames gathered by a write, accessed by the loop thread only */
+    private final ByteBuffer[] gatheredFrames = new ByteBuffer[MAX_GATHERED_FRAMES];
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushScheduled.set(false);
+            flush();
+        }
+    };
+
+    private final Runnable resumeReadingTask = new Runnable() {
+        @Override
+        public void run() {
+            if (readPaused && pendingFrames.get() <= settings.maxPendingFrames / 2) {
+                readPaused = false;
+                setInterest(SelectionKey.OP_READ, true);
+            }
+        }
+    };
+
+    /**
+     * @param channel non blocking socket channel
+     * @param loop loop reading and writing the channel
+     * @param settings limits of the connection
+     * @param listener receives the events of the connection
+     * @param executor executor processing the received requests
+     */
+    NioConnection(SocketChannel channel, NioSelectorLoop loop, NioSettings settings,
+            Listener listener, Executor executor) {
+        this.channel = channel;
+        this.loop = loop;
+        this.settings = settings;
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    /**
+     * Register the channel on the loop
+     *
+     * @param connecting true if the connection is not established yet
+     */
+    void register(final boolean connecting) {
+        loop.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    key = loop.register(channel,
+                            connecting ? SelectionKey.OP_CONNECT : SelectionKey.OP_READ,
+                            NioConnection.this);
+                } catch (IOException e) {
+                    close(e);
+                    return;
+                }
+                if (!connecting) {
+                    established = true;
+                    listener.onConnected(NioConnection.this);
+                    flush();
+                }
+            }
+        });
+    }
+
+    /**
+     * Queue a frame to be sent
+     *
+     * @param payload content of the frame
+     * @throws KeypleRemoteException if the connection is closed, the frame too long or the write
+     *         queue still full after sendTimeout
+     */
+    void send(String payload) throws KeypleRemoteException {
+        byte[] bytes = payload.getBytes(UTF_8);
+        if (bytes.length > settings.maxFrameLength) {
+            throw new KeypleRemoteException("Frame of " + bytes.length
+                    + " bytes exceeds the maximum length " + settings.maxFrameLength);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + bytes.length);
+        frame.putInt(bytes.length).put(bytes).flip();
+
+        awaitWriteCapacity();
+        if (closed.get()) {
+            throw new KeypleRemoteException("Connection to " + remoteNodeId + " is closed");
+        }
+        pendingBytes.addAndGet(frame.remaining());
+        writeQueue.add(frame);
+        if (!flushScheduled.getAndSet(true)) {
+            try {
+                loop.execute(flushTask);
+            } catch (RejectedExecutionException e) {
+                close(null);
+                throw new KeypleRemoteException("Connection to " + remoteNodeId + " is closed");
+            }
+        }
+    }
+
+    /**
+     * Block the sender while the write queue is full, the loop thread is never blocked
+     */
+    private void awaitWriteCapacity() throws KeypleRemoteException {
+        if (pendingBytes.get() <= settings.maxPendingBytes || loop.inLoop()) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + settings.sendTimeout;
+        blockedSenders.incrementAndGet();
+        try {
+            synchronized (writeLock) {
+                while (pendingBytes.get() > settings.maxPendingBytes && !closed.get()) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new KeypleRemoteException("Write queue to " + remoteNodeId
+                                + " still full after " + settings.sendTimeout + " ms ("
+                                + pendingBytes.get() + " bytes pending)");
+                    }
+                    writeLock.wait(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeypleRemoteException("Interrupted while waiting for the write queue");
+        } finally {
+            blockedSenders.decrementAndGet();
+        }
+    }
+
+    /**
+     * Queue a received request to be processed by the executor, after the previous requests with
+     * the same ordering key
+     *
+     * @param orderingKey requests with the same key are processed in their arrival order
+     * @param task processing of the request, must call {@link #requestProcessed()}
+     */
+    void dispatch(String orderingKey, Runnable task) {
+        SerialTaskQueue queue;
+        synchronized (requestQueues) {
+            queue = requestQueues.get(orderingKey);
+            if (queue == null) {
+                queue = new SerialTaskQueue(executor, orderingKey);
+                requestQueues.put(orderingKey, queue);
+            }
+        }
+        pendingFrames.incrementAndGet();
+        try {
+            queue.add(task);
+        } catch (RejectedExecutionException e) {
+            requestProcessed();
+            throw e;
+        }
+    }
+
+    /**
+     * Signal the end of the processing of a dispatched request, reading resumes when enough
+     * requests are processed
+     */
+    void requestProcessed() {
+        if (pendingFrames.decrementAndGet() <= settings.maxPendingFrames / 2 && readPaused) {
+            try {
+                loop.execute(resumeReadingTask);
+            } catch (RejectedExecutionException e) {
+                // loop closed
+            }
+        }
+    }
+
+    @Override
+    public void onSelected(SelectionKey key) {
+        if (key.isConnectable()) {
+            finishConnect();
+            return;
+        }
+        if (key.isReadable()) {
+            read();
+        }
+        if (key.isValid() && key.isWritable()) {
+            flush();
+        }
+    }
+
+    private void finishConnect() {
+        try {
+            channel.finishConnect();
+        } catch (IOException e) {
+            close(e);
+            return;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+        established = true;
+        listener.onConnected(this);
+        flush();
+    }
+
+    private void read() {
+        int count;
+        try {
+            count = channel.read(readBuffer);
+        } catch (IOException e) {
+            close(e);
+            return;
+        }
+        if (count < 0) {
+            close(null);
+            return;
+        }
+
+        readBuffer.flip();
+        int required = 0;
+        while (readBuffer.remaining() >= HEADER_LENGTH && !closed.get()) {
+            int length = readBuffer.getInt(readBuffer.position());
+            if (length < 0 || length > settings.maxFrameLength) {
+                close(new IOException("Invalid frame length " + length));
+                return;
+            }
+            if (readBuffer.remaining() < HEADER_LENGTH + length) {
+                required = HEADER_LENGTH + length;
+                break;
+            }
+            int start = readBuffer.position() + HEADER_LENGTH;
+            String frame =
+                    new String(readBuffer.array(), readBuffer.arrayOffset() + start, length, UTF_8);
+            readBuffer.position(start + length);
+            listener.onFrame(this, frame);
+        }
+        readBuffer.compact();
+
+        if (required > readBuffer.capacity()) {
+            // the next frame does not fit in the buffer
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(required, 2 * readBuffer.capacity()));
+            readBuffer.flip();
+            larger.put(readBuffer);
+            readBuffer = larger;
+        } else if (readBuffer.position() == 0
+                && readBuffer.capacity() > MAX_IDLE_READ_BUFFER_SIZE) {
+            readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+        }
+
+        if (pendingFrames.get() >= settings.maxPendingFrames && !readPaused) {
+            logger.debug("{} requests pending from {}, stop reading", pendingFrames.get(),
+                    remoteNodeId);
+            readPaused = true;
+            setInterest(SelectionKey.OP_READ, false);
+            // the requests may have been processed before readPaused was set
+            resumeReadingTask.run();
+        }
+    }
+
+    /**
+     * Write the queued frames, must be called in the loop thread
+     */
+    private void flush() {
+        if (key == null || closed.get() || !channel.isConnected()) {
+            // flushed once registered and connected
+            return;
+        }
+        try {
+            ByteBuffer[] frames = gatheredFrames;
+            while (true) {
+                int count = 0;
+                Iterator<ByteBuffer> it = writeQueue.iterator();
+                while (count < MAX_GATHERED_FRAMES && it.hasNext()) {
+                    frames[count++] = it.next();
+                }
+                if (count == 0) {
+                    break;
+                }
+                channel.write(frames, 0, count);
+                int written = 0;
+                while (written < count && !frames[written].hasRemaining()) {
+                    writeQueue.poll();
+                    released(frames[written].capacity());
+                    frames[written] = null;
+                    written++;
+                }
+                if (written < count) {
+                    // the frames stay in the write queue only
+                    Arrays.fill(frames, written, count, null);
+                    // the socket buffer is full, wait for the channel to be writable
+                    setInterest(SelectionKey.OP_WRITE, true);
+                    return;
+                }
+            }
+            setInterest(SelectionKey.OP_WRITE, false);
+        } catch (IOException e) {
+            close(e);
+        }
+    }
+
+    private void released(int bytes) {
+        if (pendingBytes.addAndGet(-bytes) <= settings.maxPendingBytes
+                && blockedSenders.get() > 0) {
+            synchronized (writeLock) {
+                writeLock.notifyAll();
+            }
+        }
+    }
+
+    private void setInterest(int op, boolean enabled) {
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        int ops = key.interestOps();
+        int newOps = enabled ? ops | op : ops & ~op;
+        if (newOps != ops) {
+            key.interestOps(newOps);
+        }
+    }
+
+    @Override
+    public void close() {
+        close(null);
+    }
+
+    /**
+     * Close the connection, can be called by any thread
+     *
+     * @param cause error closing the connection, null for a normal close
+     */
+    void close(IOException cause) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (cause != null) {
+            logger.warn("Connection to {} closed : {}", remoteNodeId, cause.getMessage());
+        } else {
+            logger.debug("Connection to {} closed", remoteNodeId);
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Error while closing the connection to {}", remoteNodeId, e);
+        }
+        writeQueue.clear();
+        synchronized (writeLock) {
+            writeLock.notifyAll();
+        }
+        listener.onClosed(this);
+    }
+
+    /**
+     * @return true if the connection has been established, even if it is closed since
+     */
+    boolean isEstablished() {
+        return established;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    String getRemoteNodeId() {
+        return remoteNodeId;
+    }
+
+    void setRemoteNodeId(String remoteNodeId) {
+        this.remoteNodeId = remoteNodeId;
+    }
+
+    /**
+     * @return number of bytes waiting to be written
+     */
+    int getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    /**
+     * @return number of received requests waiting to be processed
+     */
+    int getPendingFrames() {
+        return pendingFrames.get();
+    }
+}
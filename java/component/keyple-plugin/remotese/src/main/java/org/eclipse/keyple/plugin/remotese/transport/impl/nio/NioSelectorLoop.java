@@ -0,0 +1,171 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread owning a {@link Selector}: it accepts the connections, reads and writes the channels
+ * registered on it, and runs the tasks submitted to it (registrations, interest changes).
+ * <p>
+ * A single loop serves any number of channels, it must never block.
+ */
+final class NioSelectorLoop implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioSelectorLoop.class);
+
+    /**
+     * Handler attached to the selection key of a channel
+     */
+    interface Selectable {
+
+        /**
+         * Called by the loop thread when the channel is ready for one of its interest operations
+         *
+         * @param key the selection key of the channel
+         */
+        void onSelected(SelectionKey key);
+
+        /**
+         * Called by the loop thread when the loop is closed
+         */
+        void close();
+    }
+
+    private final String name;
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    private volatile boolean running = true;
+
+    /**
+     * Open the selector and start the loop thread
+     *
+     * @param name name of the loop thread
+     * @throws IOException if the selector could not be opened
+     */
+    NioSelectorLoop(String name) throws IOException {
+        this.name = name;
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Run a task in the loop thread
+     *
+     * @param task task to be run after the current selection
+     * @throws RejectedExecutionException if the loop is closed
+     */
+    void execute(Runnable task) {
+        if (!running) {
+            throw new RejectedExecutionException("Selector loop " + name + " is closed");
+        }
+        tasks.add(task);
+        if (!inLoop()) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * @return true if the current thread is the loop thread
+     */
+    boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Register a channel, must be called in the loop thread
+     *
+     * @param channel non blocking channel
+     * @param ops interest operations
+     * @param selectable handler of the channel
+     * @return the selection key of the channel
+     * @throws ClosedChannelException if the channel is closed
+     */
+    SelectionKey register(SelectableChannel channel, int ops, Selectable selectable)
+            throws ClosedChannelException {
+        return channel.register(selector, ops, selectable);
+    }
+
+    /**
+     * Stop the loop, its channels are closed by the loop thread
+     */
+    void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        logger.debug("Selector loop {} started", name);
+        while (running) {
+            try {
+                if (tasks.isEmpty()) {
+                    selector.select();
+                } else {
+                    // tasks queued by the loop thread itself
+                    selector.selectNow();
+                }
+            } catch (IOException e) {
+                logger.error("Selector loop {} failed", name, e);
+                break;
+            }
+            runTasks();
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                if (key.isValid()) {
+                    try {
+                        ((Selectable) key.attachment()).onSelected(key);
+                    } catch (RuntimeException e) {
+                        logger.error("Selector loop {} : unexpected error", name, e);
+                    }
+                }
+            }
+        }
+        running = false;
+        tasks.clear();
+        for (SelectionKey key : selector.keys()) {
+            ((Selectable) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.debug("Selector loop {} : error while closing the selector", name, e);
+        }
+        logger.debug("Selector loop {} stopped", name);
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Selector loop {} : unexpected error in a task", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.plugin.remotese.transport.factory.ServerNode;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server side of the NIO TCP transport: a single selector thread accepts, reads and writes all the
+ * client connections, the received requests are processed by a worker executor.
+ * <p>
+ * A client is known by its node id once it has sent a first KeypleDto, the KeypleDto targeting
+ * this node id are then sent through its connection. The node id of a connection can't change, and
+ * can't be taken over while the connection of the node is open: such a connection is closed.
+ */
+public class NioServer extends AbstractNioNode implements ServerNode {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioServer.class);
+
+    private final ServerSocketChannel serverChannel;
+    private final NioSelectorLoop loop;
+
+    // client node id, connection of the client
+    private final ConcurrentMap<String, NioConnection> connections =
+            new ConcurrentHashMap<String, NioConnection>();
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    /**
+     * Bind the server socket, the connections are accepted once started
+     *
+     * @param serverNodeId node id of the server
+     * @param address address to listen to (port 0 for an ephemeral port)
+     * @param settings limits of the connections
+     * @param workers executor processing the received requests
+     * @throws IOException if the server socket could not be bound
+     */
+    NioServer(String serverNodeId, InetSocketAddress address, NioSettings settings,
+            ExecutorService workers) throws IOException {
+        super(serverNodeId, settings, workers);
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.socket().bind(address, settings.backlog);
+            loop = new NioSelectorLoop("nio-server-" + serverNodeId);
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+        loop.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    loop.register(serverChannel, SelectionKey.OP_ACCEPT, new Acceptor());
+                    logger.info("NIO server {} listens on {}", getNodeId(), getLocalAddress());
+                } catch (IOException e) {
+                    logger.error("NIO server {} could not start", getNodeId(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Close the server socket and the client connections
+     */
+    public void stop() {
+        logger.info("NIO server {} stops", getNodeId());
+        loop.close();
+    }
+
+    /**
+     * @return address the server listens to
+     */
+    public InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) serverChannel.socket().getLocalSocketAddress();
+    }
+
+    /**
+     * @return number of open client connections
+     */
+    public int getConnectionCount() {
+        return openConnections.get();
+    }
+
+    @Override
+    NioConnection getConnection(String targetNodeId) {
+        return targetNodeId != null ? connections.get(targetNodeId) : null;
+    }
+
+    @Override
+    boolean onReceived(NioConnection connection, KeypleDto keypleDto) {
+        String requesterNodeId = keypleDto.getRequesterNodeId();
+        if (requesterNodeId == null || requesterNodeId.equals(connection.getRemoteNodeId())) {
+            return true;
+        }
+        if (connection.getRemoteNodeId() != null) {
+            logger.warn("NIO server {} : client {} sent a KeypleDto as {}, connection closed",
+                    getNodeId(), connection.getRemoteNodeId(), requesterNodeId);
+            connection.close();
+            return false;
+        }
+        while (true) {
+            NioConnection previous = connections.putIfAbsent(requesterNodeId, connection);
+            if (previous == null) {
+                break;
+            }
+            if (!previous.isClosed()) {
+                logger.warn("NIO server {} : client {} is already connected, connection closed",
+                        getNodeId(), requesterNodeId);
+                connection.close();
+                return false;
+            }
+            // the previous connection of the client is closed, it reconnected
+            if (connections.replace(requesterNodeId, previous, connection)) {
+                break;
+            }
+        }
+        logger.debug("NIO server {} : connection of client {}", getNodeId(), requesterNodeId);
+        connection.setRemoteNodeId(requesterNodeId);
+        return true;
+    }
+
+    @Override
+    public void onConnected(NioConnection connection) {
+        openConnections.incrementAndGet();
+    }
+
+    @Override
+    public void onClosed(NioConnection connection) {
+        if (connection.isEstablished()) {
+            openConnections.decrementAndGet();
+        }
+        if (connection.getRemoteNodeId() != null) {
+            connections.remove(connection.getRemoteNodeId(), connection);
+        }
+    }
+
+    /**
+     * Accepts the client connections
+     */
+    private final class Acceptor implements NioSelectorLoop.Selectable {
+
+        @Override
+        public void onSelected(SelectionKey key) {
+            SocketChannel channel;
+            try {
+                while ((channel = serverChannel.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    new NioConnection(channel, loop, settings, NioServer.this, workers)
+                            .register(false);
+                }
+            } catch (IOException e) {
+                logger.warn("NIO server {} could not accept a connection : {}", getNodeId(),
+                        e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                logger.debug("Error while closing the server socket", e);
+            }
+        }
+    }
+}
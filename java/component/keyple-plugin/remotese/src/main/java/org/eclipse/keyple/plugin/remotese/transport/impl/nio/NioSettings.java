@@ -0,0 +1,42 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+/**
+ * Limits applied to the connections of the NIO transport
+ */
+final class NioSettings {
+
+    /* maximum length in bytes of a frame payload, a longer frame closes the connection */
+    final int maxFrameLength;
+
+    /* bytes queued for writing on a connection above which the senders are blocked */
+    final int maxPendingBytes;
+
+    /* received requests of a connection waiting to be processed above which reading stops */
+    final int maxPendingFrames;
+
+    /* time in milliseconds a sender waits for the write queue to drain */
+    final long sendTimeout;
+
+    /* maximum number of pending connections on the server socket */
+    final int backlog;
+
+    NioSettings(int maxFrameLength, int maxPendingBytes, int maxPendingFrames, long sendTimeout,
+            int backlog) {
+        this.maxFrameLength = maxFrameLength;
+        this.maxPendingBytes = maxPendingBytes;
+        this.maxPendingFrames = maxPendingFrames;
+        this.sendTimeout = sendTimeout;
+        this.backlog = backlog;
+    }
+}
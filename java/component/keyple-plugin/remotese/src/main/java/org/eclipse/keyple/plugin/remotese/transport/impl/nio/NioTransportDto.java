@@ -0,0 +1,43 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+
+/**
+ * TransportDto received by a NIO node, it holds the connection the response is sent through
+ */
+class NioTransportDto implements TransportDto {
+
+    private final KeypleDto keypleDto;
+    private final NioConnection connection;
+
+    NioTransportDto(KeypleDto keypleDto, NioConnection connection) {
+        this.keypleDto = keypleDto;
+        this.connection = connection;
+    }
+
+    @Override
+    public KeypleDto getKeypleDTO() {
+        return keypleDto;
+    }
+
+    @Override
+    public TransportDto nextTransportDTO(KeypleDto keypleDto) {
+        return new NioTransportDto(keypleDto, connection);
+    }
+
+    NioConnection getConnection() {
+        return connection;
+    }
+}
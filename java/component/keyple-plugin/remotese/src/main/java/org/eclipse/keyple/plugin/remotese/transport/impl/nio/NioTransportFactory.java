@@ -0,0 +1,198 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.plugin.remotese.transport.factory.ClientNode;
+import org.eclipse.keyple.plugin.remotese.transport.factory.ServerNode;
+import org.eclipse.keyple.plugin.remotese.transport.factory.TransportFactory;
+
+/**
+ * Factory to create a {@link NioServer} and {@link NioClient}s communicating over TCP with non
+ * blocking sockets.
+ * <p>
+ * The server uses one selector thread for all its connections and its own pool of worker threads
+ * to process the received requests. All the clients created by the factory share another selector
+ * thread and another worker pool, so that thousands of clients can run in one JVM.
+ * <p>
+ * The limits must be set before the server and the clients are created.
+ */
+public class NioTransportFactory extends TransportFactory {
+
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 4 * 1024 * 1024;
+    public static final int DEFAULT_MAX_PENDING_BYTES = 1024 * 1024;
+    public static final int DEFAULT_MAX_PENDING_FRAMES = 64;
+    public static final long DEFAULT_SEND_TIMEOUT = 10000;
+    public static final int DEFAULT_BACKLOG = 1024;
+
+    private final String serverNodeId;
+    private final InetSocketAddress address;
+    private final int workerThreads;
+
+    private int maxFrameLength = DEFAULT_MAX_FRAME_LENGTH;
+    private int maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+    private int maxPendingFrames = DEFAULT_MAX_PENDING_FRAMES;
+    private long sendTimeout = DEFAULT_SEND_TIMEOUT;
+    private int backlog = DEFAULT_BACKLOG;
+
+    private NioServer server;
+    private ExecutorService serverWorkers;
+    private NioSelectorLoop clientLoop;
+    private ExecutorService clientWorkers;
+
+    /**
+     * Factory with one worker thread per processor
+     *
+     * @param serverNodeId node id of the server
+     * @param address address of the server (port 0 for an ephemeral port)
+     */
+    public NioTransportFactory(String serverNodeId, InetSocketAddress address) {
+        this(serverNodeId, address, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param serverNodeId node id of the server
+     * @param address address of the server (port 0 for an ephemeral port)
+     * @param workerThreads number of threads processing the received requests, for the server and
+     *        for the clients
+     */
+    public NioTransportFactory(String serverNodeId, InetSocketAddress address, int workerThreads) {
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("At least one worker thread is required");
+        }
+        this.serverNodeId = serverNodeId;
+        this.address = address;
+        this.workerThreads = workerThreads;
+    }
+
+    /**
+     * @param maxFrameLength maximum length in bytes of a serialized KeypleDto
+     */
+    public void setMaxFrameLength(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * @param maxPendingBytes bytes queued for sending on a connection above which the senders
+     *        are blocked
+     */
+    public void setMaxPendingBytes(int maxPendingBytes) {
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * @param maxPendingFrames requests received on a connection and waiting to be processed above
+     *        which the connection is not read any more
+     */
+    public void setMaxPendingFrames(int maxPendingFrames) {
+        this.maxPendingFrames = maxPendingFrames;
+    }
+
+    /**
+     * @param sendTimeout time in milliseconds a blocked sender waits before failing
+     */
+    public void setSendTimeout(long sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * @param backlog maximum number of connections waiting to be accepted by the server
+     */
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    @Override
+    public synchronized ClientNode getClient(String clientNodeId) {
+        if (clientLoop == null) {
+            try {
+                clientLoop = new NioSelectorLoop("nio-clients-" + serverNodeId);
+            } catch (IOException e) {
+                throw new IllegalStateException("The client selector could not be opened", e);
+            }
+            clientWorkers = Executors.newFixedThreadPool(workerThreads,
+                    new WorkerThreadFactory("nio-client-worker-"));
+        }
+        // connect to the actual port if the server has been bound to an ephemeral port
+        InetSocketAddress serverAddress = server != null
+                ? new InetSocketAddress(address.getAddress(), server.getLocalAddress().getPort())
+                : address;
+        return new NioClient(clientNodeId, serverNodeId, serverAddress, clientLoop, settings(),
+                clientWorkers);
+    }
+
+    @Override
+    public synchronized ServerNode getServer() throws IOException {
+        if (server == null) {
+            serverWorkers = Executors.newFixedThreadPool(workerThreads,
+                    new WorkerThreadFactory("nio-server-worker-"));
+            try {
+                server = new NioServer(serverNodeId, address, settings(), serverWorkers);
+            } catch (IOException e) {
+                serverWorkers.shutdown();
+                throw e;
+            }
+        }
+        return server;
+    }
+
+    @Override
+    public String getServerNodeId() {
+        return serverNodeId;
+    }
+
+    /**
+     * Stop the server, close the client connections and stop the worker threads
+     */
+    public synchronized void shutdown() {
+        if (server != null) {
+            server.stop();
+            serverWorkers.shutdown();
+            server = null;
+        }
+        if (clientLoop != null) {
+            clientLoop.close();
+            clientWorkers.shutdown();
+            clientLoop = null;
+        }
+    }
+
+    private NioSettings settings() {
+        return new NioSettings(maxFrameLength, maxPendingBytes, maxPendingFrames, sendTimeout,
+                backlog);
+    }
+
+    /**
+     * Daemon worker threads
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        WorkerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -58,6 +58,16 @@ public class KeypleDto {
     // Master reader name (optional)
     private final String virtualReaderName;
 
+    /*
+     * Encoding
+     */
+
+    // Codec of the body, null for plain json (optional)
+    private final String codec;
+
+    // Codecs the requester node is able to decode, comma separated (optional)
+    private final String acceptedCodecs;
+
 
 
     /**
@@ -77,6 +87,30 @@ public class KeypleDto {
     public KeypleDto(String action, String body, Boolean isRequest, String sessionId,
             String nativeReaderName, String virtualReaderName, String requesterNodeId,
             String targetNodeId, String id, String error) {
+        this(action, body, isRequest, sessionId, nativeReaderName, virtualReaderName,
+                requesterNodeId, targetNodeId, id, error, null, null);
+    }
+
+    /**
+     * Constructor of a KeypleDto with an encoded body or a codec offer, see
+     * {@link org.eclipse.keyple.plugin.remotese.transport.CompressingDtoNode}
+     *
+     * @param action : API method to be called (required)
+     * @param body : Arguments of the API - json or encoded by the codec (optional)
+     * @param isRequest : Is a request or a response (required)
+     * @param sessionId : Session Id of current Virtual Reader Session Id (optional)
+     * @param nativeReaderName : readerName of the native reader (required)
+     * @param virtualReaderName : readerName of the virtual reader (optional)
+     * @param requesterNodeId : node the request is sent from (required)
+     * @param targetNodeId : node the request is sent to (required)
+     * @param id : unique id of this request (optional)
+     * @param error : error - java exception (optional)
+     * @param codec : name of the codec the body is encoded with, null for json (optional)
+     * @param acceptedCodecs : codecs the requester node decodes, comma separated (optional)
+     */
+    public KeypleDto(String action, String body, Boolean isRequest, String sessionId,
+            String nativeReaderName, String virtualReaderName, String requesterNodeId,
+            String targetNodeId, String id, String error, String codec, String acceptedCodecs) {
 
         this.sessionId = sessionId;
         this.action = action;
@@ -88,6 +122,8 @@ public class KeypleDto {
         this.targetNodeId = targetNodeId;
         this.id = id;
         this.error = error;
+        this.codec = codec;
+        this.acceptedCodecs = acceptedCodecs;
 
     }
 
@@ -135,6 +171,14 @@ public class KeypleDto {
         return error;
     }
 
+    public String getCodec() {
+        return codec;
+    }
+
+    public String getAcceptedCodecs() {
+        return acceptedCodecs;
+    }
+
     @Override
     public String toString() {
         return String.format(
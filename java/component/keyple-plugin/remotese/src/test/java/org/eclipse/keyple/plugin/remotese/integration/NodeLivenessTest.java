@@ -0,0 +1,199 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.integration;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
+import org.eclipse.keyple.core.seproxy.event.PluginEvent;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.ProxyReader;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.RemoteSePlugin;
+import org.eclipse.keyple.plugin.remotese.pluginse.VirtualReader;
+import org.eclipse.keyple.plugin.remotese.transport.HeartbeatDtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.PartitionDtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubReaderTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test the failure detection of a slave node by the Master API through heartbeats
+ */
+public class NodeLivenessTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeLivenessTest.class);
+
+    final String CLIENT_NODE_ID = "livenessClientNodeId";
+    final String SERVER_NODE_ID = "livenessServerNodeId";
+    final String NATIVE_READER_NAME = "livenessStubReader";
+    final String REMOTE_SE_PLUGIN_NAME = "livenessRemoteSePlugin";
+
+    final long RPC_TIMEOUT = 10000;
+    final long INTERVAL = 50;
+    final long TIMEOUT = 300;
+    final long GRACE_PERIOD = 600;
+
+    PartitionDtoNode masterLink;
+    PartitionDtoNode slaveLink;
+    HeartbeatDtoNode masterNode;
+    HeartbeatDtoNode slaveNode;
+    SlaveAPI slaveAPI;
+    RemoteSePlugin remoteSePlugin;
+    StubReader nativeReader;
+    VirtualReader virtualReader;
+
+    final BlockingQueue<PluginEvent> pluginEvents = new LinkedBlockingQueue<PluginEvent>();
+    final ObservablePlugin.PluginObserver observer = new ObservablePlugin.PluginObserver() {
+        @Override
+        public void update(PluginEvent event) {
+            pluginEvents.add(event);
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+
+        LocalTransportFactory factory = new LocalTransportFactory(SERVER_NODE_ID);
+        masterLink = new PartitionDtoNode(factory.getServer());
+        slaveLink = new PartitionDtoNode(factory.getClient(CLIENT_NODE_ID));
+        masterNode = new HeartbeatDtoNode(masterLink, INTERVAL, TIMEOUT, GRACE_PERIOD);
+        slaveNode = new HeartbeatDtoNode(slaveLink, INTERVAL, TIMEOUT, GRACE_PERIOD);
+
+        remoteSePlugin = new MasterAPI(SeProxyService.getInstance(), masterNode, RPC_TIMEOUT,
+                MasterAPI.PLUGIN_TYPE_DEFAULT, REMOTE_SE_PLUGIN_NAME).getPlugin();
+        remoteSePlugin.addObserver(observer);
+        slaveAPI = new SlaveAPI(SeProxyService.getInstance(), slaveNode, SERVER_NODE_ID);
+
+        nativeReader = Integration.createStubReader(NATIVE_READER_NAME,
+                TransmissionMode.CONTACTLESS);
+        nativeReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        slaveAPI.connectReader(nativeReader);
+        Assert.assertEquals(PluginEvent.EventType.READER_CONNECTED,
+                pluginEvents.poll(1, TimeUnit.SECONDS).getEventType());
+        virtualReader = (VirtualReader) remoteSePlugin.getReaders().first();
+
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+        Thread.sleep(200);
+        StubReaderTest.genericSelectSe(virtualReader);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        remoteSePlugin.removeObserver(observer);
+        masterNode.stop();
+        slaveNode.stop();
+        Integration.unregisterAllPlugin(REMOTE_SE_PLUGIN_NAME);
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+    }
+
+    /**
+     * The call in flight when the link breaks fails at the detection instead of the rpc timeout,
+     * the virtual reader is disconnected at the end of the grace period
+     */
+    @Test
+    public void partition_failsInFlightCallAndDisconnectsReader() throws Exception {
+        masterLink.setPartitioned(true);
+        slaveLink.setPartitioned(true);
+
+        long start = System.nanoTime();
+        try {
+            transmitReadRecord();
+            Assert.fail("the call should fail");
+        } catch (KeypleReaderException e) {
+            Assert.assertTrue(e.getMessage().contains("unreachable"));
+        }
+        long failureLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        /* the next calls fail at once */
+        long nextStart = System.nanoTime();
+        try {
+            transmitReadRecord();
+            Assert.fail("the call should fail");
+        } catch (KeypleReaderException e) {
+            Assert.assertTrue(e.getMessage().contains("unreachable"));
+        }
+        long nextFailureLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nextStart);
+
+        PluginEvent event = pluginEvents.poll(10 * GRACE_PERIOD, TimeUnit.MILLISECONDS);
+        long disconnectLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertEquals(PluginEvent.EventType.READER_DISCONNECTED, event.getEventType());
+        Assert.assertEquals(virtualReader.getName(), event.getReaderNames().first());
+        Assert.assertEquals(0, remoteSePlugin.getReaders().size());
+
+        logger.info(
+                "Rpc timeout {} ms, heartbeat timeout {} ms : in-flight call failed after {} ms, next call after {} ms, reader disconnected after {} ms",
+                RPC_TIMEOUT, TIMEOUT, failureLatency, nextFailureLatency, disconnectLatency);
+        Assert.assertTrue(failureLatency < TIMEOUT + 5 * INTERVAL);
+        Assert.assertTrue(nextFailureLatency < TIMEOUT / 3);
+        Assert.assertTrue(disconnectLatency < TIMEOUT + GRACE_PERIOD + 5 * INTERVAL);
+    }
+
+    /**
+     * A link restored within the grace period keeps the virtual reader, the calls succeed again
+     */
+    @Test
+    public void partition_healedWithinGracePeriod() throws Exception {
+        masterLink.setPartitioned(true);
+        slaveLink.setPartitioned(true);
+        try {
+            transmitReadRecord();
+            Assert.fail("the call should fail");
+        } catch (KeypleReaderException e) {
+            Assert.assertTrue(e.getMessage().contains("unreachable"));
+        }
+
+        masterLink.setPartitioned(false);
+        slaveLink.setPartitioned(false);
+        Thread.sleep(3 * INTERVAL);
+
+        Assert.assertTrue(masterNode.isReachable(CLIENT_NODE_ID));
+        Assert.assertTrue(transmitReadRecord().get(0).getApduResponses().get(0).isSuccessful());
+        Assert.assertNull(pluginEvents.poll(2 * GRACE_PERIOD, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, remoteSePlugin.getReaders().size());
+    }
+
+    private List<SeResponse> transmitReadRecord() throws KeypleReaderException {
+        ReadRecordsCmdBuild poReadRecordCmd_T2Env = new ReadRecordsCmdBuild(PoClass.ISO,
+                (byte) 0x14, ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, true, (byte) 0x20,
+                "");
+        List<ApduRequest> poApduRequestList = Arrays.asList(poReadRecordCmd_T2Env.getApduRequest());
+        Set<SeRequest> seRequestSet = new LinkedHashSet<SeRequest>();
+        seRequestSet.add(new SeRequest(poApduRequestList));
+        return ((ProxyReader) virtualReader).transmitSet(seRequestSet);
+    }
+}
@@ -0,0 +1,300 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.integration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.ProxyReader;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteOverloadException;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.RemoteSePlugin;
+import org.eclipse.keyple.plugin.remotese.transport.DtoHandler;
+import org.eclipse.keyple.plugin.remotese.transport.DtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubReaderTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test the limits of the remote calls of the Master API under a burst of calls to slow slaves
+ */
+public class RemoteCallOverloadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteCallOverloadTest.class);
+
+    final String SERVER_NODE_ID = "overloadServerNodeId";
+    final String REMOTE_SE_PLUGIN_NAME = "overloadRemoteSePlugin";
+
+    final int SLAVES = 2;
+    final int READERS_PER_SLAVE = 10;
+    final int CALLS_PER_READER = 20;
+    final long SLAVE_DELAY = 20;
+    final long SLOW_SLAVE_DELAY = 500;
+
+    final int MAX_THREADS = 8;
+    final int MAX_CALLS = 6;
+    final int MAX_CALLS_PER_NODE = 4;
+
+    /* time each request waits on the slaves before being processed */
+    volatile long slaveDelay = SLAVE_DELAY;
+
+    MasterAPI masterAPI;
+    RemoteSePlugin remoteSePlugin;
+    final List<SeReader> virtualReaders = new ArrayList<SeReader>();
+
+    @Before
+    public void setUp() throws Exception {
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+
+        LocalTransportFactory factory = new LocalTransportFactory(SERVER_NODE_ID);
+        masterAPI = new MasterAPI(SeProxyService.getInstance(), factory.getServer(),
+                MasterAPI.DEFAULT_RPC_TIMEOUT, MasterAPI.PLUGIN_TYPE_DEFAULT,
+                REMOTE_SE_PLUGIN_NAME, MasterAPI.newBoundedExecutorService(MAX_THREADS));
+        remoteSePlugin = masterAPI.getPlugin();
+
+        for (int slave = 0; slave < SLAVES; slave++) {
+            SlaveAPI slaveAPI = new SlaveAPI(SeProxyService.getInstance(),
+                    new SlowDtoNode(factory.getClient("overloadSlave" + slave)), SERVER_NODE_ID);
+            for (int i = 0; i < READERS_PER_SLAVE; i++) {
+                StubReader nativeReader = Integration.createStubReader(
+                        "overloadReader" + slave + "-" + i, TransmissionMode.CONTACTLESS);
+                nativeReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                        StubProtocolSetting.STUB_PROTOCOL_SETTING
+                                .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+                nativeReader.insertSe(StubReaderTest.hoplinkSE());
+                slaveAPI.connectReader(nativeReader);
+            }
+        }
+        Thread.sleep(200);
+        for (SeReader virtualReader : remoteSePlugin.getReaders()) {
+            StubReaderTest.genericSelectSe(virtualReader);
+            virtualReaders.add(virtualReader);
+        }
+        Assert.assertEquals(SLAVES * READERS_PER_SLAVE, virtualReaders.size());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Integration.unregisterAllPlugin(REMOTE_SE_PLUGIN_NAME);
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+    }
+
+    /**
+     * A burst of calls beyond the limits is partly rejected with an overload exception, the
+     * threads and the calls in flight stay bounded
+     */
+    @Test
+    public void burst_isBoundedAndRejected() throws Exception {
+        masterAPI.setMaxInFlightCalls(MAX_CALLS);
+        masterAPI.setMaxInFlightCallsPerNode(MAX_CALLS_PER_NODE);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int threadsBefore = threads.getThreadCount();
+
+        final AtomicInteger succeeded = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger maxActiveThreads = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(virtualReaders.size());
+
+        // one application thread per virtual reader, calling it in a loop
+        for (final SeReader virtualReader : virtualReaders) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < CALLS_PER_READER; i++) {
+                        try {
+                            transmitReadRecord(virtualReader);
+                            succeeded.incrementAndGet();
+                        } catch (KeypleReaderException e) {
+                            if (e.getCause() instanceof KeypleRemoteOverloadException) {
+                                rejected.incrementAndGet();
+                            } else {
+                                logger.error("Unexpected failure", e);
+                                failed.incrementAndGet();
+                            }
+                        }
+                        int active = masterAPI.getActiveThreads();
+                        if (active > maxActiveThreads.get()) {
+                            maxActiveThreads.set(active);
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        int peakThreads = threads.getThreadCount();
+        while (done.getCount() > 0) {
+            peakThreads = Math.max(peakThreads, threads.getThreadCount());
+            Thread.sleep(5);
+        }
+
+        long limiterRejected = masterAPI.getCallLimiter().getRejected()
+                + masterAPI.getCallLimiter("overloadSlave0").getRejected()
+                + masterAPI.getCallLimiter("overloadSlave1").getRejected();
+        logger.info(
+                "{} calls : {} succeeded, {} rejected ({} by the limits), {} failed ; peak in flight {} (plugin), {}/{} (nodes) ; threads {} -> peak {}",
+                virtualReaders.size() * CALLS_PER_READER, succeeded.get(), rejected.get(),
+                limiterRejected, failed.get(), masterAPI.getCallLimiter().getPeak(),
+                masterAPI.getCallLimiter("overloadSlave0").getPeak(),
+                masterAPI.getCallLimiter("overloadSlave1").getPeak(), threadsBefore,
+                peakThreads);
+
+        Assert.assertEquals(0, failed.get());
+        Assert.assertEquals(virtualReaders.size() * CALLS_PER_READER,
+                succeeded.get() + rejected.get());
+        Assert.assertTrue(succeeded.get() > 0);
+        Assert.assertTrue(rejected.get() > 0);
+        // the other calls are rejected for want of a thread, one may still be ending its call
+        Assert.assertTrue(limiterRejected > 0);
+        Assert.assertTrue(limiterRejected <= rejected.get());
+
+        // the limits hold and every permit is given back
+        Assert.assertTrue(masterAPI.getCallLimiter().getPeak() <= MAX_CALLS);
+        Assert.assertTrue(
+                masterAPI.getCallLimiter("overloadSlave0").getPeak() <= MAX_CALLS_PER_NODE);
+        Assert.assertTrue(
+                masterAPI.getCallLimiter("overloadSlave1").getPeak() <= MAX_CALLS_PER_NODE);
+        Assert.assertEquals(0, masterAPI.getCallLimiter().getInFlight());
+        Assert.assertEquals(0, masterAPI.getCallLimiter("overloadSlave0").getInFlight());
+        Assert.assertEquals(0, masterAPI.getCallLimiter("overloadSlave1").getInFlight());
+
+        // threads : the application threads plus at most the executor service
+        Assert.assertTrue(maxActiveThreads.get() <= MAX_THREADS);
+        Assert.assertTrue(peakThreads <= threadsBefore + virtualReaders.size() + MAX_THREADS + 4);
+    }
+
+    /**
+     * A call finding no thread of the executor service is rejected
+     */
+    @Test
+    public void noThreadAvailable_isRejected() throws Exception {
+        // occupy every thread of the executor service with slow calls
+        slaveDelay = SLOW_SLAVE_DELAY;
+        final CountDownLatch done = new CountDownLatch(MAX_THREADS);
+        for (int i = 0; i < MAX_THREADS; i++) {
+            final SeReader virtualReader = virtualReaders.get(i);
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        transmitReadRecord(virtualReader);
+                    } catch (KeypleReaderException e) {
+                        logger.error("Unexpected failure", e);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        long deadline = System.currentTimeMillis() + SLOW_SLAVE_DELAY / 2;
+        while (masterAPI.getActiveThreads() < MAX_THREADS
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(MAX_THREADS, masterAPI.getActiveThreads());
+
+        try {
+            transmitReadRecord(virtualReaders.get(MAX_THREADS));
+            Assert.fail("the call should be rejected");
+        } catch (KeypleReaderException e) {
+            Assert.assertTrue(e.getCause() instanceof KeypleRemoteOverloadException);
+        }
+        done.await();
+        Assert.assertEquals(0, masterAPI.getCallLimiter().getInFlight());
+
+        // once the threads are released, the calls succeed again
+        slaveDelay = SLAVE_DELAY;
+        transmitReadRecord(virtualReaders.get(MAX_THREADS));
+    }
+
+    private static void transmitReadRecord(SeReader virtualReader) throws KeypleReaderException {
+        ReadRecordsCmdBuild poReadRecordCmd_T2Env = new ReadRecordsCmdBuild(PoClass.ISO,
+                (byte) 0x14, ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, true, (byte) 0x20,
+                "");
+        List<ApduRequest> poApduRequestList = Arrays.asList(poReadRecordCmd_T2Env.getApduRequest());
+        Set<SeRequest> seRequestSet = new LinkedHashSet<SeRequest>();
+        seRequestSet.add(new SeRequest(poApduRequestList));
+        ((ProxyReader) virtualReader).transmitSet(seRequestSet);
+    }
+
+    /**
+     * Slave node slowed down: each request waits before being processed
+     */
+    private class SlowDtoNode implements DtoNode {
+
+        private final DtoNode node;
+
+        SlowDtoNode(DtoNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public void setDtoHandler(final DtoHandler handler) {
+            node.setDtoHandler(new DtoHandler() {
+                @Override
+                public TransportDto onDTO(TransportDto transportDto) {
+                    if (transportDto.getKeypleDTO().isRequest()) {
+                        try {
+                            Thread.sleep(slaveDelay);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return handler.onDTO(transportDto);
+                }
+            });
+        }
+
+        @Override
+        public void sendDTO(TransportDto message) throws KeypleRemoteException {
+            node.sendDTO(message);
+        }
+
+        @Override
+        public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+            node.sendDTO(message);
+        }
+
+        @Override
+        public String getNodeId() {
+            return node.getNodeId();
+        }
+    }
+}
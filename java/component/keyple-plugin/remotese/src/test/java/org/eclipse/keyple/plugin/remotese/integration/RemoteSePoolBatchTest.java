@@ -0,0 +1,191 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.integration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationNoReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleAllocationReaderException;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.RemoteSePoolPlugin;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.stub.StubPoolPlugin;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the group listing, the batch allocation and the leases of RemoteSePoolPlugin
+ */
+public class RemoteSePoolBatchTest {
+
+    private LocalTransportFactory factory;
+    private MasterAPI masterAPI;
+    private StubPoolPlugin stubPoolPlugin;
+    private SlaveAPI slaveAPI;
+    private RemoteSePoolPlugin remoteSePoolPlugin;
+
+    final String CLIENT_NODE_ID = "batchClientNodeId";
+    final String SERVER_NODE_ID = "batchServerNodeId";
+
+    // the stub pool plugin holds one reader per group
+    final List<String> GROUPS = Arrays.asList("REF_GROUP1", "REF_GROUP2", "REF_GROUP3");
+
+    final long LEASE_DURATION = 200;
+
+    /**
+     * Slave is Server with StubPoolPlugin Master is Client with RemoteSePoolPlugin
+     */
+    @Before
+    public void setUp() throws Exception {
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+
+        factory = new LocalTransportFactory(SERVER_NODE_ID);
+
+        stubPoolPlugin = Integration.createStubPoolPlugin();
+        for (String group : GROUPS) {
+            stubPoolPlugin.plugStubPoolReader(group, "stub" + group, stubSe);
+        }
+        slaveAPI = new SlaveAPI(SeProxyService.getInstance(), factory.getServer(), "");
+        slaveAPI.registerReaderPoolPlugin(stubPoolPlugin);
+
+        masterAPI = new MasterAPI(SeProxyService.getInstance(), factory.getClient(CLIENT_NODE_ID),
+                10000, MasterAPI.PLUGIN_TYPE_POOL, "REMOTESE_POOL_BATCH_PLUGIN");
+        remoteSePoolPlugin = (RemoteSePoolPlugin) masterAPI.getPlugin();
+        remoteSePoolPlugin.bind(SERVER_NODE_ID);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SeProxyService.getInstance().unregisterPlugin(stubPoolPlugin.getName());
+        SeProxyService.getInstance().unregisterPlugin(remoteSePoolPlugin.getName());
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+    }
+
+    @Test
+    public void getReaderGroupReferences_listsSlaveGroups() throws Exception {
+        Assert.assertEquals(new TreeSet<String>(GROUPS),
+                remoteSePoolPlugin.getReaderGroupReferences());
+    }
+
+    @Test
+    public void allocateReaders_allocatesEachGroup() throws Exception {
+        List<SeReader> seReaders = remoteSePoolPlugin.allocateReaders(GROUPS);
+
+        Assert.assertEquals(GROUPS.size(), seReaders.size());
+        Assert.assertEquals(GROUPS.size(), remoteSePoolPlugin.getReaders().size());
+        for (int i = 0; i < GROUPS.size(); i++) {
+            Assert.assertTrue(seReaders.get(i).getName().contains("stub" + GROUPS.get(i)));
+        }
+    }
+
+    /**
+     * A batch failing on a group keeps none of its readers
+     */
+    @Test
+    public void allocateReaders_allOrNone() throws Exception {
+        remoteSePoolPlugin.allocateReader(GROUPS.get(2));
+
+        try {
+            remoteSePoolPlugin.allocateReaders(GROUPS);
+            Assert.fail("the reader of the last group is already allocated");
+        } catch (KeypleAllocationNoReaderException e) {
+            // expected
+        }
+        Assert.assertEquals(1, remoteSePoolPlugin.getReaders().size());
+        Assert.assertEquals(2, remoteSePoolPlugin.allocateReaders(GROUPS.subList(0, 2)).size());
+    }
+
+    /**
+     * A batch whose virtual readers can't all be created keeps none of them, the slave releases
+     * the allocated readers
+     */
+    @Test
+    public void allocateReaders_virtualReaderFails_rolledBack() throws Exception {
+        // the native reader returns to the pool while its virtual reader remains
+        remoteSePoolPlugin.allocateReader(GROUPS.get(2));
+        stubPoolPlugin.releaseReader(stubPoolPlugin.getReader("stub" + GROUPS.get(2)));
+
+        try {
+            remoteSePoolPlugin.allocateReaders(GROUPS);
+            Assert.fail("the virtual reader of the last group already exists");
+        } catch (KeypleAllocationReaderException e) {
+            // expected
+        }
+        Assert.assertEquals(0, remoteSePoolPlugin.getReaders().size());
+        Assert.assertEquals(GROUPS.size(), remoteSePoolPlugin.allocateReaders(GROUPS).size());
+    }
+
+    @Test
+    public void releaseReaders_returnsReadersToPool() throws Exception {
+        List<SeReader> seReaders = remoteSePoolPlugin.allocateReaders(GROUPS);
+
+        remoteSePoolPlugin.releaseReaders(new ArrayList<SeReader>(seReaders));
+
+        Assert.assertEquals(0, remoteSePoolPlugin.getReaders().size());
+        Assert.assertEquals(GROUPS.size(), remoteSePoolPlugin.allocateReaders(GROUPS).size());
+    }
+
+    /**
+     * A reader not released before the end of its lease returns to the pool
+     */
+    @Test
+    public void allocateReaders_leaseExpires() throws Exception {
+        remoteSePoolPlugin.allocateReaders(GROUPS, LEASE_DURATION);
+        Assert.assertEquals(GROUPS.size(), slaveAPI.getReaderPoolLeases().getLeaseCount());
+        Assert.assertEquals(GROUPS.size(), remoteSePoolPlugin.getReaders().size());
+
+        Thread.sleep(LEASE_DURATION + 300);
+
+        Assert.assertEquals(0, slaveAPI.getReaderPoolLeases().getLeaseCount());
+        Assert.assertEquals(0, remoteSePoolPlugin.getReaders().size());
+        Assert.assertEquals(GROUPS.size(), remoteSePoolPlugin.allocateReaders(GROUPS).size());
+    }
+
+    /**
+     * A reader released before the end of its lease is not released again at its end
+     */
+    @Test
+    public void releaseReader_cancelsLease() throws Exception {
+        SeReader seReader = remoteSePoolPlugin.allocateReader(GROUPS.get(0), LEASE_DURATION);
+        remoteSePoolPlugin.releaseReader(seReader);
+        Assert.assertEquals(0, slaveAPI.getReaderPoolLeases().getLeaseCount());
+
+        SeReader seReader2 = remoteSePoolPlugin.allocateReader(GROUPS.get(0));
+        Thread.sleep(LEASE_DURATION + 300);
+
+        Assert.assertEquals(1, remoteSePoolPlugin.getReaders().size());
+        Assert.assertSame(seReader2, remoteSePoolPlugin.getReaders().first());
+    }
+
+    /**
+     * Stub Secure Element
+     */
+    final static private StubSecureElement stubSe = new StubSecureElement() {
+        @Override
+        public byte[] getATR() {
+            return new byte[0];
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return null;
+        }
+    };
+}
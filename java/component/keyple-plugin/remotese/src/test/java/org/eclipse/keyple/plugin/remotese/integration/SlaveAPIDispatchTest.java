@@ -0,0 +1,236 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.integration;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.core.seproxy.ChannelControl;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.method.RmTransmitTx;
+import org.eclipse.keyple.plugin.remotese.transport.DtoHandler;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalClient;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+import org.junit.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test the processing of the reader requests by the Slave API: serialized per reader, parallel
+ * across readers
+ */
+public class SlaveAPIDispatchTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlaveAPIDispatchTest.class);
+
+    final String CLIENT_NODE_ID = "dispatchClientNodeId";
+    final String SERVER_NODE_ID = "dispatchServerNodeId";
+    final String READER_NAME = "dispatchStubReader";
+
+    final int NB_READERS = 4;
+    final int NB_REQUESTS = 8;
+    final long APDU_LATENCY = 10;
+
+    LocalTransportFactory factory;
+    LocalClient slaveNode;
+    StubPlugin stubPlugin;
+    ExecutorService readerExecutorService;
+
+    /* responses received by the master side, by native reader name */
+    final Map<String, List<String>> responseIds = new HashMap<String, List<String>>();
+    CountDownLatch responseLatch;
+
+    /* APDUs being processed by the stub SEs, highest number reached */
+    final AtomicInteger concurrentApdus = new AtomicInteger();
+    final AtomicInteger maxConcurrentApdus = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+
+        factory = new LocalTransportFactory(SERVER_NODE_ID);
+        factory.getServer().setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                KeypleDto keypleDto = transportDto.getKeypleDTO();
+                SeResponse seResponse = KeypleDtoHelper.containsException(keypleDto) ? null
+                        : JsonParser.getGson().fromJson(keypleDto.getBody(), SeResponse.class);
+                synchronized (responseIds) {
+                    if (seResponse != null
+                            && seResponse.getApduResponses().get(0).isSuccessful()) {
+                        responseIds.get(keypleDto.getNativeReaderName()).add(keypleDto.getId());
+                    }
+                }
+                responseLatch.countDown();
+                return transportDto.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+            }
+        });
+        slaveNode = (LocalClient) factory.getClient(CLIENT_NODE_ID);
+
+        stubPlugin = Integration.createStubPlugin();
+        for (int i = 0; i < NB_READERS; i++) {
+            stubPlugin.plugStubReader(READER_NAME + i, TransmissionMode.CONTACTLESS, true);
+            StubReader reader = (StubReader) stubPlugin.getReader(READER_NAME + i);
+            reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                    StubProtocolSetting.STUB_PROTOCOL_SETTING
+                            .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+            StubSecureElement se = new StubSecureElement() {
+                @Override
+                public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+                    int concurrent = concurrentApdus.incrementAndGet();
+                    try {
+                        int max = maxConcurrentApdus.get();
+                        while (concurrent > max
+                                && !maxConcurrentApdus.compareAndSet(max, concurrent)) {
+                            max = maxConcurrentApdus.get();
+                        }
+                        /* simulates the exchange duration */
+                        Thread.sleep(APDU_LATENCY);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        concurrentApdus.decrementAndGet();
+                    }
+                    return super.processApdu(apduIn);
+                }
+
+                @Override
+                public byte[] getATR() {
+                    return ByteArrayUtil.fromHex("3B8E800180318066409089120802830190000B");
+                }
+
+                @Override
+                public String getSeProcotol() {
+                    return "PROTOCOL_ISO14443_4";
+                }
+            };
+            se.addHexCommand("00A404000AA000000291A00000019100", "6F009000");
+            se.addHexCommand("00B2014400", "00112233445566779000");
+            reader.insertSe(se);
+        }
+
+        readerExecutorService = Executors.newFixedThreadPool(NB_READERS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        readerExecutorService.shutdownNow();
+        for (int i = 0; i < NB_READERS; i++) {
+            stubPlugin.unplugStubReader(READER_NAME + i, true);
+        }
+        SeProxyService.getInstance().unregisterPlugin(Integration.SLAVE_STUB);
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+    }
+
+    /**
+     * The requests dispatched to the reader executor service are answered in their arrival order
+     * for each reader, the throughput is logged
+     */
+    @Test
+    public void dispatch_requestsOrderedPerReader() throws Exception {
+        new SlaveAPI(SeProxyService.getInstance(), slaveNode, SERVER_NODE_ID,
+                SlaveAPI.DEFAULT_RPC_TIMEOUT, Executors.newSingleThreadExecutor(),
+                readerExecutorService);
+
+        /* warm up: the applications are selected, the channels are kept open */
+        measureThroughput(NB_READERS);
+
+        double singleReaderThroughput = measureThroughput(1);
+        double allReadersThroughput = measureThroughput(NB_READERS);
+
+        logger.info("Dispatched requests: {} req/s with 1 reader, {} req/s with {} readers",
+                (int) singleReaderThroughput, (int) allReadersThroughput, NB_READERS);
+    }
+
+    /**
+     * Without reader executor service, the requests are processed one after the other by the
+     * thread delivering them
+     */
+    @Test
+    public void inline_requestsProcessedOneAtATime() throws Exception {
+        new SlaveAPI(SeProxyService.getInstance(), slaveNode, SERVER_NODE_ID);
+
+        /* warm up: the applications are selected, the channels are kept open */
+        measureThroughput(NB_READERS);
+
+        double singleReaderThroughput = measureThroughput(1);
+        double allReadersThroughput = measureThroughput(NB_READERS);
+
+        logger.info("Inline requests: {} req/s with 1 reader, {} req/s with {} readers",
+                (int) singleReaderThroughput, (int) allReadersThroughput, NB_READERS);
+        Assert.assertEquals(1, maxConcurrentApdus.get());
+    }
+
+    /**
+     * Sends NB_REQUESTS transmit requests to each reader from a single thread (as a network
+     * receiving thread does) and waits for all the responses
+     *
+     * @return the number of requests processed per second
+     */
+    private double measureThroughput(int nbReaders) throws Exception {
+        Map<String, List<String>> requestIds = new HashMap<String, List<String>>();
+        synchronized (responseIds) {
+            responseIds.clear();
+            for (int i = 0; i < nbReaders; i++) {
+                requestIds.put(READER_NAME + i, new ArrayList<String>());
+                responseIds.put(READER_NAME + i, new ArrayList<String>());
+            }
+        }
+        responseLatch = new CountDownLatch(nbReaders * NB_REQUESTS);
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(new ApduRequest(ByteArrayUtil.fromHex("00B2014400"), false));
+        SeRequest seRequest = new SeRequest(new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                null,
+                new SeSelector.AidSelector(
+                        new SeSelector.AidSelector.IsoAid("A000000291A000000191"), null),
+                "AID"), apduRequests);
+
+        long start = System.nanoTime();
+        for (int request = 0; request < NB_REQUESTS; request++) {
+            for (int i = 0; i < nbReaders; i++) {
+                KeypleDto keypleDto = new RmTransmitTx(seRequest, ChannelControl.KEEP_OPEN,
+                        "session" + i, READER_NAME + i, "virtual" + i, SERVER_NODE_ID,
+                        CLIENT_NODE_ID).dto();
+                requestIds.get(READER_NAME + i).add(keypleDto.getId());
+                slaveNode.onLocalMessage(keypleDto);
+            }
+        }
+        Assert.assertTrue(responseLatch.await(30, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+
+        synchronized (responseIds) {
+            Assert.assertEquals(requestIds, responseIds);
+        }
+        return nbReaders * NB_REQUESTS * 1e9 / elapsed;
+    }
+}
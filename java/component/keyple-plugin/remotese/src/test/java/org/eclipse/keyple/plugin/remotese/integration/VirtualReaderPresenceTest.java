@@ -0,0 +1,220 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.integration;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
+import org.eclipse.keyple.core.seproxy.event.ObservableReader;
+import org.eclipse.keyple.core.seproxy.event.PluginEvent;
+import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.RemoteSePlugin;
+import org.eclipse.keyple.plugin.remotese.pluginse.VirtualReader;
+import org.eclipse.keyple.plugin.remotese.transport.DtoHandler;
+import org.eclipse.keyple.plugin.remotese.transport.DtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubReaderTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the SE presence and the metadata of the virtual reader, known by the master without remote
+ * call
+ */
+public class VirtualReaderPresenceTest {
+
+    final String CLIENT_NODE_ID = "presenceClientNodeId";
+    final String SERVER_NODE_ID = "presenceServerNodeId";
+    final String NATIVE_READER_NAME = "presenceStubReader";
+    final String REMOTE_SE_PLUGIN_NAME = "presenceRemoteSePlugin";
+
+    SlaveAPI slaveAPI;
+    RemoteSePlugin remoteSePlugin;
+    StubReader nativeReader;
+
+    // requests received by the slave
+    final AtomicInteger slaveRequests = new AtomicInteger();
+
+    final BlockingQueue<ReaderEvent> readerEvents = new LinkedBlockingQueue<ReaderEvent>();
+    final ObservableReader.ReaderObserver readerObserver = new ObservableReader.ReaderObserver() {
+        @Override
+        public void update(ReaderEvent event) {
+            readerEvents.add(event);
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+
+        LocalTransportFactory factory = new LocalTransportFactory(SERVER_NODE_ID);
+        MasterAPI masterAPI = new MasterAPI(SeProxyService.getInstance(), factory.getServer(),
+                MasterAPI.DEFAULT_RPC_TIMEOUT, MasterAPI.PLUGIN_TYPE_DEFAULT,
+                REMOTE_SE_PLUGIN_NAME);
+        remoteSePlugin = masterAPI.getPlugin();
+        slaveAPI = new SlaveAPI(SeProxyService.getInstance(),
+                new CountingDtoNode(factory.getClient(CLIENT_NODE_ID)), SERVER_NODE_ID);
+
+        nativeReader = Integration.createStubReader(NATIVE_READER_NAME,
+                TransmissionMode.CONTACTLESS);
+        nativeReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Integration.unregisterAllPlugin(REMOTE_SE_PLUGIN_NAME);
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+    }
+
+    /**
+     * The SE presence and the transmission mode of the native reader are known at connection
+     */
+    @Test
+    public void connect_sendsPresenceAndMetadata() throws Exception {
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+        VirtualReader virtualReader = connectReader();
+
+        Assert.assertTrue(virtualReader.isSePresent());
+        Assert.assertEquals(TransmissionMode.CONTACTLESS, virtualReader.getTransmissionMode());
+        Assert.assertEquals(0, slaveRequests.get());
+    }
+
+    /**
+     * The SE presence is known when READER_CONNECTED is notified to the plugin observers
+     */
+    @Test
+    public void connect_presenceKnownByPluginObserver() throws Exception {
+        final BlockingQueue<Boolean> presences = new LinkedBlockingQueue<Boolean>();
+        remoteSePlugin.addObserver(new ObservablePlugin.PluginObserver() {
+            @Override
+            public void update(PluginEvent event) {
+                if (event.getEventType() != PluginEvent.EventType.READER_CONNECTED) {
+                    return;
+                }
+                try {
+                    presences.add(remoteSePlugin.getReader(event.getReaderNames().first())
+                            .isSePresent());
+                } catch (KeypleReaderException e) {
+                    Assert.fail(e.getMessage());
+                }
+            }
+        });
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+
+        connectReader();
+
+        Assert.assertEquals(Boolean.TRUE, presences.poll(2, TimeUnit.SECONDS));
+        Assert.assertEquals(0, slaveRequests.get());
+    }
+
+    /**
+     * The SE presence follows the insertion and the removal events, and is updated before the
+     * observers are notified
+     */
+    @Test
+    public void events_updatePresence() throws Exception {
+        VirtualReader virtualReader = connectReader();
+        Assert.assertFalse(virtualReader.isSePresent());
+        ((ObservableReader) virtualReader).addObserver(readerObserver);
+
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+        Assert.assertEquals(ReaderEvent.EventType.SE_INSERTED,
+                readerEvents.poll(2, TimeUnit.SECONDS).getEventType());
+        Assert.assertTrue(virtualReader.isSePresent());
+
+        nativeReader.removeSe();
+        Assert.assertEquals(ReaderEvent.EventType.SE_REMOVED,
+                readerEvents.poll(2, TimeUnit.SECONDS).getEventType());
+        Assert.assertFalse(virtualReader.isSePresent());
+
+        Assert.assertEquals(0, slaveRequests.get());
+        ((ObservableReader) virtualReader).removeObserver(readerObserver);
+    }
+
+    /**
+     * The refresh asks the native reader
+     */
+    @Test
+    public void refresh_asksNativeReader() throws Exception {
+        VirtualReader virtualReader = connectReader();
+        Assert.assertFalse(virtualReader.refreshSePresence());
+        Assert.assertEquals(1, slaveRequests.get());
+
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+        Assert.assertTrue(virtualReader.refreshSePresence());
+        Assert.assertTrue(virtualReader.isSePresent());
+        Assert.assertEquals(2, slaveRequests.get());
+    }
+
+    private VirtualReader connectReader() throws Exception {
+        slaveAPI.connectReader(nativeReader);
+        Assert.assertEquals(1, remoteSePlugin.getReaders().size());
+        return (VirtualReader) remoteSePlugin.getReaders().first();
+    }
+
+    /**
+     * Slave node counting the requests received from the master
+     */
+    private class CountingDtoNode implements DtoNode {
+
+        private final DtoNode node;
+
+        CountingDtoNode(DtoNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public void setDtoHandler(final DtoHandler handler) {
+            node.setDtoHandler(new DtoHandler() {
+                @Override
+                public TransportDto onDTO(TransportDto transportDto) {
+                    if (transportDto.getKeypleDTO().isRequest()) {
+                        slaveRequests.incrementAndGet();
+                    }
+                    return handler.onDTO(transportDto);
+                }
+            });
+        }
+
+        @Override
+        public void sendDTO(TransportDto message) throws KeypleRemoteException {
+            node.sendDTO(message);
+        }
+
+        @Override
+        public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+            node.sendDTO(message);
+        }
+
+        @Override
+        public String getNodeId() {
+            return node.getNodeId();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.integration;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.selection.AbstractMatchingSe;
+import org.eclipse.keyple.core.selection.AbstractSeSelectionRequest;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
+import org.eclipse.keyple.core.seproxy.event.ObservableReader;
+import org.eclipse.keyple.core.seproxy.event.PluginEvent;
+import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.RemoteSePlugin;
+import org.eclipse.keyple.plugin.remotese.pluginse.VirtualReader;
+import org.eclipse.keyple.plugin.remotese.transport.HeartbeatDtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.PartitionDtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubReaderTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the resumption of the virtual reader sessions when the slave reconnects its readers
+ */
+public class VirtualReaderResumeTest {
+
+    final String CLIENT_NODE_ID = "resumeClientNodeId";
+    final String SERVER_NODE_ID = "resumeServerNodeId";
+    final String NATIVE_READER_NAME = "resumeStubReader";
+    final String REMOTE_SE_PLUGIN_NAME = "resumeRemoteSePlugin";
+    final String PO_AID = "A000000291A000000191";
+
+    final long INTERVAL = 50;
+    final long TIMEOUT = 200;
+    final long GRACE_PERIOD = 200;
+    final long SESSION_RETENTION = 5000;
+
+    PartitionDtoNode masterLink;
+    PartitionDtoNode slaveLink;
+    HeartbeatDtoNode masterNode;
+    HeartbeatDtoNode slaveNode;
+    MasterAPI masterAPI;
+    SlaveAPI slaveAPI;
+    RemoteSePlugin remoteSePlugin;
+    StubReader nativeReader;
+    VirtualReader virtualReader;
+    String sessionId;
+
+    final BlockingQueue<PluginEvent> pluginEvents = new LinkedBlockingQueue<PluginEvent>();
+    final ObservablePlugin.PluginObserver pluginObserver = new ObservablePlugin.PluginObserver() {
+        @Override
+        public void update(PluginEvent event) {
+            pluginEvents.add(event);
+        }
+    };
+
+    final BlockingQueue<ReaderEvent> readerEvents = new LinkedBlockingQueue<ReaderEvent>();
+    final ObservableReader.ReaderObserver readerObserver = new ObservableReader.ReaderObserver() {
+        @Override
+        public void update(ReaderEvent event) {
+            readerEvents.add(event);
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+
+        LocalTransportFactory factory = new LocalTransportFactory(SERVER_NODE_ID);
+        masterLink = new PartitionDtoNode(factory.getServer());
+        slaveLink = new PartitionDtoNode(factory.getClient(CLIENT_NODE_ID));
+        masterNode = new HeartbeatDtoNode(masterLink, INTERVAL, TIMEOUT, GRACE_PERIOD);
+        slaveNode = new HeartbeatDtoNode(slaveLink, INTERVAL, TIMEOUT, GRACE_PERIOD);
+
+        masterAPI = new MasterAPI(SeProxyService.getInstance(), masterNode,
+                SlaveAPI.DEFAULT_RPC_TIMEOUT, MasterAPI.PLUGIN_TYPE_DEFAULT,
+                REMOTE_SE_PLUGIN_NAME);
+        remoteSePlugin = masterAPI.getPlugin();
+        remoteSePlugin.addObserver(pluginObserver);
+        slaveAPI = new SlaveAPI(SeProxyService.getInstance(), slaveNode, SERVER_NODE_ID);
+
+        nativeReader = Integration.createStubReader(NATIVE_READER_NAME,
+                TransmissionMode.CONTACTLESS);
+        nativeReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        sessionId = slaveAPI.connectReader(nativeReader);
+        Assert.assertEquals(PluginEvent.EventType.READER_CONNECTED,
+                pluginEvents.poll(1, TimeUnit.SECONDS).getEventType());
+        virtualReader = (VirtualReader) remoteSePlugin.getReaders().first();
+
+        // observe the virtual reader with a default selection
+        ((ObservableReader) virtualReader).addObserver(readerObserver);
+        SeSelection seSelection = new SeSelection();
+        seSelection.prepareSelection(new GenericSeSelectionRequest(
+                new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new SeSelector.AidSelector(new SeSelector.AidSelector.IsoAid(PO_AID), null),
+                        "AID: " + PO_AID)));
+        ((ObservableReader) virtualReader).setDefaultSelectionRequest(
+                seSelection.getSelectionOperation(),
+                ObservableReader.NotificationMode.MATCHED_ONLY);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        remoteSePlugin.removeObserver(pluginObserver);
+        masterNode.stop();
+        slaveNode.stop();
+        Integration.unregisterAllPlugin(REMOTE_SE_PLUGIN_NAME);
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+    }
+
+    /**
+     * A reader reconnected while its virtual reader is connected keeps its session, without plugin
+     * event nor duplicated reader event
+     */
+    @Test
+    public void reconnect_resumesConnectedReader() throws Exception {
+        slaveAPI.reconnectReaders();
+
+        Assert.assertNull(pluginEvents.poll(200, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, remoteSePlugin.getReaders().size());
+        Assert.assertSame(virtualReader, remoteSePlugin.getReaders().first());
+        Assert.assertEquals(sessionId, virtualReader.getSession().getSessionId());
+
+        assertSeMatchedOnce();
+    }
+
+    /**
+     * A lost slave reconnecting within the session retention gets its virtual reader back, with
+     * its observers and its default selection
+     */
+    @Test
+    public void lostSlave_resumesDetachedReader() throws Exception {
+        masterAPI.setSessionRetention(SESSION_RETENTION);
+        partitionUntilLost();
+        Assert.assertEquals(0, remoteSePlugin.getReaders().size());
+
+        masterLink.setPartitioned(false);
+        slaveLink.setPartitioned(false);
+        slaveAPI.reconnectReaders();
+
+        PluginEvent event = pluginEvents.poll(1, TimeUnit.SECONDS);
+        Assert.assertEquals(PluginEvent.EventType.READER_CONNECTED, event.getEventType());
+        Assert.assertEquals(virtualReader.getName(), event.getReaderNames().first());
+        Assert.assertSame(virtualReader, remoteSePlugin.getReaders().first());
+        Assert.assertEquals(sessionId, virtualReader.getSession().getSessionId());
+
+        assertSeMatchedOnce();
+    }
+
+    /**
+     * A lost slave reconnecting after the session retention gets a new virtual reader
+     */
+    @Test
+    public void lostSlave_expiredSessionCreatesNewReader() throws Exception {
+        masterAPI.setSessionRetention(INTERVAL);
+        partitionUntilLost();
+        Thread.sleep(2 * INTERVAL);
+
+        masterLink.setPartitioned(false);
+        slaveLink.setPartitioned(false);
+        slaveAPI.reconnectReaders();
+
+        Assert.assertEquals(PluginEvent.EventType.READER_CONNECTED,
+                pluginEvents.poll(1, TimeUnit.SECONDS).getEventType());
+        VirtualReader newVirtualReader = (VirtualReader) remoteSePlugin.getReaders().first();
+        Assert.assertNotSame(virtualReader, newVirtualReader);
+        Assert.assertEquals(virtualReader.getName(), newVirtualReader.getName());
+
+        // the observers of the expired virtual reader are not notified any more
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+        Assert.assertNull(readerEvents.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * The observers of a detached virtual reader are released at the end of the session
+     * retention, even if the slave never reconnects
+     */
+    @Test
+    public void lostSlave_sessionReleasedAtExpiry() throws Exception {
+        masterAPI.setSessionRetention(INTERVAL);
+        partitionUntilLost();
+        Assert.assertEquals(1, ((ObservableReader) virtualReader).countObservers());
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (((ObservableReader) virtualReader).countObservers() > 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, ((ObservableReader) virtualReader).countObservers());
+    }
+
+    /**
+     * A reader disconnected by the slave and connected again within the session retention gets
+     * its virtual reader back, with its observers and its default selection
+     */
+    @Test
+    public void disconnect_resumesDetachedReader() throws Exception {
+        masterAPI.setSessionRetention(SESSION_RETENTION);
+        slaveAPI.disconnectReader(sessionId, NATIVE_READER_NAME);
+        Assert.assertEquals(PluginEvent.EventType.READER_DISCONNECTED,
+                pluginEvents.poll(1, TimeUnit.SECONDS).getEventType());
+        Assert.assertEquals(0, remoteSePlugin.getReaders().size());
+
+        Assert.assertEquals(sessionId, slaveAPI.connectReader(nativeReader));
+        Assert.assertEquals(PluginEvent.EventType.READER_CONNECTED,
+                pluginEvents.poll(1, TimeUnit.SECONDS).getEventType());
+        Assert.assertSame(virtualReader, remoteSePlugin.getReaders().first());
+
+        assertSeMatchedOnce();
+    }
+
+    /**
+     * Break the link until the master detects the loss of the slave node
+     */
+    private void partitionUntilLost() throws Exception {
+        masterLink.setPartitioned(true);
+        slaveLink.setPartitioned(true);
+        PluginEvent event = pluginEvents.poll(10 * (TIMEOUT + GRACE_PERIOD), TimeUnit.MILLISECONDS);
+        Assert.assertEquals(PluginEvent.EventType.READER_DISCONNECTED, event.getEventType());
+    }
+
+    /**
+     * The insertion of the SE is notified once to the observer of the virtual reader
+     */
+    private void assertSeMatchedOnce() throws Exception {
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+        ReaderEvent event = readerEvents.poll(2, TimeUnit.SECONDS);
+        Assert.assertNotNull(event);
+        Assert.assertEquals(ReaderEvent.EventType.SE_MATCHED, event.getEventType());
+        Assert.assertNull(readerEvents.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Create a new class extending AbstractSeSelectionRequest
+     */
+    private class GenericSeSelectionRequest extends AbstractSeSelectionRequest {
+        TransmissionMode transmissionMode;
+
+        public GenericSeSelectionRequest(SeSelector seSelector) {
+            super(seSelector);
+            transmissionMode = seSelector.getSeProtocol().getTransmissionMode();
+        }
+
+        @Override
+        protected AbstractMatchingSe parse(SeResponse seResponse) {
+            class GenericMatchingSe extends AbstractMatchingSe {
+                public GenericMatchingSe(SeResponse selectionResponse,
+                        TransmissionMode transmissionMode, String extraInfo) {
+                    super(selectionResponse, transmissionMode, extraInfo);
+                }
+            }
+            return new GenericMatchingSe(seResponse, transmissionMode, "Generic Matching SE");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.nativese;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NativeReaderDispatcherTest {
+
+    static final String READER_NAME = "dispatcherReader";
+
+    ExecutorService executorService;
+    NativeReaderDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(2);
+        dispatcher = new NativeReaderDispatcher(executorService);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * A task queued after the removal of a reader still being drained runs after the pending tasks
+     * of the reader, not concurrently with them
+     */
+    @Test
+    public void remove_whileDraining_keepsOrder() throws Exception {
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        dispatcher.dispatch(READER_NAME, new Runnable() {
+            @Override
+            public void run() {
+                firstStarted.countDown();
+                try {
+                    releaseFirst.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                executed.add("first");
+                done.countDown();
+            }
+        });
+        Assert.assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        /* the reader is disconnected then connected again while its first task is running */
+        dispatcher.remove(READER_NAME);
+        dispatcher.dispatch(READER_NAME, new Runnable() {
+            @Override
+            public void run() {
+                executed.add("second");
+                done.countDown();
+            }
+        });
+
+        /* gives a concurrent drain the opportunity to run the second task first */
+        Thread.sleep(100);
+        releaseFirst.countDown();
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("first", "second"), executed);
+    }
+
+    /**
+     * The queue of an idle reader is forgotten at once, the next task of the reader still runs
+     */
+    @Test
+    public void remove_idle_nextTaskRuns() throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.remove(READER_NAME);
+        dispatcher.dispatch(READER_NAME, new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+        dispatcher.remove(READER_NAME);
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -90,6 +90,32 @@ public class RemoteSePluginImplTest extends CoreBaseTest {
         Assert.assertEquals(0, lock.getCount());
     }
 
+    /**
+     * A slave presenting another session than the one of its connected virtual reader gets a new
+     * virtual reader instead of a duplicate name error
+     */
+    @Test
+    public void resumeVirtualReader_otherSession_replacesReader() throws Exception {
+        DtoSender dtoSender = Mockito.mock(DtoSender.class);
+        doReturn("masterNode1").when(dtoSender).getNodeId();
+        RemoteSePluginImpl plugin = new RemoteSePluginImpl(new VirtualReaderSessionFactory(),
+                dtoSender, 10000, "pluginName", Executors.newCachedThreadPool());
+        VirtualReaderImpl staleReader = (VirtualReaderImpl) plugin.createVirtualReader(
+                "slaveNodeId", "nativeReaderName", dtoSender, TransmissionMode.CONTACTS, false,
+                new HashMap<String, String>(), null);
+
+        Assert.assertNull(
+                plugin.resumeVirtualReader("slaveNodeId", "nativeReaderName", "otherSessionId",
+                        null));
+        Assert.assertEquals(0, plugin.getReaders().size());
+
+        VirtualReaderImpl newReader = (VirtualReaderImpl) plugin.createVirtualReader(
+                "slaveNodeId", "nativeReaderName", dtoSender, TransmissionMode.CONTACTS, false,
+                new HashMap<String, String>(), null);
+        Assert.assertNotSame(staleReader, newReader);
+        Assert.assertSame(newReader, plugin.getReaders().first());
+    }
+
 
     public static void listReaders(final SortedSet<SeReader> readers, final int N,
             final CountDownLatch lock) {
@@ -151,7 +177,8 @@ public class RemoteSePluginImplTest extends CoreBaseTest {
                         logger.debug("create virtual reader: {}, add reader {}",
                                 plugin.getReaders().size(), readerName);
                         plugin.createVirtualReader("slaveNodeId", readerName, dtoSender,
-                                TransmissionMode.CONTACTS, true, new HashMap<String, String>());
+                                TransmissionMode.CONTACTS, true, new HashMap<String, String>(),
+                                null);
                     } catch (KeypleReaderException e) {
                         success = false;
                         e.printStackTrace();
@@ -0,0 +1,59 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.pluginse;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VirtualReaderSessionFactoryTest {
+
+    static final int THREADS = 8;
+    static final int SESSIONS_PER_THREAD = 10000;
+
+    /**
+     * Sessions created at the same time, for the same reader and node, get distinct ids
+     */
+    @Test
+    public void createSession_concurrent_uniqueIds() throws Exception {
+        final VirtualReaderSessionFactory factory = new VirtualReaderSessionFactory();
+        final Set<String> sessionIds = Collections.synchronizedSet(new HashSet<String>());
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < SESSIONS_PER_THREAD; i++) {
+                        sessionIds.add(factory
+                                .createSession("nativeReader", "slaveNode", "masterNode")
+                                .getSessionId());
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        Assert.assertEquals(THREADS * SESSIONS_PER_THREAD, sessionIds.size());
+    }
+}
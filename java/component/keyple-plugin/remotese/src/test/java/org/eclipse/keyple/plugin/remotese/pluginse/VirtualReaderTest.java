@@ -19,6 +19,7 @@ import org.eclipse.keyple.core.seproxy.ChannelControl;
 import org.eclipse.keyple.core.seproxy.MultiSeRequestProcessing;
 import org.eclipse.keyple.core.seproxy.SeProxyService;
 import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.ProxyReader;
 import org.eclipse.keyple.core.seproxy.message.SeRequest;
@@ -95,13 +96,38 @@ public class VirtualReaderTest extends VirtualReaderBaseTest {
 
         ProxyReader reader = plugin.createVirtualReader(CLIENT_NODE_ID, NATIVE_READER_NAME,
                 Integration.getFakeDtoNode(), TransmissionMode.CONTACTLESS, false,
-                new HashMap<String, String>());
+                new HashMap<String, String>(), null);
 
         reader.transmitSet(StubReaderTest.getRequestIsoDepSetSample());
 
 
     }
 
+    /**
+     * The SE presence of a native reader not forwarding its events is asked to the slave, no Dto
+     * will be received, timeout should be thrown
+     *
+     * @throws Exception
+     */
+    @Test(expected = KeypleIOReaderException.class)
+    public void isSePresent_notObservable_asksSlave() throws Exception {
+
+        // create a specific MasterAPI with a fake DtoNode
+        MasterAPI masterAPI =
+                new MasterAPI(SeProxyService.getInstance(), Integration.getFakeDtoNode(),
+                        RPC_TIMEOUT, MasterAPI.PLUGIN_TYPE_DEFAULT, RSE_PLUGIN);
+
+        // get plugin
+        RemoteSePluginImpl plugin = (RemoteSePluginImpl) masterAPI.getPlugin();
+
+        VirtualReaderImpl reader = (VirtualReaderImpl) plugin.createVirtualReader(CLIENT_NODE_ID,
+                NATIVE_READER_NAME, Integration.getFakeDtoNode(), TransmissionMode.CONTACTLESS,
+                false, new HashMap<String, String>(), null);
+        reader.setSePresent(true);
+
+        reader.isSePresent();
+    }
+
     /**
      * Successful TransmitSet with MultiSeRequestProcessing and ChannelControl
      * 
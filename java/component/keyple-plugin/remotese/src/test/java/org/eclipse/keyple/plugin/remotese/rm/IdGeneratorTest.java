@@ -0,0 +1,165 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.rm;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class IdGeneratorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorTest.class);
+
+    static final int THREADS = 8;
+    static final int IDS_PER_THREAD = 100000;
+
+    // measured operations
+    static final int NEXT = 0;
+    static final int NEXT_STRING = 1;
+    static final int UUID_STRING = 2;
+
+    /**
+     * Ids generated concurrently are unique and increasing in each thread
+     */
+    @Test
+    public void next_concurrent_noCollision() throws Exception {
+        final IdGenerator generator = new IdGenerator("t");
+        final long[][] ids = new long[THREADS][IDS_PER_THREAD];
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            final long[] threadIds = ids[t];
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        threadIds[i] = generator.next();
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        Set<Long> unique = new HashSet<Long>();
+        for (long[] threadIds : ids) {
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                Assert.assertTrue(threadIds[i] > 0);
+                if (i > 0) {
+                    Assert.assertTrue(threadIds[i] > threadIds[i - 1]);
+                }
+                unique.add(threadIds[i]);
+            }
+        }
+        Assert.assertEquals(THREADS * IDS_PER_THREAD, unique.size());
+    }
+
+    /**
+     * The string form of an id is parsed back by its generator only
+     */
+    @Test
+    public void format_parse() {
+        IdGenerator generator = new IdGenerator("t");
+        IdGenerator other = new IdGenerator("s");
+
+        long id = generator.next();
+        String wireId = generator.format(id);
+        Assert.assertEquals(id, generator.parse(wireId));
+        Assert.assertEquals(Long.MAX_VALUE, generator.parse(generator.format(Long.MAX_VALUE)));
+
+        Assert.assertFalse(wireId.equals(other.format(id)));
+        Assert.assertEquals(0, other.parse(wireId));
+        Assert.assertEquals(0, generator.parse(null));
+        Assert.assertEquals(0, generator.parse(UUID.randomUUID().toString()));
+        Assert.assertEquals(0, generator.parse(wireId + "?"));
+    }
+
+    /**
+     * Cost of the generation of an id, with and without its string form, compared with a random
+     * UUID
+     */
+    @Test
+    @Ignore("Benchmark without assertion on the timing, to be run manually")
+    public void benchmark_nextVersusUuid() throws Exception {
+        final IdGenerator generator = new IdGenerator("t");
+        final int count = 500000;
+
+        // warm up
+        for (int operation = NEXT; operation <= UUID_STRING; operation++) {
+            measure(generator, count, 1, operation);
+        }
+
+        for (int threads : new int[] {1, THREADS}) {
+            double nextNanos = measure(generator, count, threads, NEXT);
+            double nextStringNanos = measure(generator, count, threads, NEXT_STRING);
+            double uuidNanos = measure(generator, count, threads, UUID_STRING);
+            logger.info(
+                    "{} thread(s) : next {} ns/id, nextString {} ns/id, UUID.toString {} ns/id",
+                    threads, String.format("%.1f", nextNanos),
+                    String.format("%.1f", nextStringNanos), String.format("%.1f", uuidNanos));
+        }
+    }
+
+    /**
+     * @return the mean time of an operation, in nanoseconds
+     */
+    private static double measure(final IdGenerator generator, final int count, int threads,
+            final int operation) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long sum = 0;
+                    for (int i = 0; i < count; i++) {
+                        switch (operation) {
+                            case NEXT:
+                                sum += generator.next();
+                                break;
+                            case NEXT_STRING:
+                                sum += generator.nextString().length();
+                                break;
+                            default:
+                                sum += UUID.randomUUID().toString().length();
+                                break;
+                        }
+                    }
+                    Assert.assertTrue(sum > 0);
+                    done.countDown();
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (System.nanoTime() - begin) / ((double) count * threads);
+    }
+}
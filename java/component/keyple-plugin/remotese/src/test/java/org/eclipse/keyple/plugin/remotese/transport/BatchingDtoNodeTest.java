@@ -0,0 +1,271 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class BatchingDtoNodeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingDtoNodeTest.class);
+
+    final String SERVER_NODE_ID = "batchServerNodeId";
+    final String CLIENT_NODE_ID = "batchClientNodeId";
+    final int NB_DTO = 50;
+
+    LocalTransportFactory factory;
+    BatchingDtoNode serverNode;
+
+    /* nodes to be stopped at the end of the test */
+    final List<BatchingDtoNode> nodes = new ArrayList<BatchingDtoNode>();
+
+    /* KeypleDto received by each side */
+    final List<String> serverReceived = new ArrayList<String>();
+    final List<String> clientReceived = new ArrayList<String>();
+    CountDownLatch serverLatch;
+    CountDownLatch clientLatch;
+
+    @Before
+    public void setUp() {
+        factory = new LocalTransportFactory(SERVER_NODE_ID);
+    }
+
+    @After
+    public void tearDown() {
+        for (BatchingDtoNode node : nodes) {
+            node.stop();
+        }
+    }
+
+    /**
+     * Notifications sent in a burst: one message per KeypleDto without batching, a few messages
+     * with batching, the KeypleDto are received in order in both cases
+     */
+    @Test
+    public void burst_messageCount() throws Exception {
+        BatchingDtoNode unbatchedClient = bind(0, 100);
+        sendNotifications(unbatchedClient);
+        Assert.assertEquals(NB_DTO, unbatchedClient.getSentMessageCount());
+
+        factory = new LocalTransportFactory(SERVER_NODE_ID);
+        BatchingDtoNode batchedClient = bind(20, 100);
+        sendNotifications(batchedClient);
+        Assert.assertEquals(NB_DTO, batchedClient.getSentDtoCount());
+        Assert.assertTrue(batchedClient.getSentMessageCount() <= 5);
+
+        logger.info("{} notifications: {} messages without batching, {} messages with batching",
+                NB_DTO, unbatchedClient.getSentMessageCount(),
+                batchedClient.getSentMessageCount());
+    }
+
+    /**
+     * Requests sent in a burst: the responses of the server handler are coalesced and unpacked on
+     * the client side
+     */
+    @Test
+    public void burst_responsesCoalesced() throws Exception {
+        BatchingDtoNode client = bind(20, 100);
+        clientLatch = new CountDownLatch(NB_DTO);
+        serverLatch = new CountDownLatch(NB_DTO);
+
+        for (int i = 0; i < NB_DTO; i++) {
+            client.sendDTO(KeypleDtoHelper.buildRequest("reader_transmit", "request" + i, null,
+                    "reader", null, CLIENT_NODE_ID, SERVER_NODE_ID, "id" + i));
+        }
+        Assert.assertTrue(clientLatch.await(5, TimeUnit.SECONDS));
+
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < NB_DTO; i++) {
+            expected.add("id" + i);
+        }
+        Assert.assertEquals(expected, serverReceived);
+        Assert.assertEquals(expected, clientReceived);
+        Assert.assertEquals(NB_DTO, serverNode.getSentDtoCount());
+        Assert.assertTrue(serverNode.getSentMessageCount() <= 5);
+    }
+
+    /**
+     * A single KeypleDto waits for the time window, unless the batch is full
+     */
+    @Test
+    public void latency_tradeOff() throws Exception {
+        long unbatchedLatency = measureLatency(bind(0, 100), 1);
+
+        factory = new LocalTransportFactory(SERVER_NODE_ID);
+        long batchedLatency = measureLatency(bind(50, 100), 1);
+
+        factory = new LocalTransportFactory(SERVER_NODE_ID);
+        long fullBatchLatency = measureLatency(bind(10000, 10), 10);
+
+        logger.info("Latency: {} ms without batching, {} ms with a 50 ms window,"
+                + " {} ms for a full batch", unbatchedLatency, batchedLatency, fullBatchLatency);
+        Assert.assertTrue(batchedLatency >= 50);
+        Assert.assertTrue(unbatchedLatency < 50);
+        Assert.assertTrue(fullBatchLatency < 1000);
+    }
+
+    /**
+     * The requests of a batch that can't be sent are answered locally with an error, the
+     * notifications are dropped
+     */
+    @Test
+    public void sendFailure_requestsFailedBack() throws Exception {
+        BatchingDtoNode client = new BatchingDtoNode(new DtoNode() {
+            @Override
+            public void setDtoHandler(DtoHandler handler) {}
+
+            @Override
+            public void sendDTO(TransportDto message) throws KeypleRemoteException {
+                throw new KeypleRemoteException("link down");
+            }
+
+            @Override
+            public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+                throw new KeypleRemoteException("link down");
+            }
+
+            @Override
+            public String getNodeId() {
+                return CLIENT_NODE_ID;
+            }
+        }, 20, 100);
+        nodes.add(client);
+        final List<KeypleDto> errors = new ArrayList<KeypleDto>();
+        clientLatch = new CountDownLatch(2);
+        client.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                synchronized (errors) {
+                    errors.add(transportDto.getKeypleDTO());
+                }
+                clientLatch.countDown();
+                return transportDto.nextTransportDTO(
+                        KeypleDtoHelper.NoResponse(transportDto.getKeypleDTO().getId()));
+            }
+        });
+
+        client.sendDTO(KeypleDtoHelper.buildRequest("reader_transmit", "request", null, "reader",
+                null, CLIENT_NODE_ID, SERVER_NODE_ID, "failed0"));
+        client.sendDTO(KeypleDtoHelper.buildNotification("reader_event", "event", null, "reader",
+                null, CLIENT_NODE_ID, SERVER_NODE_ID));
+        client.sendDTO(KeypleDtoHelper.buildRequest("reader_transmit", "request", null, "reader",
+                null, CLIENT_NODE_ID, SERVER_NODE_ID, "failed1"));
+        Assert.assertTrue(clientLatch.await(5, TimeUnit.SECONDS));
+
+        synchronized (errors) {
+            Assert.assertEquals(2, errors.size());
+            for (int i = 0; i < errors.size(); i++) {
+                KeypleDto error = errors.get(i);
+                Assert.assertEquals("failed" + i, error.getId());
+                Assert.assertFalse(error.isRequest());
+                Assert.assertTrue(KeypleDtoHelper.containsException(error));
+                Assert.assertEquals(SERVER_NODE_ID, error.getRequesterNodeId());
+                Assert.assertEquals(CLIENT_NODE_ID, error.getTargetNodeId());
+            }
+        }
+        Assert.assertEquals(0, client.getSentDtoCount());
+    }
+
+    /**
+     * Decorates both nodes of the local transport, the server answers each request
+     *
+     * @return the client node
+     */
+    private BatchingDtoNode bind(long window, int maxBatchSize) {
+        synchronized (serverReceived) {
+            serverReceived.clear();
+        }
+        synchronized (clientReceived) {
+            clientReceived.clear();
+        }
+        serverNode = new BatchingDtoNode(factory.getServer(), window, maxBatchSize);
+        nodes.add(serverNode);
+        serverNode.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                KeypleDto keypleDto = transportDto.getKeypleDTO();
+                synchronized (serverReceived) {
+                    serverReceived.add(keypleDto.getId());
+                }
+                serverLatch.countDown();
+                if (keypleDto.getId() == null) {
+                    /* notification */
+                    return transportDto
+                            .nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+                }
+                return transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
+                        keypleDto.getAction(), "response", null, keypleDto.getNativeReaderName(),
+                        null, SERVER_NODE_ID, keypleDto.getRequesterNodeId(),
+                        keypleDto.getId()));
+            }
+        });
+        BatchingDtoNode clientNode =
+                new BatchingDtoNode(factory.getClient(CLIENT_NODE_ID), window, maxBatchSize);
+        nodes.add(clientNode);
+        clientNode.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                KeypleDto keypleDto = transportDto.getKeypleDTO();
+                Assert.assertFalse(keypleDto.isRequest());
+                synchronized (clientReceived) {
+                    clientReceived.add(keypleDto.getId());
+                }
+                clientLatch.countDown();
+                return transportDto.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+            }
+        });
+        return clientNode;
+    }
+
+    private void sendNotifications(BatchingDtoNode client) throws Exception {
+        serverLatch = new CountDownLatch(NB_DTO);
+        for (int i = 0; i < NB_DTO; i++) {
+            client.sendDTO(KeypleDtoHelper.buildNotification("reader_event", "event" + i, null,
+                    "reader", null, CLIENT_NODE_ID, SERVER_NODE_ID));
+        }
+        Assert.assertTrue(serverLatch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(NB_DTO, serverReceived.size());
+    }
+
+    /**
+     * @return the time elapsed in milliseconds until the responses to nbRequests requests sent at
+     *         once are received
+     */
+    private long measureLatency(BatchingDtoNode client, int nbRequests) throws Exception {
+        serverLatch = new CountDownLatch(nbRequests);
+        clientLatch = new CountDownLatch(nbRequests);
+        long start = System.nanoTime();
+        for (int i = 0; i < nbRequests; i++) {
+            client.sendDTO(KeypleDtoHelper.buildRequest("reader_transmit", "request", null,
+                    "reader", null, CLIENT_NODE_ID, SERVER_NODE_ID, "latency" + i));
+        }
+        Assert.assertTrue(serverLatch.await(20, TimeUnit.SECONDS));
+        long serverLatency = (System.nanoTime() - start) / 1000000;
+        Assert.assertTrue(clientLatch.await(20, TimeUnit.SECONDS));
+        logger.debug("server side {} ms, round trip {} ms", serverLatency,
+                (System.nanoTime() - start) / 1000000);
+        return serverLatency;
+    }
+}
@@ -0,0 +1,374 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.eclipse.keyple.core.seproxy.message.AnswerToReset;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.message.SelectionStatus;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.codec.DeflateDtoCodec;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class CompressingDtoNodeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressingDtoNodeTest.class);
+
+    final String SERVER_NODE_ID = "compressServerNodeId";
+    final String CLIENT_NODE_ID = "compressClientNodeId";
+    final int THRESHOLD = 256;
+
+    LocalTransportFactory factory;
+    WireDtoNode serverWire;
+    WireDtoNode clientWire;
+
+    /* body of the responses sent by the server */
+    String responseBody;
+
+    /* bodies received by each handler */
+    final List<KeypleDto> serverReceived = new ArrayList<KeypleDto>();
+    final List<KeypleDto> clientReceived = new ArrayList<KeypleDto>();
+
+    @Before
+    public void setUp() {
+        factory = new LocalTransportFactory(SERVER_NODE_ID);
+        serverWire = new WireDtoNode(factory.getServer());
+        clientWire = new WireDtoNode(factory.getClient(CLIENT_NODE_ID));
+        responseBody = getResponseSetJson(new Random(0));
+    }
+
+    /**
+     * Both nodes negotiate: the offer is exchanged on the first round trip and acknowledged once,
+     * the large responses are compressed from the first one
+     */
+    @Test
+    public void negotiation_largeBodiesCompressed() throws Exception {
+        CompressingDtoNode server = bindServer(true);
+        CompressingDtoNode client = bindClient(true);
+
+        sendRequests(client, 3);
+
+        Assert.assertEquals(DeflateDtoCodec.NAME, client.getNegotiatedCodec(SERVER_NODE_ID));
+        Assert.assertEquals(DeflateDtoCodec.NAME, server.getNegotiatedCodec(CLIENT_NODE_ID));
+        assertOffers(clientWire, true, true, false);
+        assertOffers(serverWire, true, false, false);
+        for (KeypleDto response : serverWire.sent) {
+            Assert.assertEquals(DeflateDtoCodec.NAME, response.getCodec());
+        }
+        for (KeypleDto response : clientReceived) {
+            Assert.assertEquals(responseBody, response.getBody());
+            Assert.assertNull(response.getCodec());
+            Assert.assertNull(response.getAcceptedCodecs());
+        }
+        /* the handlers never see the negotiation */
+        for (KeypleDto request : serverReceived) {
+            Assert.assertNull(request.getAcceptedCodecs());
+        }
+    }
+
+    /**
+     * Bodies shorter than the threshold are sent as is
+     */
+    @Test
+    public void threshold_smallBodiesPlain() throws Exception {
+        responseBody = "{\"small\":\"body\"}";
+        bindServer(true);
+        CompressingDtoNode client = bindClient(true);
+
+        sendRequests(client, 2);
+
+        for (KeypleDto response : serverWire.sent) {
+            Assert.assertNull(response.getCodec());
+        }
+        Assert.assertEquals(responseBody, clientReceived.get(1).getBody());
+    }
+
+    /**
+     * A server that doesn't negotiate receives the offers and never an encoded body, the offers
+     * stop after MAX_UNANSWERED_OFFERS requests
+     */
+    @Test
+    public void interop_plainServer() throws Exception {
+        bindServer(false);
+        CompressingDtoNode client = bindClient(true);
+
+        sendRequests(client, CompressingDtoNode.MAX_UNANSWERED_OFFERS + 2);
+
+        Assert.assertNull(client.getNegotiatedCodec(SERVER_NODE_ID));
+        for (int i = 0; i < clientWire.sent.size(); i++) {
+            KeypleDto request = clientWire.sent.get(i);
+            Assert.assertNull(request.getCodec());
+            Assert.assertEquals(i < CompressingDtoNode.MAX_UNANSWERED_OFFERS,
+                    request.getAcceptedCodecs() != null);
+        }
+        for (KeypleDto response : clientReceived) {
+            Assert.assertEquals(responseBody, response.getBody());
+        }
+    }
+
+    /**
+     * A client that doesn't negotiate never receives an encoded body
+     */
+    @Test
+    public void interop_plainClient() throws Exception {
+        CompressingDtoNode server = bindServer(true);
+        bindClient(false);
+
+        sendRequests(clientWire, 3);
+
+        Assert.assertNull(server.getNegotiatedCodec(CLIENT_NODE_ID));
+        for (KeypleDto response : clientReceived) {
+            Assert.assertNull(response.getCodec());
+            Assert.assertEquals(responseBody, response.getBody());
+        }
+    }
+
+    /**
+     * The client is restarted without negotiation and reconnects: the server forgets the codec
+     * negotiated before and sends the bodies as is again
+     */
+    @Test
+    public void reconnectedNode_negotiationReset() throws Exception {
+        CompressingDtoNode server = bindServer(true);
+        CompressingDtoNode client = bindClient(true);
+        sendRequests(client, 2);
+        Assert.assertEquals(DeflateDtoCodec.NAME, server.getNegotiatedCodec(CLIENT_NODE_ID));
+
+        /* restarted client */
+        bindClient(false);
+        clientReceived.clear();
+        server.onNodeReconnected(CLIENT_NODE_ID);
+
+        sendRequests(clientWire, 2);
+
+        Assert.assertNull(server.getNegotiatedCodec(CLIENT_NODE_ID));
+        for (KeypleDto response : clientReceived) {
+            Assert.assertNull(response.getCodec());
+            Assert.assertEquals(responseBody, response.getBody());
+        }
+    }
+
+    /**
+     * Bytes on the wire and CPU time per message for a default selection response set (FCI and
+     * records of a PO)
+     */
+    @Test
+    @Ignore("Benchmark without assertion on the timing, to be run manually")
+    public void benchmark_bytesAndCpu() throws Exception {
+        final int NB_MESSAGES = 2000;
+        final int NB_BODIES = 16;
+        Charset utf8 = Charset.forName("UTF-8");
+        DeflateDtoCodec codec = new DeflateDtoCodec();
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        Random random = new Random(1);
+        List<String> bodies = new ArrayList<String>();
+        for (int i = 0; i < NB_BODIES; i++) {
+            bodies.add(getResponseSetJson(random));
+        }
+
+        /* warm up */
+        for (int i = 0; i < NB_MESSAGES; i++) {
+            codec.decode(codec.encode(bodies.get(i % NB_BODIES)));
+        }
+
+        long plainBytes = 0;
+        long compressedBytes = 0;
+        long encodeCpu = 0;
+        long decodeCpu = 0;
+        for (int i = 0; i < NB_MESSAGES; i++) {
+            String body = bodies.get(i % NB_BODIES);
+            long start = threadMXBean.getCurrentThreadCpuTime();
+            String encoded = codec.encode(body);
+            long encoded_at = threadMXBean.getCurrentThreadCpuTime();
+            String decoded = codec.decode(encoded);
+            decodeCpu += threadMXBean.getCurrentThreadCpuTime() - encoded_at;
+            encodeCpu += encoded_at - start;
+            Assert.assertEquals(body.length(), decoded.length());
+
+            plainBytes += KeypleDtoHelper.toJson(response(body, null)).getBytes(utf8).length;
+            compressedBytes += KeypleDtoHelper.toJson(response(encoded, DeflateDtoCodec.NAME))
+                    .getBytes(utf8).length;
+        }
+
+        logger.info(
+                "SeResponse set : {} bytes plain, {} bytes deflate ({}%), encode {} us, decode {} us per message",
+                plainBytes / NB_MESSAGES, compressedBytes / NB_MESSAGES,
+                compressedBytes * 100 / plainBytes, encodeCpu / 1000 / NB_MESSAGES,
+                decodeCpu / 1000 / NB_MESSAGES);
+        Assert.assertTrue(compressedBytes < plainBytes);
+    }
+
+    /**
+     * @param negotiate false for a server without CompressingDtoNode
+     * @return the compressing server node, null if it doesn't negotiate
+     */
+    private CompressingDtoNode bindServer(boolean negotiate) {
+        DtoHandler handler = new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                KeypleDto request = transportDto.getKeypleDTO();
+                serverReceived.add(request);
+                return transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
+                        request.getAction(), responseBody, null, request.getNativeReaderName(),
+                        null, SERVER_NODE_ID, request.getRequesterNodeId(), request.getId()));
+            }
+        };
+        if (!negotiate) {
+            serverWire.setDtoHandler(handler);
+            return null;
+        }
+        CompressingDtoNode server =
+                new CompressingDtoNode(serverWire, THRESHOLD, new DeflateDtoCodec());
+        server.setDtoHandler(handler);
+        return server;
+    }
+
+    /**
+     * @param negotiate false for a client without CompressingDtoNode
+     * @return the compressing client node, null if it doesn't negotiate
+     */
+    private CompressingDtoNode bindClient(boolean negotiate) {
+        DtoHandler handler = new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                clientReceived.add(transportDto.getKeypleDTO());
+                return transportDto.nextTransportDTO(
+                        KeypleDtoHelper.NoResponse(transportDto.getKeypleDTO().getId()));
+            }
+        };
+        if (!negotiate) {
+            clientWire.setDtoHandler(handler);
+            return null;
+        }
+        CompressingDtoNode client =
+                new CompressingDtoNode(clientWire, THRESHOLD, new DeflateDtoCodec());
+        client.setDtoHandler(handler);
+        return client;
+    }
+
+    /**
+     * Sends requests one after the other, the local transport answers synchronously
+     */
+    private void sendRequests(DtoSender client, int nbRequests) throws KeypleRemoteException {
+        for (int i = 0; i < nbRequests; i++) {
+            client.sendDTO(KeypleDtoHelper.buildRequest("reader_transmitSet", "{}", null, "reader",
+                    null, CLIENT_NODE_ID, SERVER_NODE_ID, "id" + i));
+        }
+        Assert.assertEquals(nbRequests, clientReceived.size());
+    }
+
+    private void assertOffers(WireDtoNode wire, boolean... offers) {
+        for (int i = 0; i < offers.length; i++) {
+            Assert.assertEquals(offers[i], wire.sent.get(i).getAcceptedCodecs() != null);
+        }
+    }
+
+    private KeypleDto response(String body, String codec) {
+        return new KeypleDto("reader_transmitSet", body, false, "1582194560012", "reader",
+                "remote-reader-c6a9f13d", CLIENT_NODE_ID, SERVER_NODE_ID,
+                "ea1b2e4e-0c18-4ea0-bb39-ab4bbd7bbb4b", null, codec, null);
+    }
+
+    /**
+     * @return the json of a response set: selection of a PO and reading of 8 records with
+     *         pseudo-random contents
+     */
+    private static String getResponseSetJson(Random random) {
+        ApduResponse fci = new ApduResponse(ByteArrayUtil.fromHex(
+                "6F238409315449432E49434131A516BF0C13C708000000001A2B3C4D53070A3C20051410019000"),
+                null);
+        List<ApduResponse> records = new ArrayList<ApduResponse>();
+        for (int i = 0; i < 8; i++) {
+            byte[] record = new byte[31];
+            random.nextBytes(record);
+            record[29] = (byte) 0x90;
+            record[30] = 0x00;
+            records.add(new ApduResponse(record, new HashSet<Integer>()));
+        }
+        List<SeResponse> seResponses = new ArrayList<SeResponse>();
+        seResponses.add(new SeResponse(true, false,
+                new SelectionStatus(
+                        new AnswerToReset(
+                                ByteArrayUtil.fromHex("3B8880010000000000718100F9")),
+                        fci, true),
+                records));
+        return JsonParser.getGson().toJson(seResponses);
+    }
+
+    /**
+     * Records the KeypleDto sent by a node, including the responses returned by its handler
+     */
+    static class WireDtoNode implements DtoNode {
+
+        final DtoNode node;
+        final List<KeypleDto> sent = new ArrayList<KeypleDto>();
+
+        WireDtoNode(DtoNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public void setDtoHandler(final DtoHandler handler) {
+            node.setDtoHandler(new DtoHandler() {
+                @Override
+                public TransportDto onDTO(TransportDto transportDto) {
+                    TransportDto response = handler.onDTO(transportDto);
+                    record(response.getKeypleDTO());
+                    return response;
+                }
+            });
+        }
+
+        @Override
+        public void sendDTO(TransportDto message) throws KeypleRemoteException {
+            record(message.getKeypleDTO());
+            node.sendDTO(message);
+        }
+
+        @Override
+        public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+            record(message);
+            node.sendDTO(message);
+        }
+
+        @Override
+        public String getNodeId() {
+            return node.getNodeId();
+        }
+
+        private void record(KeypleDto keypleDto) {
+            if (!KeypleDtoHelper.isNoResponse(keypleDto)) {
+                /* as received by the other node */
+                sent.add(KeypleDtoHelper.fromJson(KeypleDtoHelper.toJson(keypleDto)));
+            }
+        }
+    }
+}
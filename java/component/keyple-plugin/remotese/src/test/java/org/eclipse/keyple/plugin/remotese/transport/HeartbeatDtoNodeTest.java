@@ -0,0 +1,153 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HeartbeatDtoNodeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeartbeatDtoNodeTest.class);
+
+    final String SERVER_NODE_ID = "heartbeatServerNodeId";
+    final String CLIENT_NODE_ID = "heartbeatClientNodeId";
+
+    final long INTERVAL = 20;
+    final long TIMEOUT = 100;
+    final long GRACE_PERIOD = 200;
+
+    PartitionDtoNode serverLink;
+    PartitionDtoNode clientLink;
+    HeartbeatDtoNode server;
+    HeartbeatDtoNode client;
+
+    /* liveness events seen by the server, "<event> <nodeId>" */
+    final BlockingQueue<String> serverEvents = new LinkedBlockingQueue<String>();
+
+    /* KeypleDto received by the handlers */
+    final List<KeypleDto> received = Collections.synchronizedList(new ArrayList<KeypleDto>());
+
+    @Before
+    public void setUp() throws Exception {
+        LocalTransportFactory factory = new LocalTransportFactory(SERVER_NODE_ID);
+        serverLink = new PartitionDtoNode(factory.getServer());
+        clientLink = new PartitionDtoNode(factory.getClient(CLIENT_NODE_ID));
+        server = new HeartbeatDtoNode(serverLink, INTERVAL, TIMEOUT, GRACE_PERIOD);
+        client = new HeartbeatDtoNode(clientLink, INTERVAL, TIMEOUT, GRACE_PERIOD);
+
+        DtoHandler handler = new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                received.add(transportDto.getKeypleDTO());
+                return transportDto.nextTransportDTO(
+                        KeypleDtoHelper.NoResponse(transportDto.getKeypleDTO().getId()));
+            }
+        };
+        server.setDtoHandler(handler);
+        client.setDtoHandler(handler);
+        server.addNodeLivenessListener(new NodeLivenessListener() {
+            @Override
+            public void onNodeUnreachable(String nodeId) {
+                serverEvents.add("unreachable " + nodeId);
+            }
+
+            @Override
+            public void onNodeReconnected(String nodeId) {
+                serverEvents.add("reconnected " + nodeId);
+            }
+
+            @Override
+            public void onNodeLost(String nodeId) {
+                serverEvents.add("lost " + nodeId);
+            }
+        });
+
+        /* the client makes itself known to the server */
+        client.sendDTO(KeypleDtoHelper.buildNotification("reader_event", "{}", null, "reader",
+                null, CLIENT_NODE_ID, SERVER_NODE_ID));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        client.stop();
+    }
+
+    /**
+     * An idle link is kept alive by the heartbeats, which never reach the handlers
+     */
+    @Test
+    public void idleLink_staysReachable() throws Exception {
+        Assert.assertNull(serverEvents.poll(5 * TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(server.isReachable(CLIENT_NODE_ID));
+        Assert.assertTrue(client.isReachable(SERVER_NODE_ID));
+        Assert.assertEquals(1, received.size());
+    }
+
+    /**
+     * A partitioned node is unreachable after the timeout, lost after the grace period
+     */
+    @Test
+    public void partition_detectionLatency() throws Exception {
+        long start = System.nanoTime();
+        serverLink.setPartitioned(true);
+        clientLink.setPartitioned(true);
+
+        Assert.assertEquals("unreachable " + CLIENT_NODE_ID,
+                serverEvents.poll(10 * TIMEOUT, TimeUnit.MILLISECONDS));
+        long unreachableLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertFalse(server.isReachable(CLIENT_NODE_ID));
+
+        Assert.assertEquals("lost " + CLIENT_NODE_ID,
+                serverEvents.poll(10 * GRACE_PERIOD, TimeUnit.MILLISECONDS));
+        long lostLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        logger.info("Timeout {} ms, grace period {} ms : unreachable after {} ms, lost after {} ms",
+                TIMEOUT, GRACE_PERIOD, unreachableLatency, lostLatency);
+        Assert.assertTrue(unreachableLatency >= TIMEOUT - INTERVAL);
+        Assert.assertTrue(unreachableLatency < TIMEOUT + 5 * INTERVAL);
+        Assert.assertTrue(lostLatency >= TIMEOUT + GRACE_PERIOD - INTERVAL);
+        Assert.assertTrue(lostLatency < TIMEOUT + GRACE_PERIOD + 5 * INTERVAL);
+    }
+
+    /**
+     * A node heard from again within the grace period is reconnected, not lost
+     */
+    @Test
+    public void partition_healedWithinGracePeriod() throws Exception {
+        serverLink.setPartitioned(true);
+        clientLink.setPartitioned(true);
+        Assert.assertEquals("unreachable " + CLIENT_NODE_ID,
+                serverEvents.poll(10 * TIMEOUT, TimeUnit.MILLISECONDS));
+
+        serverLink.setPartitioned(false);
+        clientLink.setPartitioned(false);
+        Assert.assertEquals("reconnected " + CLIENT_NODE_ID,
+                serverEvents.poll(GRACE_PERIOD, TimeUnit.MILLISECONDS));
+        Assert.assertNull(serverEvents.poll(2 * GRACE_PERIOD, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(server.isReachable(CLIENT_NODE_ID));
+    }
+}
@@ -0,0 +1,71 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+
+/**
+ * DtoNode decorator simulating a network partition: while partitioned, the KeypleDto sent and
+ * received by the node are silently dropped
+ */
+public class PartitionDtoNode implements DtoNode {
+
+    private final DtoNode node;
+    private volatile boolean partitioned;
+
+    public PartitionDtoNode(DtoNode node) {
+        this.node = node;
+    }
+
+    /**
+     * @param partitioned true to drop the KeypleDto, false to restore the link
+     */
+    public void setPartitioned(boolean partitioned) {
+        this.partitioned = partitioned;
+    }
+
+    @Override
+    public void setDtoHandler(final DtoHandler handler) {
+        node.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                if (partitioned) {
+                    return transportDto.nextTransportDTO(
+                            KeypleDtoHelper.NoResponse(transportDto.getKeypleDTO().getId()));
+                }
+                return handler.onDTO(transportDto);
+            }
+        });
+    }
+
+    @Override
+    public void sendDTO(TransportDto message) throws KeypleRemoteException {
+        if (!partitioned) {
+            node.sendDTO(message);
+        }
+    }
+
+    @Override
+    public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+        if (!partitioned) {
+            node.sendDTO(message);
+        }
+    }
+
+    @Override
+    public String getNodeId() {
+        return node.getNodeId();
+    }
+}
@@ -0,0 +1,103 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.codec;
+
+import java.util.Random;
+import java.util.zip.Deflater;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DeflateDtoCodecTest {
+
+    final DeflateDtoCodec codec = new DeflateDtoCodec();
+
+    @Test
+    public void encode_decode_roundTrip() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            body.append("{\"apduResponses\":[{\"bytes\":\"6F228408315449432E494341A516BF0C13C70800000000C0E11FA653070A3C2305141001\"}]}");
+        }
+        String encoded = codec.encode(body.toString());
+        Assert.assertTrue(encoded.length() < body.length() / 10);
+        Assert.assertEquals(body.toString(), codec.decode(encoded));
+    }
+
+    @Test
+    public void encode_decode_growsBuffers() {
+        /* incompressible body larger than the pooled buffers */
+        Random random = new Random(0);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            body.append((char) (' ' + random.nextInt(90)));
+        }
+        body.append("\u00e9\u20ac");
+        Assert.assertEquals(body.toString(), codec.decode(codec.encode(body.toString())));
+        /* the workspace is still usable */
+        Assert.assertEquals("{}", codec.decode(codec.encode("{}")));
+    }
+
+    @Test
+    public void decode_largerThanMaximum_rejected() {
+        DeflateDtoCodec limitedCodec = new DeflateDtoCodec(Deflater.BEST_SPEED, 1000);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            body.append('0');
+        }
+        /* a few hundred bytes inflated into 100 kB */
+        String encoded = limitedCodec.encode(body.toString());
+        try {
+            limitedCodec.decode(encoded);
+            Assert.fail("the body should be rejected");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("1000"));
+        }
+        /* the workspace is still usable */
+        Assert.assertEquals("{}", limitedCodec.decode(limitedCodec.encode("{}")));
+    }
+
+    @Test
+    public void close_codecStillUsable() {
+        Assert.assertEquals("{}", codec.decode(codec.encode("{}")));
+        codec.close();
+        Assert.assertEquals("{}", codec.decode(codec.encode("{}")));
+    }
+
+    @Test
+    public void base64_allPaddings() {
+        byte[] data = new byte[] {(byte) 0xFB, (byte) 0xFF, 0x00, 0x7F, (byte) 0x80};
+        String[] expected = {"", "+w==", "+/8=", "+/8A", "+/8Afw==", "+/8Af4A="};
+        for (int length = 0; length <= data.length; length++) {
+            String encoded = Base64.encode(data, length);
+            Assert.assertEquals(expected[length], encoded);
+            byte[] decoded = new byte[Base64.decodedLength(encoded)];
+            Assert.assertEquals(length, Base64.decode(encoded, decoded));
+            for (int i = 0; i < length; i++) {
+                Assert.assertEquals(data[i], decoded[i]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_invalidBase64() {
+        codec.decode("not base64!");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_invalidDeflate() {
+        codec.decode(Base64.encode(new byte[] {1, 2, 3, 4, 5, 6}, 6));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_invalidLevel() {
+        new DeflateDtoCodec(0);
+    }
+}
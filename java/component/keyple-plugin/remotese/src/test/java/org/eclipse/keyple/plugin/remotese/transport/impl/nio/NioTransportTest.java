@@ -0,0 +1,379 @@
+/********************************************************************************
+ * Copyright (c) 2020 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.impl.nio;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.ProxyReader;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.integration.Integration;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.RemoteSePlugin;
+import org.eclipse.keyple.plugin.remotese.pluginse.VirtualReader;
+import org.eclipse.keyple.plugin.remotese.transport.DtoHandler;
+import org.eclipse.keyple.plugin.remotese.transport.factory.ClientNode;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubReaderTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test the NIO transport on the loopback interface
+ */
+public class NioTransportTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioTransportTest.class);
+
+    final String SERVER_NODE_ID = "nioServerNodeId";
+    final String ACTION = "nio_echo";
+
+    NioTransportFactory factory;
+    NioServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        factory = new NioTransportFactory(SERVER_NODE_ID,
+                new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0), 4);
+    }
+
+    @After
+    public void tearDown() {
+        factory.shutdown();
+    }
+
+    /**
+     * A request is answered through the connection it came from, the server then reaches the
+     * client by its node id
+     */
+    @Test
+    public void requestResponse_roundTrip() throws Exception {
+        startEchoServer();
+        BlockingQueue<KeypleDto> received = new LinkedBlockingQueue<KeypleDto>();
+        ClientNode client = connectClient("nioClient", received);
+
+        client.sendDTO(KeypleDtoHelper.buildRequest(ACTION, "hello", null, "reader", null,
+                client.getNodeId(), SERVER_NODE_ID, "1"));
+        KeypleDto response = received.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(response);
+        Assert.assertFalse(response.isRequest());
+        Assert.assertEquals("1", response.getId());
+        Assert.assertEquals("hello", response.getBody());
+
+        server.sendDTO(KeypleDtoHelper.buildNotification(ACTION, "event", null, "reader", null,
+                SERVER_NODE_ID, client.getNodeId()));
+        KeypleDto notification = received.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(notification);
+        Assert.assertEquals("event", notification.getBody());
+        Assert.assertEquals(1, server.getConnectionCount());
+    }
+
+    /**
+     * A client can't take the node id of another connected client: its connection is closed and
+     * the KeypleDto targeting this node id still reach the first client
+     */
+    @Test
+    public void nodeIdOfConnectedClient_isNotTakenOver() throws Exception {
+        startEchoServer();
+        BlockingQueue<KeypleDto> received = new LinkedBlockingQueue<KeypleDto>();
+        ClientNode client = connectClient("nioClient", received);
+        client.sendDTO(KeypleDtoHelper.buildRequest(ACTION, "hello", null, "reader", null,
+                client.getNodeId(), SERVER_NODE_ID, "1"));
+        Assert.assertNotNull(received.poll(5, TimeUnit.SECONDS));
+
+        BlockingQueue<KeypleDto> hijackerReceived = new LinkedBlockingQueue<KeypleDto>();
+        ClientNode hijacker = connectClient("nioHijacker", hijackerReceived);
+        awaitConnectionCount(2);
+        hijacker.sendDTO(KeypleDtoHelper.buildRequest(ACTION, "hijack", null, "reader", null,
+                client.getNodeId(), SERVER_NODE_ID, "2"));
+        awaitConnectionCount(1);
+
+        server.sendDTO(KeypleDtoHelper.buildNotification(ACTION, "event", null, "reader", null,
+                SERVER_NODE_ID, client.getNodeId()));
+        KeypleDto notification = received.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(notification);
+        Assert.assertEquals("event", notification.getBody());
+        Assert.assertNull(hijackerReceived.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * A frame larger than the socket and read buffers is reassembled
+     */
+    @Test
+    public void largeFrame_isReassembled() throws Exception {
+        startEchoServer();
+        BlockingQueue<KeypleDto> received = new LinkedBlockingQueue<KeypleDto>();
+        ClientNode client = connectClient("nioClient", received);
+
+        StringBuilder body = new StringBuilder();
+        while (body.length() < 1024 * 1024) {
+            body.append("0123456789ABCDEFé€");
+        }
+        client.sendDTO(KeypleDtoHelper.buildRequest(ACTION, body.toString(), null, "reader",
+                null, client.getNodeId(), SERVER_NODE_ID, "1"));
+        KeypleDto response = received.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(response);
+        Assert.assertEquals(body.toString(), response.getBody());
+    }
+
+    /**
+     * Thousands of clients connect and exchange KeypleDto with the server at the same time
+     */
+    @Test
+    public void thousandsOfSlaves() throws Exception {
+        final int SLAVES = 2000;
+        startEchoServer();
+
+        final CountDownLatch connected = new CountDownLatch(SLAVES);
+        final CountDownLatch responses = new CountDownLatch(SLAVES);
+        final CountDownLatch notifications = new CountDownLatch(SLAVES);
+        List<ClientNode> clients = new ArrayList<ClientNode>();
+        for (int i = 0; i < SLAVES; i++) {
+            ClientNode client = factory.getClient("slave" + i);
+            client.setDtoHandler(new DtoHandler() {
+                @Override
+                public TransportDto onDTO(TransportDto transportDto) {
+                    if (transportDto.getKeypleDTO().isRequest()) {
+                        notifications.countDown();
+                    } else {
+                        responses.countDown();
+                    }
+                    return transportDto.nextTransportDTO(
+                            KeypleDtoHelper.NoResponse(transportDto.getKeypleDTO().getId()));
+                }
+            });
+            client.connect(new ClientNode.ConnectCallback() {
+                @Override
+                public void onConnectSuccess() {
+                    connected.countDown();
+                }
+
+                @Override
+                public void onConnectFailure() {
+                    logger.error("A slave could not connect");
+                }
+            });
+            clients.add(client);
+        }
+        Assert.assertTrue(connected.await(30, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        for (ClientNode client : clients) {
+            client.sendDTO(KeypleDtoHelper.buildRequest(ACTION, "ping", null, "reader", null,
+                    client.getNodeId(), SERVER_NODE_ID, client.getNodeId()));
+        }
+        Assert.assertTrue(responses.await(30, TimeUnit.SECONDS));
+        long roundTrips = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertEquals(SLAVES, server.getConnectionCount());
+
+        start = System.nanoTime();
+        for (ClientNode client : clients) {
+            server.sendDTO(KeypleDtoHelper.buildNotification(ACTION, "event", null, "reader",
+                    null, SERVER_NODE_ID, client.getNodeId()));
+        }
+        Assert.assertTrue(notifications.await(30, TimeUnit.SECONDS));
+        long broadcast = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        logger.info("{} slaves : request/response with each slave in {} ms, notification to each slave in {} ms",
+                SLAVES, roundTrips, broadcast);
+    }
+
+    /**
+     * A server processing its requests too slowly stops reading the connection, the sender is
+     * blocked and fails after the send timeout, then no KeypleDto is lost once the server resumes
+     */
+    @Test
+    public void backpressure_blocksThenFailsSender() throws Exception {
+        factory.setMaxPendingBytes(64 * 1024);
+        factory.setMaxPendingFrames(4);
+        factory.setSendTimeout(300);
+        server = (NioServer) factory.getServer();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger processed = new AtomicInteger();
+        server.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                processed.incrementAndGet();
+                return transportDto.nextTransportDTO(
+                        KeypleDtoHelper.NoResponse(transportDto.getKeypleDTO().getId()));
+            }
+        });
+        server.start();
+        ClientNode client = connectClient("nioClient", new LinkedBlockingQueue<KeypleDto>());
+
+        char[] chars = new char[32 * 1024];
+        Arrays.fill(chars, 'x');
+        String body = new String(chars);
+        int sent = 0;
+        KeypleRemoteException failure = null;
+        while (failure == null && sent < 10000) {
+            try {
+                client.sendDTO(KeypleDtoHelper.buildNotification(ACTION, body, null, "reader",
+                        null, client.getNodeId(), SERVER_NODE_ID));
+                sent++;
+            } catch (KeypleRemoteException e) {
+                failure = e;
+            }
+        }
+        logger.info("Sender blocked after {} KeypleDto of {} bytes : {}", sent, body.length(),
+                failure != null ? failure.getMessage() : null);
+        Assert.assertNotNull(failure);
+        Assert.assertTrue(((NioClient) client).getConnection(null).getPendingBytes() > 64 * 1024);
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (processed.get() < sent && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(sent, processed.get());
+        client.sendDTO(KeypleDtoHelper.buildNotification(ACTION, body, null, "reader", null,
+                client.getNodeId(), SERVER_NODE_ID));
+    }
+
+    /**
+     * The Master and Slave APIs work over the NIO transport
+     */
+    @Test
+    public void masterAndSlave_overNio() throws Exception {
+        String pluginName = "nioRemoteSePlugin";
+        Assert.assertEquals(0, SeProxyService.getInstance().getPlugins().size());
+        server = (NioServer) factory.getServer();
+        RemoteSePlugin remoteSePlugin = new MasterAPI(SeProxyService.getInstance(), server,
+                SlaveAPI.DEFAULT_RPC_TIMEOUT, MasterAPI.PLUGIN_TYPE_DEFAULT, pluginName)
+                        .getPlugin();
+        server.start();
+        try {
+            ClientNode client = factory.getClient("nioSlave");
+            final CountDownLatch connected = new CountDownLatch(1);
+            client.connect(new ClientNode.ConnectCallback() {
+                @Override
+                public void onConnectSuccess() {
+                    connected.countDown();
+                }
+
+                @Override
+                public void onConnectFailure() {}
+            });
+            Assert.assertTrue(connected.await(5, TimeUnit.SECONDS));
+            SlaveAPI slaveAPI = new SlaveAPI(SeProxyService.getInstance(), client, SERVER_NODE_ID);
+
+            StubReader nativeReader =
+                    Integration.createStubReader("nioStubReader", TransmissionMode.CONTACTLESS);
+            nativeReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                    StubProtocolSetting.STUB_PROTOCOL_SETTING
+                            .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+            String sessionId = slaveAPI.connectReader(nativeReader);
+            Assert.assertNotNull(sessionId);
+            VirtualReader virtualReader = (VirtualReader) remoteSePlugin.getReaders().first();
+
+            nativeReader.insertSe(StubReaderTest.hoplinkSE());
+            Thread.sleep(200);
+            StubReaderTest.genericSelectSe(virtualReader);
+            List<SeResponse> seResponses = transmitReadRecord(virtualReader);
+            Assert.assertTrue(seResponses.get(0).getApduResponses().get(0).isSuccessful());
+
+            slaveAPI.disconnectReader(sessionId, nativeReader.getName());
+            Assert.assertEquals(0, remoteSePlugin.getReaders().size());
+        } finally {
+            Integration.unregisterAllPlugin(pluginName);
+        }
+    }
+
+    private void startEchoServer() throws Exception {
+        server = (NioServer) factory.getServer();
+        server.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                KeypleDto request = transportDto.getKeypleDTO();
+                return transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
+                        request.getAction(), request.getBody(), null, request.getNativeReaderName(),
+                        null, SERVER_NODE_ID, request.getRequesterNodeId(), request.getId()));
+            }
+        });
+        server.start();
+    }
+
+    private void awaitConnectionCount(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getConnectionCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, server.getConnectionCount());
+    }
+
+    private ClientNode connectClient(String clientNodeId, final BlockingQueue<KeypleDto> received)
+            throws Exception {
+        ClientNode client = factory.getClient(clientNodeId);
+        client.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto transportDto) {
+                received.add(transportDto.getKeypleDTO());
+                return transportDto.nextTransportDTO(
+                        KeypleDtoHelper.NoResponse(transportDto.getKeypleDTO().getId()));
+            }
+        });
+        final CountDownLatch connected = new CountDownLatch(1);
+        client.connect(new ClientNode.ConnectCallback() {
+            @Override
+            public void onConnectSuccess() {
+                connected.countDown();
+            }
+
+            @Override
+            public void onConnectFailure() {}
+        });
+        Assert.assertTrue(connected.await(5, TimeUnit.SECONDS));
+        return client;
+    }
+
+    private List<SeResponse> transmitReadRecord(VirtualReader virtualReader) throws Exception {
+        ReadRecordsCmdBuild poReadRecordCmd_T2Env = new ReadRecordsCmdBuild(PoClass.ISO,
+                (byte) 0x14, ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, true, (byte) 0x20,
+                "");
+        List<ApduRequest> poApduRequestList = Arrays.asList(poReadRecordCmd_T2Env.getApduRequest());
+        Set<SeRequest> seRequestSet = new LinkedHashSet<SeRequest>();
+        seRequestSet.add(new SeRequest(poApduRequestList));
+        return ((ProxyReader) virtualReader).transmitSet(seRequestSet);
+    }
+}
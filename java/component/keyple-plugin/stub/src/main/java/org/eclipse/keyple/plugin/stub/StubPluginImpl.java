@@ -50,10 +50,11 @@ final class StubPluginImpl extends AbstractThreadedObservablePlugin implements S
         super(pluginName);
 
         /*
-         * Monitoring is not handled by a lower layer (as in PC/SC), reduce the threading period to
-         * 10 ms to speed up responsiveness.
+         * The readers are plugged and unplugged through this class which signals each change to
+         * the monitoring thread: the polling is only a fallback and can slow down to 1 s.
          */
         threadWaitTimeout = 10;
+        threadWaitTimeoutMax = 1000;
     }
 
     /**
@@ -94,6 +95,7 @@ final class StubPluginImpl extends AbstractThreadedObservablePlugin implements S
         }
 
         connectedStubNames.add(readerName);
+        nativeReadersChanged();
 
         if (exist) {
             logger.error("Reader with readerName " + readerName + " was already plugged");
@@ -128,6 +130,7 @@ final class StubPluginImpl extends AbstractThreadedObservablePlugin implements S
             }
 
             connectedStubNames.addAll(readerNames);
+            nativeReadersChanged();
 
         } else {
             logger.error("All {} readers were already plugged", readerNames.size());
@@ -151,6 +154,7 @@ final class StubPluginImpl extends AbstractThreadedObservablePlugin implements S
             } else {
                 connectedStubNames.remove(readerName);
             }
+            nativeReadersChanged();
             /* remove the native reader from the native readers list */
             logger.info("Unplugged reader with name {}, connectedStubNames size {}", readerName,
                     connectedStubNames.size());
@@ -173,6 +177,7 @@ final class StubPluginImpl extends AbstractThreadedObservablePlugin implements S
         if (synchronous) {
             readers.removeAll(readersToDelete);
         }
+        nativeReadersChanged();
     }
 
 
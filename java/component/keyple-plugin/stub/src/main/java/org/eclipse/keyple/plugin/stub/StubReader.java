@@ -20,6 +20,29 @@ public interface StubReader extends ObservableReader {
     String CONTACTLESS_PARAMETER = "contactless";
     String CONTACTS_PARAMETER = "contacts";
 
+    /**
+     * Removal detection mode: {@link #REMOVAL_DETECTION_NATIVE} (default) or
+     * {@link #REMOVAL_DETECTION_PING} to simulate a reader polling the SE to detect its removal.
+     * <p>
+     * In ping mode, the polling can be tuned with the parameters defined in
+     * {@link org.eclipse.keyple.core.seproxy.plugin.local.monitoring.CardAbsentPingMonitoringJob}.
+     */
+    String REMOVAL_DETECTION_PARAMETER = "removal_detection";
+    String REMOVAL_DETECTION_NATIVE = "native";
+    String REMOVAL_DETECTION_PING = "ping";
+
+    /**
+     * Extended length APDU support of the reader: {@link #EXTENDED_LENGTH_ENABLED} (default) or
+     * {@link #EXTENDED_LENGTH_DISABLED}.
+     * <p>
+     * When enabled, the extended length APDUs are sent as is to the SE if it supports them (see
+     * {@link StubSecureElement#isExtendedLengthSupported()}), otherwise they are sent with command
+     * chaining.
+     */
+    String EXTENDED_LENGTH_PARAMETER = "extended_length";
+    String EXTENDED_LENGTH_ENABLED = "enabled";
+    String EXTENDED_LENGTH_DISABLED = "disabled";
+
     /**
      * Insert a stub se into the reader. Will raise a SE_INSERTED event.
      *
@@ -21,6 +21,7 @@ import org.eclipse.keyple.core.seproxy.exception.KeypleChannelControlException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.plugin.local.*;
+import org.eclipse.keyple.core.seproxy.plugin.local.monitoring.CardAbsentPingMonitoringJob;
 import org.eclipse.keyple.core.seproxy.plugin.local.monitoring.SmartInsertionMonitoringJob;
 import org.eclipse.keyple.core.seproxy.plugin.local.monitoring.SmartRemovalMonitoringJob;
 import org.eclipse.keyple.core.seproxy.plugin.local.state.WaitForSeInsertion;
@@ -36,9 +37,14 @@ import org.slf4j.LoggerFactory;
 /**
  * Simulates communication with a {@link StubSecureElement}. StubReader is observable, it raises
  * {@link org.eclipse.keyple.core.seproxy.event.ReaderEvent} : SE_INSERTED, SE_REMOVED
+ * <p>
+ * The SE removal is detected natively by default. With the parameter
+ * {@link StubReader#REMOVAL_DETECTION_PARAMETER} set to {@link StubReader#REMOVAL_DETECTION_PING},
+ * the reader behaves like a reader without native removal detection: the SE is polled once
+ * processed.
  */
-class StubReaderImpl extends AbstractObservableLocalReader
-        implements StubReader, SmartInsertionReader, SmartRemovalReader {
+class StubReaderImpl extends AbstractObservableLocalReader implements StubReader,
+        SmartInsertionReader, SmartRemovalReader, SePresenceProbeReader {
 
     private static final Logger logger = LoggerFactory.getLogger(StubReaderImpl.class);
 
@@ -54,6 +60,13 @@ class StubReaderImpl extends AbstractObservableLocalReader
     final private AtomicBoolean loopWaitSe = new AtomicBoolean();
     final private AtomicBoolean loopWaitSeRemoval = new AtomicBoolean();
 
+    /* removal detection by polling, used when pingRemoval is true */
+    private CardAbsentPingMonitoringJob pingMonitoringJob;
+    private volatile boolean pingRemoval;
+
+    /* extended length APDU support of the reader */
+    private volatile boolean extendedLength = true;
+
     /**
      * Do not use directly
      * 
@@ -115,6 +128,11 @@ class StubReaderImpl extends AbstractObservableLocalReader
         return se.processApdu(apduIn);
     }
 
+    @Override
+    protected boolean isExtendedLengthSupported() {
+        return extendedLength && se != null && se.isExtendedLengthSupported();
+    }
+
     @Override
     protected boolean protocolFlagMatches(SeProtocol protocolFlag) throws KeypleReaderException {
         boolean result;
@@ -163,6 +181,33 @@ class StubReaderImpl extends AbstractObservableLocalReader
             transmissionMode = TransmissionMode.CONTACTS;
         } else if (name.equals(CONTACTLESS_PARAMETER)) {
             transmissionMode = TransmissionMode.CONTACTLESS;
+        } else if (name.equals(EXTENDED_LENGTH_PARAMETER)) {
+            if (EXTENDED_LENGTH_ENABLED.equals(value)) {
+                extendedLength = true;
+            } else if (EXTENDED_LENGTH_DISABLED.equals(value)) {
+                extendedLength = false;
+            } else {
+                throw new KeypleReaderException(
+                        "parameter value not supported : " + name + " : " + value);
+            }
+            parameters.put(name, value);
+        } else if (name.equals(REMOVAL_DETECTION_PARAMETER)) {
+            if (REMOVAL_DETECTION_PING.equals(value)) {
+                pingRemoval = true;
+            } else if (REMOVAL_DETECTION_NATIVE.equals(value)) {
+                pingRemoval = false;
+            } else {
+                throw new KeypleReaderException(
+                        "parameter value not supported : " + name + " : " + value);
+            }
+            parameters.put(name, value);
+        } else if (CardAbsentPingMonitoringJob.isParameter(name)) {
+            try {
+                pingMonitoringJob.setParameter(name, value);
+            } catch (IllegalArgumentException e) {
+                throw new KeypleReaderException(e.getMessage());
+            }
+            parameters.put(name, value);
         } else {
             throw new KeypleReaderException("parameter name not supported : " + name);
         }
@@ -198,12 +243,16 @@ class StubReaderImpl extends AbstractObservableLocalReader
         if (_se != null) {
             se = _se;
         }
+        /* wake up the monitoring thread */
+        notifyAll();
     }
 
     public synchronized void removeSe() {
         logger.debug("Remove SE {}", se != null ? se : "none");
 
         se = null;
+        /* wake up the monitoring thread */
+        notifyAll();
     }
 
     public StubSecureElement getSe() {
@@ -219,14 +268,9 @@ class StubReaderImpl extends AbstractObservableLocalReader
     public boolean waitForCardPresent() {
         loopWaitSe.set(true);
         while (loopWaitSe.get()) {
-            if (checkSePresence()) {
+            if (waitForSePresence(true)) {
                 return true;
             }
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                logger.debug("Sleep was interrupted");
-            }
         }
         return false;
         // logger.trace("[{}] no card was inserted", this.getName());
@@ -234,8 +278,9 @@ class StubReaderImpl extends AbstractObservableLocalReader
     }
 
     @Override
-    public void stopWaitForCard() {
+    public synchronized void stopWaitForCard() {
         loopWaitSe.set(false);
+        notifyAll();
     }
 
     /**
@@ -248,24 +293,51 @@ class StubReaderImpl extends AbstractObservableLocalReader
     public boolean waitForCardAbsentNative() {
         loopWaitSeRemoval.set(true);
         while (loopWaitSeRemoval.get()) {
-            if (!checkSePresence()) {
+            if (waitForSePresence(false)) {
                 logger.trace("[{}] card removed", this.getName());
                 return true;
             }
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                logger.debug("Sleep was interrupted");
-            }
         }
         return false;
         // logger.trace("[{}] no card was removed", this.getName());
         // return false;
     }
 
+    /**
+     * Waits until the SE presence is the expected one, or at most 10 ms
+     * <p>
+     * The wait is ended as soon as a SE is inserted or removed, or the detection is stopped.
+     *
+     * @param present the expected presence
+     * @return true if the SE presence is the expected one
+     */
+    private synchronized boolean waitForSePresence(boolean present) {
+        if ((se != null) == present) {
+            return true;
+        }
+        try {
+            wait(10);
+        } catch (InterruptedException e) {
+            logger.debug("Wait was interrupted");
+        }
+        return (se != null) == present;
+    }
+
+    /**
+     * Defined in the {@link SePresenceProbeReader} interface, checks the SE presence without
+     * exchanging any APDU (used in ping removal detection mode)
+     *
+     * @return true if the SE is present
+     */
+    @Override
+    public boolean probeSePresence() {
+        return checkSePresence();
+    }
+
     @Override
-    public void stopWaitForCardRemoval() {
+    public synchronized void stopWaitForCardRemoval() {
         loopWaitSeRemoval.set(false);
+        notifyAll();
     }
 
     @Override
@@ -284,14 +356,88 @@ class StubReaderImpl extends AbstractObservableLocalReader
                 new WaitForSeInsertion(this, new SmartInsertionMonitoringJob(this),
                         executorService));
 
+        /*
+         * the same removal monitoring job is used while the SE is processed and while waiting for
+         * its removal, it keeps running from one state to the other
+         */
+        pingMonitoringJob = new CardAbsentPingMonitoringJob(this);
+        MonitoringJob removalMonitoringJob = new RemovalMonitoringJob(
+                new SmartRemovalMonitoringJob(this), pingMonitoringJob);
+
         states.put(AbstractObservableState.MonitoringState.WAIT_FOR_SE_PROCESSING,
-                new WaitForSeProcessing(this, new SmartRemovalMonitoringJob(this),
-                        executorService));
+                new WaitForSeProcessing(this, removalMonitoringJob, executorService));
 
         states.put(AbstractObservableState.MonitoringState.WAIT_FOR_SE_REMOVAL,
-                new WaitForSeRemoval(this, new SmartRemovalMonitoringJob(this), executorService));
+                new WaitForSeRemoval(this, removalMonitoringJob, executorService));
 
         return new ObservableReaderStateService(this, states,
                 AbstractObservableState.MonitoringState.WAIT_FOR_SE_INSERTION);
     }
+
+    /**
+     * Waits until the end of the SE processing (ping removal detection mode)
+     * <p>
+     * The wait is ended by the state switch which ends the SE processing. The removal detection is
+     * only stopped when leaving the processing, the stop flag is checked at least once per second
+     * as a safeguard.
+     *
+     * @return true if the reader is now waiting for the SE removal
+     */
+    private boolean waitForEndOfProcessing() {
+        loopWaitSeRemoval.set(true);
+        while (loopWaitSeRemoval.get()) {
+            AbstractObservableState.MonitoringState monitoringState;
+            try {
+                monitoringState = stateService.waitForStateChange(
+                        AbstractObservableState.MonitoringState.WAIT_FOR_SE_PROCESSING, 1000);
+            } catch (InterruptedException e) {
+                logger.debug("Wait was interrupted");
+                return false;
+            }
+            if (monitoringState != AbstractObservableState.MonitoringState.WAIT_FOR_SE_PROCESSING) {
+                return monitoringState == AbstractObservableState.MonitoringState
+                        .WAIT_FOR_SE_REMOVAL;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Detects the SE removal either natively or by polling, according to the removal detection
+     * parameter at the time the monitoring starts.
+     * <p>
+     * In polling mode, nothing is monitored while the SE is processed, like with a reader unable to
+     * detect the removal natively: the polling starts when the processing ends.
+     */
+    private final class RemovalMonitoringJob implements MonitoringJob {
+        private final MonitoringJob nativeJob;
+        private final MonitoringJob pingJob;
+
+        RemovalMonitoringJob(MonitoringJob nativeJob, MonitoringJob pingJob) {
+            this.nativeJob = nativeJob;
+            this.pingJob = pingJob;
+        }
+
+        @Override
+        public Runnable getMonitoringJob(AbstractObservableState state) {
+            final Runnable nativeRunnable = nativeJob.getMonitoringJob(state);
+            final Runnable pingRunnable = pingJob.getMonitoringJob(state);
+            return new Runnable() {
+                @Override
+                public void run() {
+                    if (!pingRemoval) {
+                        nativeRunnable.run();
+                    } else if (waitForEndOfProcessing()) {
+                        pingRunnable.run();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void stop() {
+            nativeJob.stop();
+            pingJob.stop();
+        }
+    }
 }
@@ -11,10 +11,12 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.stub;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import org.eclipse.keyple.core.seproxy.exception.KeypleChannelControlException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.util.AtrUtil;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
 
 public abstract class StubSecureElement {
@@ -47,8 +49,20 @@ public abstract class StubSecureElement {
      */
     public abstract String getSeProcotol();
 
+    /**
+     * Tells if the SE accepts the extended length APDUs
+     * <p>
+     * By default, the card capabilities of the ATR are used.
+     *
+     * @return true if the extended length APDUs are supported
+     */
+    public boolean isExtendedLengthSupported() {
+        return AtrUtil.isExtendedLengthSupported(getATR());
+    }
 
-    Map<String, String> hexCommands = new HashMap<String, String>();
+
+    /* simulated commands and responses, decoded once when added */
+    private final Map<ByteBuffer, byte[]> commands = new HashMap<ByteBuffer, byte[]>();
 
     /**
      * Add more simulated commands to the Stub SE
@@ -58,8 +72,8 @@ public abstract class StubSecureElement {
      */
     public void addHexCommand(String command, String response) {
         assert command != null && response != null : "command and response should not be null";
-        // add commands without space
-        hexCommands.put(command.replace(" ", ""), response.replace(" ", ""));
+        commands.put(ByteBuffer.wrap(ByteArrayUtil.fromHex(command)),
+                ByteArrayUtil.fromHex(response));
     }
 
     /**
@@ -69,7 +83,7 @@ public abstract class StubSecureElement {
      */
     public void removeHexCommand(String command) {
         assert command != null : "command should not be null";
-        hexCommands.remove(command.trim());
+        commands.remove(ByteBuffer.wrap(ByteArrayUtil.fromHex(command.trim())));
     }
 
     /**
@@ -85,15 +99,16 @@ public abstract class StubSecureElement {
             return null;
         }
 
-        // convert apduIn to hexa
-        String hexApdu = ByteArrayUtil.toHex(apduIn);
+        // return a copy of the matching response, the caller may modify it
+        return getResponse(apduIn).clone();
+    }
 
-        // return matching hexa response if found
-        if (hexCommands.containsKey(hexApdu)) {
-            return ByteArrayUtil.fromHex(hexCommands.get(hexApdu));
+    private byte[] getResponse(byte[] apduIn) throws KeypleIOReaderException {
+        byte[] response = commands.get(ByteBuffer.wrap(apduIn));
+        if (response == null) {
+            // throw a KeypleIOReaderException if not found
+            throw new KeypleIOReaderException("No response available for this request.");
         }
-
-        // throw a KeypleIOReaderException if not found
-        throw new KeypleIOReaderException("No response available for this request.");
+        return response;
     }
 }
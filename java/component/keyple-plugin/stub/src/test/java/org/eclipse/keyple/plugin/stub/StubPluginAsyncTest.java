@@ -15,7 +15,9 @@ package org.eclipse.keyple.plugin.stub;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
 import org.eclipse.keyple.core.seproxy.event.PluginEvent;
@@ -220,4 +222,42 @@ public class StubPluginAsyncTest extends BaseStubTest {
         Assert.assertEquals(0, connectedLock.getCount());
         Assert.assertEquals(0, disconnectedLock.getCount());
     }
+
+
+    /**
+     * Plug and unplug one reader asynchronously while the polling has slowed down Check: one
+     * connection then one disconnection are notified
+     */
+    @Test
+    public void plugUnplugOneReaderAsync_slowedPolling()
+            throws InterruptedException, KeypleReaderException {
+        final String READER_NAME = "plugUnplugOneReaderAsync_slowedPolling";
+        final BlockingQueue<PluginEvent> events = new LinkedBlockingQueue<PluginEvent>();
+
+        stubPlugin.addObserver(new ObservablePlugin.PluginObserver() {
+            @Override
+            public void update(PluginEvent event) {
+                events.add(event);
+            }
+        });
+
+        // no change: the polling period grows up to several hundreds of ms
+        Thread.sleep(800);
+
+        stubPlugin.plugStubReader(READER_NAME, false);
+        PluginEvent event = events.poll(2, TimeUnit.SECONDS);
+        Assert.assertNotNull(event);
+        Assert.assertEquals(PluginEvent.EventType.READER_CONNECTED, event.getEventType());
+        Assert.assertEquals(READER_NAME, event.getReaderNames().first());
+
+        stubPlugin.unplugStubReader(READER_NAME, false);
+        event = events.poll(2, TimeUnit.SECONDS);
+        Assert.assertNotNull(event);
+        Assert.assertEquals(PluginEvent.EventType.READER_DISCONNECTED, event.getEventType());
+        Assert.assertEquals(READER_NAME, event.getReaderNames().first());
+
+        // each change is notified once
+        Assert.assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, stubPlugin.getReaders().size());
+    }
 }
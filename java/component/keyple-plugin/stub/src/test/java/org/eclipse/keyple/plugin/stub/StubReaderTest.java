@@ -13,9 +13,17 @@ package org.eclipse.keyple.plugin.stub;
 
 
 
+import java.io.ByteArrayOutputStream;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.keyple.calypso.command.PoClass;
 import org.eclipse.keyple.calypso.command.po.builder.IncreaseCmdBuild;
 import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
@@ -35,6 +43,9 @@ import org.eclipse.keyple.core.seproxy.exception.KeypleChannelControlException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.plugin.local.AbstractLocalReader;
+import org.eclipse.keyple.core.seproxy.plugin.local.SelectionKnowledgeCache;
+import org.eclipse.keyple.core.seproxy.plugin.local.monitoring.CardAbsentPingMonitoringJob;
 import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
@@ -401,6 +412,147 @@ public class StubReaderTest extends BaseStubTest {
 
     }
 
+    /**
+     * Insert and remove a SE many times in a row: each insertion and removal must be notified, the
+     * insertion to notification latency and the duration of a whole cycle are measured
+     */
+    @Test
+    public void A_testInsertRemoveChurn() throws Exception {
+        final int nbCycles = 50;
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        final StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+
+        final BlockingQueue<ReaderEvent.EventType> events =
+                new LinkedBlockingQueue<ReaderEvent.EventType>();
+        readerObs = new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                events.add(event.getEventType());
+            }
+        };
+        reader.addObserver(readerObs);
+        reader.startSeDetection(ObservableReader.PollingMode.REPEATING);
+
+        long insertionLatency = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < nbCycles; i++) {
+            long insertionTime = System.nanoTime();
+            reader.insertSe(hoplinkSE());
+            Assert.assertEquals(ReaderEvent.EventType.SE_INSERTED,
+                    events.poll(2, TimeUnit.SECONDS));
+            insertionLatency += System.nanoTime() - insertionTime;
+
+            reader.notifySeProcessed();
+            reader.removeSe();
+            Assert.assertEquals(ReaderEvent.EventType.SE_REMOVED,
+                    events.poll(2, TimeUnit.SECONDS));
+        }
+        long cycleDuration = (System.nanoTime() - start) / nbCycles;
+
+        logger.info("{} insert/remove cycles: insertion notified in {} us, cycle in {} us",
+                nbCycles, insertionLatency / nbCycles / 1000, cycleDuration / 1000);
+        Assert.assertTrue(events.isEmpty());
+        Assert.assertFalse(reader.isSePresent());
+        /* the monitoring thread is woken up by the insertion, no polling period to wait for */
+        Assert.assertTrue(insertionLatency / nbCycles < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    /**
+     * Removal detection by polling: compares the removal detection latency and the number of APDU
+     * sent with a fixed polling period, an adaptive one and the presence probe of the stub reader
+     */
+    @Test
+    public void A_testRemovalDetection_ping() throws Exception {
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        final StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+        reader.setParameter(StubReader.REMOVAL_DETECTION_PARAMETER,
+                StubReader.REMOVAL_DETECTION_PING);
+
+        /* former behavior: an APDU every 200 ms */
+        reader.setParameter(CardAbsentPingMonitoringJob.REMOVAL_PING_PROBE, "false");
+        reader.setParameter(CardAbsentPingMonitoringJob.REMOVAL_PING_MIN_PERIOD, "200");
+        reader.setParameter(CardAbsentPingMonitoringJob.REMOVAL_PING_MAX_PERIOD, "200");
+        long[] fixed = measureRemovalDetection(reader);
+
+        /* adaptive polling with APDU */
+        reader.setParameter(CardAbsentPingMonitoringJob.REMOVAL_PING_MIN_PERIOD, "10");
+        long[] adaptive = measureRemovalDetection(reader);
+
+        /* adaptive polling with the presence probe */
+        reader.setParameter(CardAbsentPingMonitoringJob.REMOVAL_PING_PROBE, "true");
+        long[] probe = measureRemovalDetection(reader);
+
+        logger.info("Removal detection, fixed: {} us / {} APDU, adaptive: {} us / {} APDU, "
+                + "probe: {} us / {} APDU", fixed[0], fixed[1], adaptive[0], adaptive[1],
+                probe[0], probe[1]);
+        Assert.assertTrue(adaptive[0] < fixed[0]);
+        Assert.assertEquals(0, probe[1]);
+    }
+
+    @Test(expected = KeypleReaderException.class)
+    public void testSetWrongRemovalParameter() throws Exception {
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+        reader.setParameter(CardAbsentPingMonitoringJob.REMOVAL_PING_MIN_PERIOD, "-1");
+    }
+
+    /**
+     * Insert a SE, processes it and removes it after the processing end, several times
+     *
+     * @return the average removal detection latency in microseconds and the number of APDU sent
+     */
+    private long[] measureRemovalDetection(StubReader reader) throws Exception {
+        final int nbCycles = 5;
+        final AtomicInteger apduCount = new AtomicInteger();
+        final BlockingQueue<ReaderEvent.EventType> events =
+                new LinkedBlockingQueue<ReaderEvent.EventType>();
+        readerObs = new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                events.add(event.getEventType());
+            }
+        };
+        reader.addObserver(readerObs);
+        reader.startSeDetection(ObservableReader.PollingMode.REPEATING);
+
+        long latency = 0;
+        for (int i = 0; i < nbCycles; i++) {
+            StubSecureElement se = new StubSecureElement() {
+                @Override
+                public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+                    apduCount.incrementAndGet();
+                    return super.processApdu(apduIn);
+                }
+
+                @Override
+                public byte[] getATR() {
+                    return ByteArrayUtil.fromHex("3B8E800180318066409089120802830190000B");
+                }
+
+                @Override
+                public String getSeProcotol() {
+                    return "PROTOCOL_ISO14443_4";
+                }
+            };
+            se.addHexCommand("00C0000000", "9000");
+            reader.insertSe(se);
+            Assert.assertEquals(ReaderEvent.EventType.SE_INSERTED,
+                    events.poll(2, TimeUnit.SECONDS));
+            reader.notifySeProcessed();
+
+            /* the SE is taken out of the field a bit after the end of its processing */
+            Thread.sleep(50);
+            long removalTime = System.nanoTime();
+            reader.removeSe();
+            Assert.assertEquals(ReaderEvent.EventType.SE_REMOVED,
+                    events.poll(2, TimeUnit.SECONDS));
+            latency += System.nanoTime() - removalTime;
+        }
+        reader.stopSeDetection();
+        reader.removeObserver(readerObs);
+        return new long[] {latency / nbCycles / 1000, apduCount.get()};
+    }
+
     @Test
     public void testInsertMatchingSe() throws Exception {
         stubPlugin.plugStubReader("StubReaderTest", true);
@@ -1039,6 +1191,504 @@ public class StubReaderTest extends BaseStubTest {
      * NAME and PARAMETERS
      */
 
+    /**
+     * Selection of a SE returning its FCI only with the Get Data command: the selection knowledge
+     * cache avoids the useless Get Response after the first selection
+     */
+    @Test
+    public void transmit_selectionKnowledgeCache() throws Exception {
+        final int nbSelections = 10;
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+        final AtomicInteger apduCount = new AtomicInteger();
+        StubSecureElement se =
+                getDataFciSe("3B8E800180318066409089120802830190000B", apduCount);
+        reader.insertSe(se);
+
+        SeSelector seSelector = new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                new SeSelector.AidSelector(
+                        new SeSelector.AidSelector.IsoAid("A000000291A000000191"), null),
+                "AID selection");
+
+        int apduCountWithoutCache = selectRepeatedly((ProxyReader) reader, seSelector,
+                nbSelections, apduCount);
+
+        SelectionKnowledgeCache cache = new SelectionKnowledgeCache(100);
+        ((AbstractLocalReader) reader).setSelectionKnowledgeCache(cache);
+        int apduCountWithCache = selectRepeatedly((ProxyReader) reader, seSelector,
+                nbSelections, apduCount);
+
+        logger.info("{} selections: {} APDU without cache, {} APDU with cache ({} saved)",
+                nbSelections, apduCountWithoutCache, apduCountWithCache,
+                cache.getSavedApduCount());
+        Assert.assertEquals(3 * nbSelections, apduCountWithoutCache);
+        /* the Get Response is sent at the first selection only */
+        Assert.assertEquals(2 * nbSelections + 1, apduCountWithCache);
+        Assert.assertEquals(nbSelections - 1, cache.getSavedApduCount());
+        Assert.assertEquals(nbSelections - 1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        /*
+         * the SE now answers the Get Response: the Get Data fails, the complete sequence is run
+         * again and the knowledge is updated
+         */
+        se.addHexCommand("00CA006F00", "6A88");
+        se.addHexCommand("00C0000000",
+                "6F25840BA000000291A00000019102A516BF0C13C70800000000C0E11FA653070A3C230C1410019000");
+        Assert.assertEquals(4, selectRepeatedly((ProxyReader) reader, seSelector, 1, apduCount));
+        Assert.assertEquals(1, cache.getInvalidationCount());
+        Assert.assertEquals(2, selectRepeatedly((ProxyReader) reader, seSelector, 1, apduCount));
+    }
+
+    /**
+     * Selection of two SE of the same product, with different ATR: the knowledge acquired with the
+     * first SE is used for the second one
+     */
+    @Test
+    public void transmit_selectionKnowledgeCache_sameProduct() throws Exception {
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+        final AtomicInteger apduCount = new AtomicInteger();
+        SelectionKnowledgeCache cache = new SelectionKnowledgeCache(100);
+        ((AbstractLocalReader) reader).setSelectionKnowledgeCache(cache);
+        SeSelector seSelector = new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                new SeSelector.AtrFilter("3B8E800180318066409089.*"),
+                new SeSelector.AidSelector(
+                        new SeSelector.AidSelector.IsoAid("A000000291A000000191"), null),
+                "AID selection");
+
+        reader.insertSe(getDataFciSe("3B8E800180318066409089120802830190000B", apduCount));
+        Assert.assertEquals(3, selectRepeatedly((ProxyReader) reader, seSelector, 1, apduCount));
+        reader.removeSe();
+
+        /* another SE of the same product: the Get Response is skipped at its first selection */
+        reader.insertSe(getDataFciSe("3B8E800180318066409089AABBCCDD0190000B", apduCount));
+        Assert.assertEquals(2, selectRepeatedly((ProxyReader) reader, seSelector, 1, apduCount));
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    /**
+     * Transfer of a 2000 bytes file: number of exchanges with short APDUs, with an extended length
+     * APDU sent with command chaining and with an extended length APDU sent as is
+     */
+    @Test
+    public void transmit_extendedLength_roundTrips() throws Exception {
+        final int fileSize = 2000;
+        byte[] fileContent = new byte[fileSize];
+        for (int i = 0; i < fileSize; i++) {
+            fileContent[i] = (byte) i;
+        }
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+        FileSecureElement se = new FileSecureElement(fileSize);
+        reader.insertSe(se);
+        SeSelector seSelector = new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                new SeSelector.AtrFilter(".*"), null, "ATR selection");
+
+        /* short APDUs: one Update Binary per 255 bytes block, one Read Binary per 256 bytes */
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        for (int offset = 0; offset < fileSize; offset += 255) {
+            int length = Math.min(255, fileSize - offset);
+            byte[] apdu = new byte[5 + length];
+            apdu[1] = (byte) 0xD6;
+            apdu[2] = (byte) (offset >> 8);
+            apdu[3] = (byte) offset;
+            apdu[4] = (byte) length;
+            System.arraycopy(fileContent, offset, apdu, 5, length);
+            apduRequests.add(new ApduRequest(apdu, false));
+        }
+        for (int offset = 0; offset < fileSize; offset += 256) {
+            apduRequests.add(new ApduRequest(new byte[] {(byte) 0x00, (byte) 0xB0,
+                    (byte) (offset >> 8), (byte) offset, (byte) 0x00}, false));
+        }
+        int shortWriteRoundTrips = (fileSize + 254) / 255;
+        int shortReadRoundTrips = (fileSize + 255) / 256;
+        se.resetExchangeCount();
+        ((ProxyReader) reader).transmit(new SeRequest(seSelector, apduRequests),
+                ChannelControl.CLOSE_AFTER);
+        Assert.assertEquals(shortWriteRoundTrips + shortReadRoundTrips, se.getExchangeCount());
+        Assert.assertArrayEquals(fileContent, se.file);
+
+        /* extended length APDUs, SE not supporting them: the command is chained */
+        byte[] writeApdu = new byte[7 + fileSize];
+        writeApdu[1] = (byte) 0xD6;
+        writeApdu[5] = (byte) (fileSize >> 8);
+        writeApdu[6] = (byte) fileSize;
+        System.arraycopy(fileContent, 0, writeApdu, 7, fileSize);
+        byte[] readApdu = new byte[] {(byte) 0x00, (byte) 0xB0, (byte) 0x00, (byte) 0x00,
+                (byte) 0x00, (byte) (fileSize >> 8), (byte) fileSize};
+        Arrays.fill(se.file, (byte) 0);
+        se.resetExchangeCount();
+        ((ProxyReader) reader).transmit(
+                new SeRequest(seSelector,
+                        Collections.singletonList(new ApduRequest(writeApdu, false, true, null))),
+                ChannelControl.CLOSE_AFTER);
+        int chainedWriteRoundTrips = se.getExchangeCount();
+        Assert.assertEquals(shortWriteRoundTrips, chainedWriteRoundTrips);
+        Assert.assertArrayEquals(fileContent, se.file);
+
+        /* extended length APDUs supported by the reader and the SE */
+        se.extendedLength = true;
+        Arrays.fill(se.file, (byte) 0);
+        se.resetExchangeCount();
+        List<ApduRequest> extendedApduRequests = new ArrayList<ApduRequest>();
+        extendedApduRequests.add(new ApduRequest(writeApdu, false, true, null));
+        extendedApduRequests.add(new ApduRequest(readApdu, false, true, null));
+        SeResponse seResponse = ((ProxyReader) reader).transmit(
+                new SeRequest(seSelector, extendedApduRequests), ChannelControl.CLOSE_AFTER);
+        Assert.assertEquals(2, se.getExchangeCount());
+        Assert.assertArrayEquals(fileContent, seResponse.getApduResponses().get(1).getDataOut());
+
+        /* extended length disabled on the reader */
+        reader.setParameter(StubReader.EXTENDED_LENGTH_PARAMETER,
+                StubReader.EXTENDED_LENGTH_DISABLED);
+        se.resetExchangeCount();
+        ((ProxyReader) reader).transmit(
+                new SeRequest(seSelector,
+                        Collections.singletonList(new ApduRequest(writeApdu, false, true, null))),
+                ChannelControl.CLOSE_AFTER);
+        Assert.assertEquals(shortWriteRoundTrips, se.getExchangeCount());
+
+        logger.info(
+                "{} bytes file: short APDUs {} + {} exchanges, chained write {} exchanges, extended write + read 2 exchanges",
+                fileSize, shortWriteRoundTrips, shortReadRoundTrips, chainedWriteRoundTrips);
+    }
+
+    /**
+     * SE holding a binary file, handling Update Binary (with command chaining) and Read Binary in
+     * short and extended length forms
+     */
+    private static final class FileSecureElement extends StubSecureElement {
+        private final byte[] file;
+        private final ByteArrayOutputStream chainedData = new ByteArrayOutputStream();
+        private int exchangeCount;
+        private boolean extendedLength;
+
+        FileSecureElement(int fileSize) {
+            file = new byte[fileSize];
+        }
+
+        void resetExchangeCount() {
+            exchangeCount = 0;
+        }
+
+        int getExchangeCount() {
+            return exchangeCount;
+        }
+
+        @Override
+        public byte[] getATR() {
+            return ByteArrayUtil.fromHex("3B8E800180318066409089120802830190000B");
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return "PROTOCOL_ISO14443_4";
+        }
+
+        @Override
+        public boolean isExtendedLengthSupported() {
+            return extendedLength;
+        }
+
+        @Override
+        public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+            exchangeCount++;
+            int offset = ((apduIn[2] & 0xFF) << 8) | (apduIn[3] & 0xFF);
+            boolean extended = apduIn.length >= 7 && apduIn[4] == 0;
+            if (extended && !extendedLength) {
+                return ByteArrayUtil.fromHex("6700");
+            }
+            if (apduIn[1] == (byte) 0xB0) {
+                int le = extended ? ((apduIn[5] & 0xFF) << 8) | (apduIn[6] & 0xFF)
+                        : apduIn[4] & 0xFF;
+                if (le == 0) {
+                    le = extended ? 65536 : 256;
+                }
+                int length = Math.min(le, file.length - offset);
+                byte[] response = Arrays.copyOfRange(file, offset, offset + length + 2);
+                response[length] = (byte) 0x90;
+                response[length + 1] = (byte) 0x00;
+                return response;
+            }
+            if (apduIn[1] == (byte) 0xD6) {
+                int dataOffset = extended ? 7 : 5;
+                chainedData.write(apduIn, dataOffset, apduIn.length - dataOffset);
+                if ((apduIn[0] & 0x10) == 0) {
+                    byte[] data = chainedData.toByteArray();
+                    chainedData.reset();
+                    System.arraycopy(data, 0, file, offset, data.length);
+                }
+                return ByteArrayUtil.fromHex("9000");
+            }
+            return ByteArrayUtil.fromHex("6D00");
+        }
+    }
+
+    /**
+     * Selection of N AIDs on several readers: readers processed one after the other then in
+     * parallel. In parallel, the first APDU of each reader waits until all the readers have
+     * received theirs, which can only happen if the selections run concurrently.
+     */
+    @Test
+    public void transmit_parallelSelection() throws Exception {
+        final int nbReaders = 4;
+        final int nbAids = 8;
+        /* set for the parallel selection only */
+        final AtomicReference<CountDownLatch> rendezvous = new AtomicReference<CountDownLatch>();
+        final AtomicInteger concurrentReaders = new AtomicInteger();
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        List<SeReader> readers = new ArrayList<SeReader>();
+        for (int i = 0; i < nbReaders; i++) {
+            String readerName = i == 0 ? "StubReaderTest" : "StubReaderTest" + i;
+            if (i > 0) {
+                stubPlugin.plugStubReader(readerName, true);
+            }
+            StubReader reader = (StubReader) stubPlugin.getReader(readerName);
+            reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                    StubProtocolSetting.STUB_PROTOCOL_SETTING
+                            .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+            StubSecureElement se = new StubSecureElement() {
+                private final AtomicBoolean reached = new AtomicBoolean();
+
+                @Override
+                public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+                    CountDownLatch latch = rendezvous.get();
+                    if (latch != null && reached.compareAndSet(false, true)) {
+                        latch.countDown();
+                        try {
+                            if (latch.await(5, TimeUnit.SECONDS)) {
+                                concurrentReaders.incrementAndGet();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return super.processApdu(apduIn);
+                }
+
+                @Override
+                public byte[] getATR() {
+                    return ByteArrayUtil.fromHex("3B8E800180318066409089120802830190000B");
+                }
+
+                @Override
+                public String getSeProcotol() {
+                    return "PROTOCOL_ISO14443_4";
+                }
+            };
+            for (int aid = 0; aid < nbAids; aid++) {
+                se.addHexCommand(String.format("00A4040006A000000001%02X00", aid),
+                        "6F009000");
+            }
+            reader.insertSe(se);
+            readers.add(reader);
+        }
+
+        SeSelection seSelection =
+                new SeSelection(MultiSeRequestProcessing.PROCESS_ALL, ChannelControl.CLOSE_AFTER);
+        for (int aid = 0; aid < nbAids; aid++) {
+            seSelection.prepareSelection(new AidSelectionRequest(
+                    new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                            new SeSelector.AidSelector(new SeSelector.AidSelector.IsoAid(
+                                    String.format("A000000001%02X", aid)), null),
+                            "AID" + aid)));
+        }
+
+        for (SeReader reader : readers) {
+            Assert.assertEquals(nbAids, seSelection.processExplicitSelection(reader)
+                    .getMatchingSelections().size());
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(nbReaders);
+        try {
+            rendezvous.set(new CountDownLatch(nbReaders));
+            Map<String, SelectionsResult> selectionsResults =
+                    seSelection.processExplicitSelection(readers, executorService);
+
+            Assert.assertEquals(nbReaders, selectionsResults.size());
+            for (SelectionsResult selectionsResult : selectionsResults.values()) {
+                Assert.assertEquals(nbAids, selectionsResult.getMatchingSelections().size());
+            }
+            /* all the readers were selecting at the same time */
+            Assert.assertEquals(nbReaders, concurrentReaders.get());
+
+            /* the results are indexed by reader name: a reader can't be given twice */
+            try {
+                seSelection.processExplicitSelection(
+                        Arrays.asList(readers.get(0), readers.get(0)), executorService);
+                Assert.fail("IllegalArgumentException expected");
+            } catch (IllegalArgumentException e) {
+                /* expected */
+            }
+        } finally {
+            executorService.shutdown();
+            for (int i = 1; i < nbReaders; i++) {
+                stubPlugin.unplugStubReader("StubReaderTest" + i, true);
+            }
+        }
+    }
+
+    /**
+     * Several application threads exchange with the same reader while another thread pings and
+     * removes the SE: each application holds the channel lease for its whole sequence, its logical
+     * channel must never be closed or reselected by another thread in between
+     */
+    @Test
+    public void transmit_channelLease_stress() throws Exception {
+        final int nbThreads = 4;
+        final int nbSequences = 200;
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        final StubReaderImpl reader = (StubReaderImpl) stubPlugin.getReader("StubReaderTest");
+        reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        StubSecureElement se = hoplinkSE();
+        for (int t = 0; t < nbThreads; t++) {
+            se.addHexCommand(String.format("00A4040006A000000002%02X00", t),
+                    String.format("6F038401%02X9000", t));
+        }
+        se.addHexCommand("00C0000000", "9000");
+        reader.insertSe(se);
+
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger completedSequences = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch endLatch = new CountDownLatch(nbThreads);
+        ExecutorService executorService = Executors.newFixedThreadPool(nbThreads + 1);
+        try {
+            for (int t = 0; t < nbThreads; t++) {
+                final int threadIndex = t;
+                executorService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        SeSelector seSelector = new SeSelector(
+                                SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                                new SeSelector.AidSelector(new SeSelector.AidSelector.IsoAid(
+                                        String.format("A000000002%02X", threadIndex)), null),
+                                "AID" + threadIndex);
+                        try {
+                            startLatch.await();
+                            for (int i = 0; i < nbSequences; i++) {
+                                reader.acquireChannelLease();
+                                try {
+                                    Set<SeRequest> seRequests = new LinkedHashSet<SeRequest>();
+                                    seRequests.add(new SeRequest(seSelector,
+                                            new ArrayList<ApduRequest>()));
+                                    SeResponse first = reader
+                                            .transmitSet(seRequests,
+                                                    MultiSeRequestProcessing.FIRST_MATCH,
+                                                    ChannelControl.KEEP_OPEN)
+                                            .get(0);
+                                    SeResponse second = reader.transmit(
+                                            new SeRequest(seSelector,
+                                                    new ArrayList<ApduRequest>()),
+                                            ChannelControl.CLOSE_AFTER);
+                                    if (!first.getSelectionStatus().hasMatched()
+                                            || !second.wasChannelPreviouslyOpen()
+                                            || second.getSelectionStatus().getFci()
+                                                    .getDataOut()[4] != threadIndex) {
+                                        failures.incrementAndGet();
+                                    }
+                                } finally {
+                                    reader.releaseChannelLease();
+                                }
+                                completedSequences.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            logger.error("Channel lease stress: {}", e.getMessage());
+                            failures.incrementAndGet();
+                        } finally {
+                            endLatch.countDown();
+                        }
+                    }
+                });
+            }
+            /* monitoring thread: ping when the lease is free, then channels closing */
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    SeRequest ping = new SeRequest(
+                            new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                                    new SeSelector.AtrFilter(".*"), null, "Ping"),
+                            Collections.singletonList(
+                                    new ApduRequest(ByteArrayUtil.fromHex("00C0000000"), false)));
+                    try {
+                        while (endLatch.getCount() > 0) {
+                            if (reader.tryAcquireChannelLease(0)) {
+                                try {
+                                    reader.transmit(ping, ChannelControl.CLOSE_AFTER);
+                                } finally {
+                                    reader.releaseChannelLease();
+                                }
+                            }
+                        }
+                    } catch (Exception e) {
+                        logger.error("Channel lease stress ping: {}", e.getMessage());
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            startLatch.countDown();
+            Assert.assertTrue(endLatch.await(30, TimeUnit.SECONDS));
+            Assert.assertEquals(0, failures.get());
+            Assert.assertEquals(nbThreads * nbSequences, completedSequences.get());
+            Assert.assertFalse(reader.isChannelLeased());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Selects the SE several times, closing the channel after each selection
+     *
+     * @return the number of APDU exchanged
+     */
+    /**
+     * SE answering the Select Application without data and an empty Get Response, the FCI being
+     * returned by the Get Data command
+     */
+    private StubSecureElement getDataFciSe(final String atr, final AtomicInteger apduCount) {
+        StubSecureElement se = new StubSecureElement() {
+            @Override
+            public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+                apduCount.incrementAndGet();
+                return super.processApdu(apduIn);
+            }
+
+            @Override
+            public byte[] getATR() {
+                return ByteArrayUtil.fromHex(atr);
+            }
+
+            @Override
+            public String getSeProcotol() {
+                return "PROTOCOL_ISO14443_4";
+            }
+        };
+        se.addHexCommand("00A404000AA000000291A00000019100", "9000");
+        se.addHexCommand("00C0000000", "9000");
+        se.addHexCommand("00CA006F00",
+                "6F25840BA000000291A00000019102A516BF0C13C70800000000C0E11FA653070A3C230C1410019000");
+        return se;
+    }
+
+    private int selectRepeatedly(ProxyReader reader, SeSelector seSelector, int nbSelections,
+            AtomicInteger apduCount) throws Exception {
+        int initialCount = apduCount.get();
+        for (int i = 0; i < nbSelections; i++) {
+            SeResponse seResponse = reader.transmit(
+                    new SeRequest(seSelector, new ArrayList<ApduRequest>()),
+                    ChannelControl.CLOSE_AFTER);
+            Assert.assertTrue(seResponse.getSelectionStatus().hasMatched());
+            Assert.assertEquals(0x6F,
+                    seResponse.getSelectionStatus().getFci().getDataOut()[0] & 0xFF);
+        }
+        return apduCount.get() - initialCount;
+    }
+
     @Test
     public void testGetName() throws Exception {
         stubPlugin.plugStubReader("StubReaderTest", true);
@@ -1448,4 +2098,21 @@ public class StubReaderTest extends BaseStubTest {
 
         seSelection.processExplicitSelection(reader);
     }
+
+    /**
+     * Selection request returning a generic matching SE
+     */
+    private static final class AidSelectionRequest extends AbstractSeSelectionRequest {
+        private final TransmissionMode transmissionMode;
+
+        AidSelectionRequest(SeSelector seSelector) {
+            super(seSelector);
+            transmissionMode = seSelector.getSeProtocol().getTransmissionMode();
+        }
+
+        @Override
+        protected AbstractMatchingSe parse(SeResponse seResponse) {
+            return new AbstractMatchingSe(seResponse, transmissionMode, "Generic Matching SE") {};
+        }
+    }
 }